@@ -0,0 +1,84 @@
+package com.design.benchmarks;
+
+import com.design.bookingplatform.dto.ApiResponse;
+import com.design.bookingplatform.dto.AvailabilityResponse;
+import com.design.bookingplatform.dto.TrainDTO;
+import com.design.bookingplatform.service.TrainService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the two largest ApiResponse bodies the platform returns: the train
+ * list of the busiest route in the seed data and the availability of its first train. The
+ * mapper is configured like Spring Boot's, with ISO dates.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ApiResponseSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private ApiResponse<List<TrainDTO>> trainsResponse;
+    private ApiResponse<AvailabilityResponse> availabilityResponse;
+
+    @Setup
+    public void setUp() {
+        PlatformFixture fixture = new PlatformFixture(SeedData.get());
+        TrainService trainService = fixture.trainService;
+        objectMapper = fixture.objectMapper;
+
+        RouteLookupBenchmark.RouteQuery busiest = null;
+        List<TrainDTO> trains = List.of();
+        for (RouteLookupBenchmark.RouteQuery query : RouteLookupBenchmark.queries(
+                fixture.routeIndexService.current().routes(), RouteLookupBenchmark.QUERIES, 42)) {
+            List<TrainDTO> found = trainService.getTrainsByRoute(query.source(), query.destination(), query.date());
+            if (busiest == null || found.size() > trains.size()) {
+                busiest = query;
+                trains = found;
+            }
+        }
+        trainsResponse = ApiResponse.<List<TrainDTO>>builder()
+                .success(true)
+                .message("Trains retrieved successfully")
+                .data(trains)
+                .count(trains.size())
+                .timestamp(Instant.now())
+                .build();
+
+        AvailabilityResponse availability = trainService.checkAvailability(trains.get(0).getTrainNumber(),
+                busiest.date(), null, busiest.source(), busiest.destination());
+        availabilityResponse = ApiResponse.<AvailabilityResponse>builder()
+                .success(true)
+                .message("Availability retrieved successfully")
+                .data(availability)
+                .timestamp(Instant.now())
+                .build();
+    }
+
+    @Benchmark
+    public byte[] serializeTrains() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(trainsResponse);
+    }
+
+    @Benchmark
+    public byte[] serializeAvailability() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(availabilityResponse);
+    }
+}
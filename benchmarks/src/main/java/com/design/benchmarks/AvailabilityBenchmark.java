@@ -0,0 +1,76 @@
+package com.design.benchmarks;
+
+import com.design.bookingplatform.dto.AvailabilityResponse;
+import com.design.bookingplatform.service.TrainService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TrainService.checkAvailability for the trains, dates and segments of the seed bookings,
+ * against inventories already loaded with those bookings. This is the per-request cost once
+ * a (train, date) is warm; the one-off load is not part of the measurement.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AvailabilityBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    private TrainService trainService;
+    private AvailabilityQuery[] queries;
+
+    @Setup
+    public void setUp() {
+        SeedData data = SeedData.get();
+        trainService = new PlatformFixture(data).trainService;
+
+        Set<AvailabilityQuery> distinct = new LinkedHashSet<>();
+        for (SeedData.Booking booking : data.bookings()) {
+            distinct.add(new AvailabilityQuery(booking.trainNumber(), booking.date(),
+                    booking.boardingStation(), booking.destinationStation()));
+        }
+        List<AvailabilityQuery> shuffled = new ArrayList<>(distinct);
+        Collections.shuffle(shuffled, new Random(42));
+        queries = new AvailabilityQuery[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = shuffled.get(i % shuffled.size());
+        }
+        for (AvailabilityQuery query : queries) {
+            check(query);
+        }
+    }
+
+    @Benchmark
+    public AvailabilityResponse checkAvailability(RouteLookupBenchmark.Cursor cursor) {
+        return check(queries[cursor.next(queries.length)]);
+    }
+
+    private AvailabilityResponse check(AvailabilityQuery query) {
+        return trainService.checkAvailability(query.trainNumber(), query.date(), null,
+                query.source(), query.destination());
+    }
+
+    record AvailabilityQuery(String trainNumber, LocalDate date, String source, String destination) {
+    }
+}
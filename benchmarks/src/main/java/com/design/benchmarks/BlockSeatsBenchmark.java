@@ -0,0 +1,194 @@
+package com.design.benchmarks;
+
+import com.design.bookingplatform.BookinfplatformApplication;
+import com.design.bookingplatform.dto.BlockSeatsRequest;
+import com.design.bookingplatform.dto.BlockSeatsResponse;
+import com.design.bookingplatform.dto.PassengerDTO;
+import com.design.bookingplatform.index.RouteIndexService;
+import com.design.bookingplatform.service.BookingService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BookingService.blockSeats end to end against PostgreSQL, written row by row (batchSize 1) and
+ * in JDBC batches (batchSize 50), to check the round trips of a block for n passengers: 2n + 2
+ * statements before, 4 after. Sequence fetches are pooled by 50 either way and add a fraction of
+ * a statement per block. The statements and blocks counters give the round trips per block.
+ *
+ * Needs a scratch database: the platform creates its schema there (ddl-auto=update) and the
+ * harness seeds a user and a train with one 72-seat sleeper coach. Each block is released after
+ * it is counted, so the coach never fills up.
+ *
+ * <pre>
+ * java -Dbenchmark.jdbc.url=jdbc:postgresql://localhost:5432/blockbench \
+ *      -Dbenchmark.jdbc.username=postgres -Dbenchmark.jdbc.password=admin \
+ *      -jar benchmarks/target/benchmarks.jar BlockSeats
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BlockSeatsBenchmark {
+
+    private static final String TRAIN = "BENCH1";
+    private static final String EMAIL = "block-benchmark@example.com";
+
+    @Param({"1", "50"})
+    public int batchSize;
+
+    @Param({"1", "4", "6"})
+    public int passengers;
+
+    private final StatementCounter counter = new StatementCounter();
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+    private BlockSeatsRequest request;
+    private String blocked;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String url = System.getProperty("benchmark.jdbc.url");
+        if (url == null) {
+            throw new IllegalStateException("Set -Dbenchmark.jdbc.url to a scratch PostgreSQL database");
+        }
+        context = new SpringApplicationBuilder(BookinfplatformApplication.class)
+                .web(WebApplicationType.NONE)
+                .initializers(ctx -> ctx.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+                    @Override
+                    public Object postProcessAfterInitialization(Object bean, String name) {
+                        return bean instanceof DataSource dataSource && name.equals("dataSource")
+                                ? counter.wrap(dataSource) : bean;
+                    }
+                }))
+                .run("--spring.datasource.url=" + url,
+                        "--spring.datasource.username=" + System.getProperty("benchmark.jdbc.username", "postgres"),
+                        "--spring.datasource.password=" + System.getProperty("benchmark.jdbc.password", ""),
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                        "--spring.kafka.admin.auto-create=false",
+                        "--platform.inventory-stream.enabled=false",
+                        "--platform.delay-stream.enabled=false",
+                        "--platform.journal.enabled=false",
+                        "--platform.archive.enabled=false");
+        bookingService = context.getBean(BookingService.class);
+        long userId = seed(context.getBean(JdbcTemplate.class));
+        context.getBean(RouteIndexService.class).rebuild();
+
+        List<PassengerDTO> travellers = new ArrayList<>(passengers);
+        for (int i = 0; i < passengers; i++) {
+            travellers.add(new PassengerDTO("Passenger " + i, 30 + i, i % 2 == 0 ? "MALE" : "FEMALE"));
+        }
+        request = new BlockSeatsRequest();
+        request.setUserId(userId);
+        request.setTrainNumber(TRAIN);
+        request.setJourneyDate(LocalDate.now().plusDays(1));
+        request.setSourceStation("ALPHA");
+        request.setDestinationStation("GAMMA");
+        request.setCoachClass("SL");
+        request.setPassengers(travellers);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BlockSeatsResponse blockSeats(RoundTrips roundTrips) {
+        long before = counter.count();
+        BlockSeatsResponse response = bookingService.blockSeats(request, null);
+        roundTrips.statements += counter.count() - before;
+        roundTrips.blocks++;
+        if (!"BLOCKED".equals(response.getStatus())) {
+            throw new IllegalStateException("Block failed: " + response.getMessage());
+        }
+        blocked = response.getBookingReference();
+        return response;
+    }
+
+    @TearDown(Level.Invocation)
+    public void release() {
+        if (blocked != null) {
+            bookingService.releaseSeats(blocked);
+            blocked = null;
+        }
+    }
+
+    /**
+     * Creates the benchmark user and train unless an earlier run did; returns the user's id.
+     */
+    private static long seed(JdbcTemplate jdbc) {
+        jdbc.update("""
+                insert into users (name, email, contact, password_hash, created_at)
+                values ('Block Benchmark', ?, '9000000000', '-', now())
+                on conflict do nothing
+                """, EMAIL);
+        jdbc.update("""
+                insert into trains (train_number, train_name, train_type, source_station, destination_station,
+                                    departure_time, arrival_time, journey_duration_minutes, is_active, created_at)
+                values (?, 'Block Benchmark Express', 'EXPRESS', 'Alpha', 'Gamma', '06:00', '12:00', 360, true, now())
+                on conflict do nothing
+                """, TRAIN);
+        Long trainId = jdbc.queryForObject("select id from trains where train_number = ?", Long.class, TRAIN);
+        Integer stops = jdbc.queryForObject("select count(*) from train_stations where train_id = ?",
+                Integer.class, trainId);
+        if (stops == null || stops == 0) {
+            jdbc.update("""
+                    insert into train_stations (train_id, station_code, station_name, station_order,
+                                                arrival_time, departure_time, halt_time_minutes, distance_from_source)
+                    values (?, 'ALPHA', 'Alpha', 1, '06:00', '06:00', 0, 0),
+                           (?, 'BETA', 'Beta', 2, '09:00', '09:05', 5, 180),
+                           (?, 'GAMMA', 'Gamma', 3, '12:00', '12:00', 0, 360)
+                    """, trainId, trainId, trainId);
+            jdbc.update("""
+                    insert into coaches (train_id, coach_number, coach_class, total_seats, available_seats, base_fare,
+                                         has_ac, has_charging, has_wifi)
+                    values (?, 'S1', 'SLEEPER', 72, 72, 500.00, false, false, false)
+                    """, trainId);
+        }
+        return jdbc.queryForObject("select id from users where email = ?", Long.class, EMAIL);
+    }
+
+    /**
+     * Statements sent and blocks made per iteration; statements / blocks is the round trips of one block.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class RoundTrips {
+
+        public long statements;
+        public long blocks;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            statements = 0;
+            blocks = 0;
+        }
+    }
+}
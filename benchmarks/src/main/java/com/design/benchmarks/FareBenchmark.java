@@ -0,0 +1,93 @@
+package com.design.benchmarks;
+
+import com.design.bookingplatform.fare.FareService;
+import com.design.bookingplatform.fare.FareTable;
+import com.design.bookingplatform.index.TrainRoute;
+import com.design.bookingplatform.models.CoachClass;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fares of a batch of candidate segments, the way a recommender query scores them: the paise
+ * fare tables against pro-rating the coach base fare with BigDecimal per segment.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FareBenchmark {
+
+    static final int SEGMENTS = 512;
+
+    private FareService fareService;
+    private FareTable[] tables;
+    private CoachClass[] classes;
+    private int[] froms;
+    private int[] tos;
+    private BigDecimal[] baseFares;
+
+    @Setup
+    public void setUp() {
+        PlatformFixture fixture = new PlatformFixture(SeedData.get());
+        fareService = fixture.fareService;
+        List<TrainRoute> routes = fixture.routeIndexService.current().routes();
+        Random random = new Random(42);
+        tables = new FareTable[SEGMENTS];
+        classes = new CoachClass[SEGMENTS];
+        froms = new int[SEGMENTS];
+        tos = new int[SEGMENTS];
+        baseFares = new BigDecimal[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            FareTable table;
+            do {
+                table = fareService.table(routes.get(random.nextInt(routes.size())).getTrainNumber());
+            } while (table.classes().isEmpty());
+            TrainRoute route = table.route();
+            List<CoachClass> trainClasses = table.classes();
+            tables[i] = table;
+            classes[i] = trainClasses.get(random.nextInt(trainClasses.size()));
+            froms[i] = random.nextInt(route.stopCount() - 1);
+            tos[i] = froms[i] + 1 + random.nextInt(route.stopCount() - froms[i] - 1);
+            baseFares[i] = FareTable.rupees(table.fare(classes[i], 0, route.stopCount() - 1));
+        }
+    }
+
+    @Benchmark
+    public long fareTables() {
+        long total = 0;
+        for (int i = 0; i < SEGMENTS; i++) {
+            total += fareService.classFare(tables[i], classes[i], froms[i], tos[i]);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalProRating() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < SEGMENTS; i++) {
+            TrainRoute route = tables[i].route();
+            BigDecimal length = route.distanceFromSource(route.stopCount() - 1);
+            BigDecimal travelled = route.distanceFromSource(tos[i]).subtract(route.distanceFromSource(froms[i]));
+            total = total.add(length.signum() <= 0 || travelled.signum() <= 0
+                    ? baseFares[i]
+                    : baseFares[i].multiply(travelled).divide(length, 2, RoundingMode.HALF_UP));
+        }
+        return total;
+    }
+}
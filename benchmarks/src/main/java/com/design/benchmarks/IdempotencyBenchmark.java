@@ -0,0 +1,79 @@
+package com.design.benchmarks;
+
+import com.design.bookingplatform.dto.BookingConfirmationResponse;
+import com.design.bookingplatform.dto.ConfirmBookingRequest;
+import com.design.bookingplatform.idempotency.IdempotencyStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Replay of a completed request through IdempotencyStore: request hashing, the in-memory
+ * lookup and decoding the stored response. Keys and booking ids come from idempotency_keys.csv.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdempotencyBenchmark {
+
+    private static final int REQUESTS = 1024;
+    private static final Supplier<BookingConfirmationResponse> NOT_REPLAYED = () -> {
+        throw new IllegalStateException("Expected a replayed response");
+    };
+
+    private IdempotencyStore idempotencyStore;
+    private Replay[] replays;
+
+    @Setup
+    public void setUp() {
+        SeedData data = SeedData.get();
+        idempotencyStore = new PlatformFixture(data).idempotencyStore;
+
+        List<SeedData.IdempotentRequest> requests = data.idempotentRequests();
+        replays = new Replay[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            SeedData.IdempotentRequest request = requests.get(i % requests.size());
+            ConfirmBookingRequest body = new ConfirmBookingRequest(request.entityId(), request.requestHash(),
+                    BigDecimal.valueOf(1000 + i % requests.size()));
+            replays[i] = new Replay(request.key(), request.operation(), body);
+            if (i < requests.size()) {
+                BookingConfirmationResponse response = BookingConfirmationResponse.builder()
+                        .bookingId(request.entityId())
+                        .status("CONFIRMED")
+                        .tickets(List.of())
+                        .totalAmount(body.getPaymentAmount())
+                        .confirmedAt(Instant.now())
+                        .message("Booking confirmed")
+                        .build();
+                idempotencyStore.execute(request.key(), request.operation(), body,
+                        BookingConfirmationResponse.class, () -> response);
+            }
+        }
+    }
+
+    @Benchmark
+    public BookingConfirmationResponse replay(RouteLookupBenchmark.Cursor cursor) {
+        Replay replay = replays[cursor.next(replays.length)];
+        return idempotencyStore.execute(replay.key(), replay.operation(), replay.request(),
+                BookingConfirmationResponse.class, NOT_REPLAYED);
+    }
+
+    record Replay(String key, String operation, ConfirmBookingRequest request) {
+    }
+}
@@ -0,0 +1,91 @@
+package com.design.benchmarks;
+
+import com.design.bookingplatform.journal.BookingJournal;
+import com.design.bookingplatform.journal.BookingTransition;
+import com.design.bookingplatform.journal.BookingTransition.TicketChange;
+import com.design.bookingplatform.journal.BookingTransition.TransactionChange;
+import com.design.bookingplatform.journal.TransitionWriter;
+import com.design.bookingplatform.metrics.BookingMetrics;
+import com.design.bookingplatform.models.JourneyStatus;
+import com.design.bookingplatform.models.LockStatus;
+import com.design.bookingplatform.models.TicketStatus;
+import com.design.bookingplatform.models.TransactionStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Booking confirmations made durable through the journal from sixteen threads at once, with one
+ * record per fsync against groups of up to 256. The database side is a no-op, so this measures
+ * the acknowledgement path a confirm waits on.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JournalBenchmark {
+
+    @Param({"1", "256"})
+    public int syncMaxRecords;
+
+    private final AtomicLong bookings = new AtomicLong();
+    private Path directory;
+    private BookingJournal journal;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal-benchmark");
+        TransitionWriter database = new TransitionWriter(null, null, null, null, null) {
+            @Override
+            public void apply(List<BookingTransition> transitions) {
+            }
+        };
+        journal = new BookingJournal(database, new BookingMetrics(new SimpleMeterRegistry()), true,
+                directory.toString(), 64 << 20, 500, syncMaxRecords, 512);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void confirm() {
+        long id = bookings.incrementAndGet();
+        LocalDateTime now = LocalDateTime.now();
+        journal.commit(List.of(new BookingTransition("BK" + id, id, JourneyStatus.CONFIRMED, now, null,
+                List.of(new TicketChange(id, TicketStatus.CONFIRMED, now, null, null, null)),
+                List.of(new TransactionChange(id, TransactionStatus.SUCCESS, "PAY" + id, null, now)),
+                LockStatus.RELEASED)));
+    }
+}
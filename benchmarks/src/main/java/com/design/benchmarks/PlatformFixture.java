@@ -0,0 +1,122 @@
+package com.design.benchmarks;
+
+import com.design.bookingplatform.fare.FareRules;
+import com.design.bookingplatform.fare.FareService;
+import com.design.bookingplatform.idempotency.IdempotencyStore;
+import com.design.bookingplatform.index.RouteIndexService;
+import com.design.bookingplatform.inventory.SeatInventoryService;
+import com.design.bookingplatform.journal.BookingJournal;
+import com.design.bookingplatform.locking.SeatLockManager;
+import com.design.bookingplatform.metrics.BookingMetrics;
+import com.design.bookingplatform.models.Train;
+import com.design.bookingplatform.repository.CoachRepository;
+import com.design.bookingplatform.repository.IdempotencyKeyRepository;
+import com.design.bookingplatform.repository.TicketRepository;
+import com.design.bookingplatform.repository.TrainRepository;
+import com.design.bookingplatform.schedule.DelayOverlay;
+import com.design.bookingplatform.schedule.ScheduleCache;
+import com.design.bookingplatform.service.TrainService;
+import com.design.bookingplatform.stream.InventoryStreamPublisher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * The platform services the benchmarks exercise, wired by hand on top of {@link SeedData}.
+ * Repositories are in-memory stubs answering only the queries those services make, so every
+ * measurement covers the in-process hot path without a database or broker.
+ */
+final class PlatformFixture {
+
+    final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    final SeatLockManager seatLockManager = new SeatLockManager(64);
+    final RouteIndexService routeIndexService;
+    final SeatInventoryService seatInventoryService;
+    final FareService fareService;
+    final TrainService trainService;
+    final IdempotencyStore idempotencyStore;
+
+    PlatformFixture(SeedData data) {
+        Map<String, Train> trainsByNumber = new HashMap<>();
+        data.trains().forEach(train -> trainsByNumber.put(train.getTrainNumber(), train));
+
+        TrainRepository trains = stub(TrainRepository.class, Map.of(
+                "findAllWithStations", args -> data.trains(),
+                "findByTrainNumberWithStations", args -> Optional.ofNullable(trainsByNumber.get((String) args[0])),
+                "findByTrainNumber", args -> Optional.ofNullable(trainsByNumber.get((String) args[0]))));
+        CoachRepository coaches = stub(CoachRepository.class, Map.of(
+                "findByTrainId", args -> data.coaches((Long) args[0])));
+        TicketRepository tickets = stub(TicketRepository.class, Map.of(
+                "findOccupiedSeats", args -> data.occupiedSeats((Long) args[0], (LocalDate) args[1])));
+        IdempotencyKeyRepository idempotencyKeys = stub(IdempotencyKeyRepository.class, Map.of(
+                "findByIdempotencyKey", args -> Optional.empty(),
+                "saveAndFlush", args -> args[0]));
+
+        routeIndexService = new RouteIndexService(trains);
+        routeIndexService.rebuild();
+        InventoryStreamPublisher publisher = new InventoryStreamPublisher(null, seatLockManager,
+                "seat-inventory", false, 50, 0);
+        seatInventoryService = new SeatInventoryService(routeIndexService, coaches, tickets, publisher,
+                new BookingJournal(null, null, false, "journal", 0, 0, 0, 0));
+        fareService = new FareService(routeIndexService, coaches, new FareRules("", BigDecimal.ZERO, "", "", 0));
+        DelayOverlay delayOverlay = new DelayOverlay(trains, null, new NoTransactionManager(), "train-delays", false);
+        trainService = new TrainService(routeIndexService, seatInventoryService,
+                new ScheduleCache(trains, objectMapper, delayOverlay), fareService, delayOverlay,
+                new ThreadPoolTaskExecutor());
+        idempotencyStore = new IdempotencyStore(idempotencyKeys, new NoTransactionManager(),
+                new BookingMetrics(new SimpleMeterRegistry()), 50_000,
+                Duration.ofHours(1), Duration.ofHours(24), Duration.ofSeconds(30));
+    }
+
+    /**
+     * A repository proxy that answers the named methods and rejects everything else.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer.apply(args);
+            }
+            return switch (method.getName()) {
+                case "toString" -> type.getSimpleName() + " stub";
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            };
+        });
+    }
+
+    private static final class NoTransactionManager implements PlatformTransactionManager {
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.design.benchmarks;
+
+import com.design.bookingplatform.dto.TrainDTO;
+import com.design.bookingplatform.index.TrainRoute;
+import com.design.bookingplatform.service.TrainService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TrainService.getTrainsByRoute over station pairs that lie on real routes of the seed data,
+ * spread over a week so the operating-day filter both keeps and drops trains.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RouteLookupBenchmark {
+
+    static final int QUERIES = 1024;
+    static final LocalDate FIRST_DATE = LocalDate.of(2025, 12, 29);
+
+    private TrainService trainService;
+    private RouteQuery[] queries;
+
+    @Setup
+    public void setUp() {
+        PlatformFixture fixture = new PlatformFixture(SeedData.get());
+        trainService = fixture.trainService;
+        queries = queries(fixture.routeIndexService.current().routes(), QUERIES, 42);
+    }
+
+    @Benchmark
+    public List<TrainDTO> getTrainsByRoute(Cursor cursor) {
+        RouteQuery query = queries[cursor.next(queries.length)];
+        return trainService.getTrainsByRoute(query.source(), query.destination(), query.date());
+    }
+
+    /**
+     * Random (boarding, alighting) pairs in travel order along random routes.
+     */
+    static RouteQuery[] queries(List<TrainRoute> routes, int count, long seed) {
+        Random random = new Random(seed);
+        RouteQuery[] queries = new RouteQuery[count];
+        for (int i = 0; i < count; i++) {
+            TrainRoute route = routes.get(random.nextInt(routes.size()));
+            int from = random.nextInt(route.stopCount() - 1);
+            int to = from + 1 + random.nextInt(route.stopCount() - from - 1);
+            queries[i] = new RouteQuery(route.stationName(from), route.stationName(to),
+                    FIRST_DATE.plusDays(random.nextInt(7)));
+        }
+        return queries;
+    }
+
+    record RouteQuery(String source, String destination, LocalDate date) {
+    }
+
+    /**
+     * Per-thread position in a query array whose length is a power of two.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        private int position;
+
+        int next(int length) {
+            return position++ & (length - 1);
+        }
+    }
+}
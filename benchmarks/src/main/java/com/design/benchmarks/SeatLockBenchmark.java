@@ -0,0 +1,106 @@
+package com.design.benchmarks;
+
+import com.design.bookingplatform.locking.SeatLockManager;
+import com.design.bookingplatform.locking.SeatLockManager.LockResult;
+import com.design.bookingplatform.locking.SeatLockManager.SeatRef;
+import com.design.bookingplatform.models.Coach;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Lock-and-release of two adjacent seats on the two most booked (train, date) pairs of the
+ * seed data, from eight threads at once. Every attempt on the same train goes through the
+ * same stripe, so this measures the manager under the contention a popular train sees.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SeatLockBenchmark {
+
+    private static final int HOT_TRAINS = 2;
+
+    private final SeatLockManager seatLockManager = new SeatLockManager(64);
+    private final AtomicInteger clients = new AtomicInteger();
+    private HotCoach[] coaches;
+
+    @Setup
+    public void setUp() {
+        SeedData data = SeedData.get();
+        Map<TrainDate, Long> bookingsPerTrainDate = data.bookings().stream()
+                .map(booking -> new TrainDate(booking.trainId(), booking.trainNumber(), booking.date()))
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        List<HotCoach> hot = new ArrayList<>();
+        bookingsPerTrainDate.entrySet().stream()
+                .sorted(Map.Entry.<TrainDate, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(HOT_TRAINS)
+                .forEach(entry -> {
+                    TrainDate train = entry.getKey();
+                    for (Coach coach : data.coaches(train.trainId())) {
+                        hot.add(new HotCoach(train.trainNumber(), train.date(), coach.getCoachNumber(),
+                                coach.getTotalSeats()));
+                    }
+                });
+        coaches = hot.toArray(HotCoach[]::new);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public LockResult lockAndRelease(Client client) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        HotCoach coach = coaches[random.nextInt(coaches.length)];
+        int seat = 1 + random.nextInt(coach.seats() - 1);
+        List<SeatRef> seats = List.of(new SeatRef(coach.coachNumber(), seat), new SeatRef(coach.coachNumber(), seat + 1));
+        LockResult result = seatLockManager.acquire(coach.trainNumber(), coach.date(), seats,
+                client.nextReference(), 10, Instant.now());
+        if (result.isGranted()) {
+            seatLockManager.release(result.grant().lockId());
+        }
+        return result;
+    }
+
+    record TrainDate(long trainId, String trainNumber, LocalDate date) {
+    }
+
+    record HotCoach(String trainNumber, LocalDate date, String coachNumber, int seats) {
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+
+        private String prefix;
+        private long sequence;
+
+        @Setup
+        public void setUp(SeatLockBenchmark benchmark) {
+            prefix = "BKG-BENCH-" + benchmark.clients.incrementAndGet() + "-";
+        }
+
+        String nextReference() {
+            return prefix + sequence++;
+        }
+    }
+}
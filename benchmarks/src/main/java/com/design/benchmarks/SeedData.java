@@ -0,0 +1,185 @@
+package com.design.benchmarks;
+
+import com.design.bookingplatform.models.Coach;
+import com.design.bookingplatform.models.CoachClass;
+import com.design.bookingplatform.models.Train;
+import com.design.bookingplatform.models.TrainStation;
+import com.design.bookingplatform.repository.TicketRepository.OccupiedSeat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The recommenderCSV seed dataset as platform entities. Loaded once per fork and shared by
+ * every benchmark, so all of them measure the same trains, coaches and bookings.
+ */
+final class SeedData {
+
+    private static SeedData instance;
+
+    private final List<Train> trains = new ArrayList<>();
+    private final Map<Long, Train> trainsById = new HashMap<>();
+    private final Map<Long, List<Coach>> coachesByTrain = new HashMap<>();
+    private final Map<Long, Map<LocalDate, List<OccupiedSeat>>> occupiedSeats = new HashMap<>();
+    private final List<Booking> bookings = new ArrayList<>();
+    private final List<IdempotentRequest> idempotentRequests = new ArrayList<>();
+
+    private SeedData() {
+    }
+
+    static synchronized SeedData get() {
+        if (instance == null) {
+            instance = load();
+        }
+        return instance;
+    }
+
+    List<Train> trains() {
+        return trains;
+    }
+
+    List<Coach> coaches(long trainId) {
+        return coachesByTrain.getOrDefault(trainId, List.of());
+    }
+
+    List<OccupiedSeat> occupiedSeats(long trainId, LocalDate date) {
+        return occupiedSeats.getOrDefault(trainId, Map.of()).getOrDefault(date, List.of());
+    }
+
+    /**
+     * Booked and blocked tickets, as (train, date, segment) queries.
+     */
+    List<Booking> bookings() {
+        return bookings;
+    }
+
+    List<IdempotentRequest> idempotentRequests() {
+        return idempotentRequests;
+    }
+
+    private static SeedData load() {
+        SeedData data = new SeedData();
+        for (Map<String, String> row : Csv.read("recommenderCSV/trains.csv")) {
+            Train train = Train.builder()
+                    .id(Long.parseLong(row.get("id")))
+                    .trainNumber(row.get("train_number"))
+                    .trainName(row.get("train_name"))
+                    .sourceStation(row.get("source_station"))
+                    .destinationStation(row.get("destination_station"))
+                    .departureTime(time(row.get("departure_time")))
+                    .arrivalTime(time(row.get("arrival_time")))
+                    .journeyDurationMinutes(Integer.valueOf(row.get("journey_duration_minutes")))
+                    .operatingDays(row.get("operating_days"))
+                    .isActive(!"0".equals(row.get("is_active")))
+                    .build();
+            data.trains.add(train);
+            data.trainsById.put(train.getId(), train);
+        }
+
+        for (Map<String, String> row : Csv.read("recommenderCSV/train_stations.csv")) {
+            Train train = data.trainsById.get(Long.parseLong(row.get("train_id")));
+            if (train == null) {
+                continue;
+            }
+            train.getStations().add(TrainStation.builder()
+                    .id(Long.parseLong(row.get("id")))
+                    .train(train)
+                    .stationCode(row.get("station_code"))
+                    .stationName(row.get("station_name"))
+                    .stationOrder(Integer.valueOf(row.get("station_order")))
+                    .arrivalTime(time(row.get("arrival_time")))
+                    .departureTime(time(row.get("departure_time")))
+                    .distanceFromSource(decimal(row.get("distance_from_source")))
+                    .platform(row.get("platform"))
+                    .build());
+        }
+
+        Map<Long, Coach> coachesById = new HashMap<>();
+        for (Map<String, String> row : Csv.read("recommenderCSV/coaches.csv")) {
+            Train train = data.trainsById.get(Long.parseLong(row.get("train_id")));
+            if (train == null) {
+                continue;
+            }
+            Coach coach = Coach.builder()
+                    .id(Long.parseLong(row.get("id")))
+                    .train(train)
+                    .coachNumber(row.get("coach_number"))
+                    .coachClass(CoachClass.valueOf(row.get("coach_class")))
+                    .totalSeats(Integer.valueOf(row.get("total_seats")))
+                    .availableSeats(Integer.valueOf(row.get("available_seats")))
+                    .baseFare(decimal(row.get("base_fare")))
+                    .hasAC("1".equals(row.get("has_ac")))
+                    .hasCharging("1".equals(row.get("has_charging")))
+                    .hasWifi("1".equals(row.get("has_wifi")))
+                    .build();
+            coachesById.put(coach.getId(), coach);
+            data.coachesByTrain.computeIfAbsent(train.getId(), id -> new ArrayList<>()).add(coach);
+        }
+
+        for (Map<String, String> row : Csv.read("recommenderCSV/tickets.csv")) {
+            String status = row.get("status");
+            if (!"CONFIRMED".equals(status) && !"BLOCKED".equals(status)) {
+                continue;
+            }
+            Train train = data.trainsById.get(Long.parseLong(row.get("train_id")));
+            Coach coach = coachesById.get(Long.parseLong(row.get("coach_id")));
+            if (train == null || coach == null) {
+                continue;
+            }
+            LocalDate date = LocalDate.parse(row.get("journey_date"));
+            Booking booking = new Booking(train.getId(), train.getTrainNumber(), date, coach.getId(),
+                    coach.getCoachNumber(), row.get("seat_number"), row.get("boarding_station"),
+                    row.get("destination_station"));
+            data.bookings.add(booking);
+            data.occupiedSeats.computeIfAbsent(train.getId(), id -> new HashMap<>())
+                    .computeIfAbsent(date, d -> new ArrayList<>())
+                    .add(booking);
+        }
+
+        for (Map<String, String> row : Csv.read("recommenderCSV/idempotency_keys.csv")) {
+            data.idempotentRequests.add(new IdempotentRequest(row.get("idempotency_key"), row.get("operation_type"),
+                    row.get("entity_id"), row.get("request_hash")));
+        }
+        return data;
+    }
+
+    private static LocalTime time(String value) {
+        return value == null ? null : LocalTime.parse(value);
+    }
+
+    private static BigDecimal decimal(String value) {
+        return value == null ? null : new BigDecimal(value);
+    }
+
+    record Booking(long trainId, String trainNumber, LocalDate date, Long coachId, String coachNumber,
+                   String seatNumber, String boardingStation, String destinationStation) implements OccupiedSeat {
+
+        @Override
+        public Long getCoachId() {
+            return coachId;
+        }
+
+        @Override
+        public String getSeatNumber() {
+            return seatNumber;
+        }
+
+        @Override
+        public String getBoardingStation() {
+            return boardingStation;
+        }
+
+        @Override
+        public String getDestinationStation() {
+            return destinationStation;
+        }
+    }
+
+    record IdempotentRequest(String key, String operation, String entityId, String requestHash) {
+    }
+}
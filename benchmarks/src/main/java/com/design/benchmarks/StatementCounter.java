@@ -0,0 +1,51 @@
+package com.design.benchmarks;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * Wraps a DataSource to count the statements each thread sends to the database. A JDBC batch is
+ * one round trip and counts once, however many rows it carries.
+ */
+final class StatementCounter {
+
+    private static final Set<String> EXECUTE = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+    private static final Set<Class<?>> WRAPPED = Set.of(Connection.class, Statement.class,
+            PreparedStatement.class, CallableStatement.class);
+
+    private final ThreadLocal<long[]> counts = ThreadLocal.withInitial(() -> new long[1]);
+
+    DataSource wrap(DataSource dataSource) {
+        return (DataSource) proxy(DataSource.class, dataSource);
+    }
+
+    /**
+     * Statements executed by the calling thread so far.
+     */
+    long count() {
+        return counts.get()[0];
+    }
+
+    private Object proxy(Class<?> type, Object target) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (target instanceof Statement && EXECUTE.contains(method.getName())) {
+                counts.get()[0]++;
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            Class<?> returned = method.getReturnType();
+            return result != null && WRAPPED.contains(returned) ? proxy(returned, result) : result;
+        });
+    }
+}
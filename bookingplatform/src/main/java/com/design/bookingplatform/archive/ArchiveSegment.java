@@ -0,0 +1,313 @@
+package com.design.bookingplatform.archive;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * One immutable archive file: deflated {@link ColumnBlock}s followed by a block index.
+ *
+ * The index keeps, per block, its position, checksum and the min/max booking id and journey
+ * date of its rows. It is read once when the segment is opened and the file is closed again, so
+ * an open segment holds no file descriptor; a lookup first checks the ranges of the whole segment,
+ * then opens the file to read and inflate only the blocks whose ranges cover the booking.
+ * Layout: magic, version, blocks, index, index offset, magic.
+ */
+final class ArchiveSegment {
+
+    static final String SUFFIX = ".bka";
+
+    private static final int MAGIC = 0x424B4152; // "BKAR"
+    private static final int VERSION = 1;
+    private static final int TRAILER_BYTES = Long.BYTES + Integer.BYTES;
+
+    private final Path path;
+    private final List<BlockInfo> blocks;
+    private final String minBookingId;
+    private final String maxBookingId;
+    private final LocalDate minJourneyDate;
+    private final LocalDate maxJourneyDate;
+
+    private ArchiveSegment(Path path, List<BlockInfo> blocks) {
+        this.path = path;
+        this.blocks = blocks;
+        this.minBookingId = blocks.stream().map(BlockInfo::minBookingId).min(Comparator.naturalOrder()).orElse("");
+        this.maxBookingId = blocks.stream().map(BlockInfo::maxBookingId).max(Comparator.naturalOrder()).orElse("");
+        this.minJourneyDate = blocks.stream().map(BlockInfo::minJourneyDate).min(Comparator.naturalOrder())
+                .orElse(LocalDate.EPOCH);
+        this.maxJourneyDate = blocks.stream().map(BlockInfo::maxJourneyDate).max(Comparator.naturalOrder())
+                .orElse(LocalDate.EPOCH);
+    }
+
+    static ArchiveSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 2L * Integer.BYTES + TRAILER_BYTES) {
+                throw new IOException("Archive segment " + path + " is truncated");
+            }
+            ByteBuffer trailer = read(channel, size - TRAILER_BYTES, TRAILER_BYTES);
+            long indexOffset = trailer.getLong();
+            if (trailer.getInt() != MAGIC || indexOffset < 2L * Integer.BYTES || indexOffset > size - TRAILER_BYTES) {
+                throw new IOException("Archive segment " + path + " has no valid trailer");
+            }
+            ByteBuffer index = read(channel, indexOffset, (int) (size - TRAILER_BYTES - indexOffset));
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(index.array()));
+            int count = in.readInt();
+            List<BlockInfo> blocks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                blocks.add(new BlockInfo(in.readLong(), in.readInt(), in.readInt(), in.readLong(), in.readInt(),
+                        in.readUTF(), in.readUTF(), LocalDate.ofEpochDay(in.readLong()),
+                        LocalDate.ofEpochDay(in.readLong())));
+            }
+            return new ArchiveSegment(path, List.copyOf(blocks));
+        }
+    }
+
+    Path path() {
+        return path;
+    }
+
+    List<BlockInfo> blocks() {
+        return blocks;
+    }
+
+    int bookings() {
+        return blocks.stream().mapToInt(BlockInfo::rows).sum();
+    }
+
+    /**
+     * False when the segment's id range, or its journey date range for a known date, rules the
+     * booking out, without touching the file.
+     */
+    boolean mayContain(String bookingId, LocalDate journeyDate) {
+        return minBookingId.compareTo(bookingId) <= 0 && maxBookingId.compareTo(bookingId) >= 0
+                && (journeyDate == null || (!journeyDate.isBefore(minJourneyDate) && !journeyDate.isAfter(maxJourneyDate)));
+    }
+
+    /**
+     * The booking, or null; journeyDate, when known, skips blocks of other dates.
+     */
+    ArchivedBooking find(String bookingId, LocalDate journeyDate) throws IOException {
+        if (!mayContain(bookingId, journeyDate)) {
+            return null;
+        }
+        FileChannel channel = null;
+        try {
+            for (BlockInfo block : blocks) {
+                if (block.covers(bookingId, journeyDate)) {
+                    if (channel == null) {
+                        channel = FileChannel.open(path, StandardOpenOption.READ);
+                    }
+                    ArchivedBooking booking = ColumnBlock.find(readBlock(channel, block), bookingId);
+                    if (booking != null) {
+                        return booking;
+                    }
+                }
+            }
+            return null;
+        } finally {
+            if (channel != null) {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Every booking in the segment, block by block in file order.
+     */
+    List<ArchivedBooking> readAll() throws IOException {
+        List<ArchivedBooking> bookings = new ArrayList<>(bookings());
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            for (BlockInfo block : blocks) {
+                bookings.addAll(ColumnBlock.decode(readBlock(channel, block)));
+            }
+        }
+        return bookings;
+    }
+
+    private byte[] readBlock(FileChannel channel, BlockInfo block) throws IOException {
+        byte[] compressed = read(channel, block.offset(), block.compressedLength()).array();
+        CRC32 crc = new CRC32();
+        crc.update(compressed);
+        if (crc.getValue() != block.crc()) {
+            throw new IOException("Archive block at " + block.offset() + " of " + path + " is corrupt");
+        }
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] raw = new byte[block.rawLength()];
+            int inflated = 0;
+            while (inflated < raw.length && !inflater.finished()) {
+                int n = inflater.inflate(raw, inflated, raw.length - inflated);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                inflated += n;
+            }
+            if (inflated != raw.length) {
+                throw new IOException("Archive block at " + block.offset() + " of " + path + " is truncated");
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IOException("Archive block at " + block.offset() + " of " + path + " is corrupt", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of archive segment");
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Index entry of one block; ids compare as strings, dates are inclusive.
+     */
+    record BlockInfo(long offset, int compressedLength, int rawLength, long crc, int rows,
+                     String minBookingId, String maxBookingId, LocalDate minJourneyDate, LocalDate maxJourneyDate) {
+
+        boolean covers(String bookingId, LocalDate journeyDate) {
+            return minBookingId.compareTo(bookingId) <= 0 && maxBookingId.compareTo(bookingId) >= 0
+                    && (journeyDate == null
+                    || (!journeyDate.isBefore(minJourneyDate) && !journeyDate.isAfter(maxJourneyDate)));
+        }
+    }
+
+    /**
+     * Writes a segment to a temporary file next to its final path. Nothing is visible under the
+     * final name until {@link #commit()} has synced the file and renamed it.
+     */
+    static final class Writer implements AutoCloseable {
+
+        private final Path target;
+        private final Path temporary;
+        private final FileChannel channel;
+        private final Deflater deflater;
+        private final List<BlockInfo> blocks = new ArrayList<>();
+        private long position;
+        private boolean committed;
+
+        Writer(Path target, int compressionLevel) throws IOException {
+            this.target = target;
+            this.temporary = target.resolveSibling(target.getFileName() + ".tmp");
+            this.channel = FileChannel.open(temporary, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            this.deflater = new Deflater(compressionLevel);
+            ByteBuffer header = ByteBuffer.allocate(2 * Integer.BYTES).putInt(MAGIC).putInt(VERSION).flip();
+            write(header);
+        }
+
+        /**
+         * Appends one block; the bookings are sorted by id first.
+         */
+        void writeBlock(List<ArchivedBooking> bookings) throws IOException {
+            if (bookings.isEmpty()) {
+                return;
+            }
+            List<ArchivedBooking> sorted = new ArrayList<>(bookings);
+            sorted.sort(Comparator.comparing(ArchivedBooking::bookingId));
+            byte[] raw = ColumnBlock.encode(sorted);
+            byte[] compressed = deflate(raw);
+            CRC32 crc = new CRC32();
+            crc.update(compressed);
+
+            LocalDate minDate = LocalDate.MAX;
+            LocalDate maxDate = LocalDate.MIN;
+            for (ArchivedBooking booking : sorted) {
+                if (booking.journeyDate() != null) {
+                    minDate = booking.journeyDate().isBefore(minDate) ? booking.journeyDate() : minDate;
+                    maxDate = booking.journeyDate().isAfter(maxDate) ? booking.journeyDate() : maxDate;
+                }
+            }
+            if (minDate.isAfter(maxDate)) {
+                minDate = LocalDate.EPOCH;
+                maxDate = LocalDate.EPOCH;
+            }
+            blocks.add(new BlockInfo(position, compressed.length, raw.length, crc.getValue(), sorted.size(),
+                    sorted.get(0).bookingId(), sorted.get(sorted.size() - 1).bookingId(), minDate, maxDate));
+            write(ByteBuffer.wrap(compressed));
+        }
+
+        int blockCount() {
+            return blocks.size();
+        }
+
+        /**
+         * Writes the index, forces the file to disk and moves it to its final name.
+         */
+        Path commit() throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream index = new DataOutputStream(bytes);
+            index.writeInt(blocks.size());
+            for (BlockInfo block : blocks) {
+                index.writeLong(block.offset());
+                index.writeInt(block.compressedLength());
+                index.writeInt(block.rawLength());
+                index.writeLong(block.crc());
+                index.writeInt(block.rows());
+                index.writeUTF(block.minBookingId());
+                index.writeUTF(block.maxBookingId());
+                index.writeLong(block.minJourneyDate().toEpochDay());
+                index.writeLong(block.maxJourneyDate().toEpochDay());
+            }
+            index.writeLong(position);
+            index.writeInt(MAGIC);
+            write(ByteBuffer.wrap(bytes.toByteArray()));
+            channel.force(true);
+            channel.close();
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+            return target;
+        }
+
+        private byte[] deflate(byte[] raw) {
+            deflater.reset();
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        }
+
+        private void write(ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer);
+            }
+        }
+
+        /**
+         * Drops the temporary file unless the segment was committed.
+         */
+        @Override
+        public void close() throws IOException {
+            deflater.end();
+            if (!committed) {
+                channel.close();
+                Files.deleteIfExists(temporary);
+            }
+        }
+    }
+}
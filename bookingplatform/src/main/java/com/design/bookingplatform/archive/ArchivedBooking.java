@@ -0,0 +1,69 @@
+package com.design.bookingplatform.archive;
+
+import com.design.bookingplatform.models.Journey;
+import com.design.bookingplatform.models.Ticket;
+import com.design.bookingplatform.models.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A journey as kept in the archive, with its tickets and payment transactions.
+ * Enum columns are kept by name so the archive stays readable if constants are added.
+ */
+public record ArchivedBooking(String bookingId, Long userId, String sourceStation, String destinationStation,
+                              LocalDate journeyDate, String status, String journeyType, BigDecimal totalFare,
+                              Integer totalTravelTimeMinutes, Integer totalLayoverMinutes,
+                              LocalDateTime createdAt, LocalDateTime confirmedAt, LocalDateTime cancelledAt,
+                              List<ArchivedTicket> tickets, List<ArchivedTransaction> transactions) {
+
+    /**
+     * Snapshot of a journey loaded with its tickets, their trains and coaches.
+     */
+    public static ArchivedBooking of(Journey journey, List<Transaction> transactions) {
+        List<ArchivedTicket> tickets = new ArrayList<>(journey.getTickets().size());
+        for (Ticket ticket : journey.getTickets()) {
+            tickets.add(new ArchivedTicket(ticket.getPnrNumber(), ticket.getTrain().getTrainNumber(),
+                    ticket.getTrain().getTrainName(), ticket.getCoach().getCoachNumber(), ticket.getSeatNumber(),
+                    ticket.getPassengerName(), ticket.getPassengerAge(), nameOf(ticket.getPassengerGender()),
+                    ticket.getBoardingStation(), ticket.getDestinationStation(), ticket.getJourneyDate(),
+                    ticket.getDepartureTime(), ticket.getArrivalTime(), ticket.getFare(), nameOf(ticket.getStatus()),
+                    ticket.getBookedAt(), ticket.getConfirmedAt(), ticket.getCancelledAt(),
+                    ticket.getExternalBookingReference()));
+        }
+        List<ArchivedTransaction> payments = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            payments.add(new ArchivedTransaction(transaction.getTransactionId(), transaction.getAmount(),
+                    transaction.getCurrency(), nameOf(transaction.getStatus()),
+                    nameOf(transaction.getPaymentMethod()), transaction.getPaymentGateway(),
+                    transaction.getFailureReason(), transaction.getCreatedAt(), transaction.getCompletedAt()));
+        }
+        return new ArchivedBooking(journey.getBookingId(), journey.getUser() == null ? null : journey.getUser().getId(),
+                journey.getSourceStation(), journey.getDestinationStation(), journey.getJourneyDate(),
+                nameOf(journey.getStatus()), nameOf(journey.getJourneyType()), journey.getTotalFare(),
+                journey.getTotalTravelTimeMinutes(), journey.getTotalLayoverMinutes(), journey.getCreatedAt(),
+                journey.getConfirmedAt(), journey.getCancelledAt(), tickets, payments);
+    }
+
+    private static String nameOf(Object constant) {
+        return constant == null ? null : constant.toString();
+    }
+
+    public record ArchivedTicket(String pnrNumber, String trainNumber, String trainName, String coachNumber,
+                                 String seatNumber, String passengerName, Integer passengerAge,
+                                 String passengerGender, String boardingStation, String destinationStation,
+                                 LocalDate journeyDate, LocalTime departureTime, LocalTime arrivalTime,
+                                 BigDecimal fare, String status, LocalDateTime bookedAt,
+                                 LocalDateTime confirmedAt, LocalDateTime cancelledAt,
+                                 String externalBookingReference) {
+    }
+
+    public record ArchivedTransaction(String transactionId, BigDecimal amount, String currency, String status,
+                                      String paymentMethod, String paymentGateway, String failureReason,
+                                      LocalDateTime createdAt, LocalDateTime completedAt) {
+    }
+}
@@ -0,0 +1,216 @@
+package com.design.bookingplatform.archive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Store of archived bookings in a local directory.
+ *
+ * Each archiving run adds one {@link ArchiveSegment}. All segment indexes are loaded at startup,
+ * and lookups search the newest segment first so a booking that was archived twice resolves to
+ * its latest copy. A lookup skips every segment whose booking id range, or journey date range
+ * for ids that carry the date, rules the booking out before reading a block, and a segment only
+ * opens its file while it is read. {@link #compact} merges runs of adjacent small segments into
+ * one, so the number of segments stays bounded by the archive's size rather than its age.
+ * Temporary files of interrupted runs are removed on startup.
+ */
+@Slf4j
+@Component
+public class BookingArchive {
+
+    private static final String BLOCK_PREFIX = "BLK-";
+    private static final DateTimeFormatter SEGMENT_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    private final Path directory;
+    private final int compressionLevel;
+    private final AtomicInteger sequence = new AtomicInteger();
+    // Newest first; replaced as a whole under the archive's lock so a lookup reads one snapshot
+    private volatile List<ArchiveSegment> segments = List.of();
+
+    public BookingArchive(@Value("${platform.archive.dir:archive}") String directory,
+                          @Value("${platform.archive.compression-level:6}") int compressionLevel) {
+        this.directory = Paths.get(directory);
+        this.compressionLevel = compressionLevel;
+        try {
+            open();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open booking archive in " + this.directory.toAbsolutePath(), e);
+        }
+    }
+
+    public Optional<ArchivedBooking> find(String bookingId) {
+        LocalDate journeyDate = journeyDateOf(bookingId);
+        List<ArchiveSegment> searched = segments;
+        while (true) {
+            try {
+                for (ArchiveSegment segment : searched) {
+                    ArchivedBooking booking = segment.find(bookingId, journeyDate);
+                    if (booking != null) {
+                        return Optional.of(booking);
+                    }
+                }
+                return Optional.empty();
+            } catch (IOException e) {
+                // A compaction may have replaced a segment of this snapshot; search the new one
+                if (searched == segments) {
+                    throw new UncheckedIOException(e);
+                }
+                searched = segments;
+            }
+        }
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    public long bookingCount() {
+        return segments.stream().mapToLong(ArchiveSegment::bookings).sum();
+    }
+
+    ArchiveSegment.Writer newSegment() throws IOException {
+        String name = "bookings-" + LocalDateTime.now().format(SEGMENT_TIME) + "-"
+                + String.format("%04d", sequence.incrementAndGet() % 10_000) + ArchiveSegment.SUFFIX;
+        return new ArchiveSegment.Writer(directory.resolve(name), compressionLevel);
+    }
+
+    /**
+     * Makes a committed segment searchable.
+     */
+    synchronized void publish(Path path) throws IOException {
+        List<ArchiveSegment> next = new ArrayList<>(segments.size() + 1);
+        next.add(ArchiveSegment.open(path));
+        next.addAll(segments);
+        segments = List.copyOf(next);
+    }
+
+    /**
+     * Merges each run of adjacent segments holding fewer than maxBookings bookings together into
+     * one segment of at most maxBookings, keeping the newest copy of a booking archived twice.
+     * The merged segment replaces the newest segment of its run under that segment's name, so
+     * it keeps the run's place in the newest-first order; the older ones are deleted after it.
+     * A crash in between leaves copies of the same bookings, merged again by the next run.
+     * Returns the number of segments removed.
+     */
+    synchronized int compact(int maxBookings, int blockSize) throws IOException {
+        List<ArchiveSegment> oldestFirst = new ArrayList<>(segments);
+        Collections.reverse(oldestFirst);
+        List<ArchiveSegment> run = new ArrayList<>();
+        long runBookings = 0;
+        int removed = 0;
+        for (ArchiveSegment segment : oldestFirst) {
+            int bookings = segment.bookings();
+            if (bookings >= maxBookings || runBookings + bookings > maxBookings) {
+                removed += merge(run, blockSize);
+                run.clear();
+                runBookings = 0;
+            }
+            if (bookings < maxBookings) {
+                run.add(segment);
+                runBookings += bookings;
+            }
+        }
+        removed += merge(run, blockSize);
+        return removed;
+    }
+
+    private int merge(List<ArchiveSegment> run, int blockSize) throws IOException {
+        if (run.size() < 2) {
+            return 0;
+        }
+        Map<String, ArchivedBooking> latest = new HashMap<>();
+        for (ArchiveSegment segment : run) {
+            for (ArchivedBooking booking : segment.readAll()) {
+                latest.put(booking.bookingId(), booking);
+            }
+        }
+        List<ArchivedBooking> bookings = new ArrayList<>(latest.values());
+        bookings.sort(Comparator.comparing(ArchivedBooking::bookingId));
+
+        ArchiveSegment newest = run.get(run.size() - 1);
+        Path merged;
+        try (ArchiveSegment.Writer writer = new ArchiveSegment.Writer(newest.path(), compressionLevel)) {
+            for (int from = 0; from < bookings.size(); from += blockSize) {
+                writer.writeBlock(bookings.subList(from, Math.min(from + blockSize, bookings.size())));
+            }
+            merged = writer.commit();
+        }
+        ArchiveSegment replacement = ArchiveSegment.open(merged);
+        List<ArchiveSegment> next = new ArrayList<>(segments.size());
+        for (ArchiveSegment segment : segments) {
+            if (segment == newest) {
+                next.add(replacement);
+            } else if (!run.contains(segment)) {
+                next.add(segment);
+            }
+        }
+        segments = List.copyOf(next);
+        for (ArchiveSegment segment : run) {
+            if (segment != newest) {
+                Files.deleteIfExists(segment.path());
+            }
+        }
+        log.info("Merged {} archive segments with {} bookings into {}", run.size(), bookings.size(),
+                merged.getFileName());
+        return run.size() - 1;
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                String name = entry.getFileName().toString();
+                if (name.endsWith(ArchiveSegment.SUFFIX + ".tmp")) {
+                    Files.delete(entry);
+                } else if (name.endsWith(ArchiveSegment.SUFFIX)) {
+                    files.add(entry);
+                }
+            }
+        }
+        files.sort(Comparator.comparing((Path path) -> path.getFileName().toString()).reversed());
+        List<ArchiveSegment> opened = new ArrayList<>(files.size());
+        for (Path file : files) {
+            opened.add(ArchiveSegment.open(file));
+        }
+        segments = List.copyOf(opened);
+        log.info("Booking archive in {} has {} segments with {} bookings",
+                directory.toAbsolutePath(), segmentCount(), bookingCount());
+    }
+
+    /**
+     * Journey date carried in a block reference (BLK-yyyyMMdd-...), or null for other ids.
+     */
+    private static LocalDate journeyDateOf(String bookingId) {
+        if (!bookingId.startsWith(BLOCK_PREFIX) || bookingId.length() < BLOCK_PREFIX.length() + 9
+                || bookingId.charAt(BLOCK_PREFIX.length() + 8) != '-') {
+            return null;
+        }
+        try {
+            return LocalDate.parse(bookingId.substring(BLOCK_PREFIX.length(), BLOCK_PREFIX.length() + 8),
+                    DateTimeFormatter.BASIC_ISO_DATE);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.design.bookingplatform.archive;
+
+import com.design.bookingplatform.datasource.ReplicaReads;
+import com.design.bookingplatform.models.Journey;
+import com.design.bookingplatform.models.JourneyStatus;
+import com.design.bookingplatform.models.TicketStatus;
+import com.design.bookingplatform.models.Transaction;
+import com.design.bookingplatform.repository.JourneyRepository;
+import com.design.bookingplatform.repository.TicketRepository;
+import com.design.bookingplatform.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves finished bookings out of the live tables into the {@link BookingArchive}.
+ *
+ * A journey is finished once its date is older than the horizon and it is COMPLETED or
+ * CANCELLED, or none of its tickets is still live. Each run reads such journeys in booking id
+ * order, one block at a time, with their tickets and transactions, writes them to a new
+ * segment and deletes them only after the segment is on disk. Terminal rows do not change, so
+ * they can be read from a replica and the rows deleted are the rows archived; if the delete
+ * fails the bookings are simply archived again by the next run. A nightly compaction merges the
+ * small segments these runs leave behind.
+ */
+@Slf4j
+@Component
+public class BookingArchiver {
+
+    static final List<JourneyStatus> TERMINAL_JOURNEYS = List.of(JourneyStatus.COMPLETED, JourneyStatus.CANCELLED);
+    static final List<TicketStatus> CLOSED_TICKETS =
+            List.of(TicketStatus.CANCELLED, TicketStatus.REFUNDED, TicketStatus.BLOCK_EXPIRED);
+
+    private final BookingArchive bookingArchive;
+    private final JourneyRepository journeyRepository;
+    private final TicketRepository ticketRepository;
+    private final TransactionRepository transactionRepository;
+    private final ReplicaReads replicaReads;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int horizonDays;
+    private final int blockSize;
+    private final int maxPerRun;
+    private final int compactMaxBookings;
+
+    public BookingArchiver(BookingArchive bookingArchive, JourneyRepository journeyRepository,
+                           TicketRepository ticketRepository, TransactionRepository transactionRepository,
+                           ReplicaReads replicaReads, PlatformTransactionManager transactionManager,
+                           @Value("${platform.archive.enabled:true}") boolean enabled,
+                           @Value("${platform.archive.horizon-days:90}") int horizonDays,
+                           @Value("${platform.archive.block-size:1024}") int blockSize,
+                           @Value("${platform.archive.max-per-run:100000}") int maxPerRun,
+                           @Value("${platform.archive.compact-max-bookings:50000}") int compactMaxBookings) {
+        this.bookingArchive = bookingArchive;
+        this.journeyRepository = journeyRepository;
+        this.ticketRepository = ticketRepository;
+        this.transactionRepository = transactionRepository;
+        this.replicaReads = replicaReads;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.horizonDays = horizonDays;
+        this.blockSize = blockSize;
+        this.maxPerRun = maxPerRun;
+        this.compactMaxBookings = compactMaxBookings;
+    }
+
+    @Scheduled(fixedDelayString = "${platform.archive.interval-ms:3600000}",
+            initialDelayString = "${platform.archive.initial-delay-ms:300000}")
+    public void scheduledRun() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            archive();
+        } catch (IOException | RuntimeException e) {
+            log.error("Booking archive run failed", e);
+        }
+    }
+
+    @Scheduled(cron = "${platform.archive.compact-cron:0 30 3 * * *}")
+    public void scheduledCompaction() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            compact();
+        } catch (IOException | RuntimeException e) {
+            log.error("Booking archive compaction failed", e);
+        }
+    }
+
+    /**
+     * Merges adjacent segments smaller than compact-max-bookings and returns how many were removed.
+     */
+    public synchronized int compact() throws IOException {
+        long started = System.nanoTime();
+        int removed = bookingArchive.compact(compactMaxBookings, blockSize);
+        if (removed > 0) {
+            log.info("Compacted the booking archive to {} segments, {} fewer, in {} ms",
+                    bookingArchive.segmentCount(), removed, (System.nanoTime() - started) / 1_000_000);
+        }
+        return removed;
+    }
+
+    /**
+     * Archives up to max-per-run finished bookings and returns how many were moved.
+     */
+    public synchronized int archive() throws IOException {
+        long started = System.nanoTime();
+        LocalDate before = LocalDate.now().minusDays(horizonDays);
+        List<Long> journeyIds = new ArrayList<>();
+        String after = "";
+        try (ArchiveSegment.Writer writer = bookingArchive.newSegment()) {
+            while (journeyIds.size() < maxPerRun) {
+                int limit = Math.min(blockSize, maxPerRun - journeyIds.size());
+                String from = after;
+                Batch batch = replicaReads.read(() -> readBatch(before, from, limit));
+                if (batch.bookings().isEmpty()) {
+                    break;
+                }
+                writer.writeBlock(batch.bookings());
+                journeyIds.addAll(batch.journeyIds());
+                after = batch.lastBookingId();
+                if (batch.bookings().size() < limit) {
+                    break;
+                }
+            }
+            if (journeyIds.isEmpty()) {
+                return 0;
+            }
+            bookingArchive.publish(writer.commit());
+        }
+
+        for (int from = 0; from < journeyIds.size(); from += blockSize) {
+            List<Long> chunk = journeyIds.subList(from, Math.min(from + blockSize, journeyIds.size()));
+            transactionTemplate.executeWithoutResult(tx -> {
+                transactionRepository.deleteByJourneyIds(chunk);
+                ticketRepository.deleteByJourneyIds(chunk);
+                journeyRepository.deleteByIds(chunk);
+            });
+        }
+        log.info("Archived {} bookings with journey date before {} in {} ms",
+                journeyIds.size(), before, (System.nanoTime() - started) / 1_000_000);
+        return journeyIds.size();
+    }
+
+    private Batch readBatch(LocalDate before, String after, int limit) {
+        List<String> bookingIds = journeyRepository.findArchivableBookingIds(before, after, TERMINAL_JOURNEYS,
+                CLOSED_TICKETS, PageRequest.of(0, limit));
+        if (bookingIds.isEmpty()) {
+            return new Batch(List.of(), List.of(), after);
+        }
+        List<Journey> journeys = journeyRepository.findWithTicketsByBookingIds(bookingIds);
+        List<Long> journeyIds = new ArrayList<>(journeys.size());
+        for (Journey journey : journeys) {
+            journeyIds.add(journey.getId());
+        }
+        Map<Long, List<Transaction>> transactions = new HashMap<>();
+        for (Transaction transaction : transactionRepository.findByJourneyIds(journeyIds)) {
+            transactions.computeIfAbsent(transaction.getJourney().getId(), id -> new ArrayList<>()).add(transaction);
+        }
+        List<ArchivedBooking> bookings = new ArrayList<>(journeys.size());
+        for (Journey journey : journeys) {
+            bookings.add(ArchivedBooking.of(journey, transactions.getOrDefault(journey.getId(), List.of())));
+        }
+        return new Batch(bookings, journeyIds, bookingIds.get(bookingIds.size() - 1));
+    }
+
+    private record Batch(List<ArchivedBooking> bookings, List<Long> journeyIds, String lastBookingId) {
+    }
+}
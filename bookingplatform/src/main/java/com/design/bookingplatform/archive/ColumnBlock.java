@@ -0,0 +1,493 @@
+package com.design.bookingplatform.archive;
+
+import com.design.bookingplatform.archive.ArchivedBooking.ArchivedTicket;
+import com.design.bookingplatform.archive.ArchivedBooking.ArchivedTransaction;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column layout of one archive block, before compression.
+ *
+ * A block holds a run of bookings column by column: one column per journey field, then one per
+ * ticket field and one per transaction field over all tickets and transactions of the block in
+ * booking order. Repetitive strings (stations, trains, coaches, statuses) are codes into a
+ * dictionary shared by the block, dates and timestamps are zigzag deltas from the previous
+ * value of their column (timestamps to the millisecond), amounts are paise, and everything
+ * numeric is a varint.
+ *
+ * Layout: booking count, dictionary, column count, column lengths, column bytes. The booking id
+ * column comes first so a lookup can rule a block out without decoding the rest.
+ */
+final class ColumnBlock {
+
+    private ColumnBlock() {
+    }
+
+    static byte[] encode(List<ArchivedBooking> bookings) {
+        Encoder encoder = new Encoder();
+        Out bookingId = encoder.column();
+        Out userId = encoder.column();
+        Out source = encoder.column();
+        Out destination = encoder.column();
+        Out journeyDate = encoder.column();
+        Out status = encoder.column();
+        Out journeyType = encoder.column();
+        Out totalFare = encoder.column();
+        Out travelMinutes = encoder.column();
+        Out layoverMinutes = encoder.column();
+        Out createdAt = encoder.column();
+        Out confirmedAt = encoder.column();
+        Out cancelledAt = encoder.column();
+        Out ticketCount = encoder.column();
+        Out transactionCount = encoder.column();
+
+        Out pnr = encoder.column();
+        Out trainNumber = encoder.column();
+        Out trainName = encoder.column();
+        Out coachNumber = encoder.column();
+        Out seatNumber = encoder.column();
+        Out passengerName = encoder.column();
+        Out passengerAge = encoder.column();
+        Out passengerGender = encoder.column();
+        Out boarding = encoder.column();
+        Out alighting = encoder.column();
+        Out ticketDate = encoder.column();
+        Out departure = encoder.column();
+        Out arrival = encoder.column();
+        Out fare = encoder.column();
+        Out ticketStatus = encoder.column();
+        Out bookedAt = encoder.column();
+        Out ticketConfirmedAt = encoder.column();
+        Out ticketCancelledAt = encoder.column();
+        Out reference = encoder.column();
+
+        Out transactionId = encoder.column();
+        Out amount = encoder.column();
+        Out currency = encoder.column();
+        Out transactionStatus = encoder.column();
+        Out paymentMethod = encoder.column();
+        Out paymentGateway = encoder.column();
+        Out failureReason = encoder.column();
+        Out transactionCreatedAt = encoder.column();
+        Out completedAt = encoder.column();
+
+        for (ArchivedBooking booking : bookings) {
+            bookingId.string(booking.bookingId());
+            userId.number(booking.userId());
+            source.code(booking.sourceStation());
+            destination.code(booking.destinationStation());
+            journeyDate.date(booking.journeyDate());
+            status.code(booking.status());
+            journeyType.code(booking.journeyType());
+            totalFare.amount(booking.totalFare());
+            travelMinutes.number(booking.totalTravelTimeMinutes());
+            layoverMinutes.number(booking.totalLayoverMinutes());
+            createdAt.timestamp(booking.createdAt());
+            confirmedAt.timestamp(booking.confirmedAt());
+            cancelledAt.timestamp(booking.cancelledAt());
+            ticketCount.count(booking.tickets().size());
+            transactionCount.count(booking.transactions().size());
+
+            for (ArchivedTicket ticket : booking.tickets()) {
+                pnr.string(ticket.pnrNumber());
+                trainNumber.code(ticket.trainNumber());
+                trainName.code(ticket.trainName());
+                coachNumber.code(ticket.coachNumber());
+                seatNumber.code(ticket.seatNumber());
+                passengerName.string(ticket.passengerName());
+                passengerAge.number(ticket.passengerAge());
+                passengerGender.code(ticket.passengerGender());
+                boarding.code(ticket.boardingStation());
+                alighting.code(ticket.destinationStation());
+                ticketDate.date(ticket.journeyDate());
+                departure.time(ticket.departureTime());
+                arrival.time(ticket.arrivalTime());
+                fare.amount(ticket.fare());
+                ticketStatus.code(ticket.status());
+                bookedAt.timestamp(ticket.bookedAt());
+                ticketConfirmedAt.timestamp(ticket.confirmedAt());
+                ticketCancelledAt.timestamp(ticket.cancelledAt());
+                reference.string(ticket.externalBookingReference());
+            }
+            for (ArchivedTransaction transaction : booking.transactions()) {
+                transactionId.string(transaction.transactionId());
+                amount.amount(transaction.amount());
+                currency.code(transaction.currency());
+                transactionStatus.code(transaction.status());
+                paymentMethod.code(transaction.paymentMethod());
+                paymentGateway.code(transaction.paymentGateway());
+                failureReason.string(transaction.failureReason());
+                transactionCreatedAt.timestamp(transaction.createdAt());
+                completedAt.timestamp(transaction.completedAt());
+            }
+        }
+        return encoder.finish(bookings.size());
+    }
+
+    static List<ArchivedBooking> decode(byte[] block) {
+        Decoder decoder = new Decoder(block);
+        In bookingId = decoder.column();
+        In userId = decoder.column();
+        In source = decoder.column();
+        In destination = decoder.column();
+        In journeyDate = decoder.column();
+        In status = decoder.column();
+        In journeyType = decoder.column();
+        In totalFare = decoder.column();
+        In travelMinutes = decoder.column();
+        In layoverMinutes = decoder.column();
+        In createdAt = decoder.column();
+        In confirmedAt = decoder.column();
+        In cancelledAt = decoder.column();
+        In ticketCount = decoder.column();
+        In transactionCount = decoder.column();
+
+        In pnr = decoder.column();
+        In trainNumber = decoder.column();
+        In trainName = decoder.column();
+        In coachNumber = decoder.column();
+        In seatNumber = decoder.column();
+        In passengerName = decoder.column();
+        In passengerAge = decoder.column();
+        In passengerGender = decoder.column();
+        In boarding = decoder.column();
+        In alighting = decoder.column();
+        In ticketDate = decoder.column();
+        In departure = decoder.column();
+        In arrival = decoder.column();
+        In fare = decoder.column();
+        In ticketStatus = decoder.column();
+        In bookedAt = decoder.column();
+        In ticketConfirmedAt = decoder.column();
+        In ticketCancelledAt = decoder.column();
+        In reference = decoder.column();
+
+        In transactionId = decoder.column();
+        In amount = decoder.column();
+        In currency = decoder.column();
+        In transactionStatus = decoder.column();
+        In paymentMethod = decoder.column();
+        In paymentGateway = decoder.column();
+        In failureReason = decoder.column();
+        In transactionCreatedAt = decoder.column();
+        In completedAt = decoder.column();
+
+        List<ArchivedBooking> bookings = new ArrayList<>(decoder.rows());
+        for (int row = 0; row < decoder.rows(); row++) {
+            String id = bookingId.string();
+            Long user = userId.number();
+            String from = source.code();
+            String to = destination.code();
+            LocalDate date = journeyDate.date();
+            String journeyStatus = status.code();
+            String type = journeyType.code();
+            BigDecimal total = totalFare.amount();
+            Integer travel = integer(travelMinutes.number());
+            Integer layover = integer(layoverMinutes.number());
+            LocalDateTime created = createdAt.timestamp();
+            LocalDateTime confirmed = confirmedAt.timestamp();
+            LocalDateTime cancelled = cancelledAt.timestamp();
+            int tickets = ticketCount.count();
+            int transactions = transactionCount.count();
+
+            List<ArchivedTicket> bookingTickets = new ArrayList<>(tickets);
+            for (int i = 0; i < tickets; i++) {
+                bookingTickets.add(new ArchivedTicket(pnr.string(), trainNumber.code(), trainName.code(),
+                        coachNumber.code(), seatNumber.code(), passengerName.string(), integer(passengerAge.number()),
+                        passengerGender.code(), boarding.code(), alighting.code(), ticketDate.date(),
+                        departure.time(), arrival.time(), fare.amount(), ticketStatus.code(), bookedAt.timestamp(),
+                        ticketConfirmedAt.timestamp(), ticketCancelledAt.timestamp(), reference.string()));
+            }
+            List<ArchivedTransaction> bookingTransactions = new ArrayList<>(transactions);
+            for (int i = 0; i < transactions; i++) {
+                bookingTransactions.add(new ArchivedTransaction(transactionId.string(), amount.amount(),
+                        currency.code(), transactionStatus.code(), paymentMethod.code(), paymentGateway.code(),
+                        failureReason.string(), transactionCreatedAt.timestamp(), completedAt.timestamp()));
+            }
+            bookings.add(new ArchivedBooking(id, user, from, to, date, journeyStatus, type, total, travel, layover,
+                    created, confirmed, cancelled, bookingTickets, bookingTransactions));
+        }
+        return bookings;
+    }
+
+    /**
+     * The booking with this id, decoding the rest of the block only when the id column has it.
+     */
+    static ArchivedBooking find(byte[] block, String bookingId) {
+        Decoder decoder = new Decoder(block);
+        In ids = decoder.column();
+        for (int row = 0; row < decoder.rows(); row++) {
+            if (bookingId.equals(ids.string())) {
+                return decode(block).get(row);
+            }
+        }
+        return null;
+    }
+
+    private static Integer integer(Long value) {
+        return value == null ? null : Math.toIntExact(value);
+    }
+
+    private static final class Encoder {
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> dictionary = new ArrayList<>();
+        private final List<Out> columns = new ArrayList<>();
+
+        Out column() {
+            Out column = new Out(this);
+            columns.add(column);
+            return column;
+        }
+
+        int code(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                dictionary.add(value);
+                code = dictionary.size();
+                codes.put(value, code);
+            }
+            return code;
+        }
+
+        byte[] finish(int rows) {
+            Out header = new Out(this);
+            header.varint(rows);
+            header.varint(dictionary.size());
+            for (String value : dictionary) {
+                header.string(value);
+            }
+            header.varint(columns.size());
+            for (Out column : columns) {
+                header.varint(column.size);
+            }
+            int length = header.size;
+            for (Out column : columns) {
+                length += column.size;
+            }
+            byte[] block = Arrays.copyOf(header.bytes, length);
+            int position = header.size;
+            for (Out column : columns) {
+                System.arraycopy(column.bytes, 0, block, position, column.size);
+                position += column.size;
+            }
+            return block;
+        }
+    }
+
+    /**
+     * One column being written. Nullable values are stored shifted by one, 0 meaning null.
+     */
+    private static final class Out {
+
+        private final Encoder encoder;
+        private byte[] bytes = new byte[64];
+        private int size;
+        private long previous;
+
+        Out(Encoder encoder) {
+            this.encoder = encoder;
+        }
+
+        void count(int value) {
+            varint(value);
+        }
+
+        void number(Number value) {
+            varint(value == null ? 0 : zigzag(value.longValue()) + 1);
+        }
+
+        void string(String value) {
+            if (value == null) {
+                varint(0);
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            varint(utf8.length + 1L);
+            ensure(utf8.length);
+            System.arraycopy(utf8, 0, bytes, size, utf8.length);
+            size += utf8.length;
+        }
+
+        void code(String value) {
+            varint(value == null ? 0 : encoder.code(value));
+        }
+
+        void date(LocalDate value) {
+            delta(value == null ? null : value.toEpochDay());
+        }
+
+        void timestamp(LocalDateTime value) {
+            delta(value == null ? null : value.toInstant(ZoneOffset.UTC).toEpochMilli());
+        }
+
+        void time(LocalTime value) {
+            number(value == null ? null : value.toSecondOfDay());
+        }
+
+        void amount(BigDecimal value) {
+            number(value == null ? null : value.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+        }
+
+        private void delta(Long value) {
+            if (value == null) {
+                varint(0);
+                return;
+            }
+            varint(zigzag(value - previous) + 1);
+            previous = value;
+        }
+
+        void varint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+
+        private static long zigzag(long value) {
+            return (value << 1) ^ (value >> 63);
+        }
+    }
+
+    private static final class Decoder {
+
+        private final byte[] block;
+        private final int rows;
+        private final String[] dictionary;
+        private final int[] offsets;
+        private int next;
+
+        Decoder(byte[] block) {
+            this.block = block;
+            In header = new In(this, 0);
+            this.rows = Math.toIntExact(header.varint());
+            this.dictionary = new String[Math.toIntExact(header.varint())];
+            for (int i = 0; i < dictionary.length; i++) {
+                dictionary[i] = header.string();
+            }
+            this.offsets = new int[Math.toIntExact(header.varint())];
+            int position = 0;
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = position;
+                position += Math.toIntExact(header.varint());
+            }
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] += header.position;
+            }
+        }
+
+        int rows() {
+            return rows;
+        }
+
+        In column() {
+            if (next == offsets.length) {
+                throw new IllegalStateException("Archive block has only " + offsets.length + " columns");
+            }
+            return new In(this, offsets[next++]);
+        }
+    }
+
+    private static final class In {
+
+        private final Decoder decoder;
+        private int position;
+        private long previous;
+
+        In(Decoder decoder, int position) {
+            this.decoder = decoder;
+            this.position = position;
+        }
+
+        int count() {
+            return Math.toIntExact(varint());
+        }
+
+        Long number() {
+            long value = varint();
+            return value == 0 ? null : unzigzag(value - 1);
+        }
+
+        String string() {
+            long length = varint();
+            if (length == 0) {
+                return null;
+            }
+            int start = position;
+            position += (int) (length - 1);
+            return new String(decoder.block, start, (int) (length - 1), StandardCharsets.UTF_8);
+        }
+
+        String code() {
+            long code = varint();
+            return code == 0 ? null : decoder.dictionary[(int) code - 1];
+        }
+
+        LocalDate date() {
+            Long day = delta();
+            return day == null ? null : LocalDate.ofEpochDay(day);
+        }
+
+        LocalDateTime timestamp() {
+            Long millis = delta();
+            return millis == null ? null
+                    : LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000), Math.floorMod(millis, 1000) * 1_000_000,
+                    ZoneOffset.UTC);
+        }
+
+        LocalTime time() {
+            Long second = number();
+            return second == null ? null : LocalTime.ofSecondOfDay(second);
+        }
+
+        BigDecimal amount() {
+            Long paise = number();
+            return paise == null ? null : BigDecimal.valueOf(paise, 2);
+        }
+
+        private Long delta() {
+            long value = varint();
+            if (value == 0) {
+                return null;
+            }
+            previous += unzigzag(value - 1);
+            return previous;
+        }
+
+        long varint() {
+            byte[] bytes = decoder.block;
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+
+        private static long unzigzag(long value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+}
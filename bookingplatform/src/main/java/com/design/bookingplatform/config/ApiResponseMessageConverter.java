@@ -0,0 +1,210 @@
+package com.design.bookingplatform.config;
+
+import com.design.bookingplatform.dto.ApiResponse;
+import com.design.bookingplatform.dto.RawJson;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes ApiResponse bodies without reflecting over the envelope.
+ *
+ * The envelope fields are written straight to the response stream in the order Jackson uses,
+ * nulls included, so clients see the same document. The most recently used messages are kept
+ * encoded in a small LRU, as controllers mostly repeat a few fixed ones; a {@link RawJson}
+ * payload is copied as-is and any other payload goes through the application's ObjectMapper.
+ * Timestamps are written as ISO_INSTANT, as Jackson writes an Instant, with the part up to the
+ * seconds cached per second; a missing one is filled in with the time of writing.
+ * Request bodies are left to the regular Jackson converter.
+ */
+public class ApiResponseMessageConverter extends AbstractHttpMessageConverter<ApiResponse<?>> {
+
+    private static final int MAX_CACHED_MESSAGES = 256;
+
+    private static final byte[] SUCCESS = ascii("{\"success\":");
+    private static final byte[] MESSAGE = ascii(",\"message\":");
+    private static final byte[] DATA = ascii(",\"data\":");
+    private static final byte[] COUNT = ascii(",\"count\":");
+    private static final byte[] TIMESTAMP = ascii(",\"timestamp\":");
+    private static final byte[] ERROR_CODE = ascii(",\"errorCode\":");
+    private static final byte[] ERRORS = ascii(",\"errors\":");
+    private static final byte[] TRUE = ascii("true");
+    private static final byte[] FALSE = ascii("false");
+    private static final byte[] NULL = ascii("null");
+    private static final byte[] HEX = ascii("0123456789abcdef");
+
+    private final ObjectWriter payloadWriter;
+    private final Map<String, byte[]> messages = Collections.synchronizedMap(
+            new LinkedHashMap<>(MAX_CACHED_MESSAGES * 2, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                    return size() > MAX_CACHED_MESSAGES;
+                }
+            });
+    private volatile SecondPrefix secondPrefix = new SecondPrefix(Long.MIN_VALUE, null);
+
+    public ApiResponseMessageConverter(ObjectMapper objectMapper) {
+        super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+        setDefaultCharset(StandardCharsets.UTF_8);
+        this.payloadWriter = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ApiResponse.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, @Nullable MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected ApiResponse<?> readInternal(Class<? extends ApiResponse<?>> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("ApiResponse bodies are write-only", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(ApiResponse<?> response, HttpOutputMessage outputMessage) throws IOException {
+        OutputStream out = outputMessage.getBody();
+        out.write(SUCCESS);
+        out.write(response.getSuccess() == null ? NULL : response.getSuccess() ? TRUE : FALSE);
+        out.write(MESSAGE);
+        writeMessage(out, response.getMessage());
+        out.write(DATA);
+        writePayload(out, response.getData());
+        out.write(COUNT);
+        if (response.getCount() == null) {
+            out.write(NULL);
+        } else {
+            writeAscii(out, Integer.toString(response.getCount()));
+        }
+        out.write(TIMESTAMP);
+        writeTimestamp(out, response.getTimestamp());
+        out.write(ERROR_CODE);
+        writeMessage(out, response.getErrorCode());
+        out.write(ERRORS);
+        writeErrors(out, response.getErrors());
+        out.write('}');
+    }
+
+    private void writePayload(OutputStream out, Object data) throws IOException {
+        if (data == null) {
+            out.write(NULL);
+        } else if (data instanceof RawJson raw) {
+            raw.writeTo(out);
+        } else {
+            payloadWriter.writeValue(out, data);
+        }
+    }
+
+    private void writeMessage(OutputStream out, String message) throws IOException {
+        if (message == null) {
+            out.write(NULL);
+            return;
+        }
+        byte[] encoded = messages.get(message);
+        if (encoded == null) {
+            encoded = quote(message);
+            messages.put(message, encoded);
+        }
+        out.write(encoded);
+    }
+
+    private static void writeErrors(OutputStream out, List<String> errors) throws IOException {
+        if (errors == null) {
+            out.write(NULL);
+            return;
+        }
+        out.write('[');
+        for (int i = 0; i < errors.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            String error = errors.get(i);
+            out.write(error == null ? NULL : quote(error));
+        }
+        out.write(']');
+    }
+
+    /**
+     * ISO_INSTANT: the seconds are rendered once per second, then the fraction in as many groups
+     * of three digits as the nanos need, none when they are zero.
+     */
+    private void writeTimestamp(OutputStream out, Instant timestamp) throws IOException {
+        Instant instant = timestamp == null ? Instant.now() : timestamp;
+        long epochSecond = instant.getEpochSecond();
+        SecondPrefix prefix = secondPrefix;
+        if (prefix.epochSecond() != epochSecond) {
+            String seconds = DateTimeFormatter.ISO_INSTANT.format(Instant.ofEpochSecond(epochSecond));
+            prefix = new SecondPrefix(epochSecond, ascii("\"" + seconds.substring(0, seconds.length() - 1)));
+            secondPrefix = prefix;
+        }
+        out.write(prefix.bytes());
+        int nanos = instant.getNano();
+        if (nanos != 0) {
+            int digits = nanos % 1_000_000 == 0 ? 3 : nanos % 1_000 == 0 ? 6 : 9;
+            out.write('.');
+            for (int divisor = 100_000_000, i = 0; i < digits; divisor /= 10, i++) {
+                out.write('0' + nanos / divisor % 10);
+            }
+        }
+        out.write('Z');
+        out.write('"');
+    }
+
+    private static byte[] quote(String value) {
+        StringBuilder json = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append("\\u00").append((char) HEX[c >> 4]).append((char) HEX[c & 0xF]);
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        return json.append('"').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void writeAscii(OutputStream out, String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            out.write(value.charAt(i));
+        }
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private record SecondPrefix(long epochSecond, byte[] bytes) {
+    }
+}
@@ -0,0 +1,72 @@
+package com.design.bookingplatform.config;
+
+import com.design.bookingplatform.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Primary plus read-replica pools, active once platform.datasource.replica.urls is set.
+ * The primary pool is sized by spring.datasource.hikari.*, every replica pool by
+ * platform.datasource.replica.hikari.*; replicas default to the primary's credentials.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "platform.datasource.replica", name = "urls")
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("platform.datasource.replica.hikari")
+    public HikariConfig replicaPoolConfig() {
+        return new HikariConfig();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            @Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+            @Qualifier("replicaPoolConfig") HikariConfig replicaPoolConfig,
+            DataSourceProperties properties,
+            @Value("${platform.datasource.replica.urls}") List<String> urls,
+            @Value("${platform.datasource.replica.username:}") String username,
+            @Value("${platform.datasource.replica.password:}") String password,
+            @Value("${platform.datasource.replica.lag-check-interval:1s}") Duration lagCheckInterval
+    ) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariConfig config = new HikariConfig();
+            replicaPoolConfig.copyStateTo(config);
+            config.setJdbcUrl(urls.get(i).trim());
+            config.setUsername(username.isEmpty() ? properties.determineUsername() : username);
+            config.setPassword(password.isEmpty() ? properties.determinePassword() : password);
+            config.setPoolName("replica-" + i);
+            config.setReadOnly(true);
+            replicas.put("replica-" + i, new HikariDataSource(config));
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, lagCheckInterval);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
@@ -0,0 +1,33 @@
+package com.design.bookingplatform.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * Bounded pool for per-train availability lookups fanned out by bulk requests.
+     * Lookups are short and mostly wait on the database, so the pool is sized well above core count.
+     * Once the platform moves past Java 17 this can become a virtual-thread-per-task executor.
+     */
+    @Bean(name = "availabilityExecutor")
+    public ThreadPoolTaskExecutor availabilityExecutor(
+            @Value("${platform.availability.pool-size:16}") int poolSize,
+            @Value("${platform.availability.queue-capacity:512}") int queueCapacity
+    ) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("availability-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+}
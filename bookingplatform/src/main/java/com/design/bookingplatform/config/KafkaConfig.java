@@ -0,0 +1,45 @@
+package com.design.bookingplatform.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+@Configuration
+public class KafkaConfig {
+
+    /**
+     * Compacted, so the topic keeps the latest state of every train|date|coach key and a
+     * consumer can rebuild its view by reading it from the beginning.
+     */
+    @Bean
+    public NewTopic seatInventoryTopic(
+            @Value("${platform.inventory-stream.topic:seat-inventory}") String topic,
+            @Value("${platform.inventory-stream.partitions:12}") int partitions,
+            @Value("${platform.inventory-stream.replicas:1}") int replicas
+    ) {
+        return TopicBuilder.name(topic)
+                .partitions(partitions)
+                .replicas(replicas)
+                .compact()
+                .build();
+    }
+
+    /**
+     * Compacted like the seat-inventory topic, keyed train|date, so the latest delay of every run
+     * survives and a cleared delay is a tombstone.
+     */
+    @Bean
+    public NewTopic trainDelaysTopic(
+            @Value("${platform.delay-stream.topic:train-delays}") String topic,
+            @Value("${platform.delay-stream.partitions:3}") int partitions,
+            @Value("${platform.inventory-stream.replicas:1}") int replicas
+    ) {
+        return TopicBuilder.name(topic)
+                .partitions(partitions)
+                .replicas(replicas)
+                .compact()
+                .build();
+    }
+}
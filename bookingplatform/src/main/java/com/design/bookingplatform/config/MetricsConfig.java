@@ -0,0 +1,37 @@
+package com.design.bookingplatform.config;
+
+import com.design.bookingplatform.engine.BookingEngine;
+import com.design.bookingplatform.expiry.ExpiryScheduler;
+import com.design.bookingplatform.journal.BookingJournal;
+import com.design.bookingplatform.locking.SeatLockManager;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Gauges read on scrape: seat locks held in memory, blocked seats awaiting payment, booking
+     * changes waiting in the engine's mailboxes and journaled transitions not yet in the database.
+     */
+    @Bean
+    public MeterBinder bookingGauges(SeatLockManager seatLockManager, ExpiryScheduler expiryScheduler,
+                                     BookingEngine bookingEngine, BookingJournal bookingJournal) {
+        return registry -> {
+            Gauge.builder("booking.seat_locks.active", seatLockManager, SeatLockManager::activeLockCount)
+                    .description("Seat locks currently held")
+                    .register(registry);
+            Gauge.builder("booking.seats.blocked", expiryScheduler, ExpiryScheduler::blockedSeatCount)
+                    .description("Seats blocked for payment and not yet confirmed or expired")
+                    .register(registry);
+            Gauge.builder("booking.engine.queued", bookingEngine, BookingEngine::queuedCount)
+                    .description("Booking changes waiting in booking engine mailboxes")
+                    .register(registry);
+            Gauge.builder("booking.journal.unapplied", bookingJournal, BookingJournal::unappliedCount)
+                    .description("Booking transitions synced to the journal and not yet applied to the database")
+                    .register(registry);
+        };
+    }
+}
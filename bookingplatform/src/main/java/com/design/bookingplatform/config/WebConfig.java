@@ -0,0 +1,18 @@
+package com.design.bookingplatform.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class WebConfig {
+
+    /**
+     * Spring Boot places converter beans ahead of its defaults, so ApiResponse bodies are
+     * written by this converter rather than the generic Jackson one.
+     */
+    @Bean
+    public ApiResponseMessageConverter apiResponseMessageConverter(ObjectMapper objectMapper) {
+        return new ApiResponseMessageConverter(objectMapper);
+    }
+}
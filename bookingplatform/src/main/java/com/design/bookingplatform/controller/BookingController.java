@@ -1,12 +1,15 @@
 package com.design.bookingplatform.controller;
 
 import com.design.bookingplatform.dto.*;
+import com.design.bookingplatform.metrics.LogSampler;
+import com.design.bookingplatform.schedule.ScheduleCache.CachedSchedule;
 import com.design.bookingplatform.service.BookingService;
 import com.design.bookingplatform.service.TrainService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -34,6 +37,8 @@ public class BookingController {
     @Autowired
     private final BookingService bookingService;
 
+    private final LogSampler logSampler;
+
 
     /**
      * Get all active trains
@@ -43,33 +48,42 @@ public class BookingController {
     public ResponseEntity<ApiResponse<List<TrainDTO>>> getAllTrains(
             @RequestParam(required = false) Boolean isActive
     ) {
-        log.info("Fetching all trains, isActive: {}", isActive);
+        if (logSampler.sample(log)) {
+            log.debug("Fetching all trains, isActive: {}", isActive);
+        }
         List<TrainDTO> trains = trainService.getAllTrains(isActive);
 
         return ResponseEntity.ok(ApiResponse.<List<TrainDTO>>builder()
                 .success(true)
                 .message("Trains fetched successfully")
                 .data(trains)
-                .timestamp(java.time.Instant.now())
                 .build());
     }
 
     /**
      * Get train by train number
      * GET /api/platform/trains/{trainNumber}
+     * Query param: date (optional), the day the run leaves its origin, to include its delay
+     * Supports If-None-Match with the schedule's ETag
      */
     @GetMapping("/trains/{trainNumber}")
-    public ResponseEntity<ApiResponse<TrainDTO>> getTrainByNumber(
-            @PathVariable String trainNumber
+    public ResponseEntity<ApiResponse<RawJson>> getTrainByNumber(
+            @PathVariable String trainNumber,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
-        log.info("Fetching train details for trainNumber: {}", trainNumber);
-        TrainDTO train = trainService.getTrainByNumber(trainNumber);
-
-        return ResponseEntity.ok(ApiResponse.<TrainDTO>builder()
+        if (logSampler.sample(log)) {
+            log.debug("Fetching train details for trainNumber: {}", trainNumber);
+        }
+        CachedSchedule schedule = trainService.getScheduleSnapshot(trainNumber, date);
+        if (schedule.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(schedule.etag()).build();
+        }
+
+        return ResponseEntity.ok().eTag(schedule.etag()).body(ApiResponse.<RawJson>builder()
                 .success(true)
                 .message("Train details fetched successfully")
-                .data(train)
-                .timestamp(java.time.Instant.now())
+                .data(RawJson.of(schedule.trainJson()))
                 .build());
     }
 
@@ -79,39 +93,69 @@ public class BookingController {
      * Query params: source, destination
      */
     @GetMapping("/trains/routes")
-    public ResponseEntity<ApiResponse<List<TrainDTO>>> getTrainsByRoute(
+    public ResponseEntity<ApiResponse<RawJson>> getTrainsByRoute(
             @RequestParam String source,
             @RequestParam String destination,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date
     ) {
-        log.info("Fetching trains from {} to {} on date: {}", source, destination, date);
-        List<TrainDTO> trains = trainService.getTrainsByRoute(source, destination, date);
+        if (logSampler.sample(log)) {
+            log.debug("Fetching trains from {} to {} on date: {}", source, destination, date);
+        }
+        RawJson trains = trainService.getTrainsByRouteJson(source, destination, date);
 
-        return ResponseEntity.ok(ApiResponse.<List<TrainDTO>>builder()
+        return ResponseEntity.ok(ApiResponse.<RawJson>builder()
                 .success(true)
                 .message("Trains fetched successfully")
                 .data(trains)
                 .count(trains.size())
-                .timestamp(java.time.Instant.now())
                 .build());
     }
 
     /**
      * Get train schedule with all intermediate stations
      * GET /api/platform/trains/{trainNumber}/schedule
+     * Query param: date (optional), the day the run leaves its origin, to include its delay
+     * Supports If-None-Match with the schedule's ETag
      */
     @GetMapping("/trains/{trainNumber}/schedule")
-    public ResponseEntity<ApiResponse<TrainScheduleDTO>> getTrainSchedule(
-            @PathVariable String trainNumber
+    public ResponseEntity<ApiResponse<RawJson>> getTrainSchedule(
+            @PathVariable String trainNumber,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
-        log.info("Fetching schedule for train: {}", trainNumber);
-        TrainScheduleDTO schedule = trainService.getTrainSchedule(trainNumber);
-
-        return ResponseEntity.ok(ApiResponse.<TrainScheduleDTO>builder()
+        if (logSampler.sample(log)) {
+            log.debug("Fetching schedule for train: {}", trainNumber);
+        }
+        CachedSchedule schedule = trainService.getScheduleSnapshot(trainNumber, date);
+        if (schedule.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(schedule.etag()).build();
+        }
+
+        return ResponseEntity.ok().eTag(schedule.etag()).body(ApiResponse.<RawJson>builder()
                 .success(true)
                 .message("Train schedule fetched successfully")
-                .data(schedule)
-                .timestamp(java.time.Instant.now())
+                .data(RawJson.of(schedule.json()))
+                .build());
+    }
+
+    /**
+     * Report the delay of one run of a train
+     * PUT /api/platform/trains/{trainNumber}/delay
+     * Body: { "journeyDate": "2025-01-15", "delayMinutes": 45, "arrivalDelayMinutes": 30 }
+     */
+    @PutMapping("/trains/{trainNumber}/delay")
+    public ResponseEntity<ApiResponse<TrainDTO>> reportDelay(
+            @PathVariable String trainNumber,
+            @Valid @RequestBody TrainDelayRequest request
+    ) {
+        log.info("Delay of {} min reported for train {} on {}", request.getDelayMinutes(), trainNumber,
+                request.getJourneyDate());
+        TrainDTO train = trainService.reportDelay(trainNumber, request);
+
+        return ResponseEntity.ok(ApiResponse.<TrainDTO>builder()
+                .success(true)
+                .message("Train delay recorded")
+                .data(train)
                 .build());
     }
 
@@ -128,8 +172,10 @@ public class BookingController {
             @RequestParam(required = false) String source,
             @RequestParam(required = false) String destination
     ) {
-        log.info("Checking availability for train: {}, date: {}, class: {}",
-                trainNumber, date, coachClass);
+        if (logSampler.sample(log)) {
+            log.debug("Checking availability for train: {}, date: {}, class: {}",
+                    trainNumber, date, coachClass);
+        }
 
         AvailabilityResponse availability = trainService.checkAvailability(
                 trainNumber, date, coachClass, source, destination
@@ -139,7 +185,6 @@ public class BookingController {
                 .success(true)
                 .message("Availability checked successfully")
                 .data(availability)
-                .timestamp(java.time.Instant.now())
                 .build());
     }
 
@@ -152,8 +197,10 @@ public class BookingController {
     public ResponseEntity<ApiResponse<Map<String, AvailabilityResponse>>> checkBulkAvailability(
             @Valid @RequestBody BulkAvailabilityRequest request
     ) {
-        log.info("Bulk availability check for {} trains on {}",
-                request.getTrainNumbers().size(), request.getDate());
+        if (logSampler.sample(log)) {
+            log.debug("Bulk availability check for {} trains on {}",
+                    request.getTrainNumbers().size(), request.getDate());
+        }
 
         Map<String, AvailabilityResponse> availabilityMap =
                 trainService.checkBulkAvailability(request);
@@ -163,7 +210,6 @@ public class BookingController {
                 .message("Bulk availability checked successfully")
                 .data(availabilityMap)
                 .count(availabilityMap.size())
-                .timestamp(java.time.Instant.now())
                 .build());
     }
 
@@ -176,14 +222,15 @@ public class BookingController {
             @PathVariable String trainNumber,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date
     ) {
-        log.info("Fetching available coaches for train: {} on {}", trainNumber, date);
+        if (logSampler.sample(log)) {
+            log.debug("Fetching available coaches for train: {} on {}", trainNumber, date);
+        }
         List<CoachDTO> coaches = trainService.getAvailableCoaches(trainNumber, date);
 
         return ResponseEntity.ok(ApiResponse.<List<CoachDTO>>builder()
                 .success(true)
                 .message("Coaches fetched successfully")
                 .data(coaches)
-                .timestamp(java.time.Instant.now())
                 .build());
     }
 
@@ -199,8 +246,10 @@ public class BookingController {
             @Valid @RequestBody SeatLockRequest request,
             @RequestHeader(value = "X-Idempotency-Key", required = false) String idempotencyKey
     ) {
-        log.info("Acquiring seat lock for train: {}, seats: {}, idempotencyKey: {}",
-                request.getTrainNumber(), request.getSeats(), idempotencyKey);
+        if (logSampler.sample(log)) {
+            log.debug("Acquiring seat lock for train: {}, seats: {}, idempotencyKey: {}",
+                    request.getTrainNumber(), request.getSeats().size(), idempotencyKey);
+        }
 
         SeatLockResponse lockResponse = bookingService.acquireSeatLock(request, idempotencyKey);
 
@@ -208,7 +257,6 @@ public class BookingController {
                 .success(true)
                 .message("Seats locked successfully")
                 .data(lockResponse)
-                .timestamp(java.time.Instant.now())
                 .build());
     }
 
@@ -220,13 +268,14 @@ public class BookingController {
     public ResponseEntity<ApiResponse<Void>> releaseSeatLock(
             @PathVariable String lockId
     ) {
-        log.info("Releasing seat lock: {}", lockId);
+        if (logSampler.sample(log)) {
+            log.debug("Releasing seat lock: {}", lockId);
+        }
         bookingService.releaseSeatLock(lockId);
 
         return ResponseEntity.ok(ApiResponse.<Void>builder()
                 .success(true)
                 .message("Seat lock released successfully")
-                .timestamp(java.time.Instant.now())
                 .build());
     }
 
@@ -241,8 +290,10 @@ public class BookingController {
             @Valid @RequestBody BlockSeatsRequest request,
             @RequestHeader(value = "X-Idempotency-Key", required = false) String idempotencyKey
     ) {
-        log.info("Blocking seats for train: {}, passengers: {}, idempotencyKey: {}",
-                request.getTrainNumber(), request.getPassengers().size(), idempotencyKey);
+        if (logSampler.sample(log)) {
+            log.debug("Blocking seats for train: {}, passengers: {}, idempotencyKey: {}",
+                    request.getTrainNumber(), request.getPassengers().size(), idempotencyKey);
+        }
 
         BlockSeatsResponse blockResponse = bookingService.blockSeats(request, idempotencyKey);
 
@@ -251,7 +302,6 @@ public class BookingController {
                         .success(true)
                         .message("Seats blocked successfully")
                         .data(blockResponse)
-                        .timestamp(java.time.Instant.now())
                         .build());
     }
 
@@ -275,7 +325,6 @@ public class BookingController {
                 .success(true)
                 .message("Booking confirmed successfully")
                 .data(confirmation)
-                .timestamp(java.time.Instant.now())
                 .build());
     }
 
@@ -294,7 +343,6 @@ public class BookingController {
         return ResponseEntity.ok(ApiResponse.<Void>builder()
                 .success(true)
                 .message("Seats released successfully")
-                .timestamp(java.time.Instant.now())
                 .build());
     }
 
@@ -306,14 +354,15 @@ public class BookingController {
     public ResponseEntity<ApiResponse<BookingDetailsResponse>> getBookingDetails(
             @PathVariable String bookingId
     ) {
-        log.info("Fetching booking details: {}", bookingId);
+        if (logSampler.sample(log)) {
+            log.debug("Fetching booking details: {}", bookingId);
+        }
         BookingDetailsResponse booking = bookingService.getBookingDetails(bookingId);
 
         return ResponseEntity.ok(ApiResponse.<BookingDetailsResponse>builder()
                 .success(true)
                 .message("Booking details fetched successfully")
                 .data(booking)
-                .timestamp(java.time.Instant.now())
                 .build());
     }
 
@@ -333,7 +382,6 @@ public class BookingController {
                 .success(true)
                 .message("Booking cancelled successfully")
                 .data(cancellation)
-                .timestamp(java.time.Instant.now())
                 .build());
     }
 
@@ -341,28 +389,27 @@ public class BookingController {
     // FARE CALCULATION ENDPOINTS
     // ========================================================================
 
-//    /**
-//     * Calculate fare for a journey
-//     * POST /api/platform/fare/calculate
-//     * Body: { "trainNumber": "12345", "source": "NDLS", "destination": "CSTM", ... }
-//     */
-//    @PostMapping("/fare/calculate")
-//    public ResponseEntity<ApiResponse<FareResponse>> calculateFare(
-//            @Valid @RequestBody FareCalculationRequest request
-//    ) {
-//        log.info("Calculating fare for train: {} from {} to {}",
-//                request.getTrainNumber(), request.getSource(), request.getDestination());
-//
-//        FareResponse fare = trainService.calculateFare(request);
-//
-//        return ResponseEntity.ok(ApiResponse.<FareResponse>builder()
-//                .success(true)
-//                .message("Fare calculated successfully")
-//                .data(fare)
-//                .timestamp(java.time.Instant.now())
-//                .build());
-//    }
-//
+    /**
+     * Calculate fare for a journey, per class unless one is given
+     * POST /api/platform/fare/calculate
+     * Body: { "trainNumber": "12345", "source": "NDLS", "destination": "CSTM", ... }
+     */
+    @PostMapping("/fare/calculate")
+    public ResponseEntity<ApiResponse<FareResponse>> calculateFare(
+            @Valid @RequestBody FareCalculationRequest request
+    ) {
+        if (logSampler.sample(log)) {
+            log.debug("Calculating fare for train: {} from {} to {}",
+                    request.getTrainNumber(), request.getSource(), request.getDestination());
+        }
+        FareResponse fare = trainService.calculateFare(request);
+
+        return ResponseEntity.ok(ApiResponse.<FareResponse>builder()
+                .success(true)
+                .message("Fare calculated successfully")
+                .data(fare)
+                .build());
+    }
 
 //    /**
 //     * Get PNR status
@@ -384,45 +431,48 @@ public class BookingController {
 //    }
 
 
-//    /**
-//     * Get all stations
-//     * GET /api/platform/stations
-//     */
-//    @GetMapping("/stations")
-//    public ResponseEntity<ApiResponse<List<StationDTO>>> getAllStations() {
-//        log.info("Fetching all stations");
-//        List<StationDTO> stations = trainService.getAllStations();
-//
-//        return ResponseEntity.ok(ApiResponse.<List<StationDTO>>builder()
-//                .success(true)
-//                .message("Stations fetched successfully")
-//                .data(stations)
-//                .timestamp(java.time.Instant.now())
-//                .build());
-//    }
-//
-//    /**
-//     * Search stations by name or code
-//     * GET /api/platform/stations/search?query=delhi
-//     */
-//    @GetMapping("/stations/search")
-//    public ResponseEntity<ApiResponse<List<StationDTO>>> searchStations(
-//            @RequestParam String query
-//    ) {
-//        log.info("Searching stations with query: {}", query);
-//        List<StationDTO> stations = trainService.searchStations(query);
-//
-//        return ResponseEntity.ok(ApiResponse.<List<StationDTO>>builder()
-//                .success(true)
-//                .message("Stations search completed")
-//                .data(stations)
-//                .timestamp(java.time.Instant.now())
-//                .build());
-//    }
-//
-//
-//
-//
+    /**
+     * Get all stations, most-served first
+     * GET /api/platform/stations
+     */
+    @GetMapping("/stations")
+    public ResponseEntity<ApiResponse<List<StationDTO>>> getAllStations() {
+        if (logSampler.sample(log)) {
+            log.debug("Fetching all stations");
+        }
+        List<StationDTO> stations = trainService.getAllStations();
+
+        return ResponseEntity.ok(ApiResponse.<List<StationDTO>>builder()
+                .success(true)
+                .message("Stations fetched successfully")
+                .data(stations)
+                .count(stations.size())
+                .build());
+    }
+
+    /**
+     * Search stations by name or code prefix, tolerating typos
+     * GET /api/platform/stations/search?query=delhi
+     */
+    @GetMapping("/stations/search")
+    public ResponseEntity<ApiResponse<List<StationDTO>>> searchStations(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        if (logSampler.sample(log)) {
+            log.debug("Searching stations with query: {}", query);
+        }
+        List<StationDTO> stations = trainService.searchStations(query, limit);
+
+        return ResponseEntity.ok(ApiResponse.<List<StationDTO>>builder()
+                .success(true)
+                .message("Stations search completed")
+                .data(stations)
+                .count(stations.size())
+                .build());
+    }
+
+
 //    /**
 //     * Health check endpoint
 //     * GET /api/platform/health
@@ -0,0 +1,47 @@
+package com.design.bookingplatform.datasource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Runs queries in read-only transactions that may be served by a read replica.
+ *
+ * Only reads whose result never feeds a write decision or an in-memory cache that bookings
+ * rely on belong here. {@link #read} accepts a replica up to max-lag behind, {@link #readFresh}
+ * one up to fresh-max-lag behind for reads of recently written rows. Inside an existing
+ * read-write transaction the query joins it and stays on the primary, and without configured
+ * replicas both are plain read-only transactions on the primary.
+ */
+@Component
+public class ReplicaReads {
+
+    private final TransactionTemplate readOnlyTemplate;
+    private final Duration maxLag;
+    private final Duration freshMaxLag;
+
+    public ReplicaReads(PlatformTransactionManager transactionManager,
+                        @Value("${platform.datasource.replica.max-lag:5s}") Duration maxLag,
+                        @Value("${platform.datasource.replica.fresh-max-lag:500ms}") Duration freshMaxLag) {
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        this.maxLag = maxLag;
+        this.freshMaxLag = freshMaxLag;
+    }
+
+    public <T> T read(Supplier<T> query) {
+        return read(maxLag, query);
+    }
+
+    public <T> T readFresh(Supplier<T> query) {
+        return read(freshMaxLag, query);
+    }
+
+    private <T> T read(Duration bound, Supplier<T> query) {
+        return ReplicaRoutingDataSource.withMaxLag(bound, () -> readOnlyTemplate.execute(tx -> query.get()));
+    }
+}
@@ -0,0 +1,163 @@
+package com.design.bookingplatform.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Sends a connection to a replica only for read-only transactions that opted in through
+ * {@link ReplicaReads}, and only to a replica whose last measured lag is within the read's
+ * bound; everything else, including every write, gets the primary.
+ *
+ * Replica lag is measured on a fixed interval as the age of the last replayed transaction,
+ * or zero when the replica has replayed all WAL it received. A replica that cannot be reached,
+ * or whose WAL receiver is not streaming from the primary, counts as infinitely behind until the
+ * next successful check: with the receiver down, received and replayed WAL match while the
+ * replica falls further behind. Must sit behind a
+ * LazyConnectionDataSourceProxy so the connection is chosen after the transaction has started.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private static final String PRIMARY = "primary";
+    private static final String LAG_SQL = """
+            SELECT CASE WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming') THEN NULL
+                        WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                        ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+                   END
+            """;
+    private static final ThreadLocal<Duration> READ_MAX_LAG = new ThreadLocal<>();
+
+    private final List<Replica> replicas;
+    private final long checkIntervalMillis;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService lagChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "replica-lag-check");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration checkInterval) {
+        this.replicas = replicas.entrySet().stream().map(entry -> new Replica(entry.getKey(), entry.getValue())).toList();
+        this.checkIntervalMillis = checkInterval.toMillis();
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        lagChecker.scheduleWithFixedDelay(this::checkLag, 0, checkIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Lets read-only transactions started by the action use a replica at most maxLag behind.
+     */
+    static <T> T withMaxLag(Duration maxLag, Supplier<T> action) {
+        Duration previous = READ_MAX_LAG.get();
+        READ_MAX_LAG.set(maxLag);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                READ_MAX_LAG.remove();
+            } else {
+                READ_MAX_LAG.set(previous);
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Duration maxLag = READ_MAX_LAG.get();
+        if (maxLag == null || replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        long bound = maxLag.toMillis();
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.lagMillis <= bound) {
+                return replica.name;
+            }
+        }
+        return PRIMARY;
+    }
+
+    /**
+     * Last measured lag per replica, in milliseconds; Long.MAX_VALUE when unreachable.
+     */
+    public Map<String, Long> replicaLagMillis() {
+        Map<String, Long> lags = new HashMap<>();
+        for (Replica replica : replicas) {
+            lags.put(replica.name, replica.lagMillis);
+        }
+        return lags;
+    }
+
+    private void checkLag() {
+        for (Replica replica : replicas) {
+            long lag;
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(LAG_SQL)) {
+                lag = rs.next() ? Math.max(0, rs.getLong(1)) : Long.MAX_VALUE;
+                if (lag == 0 && rs.wasNull()) {
+                    lag = Long.MAX_VALUE;
+                    if (replica.lagMillis != Long.MAX_VALUE) {
+                        log.warn("Replica {} is not streaming from the primary, reads go to the primary", replica.name);
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                lag = Long.MAX_VALUE;
+                if (replica.lagMillis != Long.MAX_VALUE) {
+                    log.warn("Replica {} is unreachable, reads go to the primary", replica.name, e);
+                }
+            }
+            replica.lagMillis = lag;
+        }
+    }
+
+    @Override
+    public void close() {
+        lagChecker.shutdownNow();
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Failed to close replica pool {}", replica.name, e);
+                }
+            }
+        }
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile long lagMillis = Long.MAX_VALUE;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -15,7 +15,7 @@ import java.util.List;
 public class AvailabilityResponse {
     private String trainNumber;
     private LocalDate date;
-    private String status; // "AVAILABLE", "WAITLIST", "FULL", "NOT_OPERATING"
+    private String status; // "AVAILABLE", "WAITLIST", "FULL", "NOT_OPERATING", "NOT_FOUND", "TIMEOUT", "ERROR"
     private List<CoachAvailabilityDTO> coaches;
     private Integer totalAvailableSeats;
     private Integer waitlistCount;
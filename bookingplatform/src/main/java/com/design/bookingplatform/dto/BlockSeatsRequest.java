@@ -12,6 +12,9 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 public class BlockSeatsRequest {
+    @NotNull(message = "User id is required")
+    private Long userId;
+
     @NotBlank(message = "Train number is required")
     private String trainNumber;
 
@@ -34,4 +37,10 @@ public class BlockSeatsRequest {
     @Min(value = 1, message = "Block duration must be at least 1 minute")
     @Max(value = 10, message = "Block duration cannot exceed 10 minutes")
     private Integer blockDurationMinutes = 3;
+
+    // Waitlist passengers no seat is free for instead of failing the block
+    private Boolean allowWaitlist = false;
+
+    // Lock from PUT /seats/lock whose seats are blocked, one per passenger; without it seats are picked
+    private String lockId;
 }
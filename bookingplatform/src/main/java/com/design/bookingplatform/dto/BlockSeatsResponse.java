@@ -15,7 +15,7 @@ import java.util.List;
 @AllArgsConstructor
 public class BlockSeatsResponse {
     private String bookingReference;
-    private String status; // "BLOCKED", "PARTIALLY_BLOCKED", "FAILED"
+    private String status; // "BLOCKED", "PARTIALLY_BLOCKED", "WAITLISTED", "FAILED"
     private List<BlockedTicketDTO> tickets;
     private BigDecimal totalFare;
     private Instant expiresAt;
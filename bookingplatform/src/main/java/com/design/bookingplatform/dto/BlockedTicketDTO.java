@@ -14,8 +14,8 @@ import java.math.BigDecimal;
 public class BlockedTicketDTO {
     private String pnrNumber;
     private String coachNumber;
-    private String seatNumber;
+    private String seatNumber; // Waitlist position, e.g. "RAC 2" or "WL 14", until a seat is assigned
     private String passengerName;
     private BigDecimal fare;
-    private String status; // "BLOCKED", "UNAVAILABLE"
+    private String status; // "BLOCKED", "RAC", "WAITLIST", "UNAVAILABLE"
 }
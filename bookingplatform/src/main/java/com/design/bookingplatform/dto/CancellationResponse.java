@@ -1,21 +1,23 @@
 package com.design.bookingplatform.dto;
 
-
-import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+
 @Data
+@Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class CancellationResponse {
-
-    @NotBlank(message = "Reason is required")
-    int bookingId;
-
-    @NotBlank(message = "Reason is required")
-    int cancellationId;
-
-    String booking_reason;
+    private String bookingId;
+    private String status; // "CANCELLED"
+    private Integer cancelledTickets;
+    private BigDecimal refundAmount;
+    private String reason;
+    private Instant cancelledAt;
+    private String message;
 }
@@ -0,0 +1,22 @@
+package com.design.bookingplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClassFareDTO {
+    private String coachClass;
+    private BigDecimal baseFare;
+    private BigDecimal reservationCharge;
+    private BigDecimal superfastCharge;
+    private BigDecimal gst;
+    private BigDecimal farePerPassenger;
+    private BigDecimal totalFare;
+}
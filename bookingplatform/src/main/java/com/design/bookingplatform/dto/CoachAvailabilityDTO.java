@@ -3,10 +3,12 @@ package com.design.bookingplatform.dto;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 
+@Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
@@ -20,5 +22,5 @@ public class CoachAvailabilityDTO {
     private Boolean hasAC;
     private Boolean hasCharging;
     private Boolean hasWifi;
-    private String status; // "AVAILABLE", "RAC", "WAITLIST"
+    private String status; // "AVAILABLE", "RAC", "WAITLIST", "FULL"
 }
\ No newline at end of file
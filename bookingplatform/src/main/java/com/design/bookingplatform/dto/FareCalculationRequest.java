@@ -0,0 +1,30 @@
+package com.design.bookingplatform.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FareCalculationRequest {
+    @NotBlank(message = "Train number is required")
+    private String trainNumber;
+
+    @NotBlank(message = "Source station is required")
+    private String source;
+
+    @NotBlank(message = "Destination station is required")
+    private String destination;
+
+    private String coachClass; // null quotes every class of the train
+
+    private LocalDate journeyDate; // optional, only checked against the operating days
+
+    @Min(value = 1, message = "At least one passenger is required")
+    @Max(value = 6, message = "Maximum 6 passengers allowed")
+    private Integer passengers = 1;
+}
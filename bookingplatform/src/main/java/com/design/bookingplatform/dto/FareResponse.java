@@ -0,0 +1,25 @@
+package com.design.bookingplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FareResponse {
+    private String trainNumber;
+    private String trainName;
+    private String sourceStation;
+    private String destinationStation;
+    private LocalDate journeyDate;
+    private BigDecimal distanceKm;
+    private Integer passengers;
+    private List<ClassFareDTO> fares;
+}
@@ -0,0 +1,130 @@
+package com.design.bookingplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+
+/**
+ * One seat-state change of a coach on the seat-inventory topic, keyed train|date|coach.
+ *
+ * The change itself is a state and the seat runs and legs it covers. Every record also carries
+ * the coach's resulting occupancy and held seats, so the latest record per key, which is all a
+ * compacted topic keeps, is enough to rebuild the coach. Records travel in a compact binary
+ * form; this class is shared as-is between the platform and its consumers.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryDeltaEvent {
+
+    private static final byte FORMAT = 1;
+
+    private String trainNumber;
+    private LocalDate journeyDate;
+    private String coachNumber;
+    private String coachClass;
+    private Integer coachCount; // Coaches of the train on this date, each published under its own key
+    private SeatState state;
+    private Integer fromLeg;
+    private Integer toLeg;
+    private int[] seatRuns; // Inclusive (first, last) seat pairs touched by the change
+    private Integer seats;
+    private Integer legs;
+    private long[] occupied; // Per leg, ((seats + 63) / 64) words with bit (seat - 1) set when taken
+    private long[] held; // One bitset over seats under an unexpired lock
+    private Long publishedAt; // Epoch millis
+
+    public enum SeatState {
+        SNAPSHOT, LOCKED, UNLOCKED, BLOCKED, CONFIRMED, RELEASED
+    }
+
+    public static String key(String trainNumber, LocalDate journeyDate, String coachNumber) {
+        return trainNumber + "|" + journeyDate + "|" + coachNumber;
+    }
+
+    public String key() {
+        return key(trainNumber, journeyDate, coachNumber);
+    }
+
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + 8 * (occupied.length + held.length));
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT);
+            out.writeUTF(trainNumber);
+            out.writeInt((int) journeyDate.toEpochDay());
+            out.writeUTF(coachNumber);
+            out.writeUTF(coachClass == null ? "" : coachClass);
+            out.writeShort(coachCount);
+            out.writeByte(state.ordinal());
+            out.writeShort(fromLeg);
+            out.writeShort(toLeg);
+            out.writeShort(seatRuns.length / 2);
+            for (int value : seatRuns) {
+                out.writeShort(value);
+            }
+            out.writeShort(seats);
+            out.writeShort(legs);
+            for (long word : occupied) {
+                out.writeLong(word);
+            }
+            for (long word : held) {
+                out.writeLong(word);
+            }
+            out.writeLong(publishedAt);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static InventoryDeltaEvent decode(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            byte format = in.readByte();
+            if (format != FORMAT) {
+                throw new IllegalArgumentException("Unsupported inventory event format " + format);
+            }
+            InventoryDeltaEvent event = new InventoryDeltaEvent();
+            event.trainNumber = in.readUTF();
+            event.journeyDate = LocalDate.ofEpochDay(in.readInt());
+            event.coachNumber = in.readUTF();
+            String coachClass = in.readUTF();
+            event.coachClass = coachClass.isEmpty() ? null : coachClass;
+            event.coachCount = in.readUnsignedShort();
+            event.state = SeatState.values()[in.readUnsignedByte()];
+            event.fromLeg = in.readUnsignedShort();
+            event.toLeg = in.readUnsignedShort();
+            int[] runs = new int[in.readUnsignedShort() * 2];
+            for (int i = 0; i < runs.length; i++) {
+                runs[i] = in.readUnsignedShort();
+            }
+            event.seatRuns = runs;
+            event.seats = in.readUnsignedShort();
+            event.legs = in.readUnsignedShort();
+            int words = (event.seats + 63) >>> 6;
+            long[] occupied = new long[event.legs * words];
+            for (int i = 0; i < occupied.length; i++) {
+                occupied[i] = in.readLong();
+            }
+            event.occupied = occupied;
+            long[] held = new long[words];
+            for (int i = 0; i < held.length; i++) {
+                held[i] = in.readLong();
+            }
+            event.held = held;
+            event.publishedAt = in.readLong();
+            return event;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.design.bookingplatform.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * An ApiResponse payload that is already rendered as UTF-8 JSON, e.g. a cached schedule.
+ * The response converter copies the bytes into the body as they are; an array is written as
+ * its elements' bytes with brackets and commas around them, never joined into one buffer.
+ * The bytes must not be modified once wrapped.
+ */
+public final class RawJson implements JsonSerializable {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final byte[] json;
+    private final List<RawJson> elements;
+
+    private RawJson(byte[] json, List<RawJson> elements) {
+        this.json = json;
+        this.elements = elements;
+    }
+
+    public static RawJson of(byte[] json) {
+        return new RawJson(json, null);
+    }
+
+    public static RawJson array(List<RawJson> elements) {
+        return new RawJson(EMPTY, List.copyOf(elements));
+    }
+
+    /**
+     * Number of elements of an array, 1 for a single value.
+     */
+    public int size() {
+        return elements == null ? 1 : elements.size();
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        if (elements == null) {
+            out.write(json);
+            return;
+        }
+        out.write('[');
+        for (int i = 0; i < elements.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            elements.get(i).writeTo(out);
+        }
+        out.write(']');
+    }
+
+    /**
+     * Used only when the payload goes through plain Jackson instead of the response converter.
+     */
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        if (elements == null) {
+            gen.writeRawValue(new String(json, StandardCharsets.UTF_8));
+            return;
+        }
+        gen.writeStartArray();
+        for (RawJson element : elements) {
+            element.serialize(gen, serializers);
+        }
+        gen.writeEndArray();
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer)
+            throws IOException {
+        serialize(gen, serializers);
+    }
+}
@@ -12,6 +12,9 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 public class SeatLockRequest {
+    @NotNull(message = "User id is required")
+    private Long userId;
+
     @NotBlank(message = "Train number is required")
     private String trainNumber;
 
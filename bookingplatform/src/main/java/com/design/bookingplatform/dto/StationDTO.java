@@ -14,4 +14,5 @@ public class StationDTO {
     private String stationName;
     private String city;
     private String state;
+    private Integer trainCount;
 }
\ No newline at end of file
@@ -8,7 +8,7 @@ import lombok.NoArgsConstructor;
 import java.time.LocalTime;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class TrainDTO {
@@ -23,4 +23,8 @@ public class TrainDTO {
     private Integer journeyDurationMinutes;
     private String operatingDays;
     private Boolean isActive;
+    // Set only when read for a travel date whose run has a reported delay
+    private Integer delayedMinutes;
+    private LocalTime rescheduledDepartureTime;
+    private LocalTime rescheduledArrivalTime;
 }
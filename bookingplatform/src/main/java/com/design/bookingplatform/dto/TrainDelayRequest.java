@@ -0,0 +1,28 @@
+package com.design.bookingplatform.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrainDelayRequest {
+    @NotNull(message = "Journey date is required")
+    private LocalDate journeyDate; // Day the run leaves its origin
+
+    @NotNull(message = "Delay is required")
+    @Min(value = 0, message = "Delay cannot be negative")
+    @Max(value = 1440, message = "Delay cannot exceed a day")
+    private Integer delayMinutes;
+
+    // Expected delay at the terminus when the run makes up or loses time; defaults to delayMinutes
+    @Min(value = 0, message = "Arrival delay cannot be negative")
+    @Max(value = 1440, message = "Arrival delay cannot exceed a day")
+    private Integer arrivalDelayMinutes;
+}
@@ -0,0 +1,301 @@
+package com.design.bookingplatform.engine;
+
+import com.design.bookingplatform.exception.ResourceNotFoundException;
+import com.design.bookingplatform.journal.BookingJournal;
+import com.design.bookingplatform.journal.BookingTransition;
+import com.design.bookingplatform.metrics.BookingMetrics;
+import com.design.bookingplatform.models.Journey;
+import com.design.bookingplatform.models.Transaction;
+import com.design.bookingplatform.repository.JourneyRepository;
+import com.design.bookingplatform.repository.TransactionRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Applies confirm, release, cancel and block expiry of existing bookings one partition thread at
+ * a time.
+ *
+ * Every (train, date) hashes onto one of a fixed set of partitions, each a single thread with
+ * its own mailbox, so two changes to the bookings of one train and date never run concurrently
+ * and the partition is the only writer of their journey, ticket and transaction statuses. A
+ * partition drains whatever is waiting in its mailbox and applies it as one group commit: the
+ * bookings of the batch are loaded once, the mutations run in arrival order against the loaded
+ * entities, and what each changed is captured as a {@link BookingTransition} and committed
+ * through the {@link BookingJournal} in one call. After-commit effects and replies run once the
+ * transitions are durable. If the batch commit fails, its mutations are retried one at a time so
+ * one bad booking cannot fail the rest.
+ */
+@Slf4j
+@Component
+public class BookingEngine {
+
+    private final JourneyRepository journeyRepository;
+    private final TransactionRepository transactionRepository;
+    private final BookingJournal bookingJournal;
+    private final BookingMetrics bookingMetrics;
+    private final TransactionTemplate readOnlyTemplate;
+    private final Partition[] partitions;
+    private final int maxBatch;
+    private final long timeoutMillis;
+
+    public BookingEngine(JourneyRepository journeyRepository, TransactionRepository transactionRepository,
+                         BookingJournal bookingJournal, BookingMetrics bookingMetrics,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${platform.engine.partitions:0}") int partitions,
+                         @Value("${platform.engine.mailbox-capacity:4096}") int mailboxCapacity,
+                         @Value("${platform.engine.max-batch:64}") int maxBatch,
+                         @Value("${platform.engine.timeout-ms:10000}") long timeoutMillis) {
+        this.journeyRepository = journeyRepository;
+        this.transactionRepository = transactionRepository;
+        this.bookingJournal = bookingJournal;
+        this.bookingMetrics = bookingMetrics;
+        // Mutations change the loaded entities only; their transitions are written by the journal.
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        this.maxBatch = maxBatch;
+        this.timeoutMillis = timeoutMillis;
+        int count = partitions > 0 ? partitions : Runtime.getRuntime().availableProcessors();
+        this.partitions = new Partition[count];
+        for (int i = 0; i < count; i++) {
+            this.partitions[i] = new Partition(i, mailboxCapacity);
+        }
+        log.info("Booking engine started with {} partitions", count);
+    }
+
+    /**
+     * Runs the mutation on the partition of the booking's train and date and waits for its
+     * commit. Throws ResourceNotFoundException when the booking does not exist.
+     */
+    public <T> T execute(String bookingId, Mutation<T> mutation) {
+        List<JourneyRepository.BookingTrain> trains = journeyRepository.findBookingTrains(bookingId);
+        if (trains.isEmpty()) {
+            throw new ResourceNotFoundException("Booking not found: " + bookingId);
+        }
+        JourneyRepository.BookingTrain train = trains.get(0);
+        return await(submit(train.getTrainNumber(), train.getJourneyDate(), bookingId, mutation));
+    }
+
+    /**
+     * Queues the mutation on the partition of the given train and date without waiting. The
+     * result fails with RejectedExecutionException when the partition's mailbox is full.
+     */
+    public <T> CompletableFuture<T> submit(String trainNumber, LocalDate date, String bookingId, Mutation<T> mutation) {
+        Command<T> command = new Command<>(bookingId, mutation, new CompletableFuture<>());
+        if (!partitionOf(trainNumber, date).mailbox.offer(command)) {
+            command.result().completeExceptionally(new RejectedExecutionException(
+                    "Booking engine partition for train " + trainNumber + " is full"));
+        }
+        return command.result();
+    }
+
+    public int partitionCount() {
+        return partitions.length;
+    }
+
+    public int queuedCount() {
+        int queued = 0;
+        for (Partition partition : partitions) {
+            queued += partition.mailbox.size();
+        }
+        return queued;
+    }
+
+    private Partition partitionOf(String trainNumber, LocalDate date) {
+        int hash = 31 * trainNumber.hashCode() + date.hashCode();
+        return partitions[Math.floorMod(hash ^ (hash >>> 16), partitions.length)];
+    }
+
+    private void process(List<Command<?>> batch) {
+        bookingMetrics.engineBatch(batch.size());
+        List<Staged> staged;
+        try {
+            Set<String> bookingIds = new LinkedHashSet<>();
+            for (Command<?> command : batch) {
+                bookingIds.add(command.bookingId());
+            }
+            bookingJournal.awaitApplied(bookingIds);
+            staged = readOnlyTemplate.execute(tx -> stageAll(batch, bookingIds));
+            bookingJournal.commit(staged.stream().map(Staged::transition).filter(Objects::nonNull).toList());
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).result().completeExceptionally(e);
+                return;
+            }
+            log.warn("Group commit of {} booking changes failed, retrying them one by one", batch.size(), e);
+            for (Command<?> command : batch) {
+                process(List.of(command));
+            }
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            finish(batch.get(i), staged.get(i).applied());
+        }
+    }
+
+    private List<Staged> stageAll(List<Command<?>> batch, Set<String> bookingIds) {
+        Map<String, Journey> journeys = new HashMap<>();
+        for (Journey journey : journeyRepository.findWithTicketsByBookingIds(bookingIds)) {
+            journeys.put(journey.getBookingId(), journey);
+        }
+        Map<Long, List<Transaction>> transactions = new HashMap<>();
+        if (!journeys.isEmpty()) {
+            List<Long> journeyIds = journeys.values().stream().map(Journey::getId).toList();
+            for (Transaction transaction : transactionRepository.findByJourneyIds(journeyIds)) {
+                transactions.computeIfAbsent(transaction.getJourney().getId(), id -> new ArrayList<>()).add(transaction);
+            }
+        }
+
+        List<Staged> staged = new ArrayList<>(batch.size());
+        for (Command<?> command : batch) {
+            Journey journey = journeys.get(command.bookingId());
+            if (journey == null) {
+                staged.add(new Staged(Applied.failed(
+                        new ResourceNotFoundException("Booking not found: " + command.bookingId())), null));
+                continue;
+            }
+            List<Transaction> payments = transactions.getOrDefault(journey.getId(), List.of());
+            BookingTransition.Snapshot before = BookingTransition.capture(journey, payments);
+            try {
+                Applied<?> applied = command.mutation().apply(journey, payments);
+                staged.add(new Staged(applied, applied.failure() == null ? before.diff(journey, payments) : null));
+            } catch (RuntimeException e) {
+                staged.add(new Staged(Applied.failed(e), null));
+            }
+        }
+        return staged;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void finish(Command<T> command, Applied<?> applied) {
+        if (applied.failure() != null) {
+            command.result().completeExceptionally(applied.failure());
+            return;
+        }
+        try {
+            if (applied.afterCommit() != null) {
+                applied.afterCommit().run();
+            }
+        } catch (RuntimeException e) {
+            log.error("After-commit step of booking {} failed", command.bookingId(), e);
+        }
+        command.result().complete((T) applied.result());
+    }
+
+    private <T> T await(CompletableFuture<T> result) {
+        try {
+            return result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Booking change did not complete within " + timeoutMillis + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a booking change", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Partition partition : partitions) {
+            partition.thread.interrupt();
+        }
+    }
+
+    /**
+     * A state transition of one booking, run on its partition thread against the loaded entities.
+     * Only its entity changes are committed, so a mutation must not write through repositories.
+     * It must validate before it changes anything: a mutation that throws is not committed, yet
+     * later mutations of the same booking in the batch share the entities it was given.
+     */
+    @FunctionalInterface
+    public interface Mutation<T> {
+        Applied<T> apply(Journey journey, List<Transaction> transactions);
+    }
+
+    /**
+     * Result of a mutation and the work to run once it is committed, such as freeing seats in
+     * the inventory or cancelling expiry timers.
+     */
+    public record Applied<T>(T result, Runnable afterCommit, RuntimeException failure) {
+
+        public static <T> Applied<T> of(T result, Runnable afterCommit) {
+            return new Applied<>(result, afterCommit, null);
+        }
+
+        public static <T> Applied<T> of(T result) {
+            return new Applied<>(result, null, null);
+        }
+
+        static <T> Applied<T> failed(RuntimeException failure) {
+            return new Applied<>(null, null, failure);
+        }
+    }
+
+    private record Command<T>(String bookingId, Mutation<T> mutation, CompletableFuture<T> result) {
+    }
+
+    private record Staged(Applied<?> applied, BookingTransition transition) {
+    }
+
+    private final class Partition implements Runnable {
+
+        private final BlockingQueue<Command<?>> mailbox;
+        private final Thread thread;
+
+        private Partition(int index, int capacity) {
+            this.mailbox = new ArrayBlockingQueue<>(capacity);
+            this.thread = new Thread(this, "booking-engine-" + index);
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+
+        @Override
+        public void run() {
+            List<Command<?>> batch = new ArrayList<>(maxBatch);
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    batch.add(mailbox.take());
+                } catch (InterruptedException e) {
+                    break;
+                }
+                mailbox.drainTo(batch, maxBatch - 1);
+                try {
+                    process(batch);
+                } catch (RuntimeException e) {
+                    log.error("Booking engine batch failed", e);
+                    for (Command<?> command : batch) {
+                        command.result().completeExceptionally(e);
+                    }
+                }
+                batch.clear();
+            }
+            Command<?> pending;
+            while ((pending = mailbox.poll()) != null) {
+                pending.result().completeExceptionally(new IllegalStateException("Booking engine stopped"));
+            }
+        }
+    }
+}
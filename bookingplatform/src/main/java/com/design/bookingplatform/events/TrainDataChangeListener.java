@@ -0,0 +1,34 @@
+package com.design.bookingplatform.events;
+
+import com.design.bookingplatform.models.Train;
+import com.design.bookingplatform.models.TrainStation;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA entity listener for Train and TrainStation.
+ * Instantiated by Hibernate through Spring's bean container, so the publisher is injected.
+ */
+public class TrainDataChangeListener {
+
+    private final ApplicationEventPublisher publisher;
+
+    public TrainDataChangeListener(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        String trainNumber = null;
+        if (entity instanceof Train train) {
+            trainNumber = train.getTrainNumber();
+        } else if (entity instanceof TrainStation station && station.getTrain() != null) {
+            trainNumber = station.getTrain().getTrainNumber();
+        }
+        publisher.publishEvent(new TrainDataChangedEvent(trainNumber));
+    }
+}
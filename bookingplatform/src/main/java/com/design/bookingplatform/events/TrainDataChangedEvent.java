@@ -0,0 +1,8 @@
+package com.design.bookingplatform.events;
+
+/**
+ * Published whenever a train or one of its stops is inserted, updated or removed.
+ * trainNumber is null when the change could not be attributed to a single train.
+ */
+public record TrainDataChangedEvent(String trainNumber) {
+}
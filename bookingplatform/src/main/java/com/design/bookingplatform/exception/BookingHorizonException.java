@@ -0,0 +1,17 @@
+package com.design.bookingplatform.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * A journey date in the past or further ahead than the platform takes bookings for.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class BookingHorizonException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public BookingHorizonException(String message) {
+        super(message);
+    }
+}
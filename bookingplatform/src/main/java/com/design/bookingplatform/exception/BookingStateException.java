@@ -0,0 +1,17 @@
+package com.design.bookingplatform.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * A booking change that its current status does not allow, e.g. cancelling a completed journey.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class BookingStateException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public BookingStateException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,328 @@
+package com.design.bookingplatform.expiry;
+
+import com.design.bookingplatform.dto.InventoryDeltaEvent.SeatState;
+import com.design.bookingplatform.engine.BookingEngine;
+import com.design.bookingplatform.engine.BookingEngine.Applied;
+import com.design.bookingplatform.exception.ResourceNotFoundException;
+import com.design.bookingplatform.inventory.SeatInventoryService;
+import com.design.bookingplatform.inventory.TrainInventory;
+import com.design.bookingplatform.locking.SeatLockManager;
+import com.design.bookingplatform.locking.SeatLockManager.LockGrant;
+import com.design.bookingplatform.locking.SeatLockWriter;
+import com.design.bookingplatform.metrics.BookingMetrics;
+import com.design.bookingplatform.models.Journey;
+import com.design.bookingplatform.models.JourneyStatus;
+import com.design.bookingplatform.models.LockStatus;
+import com.design.bookingplatform.models.Ticket;
+import com.design.bookingplatform.models.TicketStatus;
+import com.design.bookingplatform.repository.SeatLockRepository;
+import com.design.bookingplatform.repository.TicketRepository;
+import com.design.bookingplatform.stream.InventoryStreamPublisher;
+import com.design.bookingplatform.waitlist.WaitlistEngine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fires seat lock and seat block expiries from a timing wheel instead of polling the database.
+ *
+ * Locks and blocks are registered when they are created and cancelled when they are released
+ * or confirmed. A single ticker thread advances the wheel and applies each tick's expiries:
+ * expired locks are released in memory and their seat_locks rows marked EXPIRED in one batch,
+ * expired blocks are handed to the booking engine per booking, which turns the tickets still
+ * BLOCKED into BLOCK_EXPIRED and gives their seats back to the inventory. Waitlisted tickets of
+ * an unpaid booking carry the same block and leave the waitlist when it expires. A block the
+ * engine cannot take is retried after a delay. Pending locks and blocks left in the database by a
+ * previous run are registered at startup.
+ */
+@Slf4j
+@Component
+public class ExpiryScheduler {
+
+    private static final int BATCH_SIZE = 500;
+    private static final long RETRY_SECONDS = 5;
+
+    private final SeatLockManager seatLockManager;
+    private final SeatLockWriter seatLockWriter;
+    private final SeatInventoryService seatInventoryService;
+    private final SeatLockRepository seatLockRepository;
+    private final TicketRepository ticketRepository;
+    private final InventoryStreamPublisher inventoryStreamPublisher;
+    private final BookingEngine bookingEngine;
+    private final WaitlistEngine waitlistEngine;
+    private final BookingMetrics bookingMetrics;
+    private final TransactionTemplate transactionTemplate;
+
+    private final TimingWheel<Expiry> wheel;
+    private final Map<String, TimingWheel.Timeout<Expiry>> lockTimeouts = new HashMap<>();
+    private final Map<Long, TimingWheel.Timeout<Expiry>> blockTimeouts = new HashMap<>();
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "expiry-ticker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ExpiryScheduler(SeatLockManager seatLockManager, SeatLockWriter seatLockWriter,
+                           SeatInventoryService seatInventoryService, SeatLockRepository seatLockRepository,
+                           TicketRepository ticketRepository, InventoryStreamPublisher inventoryStreamPublisher,
+                           BookingEngine bookingEngine, WaitlistEngine waitlistEngine, BookingMetrics bookingMetrics,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${platform.expiry.tick-ms:200}") long tickMillis) {
+        this.seatLockManager = seatLockManager;
+        this.seatLockWriter = seatLockWriter;
+        this.seatInventoryService = seatInventoryService;
+        this.seatLockRepository = seatLockRepository;
+        this.ticketRepository = ticketRepository;
+        this.inventoryStreamPublisher = inventoryStreamPublisher;
+        this.bookingEngine = bookingEngine;
+        this.waitlistEngine = waitlistEngine;
+        this.bookingMetrics = bookingMetrics;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.wheel = new TimingWheel<>(tickMillis, System.currentTimeMillis());
+    }
+
+    public synchronized void scheduleLock(LockGrant grant, Long trainId) {
+        TimingWheel.Timeout<Expiry> previous = lockTimeouts.put(grant.lockId(),
+                wheel.schedule(new LockExpiry(grant.lockId(), trainId), grant.expiresAt().toEpochMilli()));
+        if (previous != null) {
+            wheel.cancel(previous);
+        }
+    }
+
+    public synchronized void cancelLock(String lockId) {
+        TimingWheel.Timeout<Expiry> timeout = lockTimeouts.remove(lockId);
+        if (timeout != null) {
+            wheel.cancel(timeout);
+        }
+    }
+
+    public synchronized void scheduleBlock(SeatBlock block, LocalDateTime expiresAt) {
+        TimingWheel.Timeout<Expiry> previous = blockTimeouts.put(block.ticketId(),
+                wheel.schedule(block, toEpochMilli(expiresAt)));
+        if (previous != null) {
+            wheel.cancel(previous);
+        }
+    }
+
+    public synchronized void cancelBlock(Long ticketId) {
+        TimingWheel.Timeout<Expiry> timeout = blockTimeouts.remove(ticketId);
+        if (timeout != null) {
+            wheel.cancel(timeout);
+        }
+    }
+
+    public synchronized int pendingCount() {
+        return wheel.size();
+    }
+
+    public synchronized int blockedSeatCount() {
+        return blockTimeouts.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        try {
+            registerPersisted();
+        } catch (RuntimeException e) {
+            log.error("Could not register pending locks and blocks from the database", e);
+        }
+        ticker.scheduleWithFixedDelay(this::tick, wheel.tickMillis(), wheel.tickMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+    }
+
+    private void registerPersisted() {
+        int locks = 0;
+        int blocks = 0;
+        synchronized (this) {
+            for (SeatLockRepository.PendingLock lock : seatLockRepository.findPendingLocks(LockStatus.ACTIVE)) {
+                wheel.schedule(new StoredLockExpiry(lock.getLockKey()), toEpochMilli(lock.getExpiresAt()));
+                locks++;
+            }
+        }
+        for (TicketRepository.PendingBlock block : ticketRepository.findPendingBlocks(
+                EnumSet.of(TicketStatus.BLOCKED, TicketStatus.WAIT_LISTED), JourneyStatus.CONFIRMED)) {
+            scheduleBlock(new SeatBlock(block.getTicketId(), block.getTrainNumber(), block.getJourneyDate(),
+                    block.getCoachNumber(), block.getSeatNumber(), block.getBoardingStation(),
+                    block.getDestinationStation(), block.getBookingId()), block.getBlockExpiresAt());
+            blocks++;
+        }
+        log.info("Registered {} pending seat locks and {} seat blocks for expiry", locks, blocks);
+    }
+
+    private void tick() {
+        List<LockExpiry> locks = new ArrayList<>();
+        List<String> storedLockKeys = new ArrayList<>();
+        List<SeatBlock> blocks = new ArrayList<>();
+        synchronized (this) {
+            wheel.advance(System.currentTimeMillis(), expiry -> {
+                if (expiry instanceof LockExpiry lock) {
+                    lockTimeouts.remove(lock.lockId());
+                    locks.add(lock);
+                } else if (expiry instanceof SeatBlock block) {
+                    blockTimeouts.remove(block.ticketId());
+                    blocks.add(block);
+                } else if (expiry instanceof StoredLockExpiry stored) {
+                    storedLockKeys.add(stored.lockKey());
+                }
+            });
+        }
+        try {
+            expireLocks(locks);
+            expireStoredLocks(storedLockKeys);
+            expireBlocks(blocks);
+        } catch (RuntimeException e) {
+            log.error("Expiry batch failed: {} locks, {} stored locks, {} blocks",
+                    locks.size(), storedLockKeys.size(), blocks.size(), e);
+        }
+    }
+
+    private void expireLocks(List<LockExpiry> locks) {
+        Instant now = Instant.now();
+        int expired = 0;
+        for (LockExpiry lock : locks) {
+            LockGrant grant = seatLockManager.expire(lock.lockId(), now);
+            if (grant != null) {
+                expired++;
+                seatLockWriter.lockEnded(grant, lock.trainId(), LockStatus.EXPIRED);
+                TrainInventory inventory = seatInventoryService.loaded(grant.trainNumber(), grant.date());
+                if (inventory != null) {
+                    inventoryStreamPublisher.locksChanged(inventory, grant, SeatState.UNLOCKED);
+                }
+            }
+        }
+        if (expired > 0) {
+            bookingMetrics.locksExpired(expired);
+        }
+    }
+
+    private void expireStoredLocks(List<String> lockKeys) {
+        for (List<String> batch : partition(lockKeys)) {
+            transactionTemplate.executeWithoutResult(tx ->
+                    seatLockRepository.updateActiveStatus(batch, LockStatus.EXPIRED.name()));
+        }
+    }
+
+    private void expireBlocks(List<SeatBlock> blocks) {
+        Map<String, List<SeatBlock>> byBooking = new LinkedHashMap<>();
+        for (SeatBlock block : blocks) {
+            byBooking.computeIfAbsent(block.bookingId(), id -> new ArrayList<>()).add(block);
+        }
+        byBooking.forEach((bookingId, expiring) -> {
+            SeatBlock first = expiring.get(0);
+            CompletableFuture<Integer> expired = bookingEngine.submit(first.trainNumber(), first.journeyDate(),
+                    bookingId, (journey, transactions) -> expire(journey, expiring));
+            expired.whenComplete((count, error) -> {
+                if (error != null) {
+                    retry(bookingId, expiring, error);
+                }
+            });
+        });
+    }
+
+    /**
+     * Expires the tickets of the blocks that are still BLOCKED, or still waitlisted on an unpaid
+     * booking; a block confirmed or released since it was taken off the wheel keeps its ticket's
+     * status. Seats are released where the tickets sit now, which for a ticket promoted from the
+     * waitlist is not the seat it was blocked with.
+     */
+    private Applied<Integer> expire(Journey journey, List<SeatBlock> blocks) {
+        Map<Long, SeatBlock> byTicket = new HashMap<>();
+        for (SeatBlock block : blocks) {
+            byTicket.put(block.ticketId(), block);
+        }
+        boolean paid = journey.getStatus() == JourneyStatus.CONFIRMED;
+        List<SeatBlock> expired = new ArrayList<>();
+        for (Ticket ticket : journey.getTickets()) {
+            SeatBlock block = byTicket.get(ticket.getId());
+            if (block != null && (ticket.getStatus() == TicketStatus.BLOCKED
+                    || (ticket.getStatus() == TicketStatus.WAIT_LISTED && !paid))) {
+                ticket.setStatus(TicketStatus.BLOCK_EXPIRED);
+                expired.add(new SeatBlock(block.ticketId(), block.trainNumber(), block.journeyDate(),
+                        ticket.getCoach().getCoachNumber(), ticket.getSeatNumber(), block.boardingStation(),
+                        block.destinationStation(), block.bookingId()));
+            }
+        }
+        return Applied.of(expired.size(), () -> {
+            bookingMetrics.blocksExpired(expired.size());
+            for (SeatBlock block : expired) {
+                seatInventoryService.releaseIfLoaded(block.trainNumber(), block.journeyDate(), block.coachNumber(),
+                        block.seatNumber(), block.boardingStation(), block.destinationStation());
+            }
+            if (!expired.isEmpty()) {
+                waitlistEngine.ticketsClosed(expired.get(0).trainNumber(), expired.get(0).journeyDate(),
+                        expired.stream().map(SeatBlock::ticketId).toList());
+            }
+        });
+    }
+
+    private void retry(String bookingId, List<SeatBlock> blocks, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof ResourceNotFoundException) {
+            return;
+        }
+        log.warn("Expiring {} seat blocks of booking {} failed, retrying in {} s", blocks.size(), bookingId,
+                RETRY_SECONDS, cause);
+        LocalDateTime retryAt = LocalDateTime.now().plusSeconds(RETRY_SECONDS);
+        for (SeatBlock block : blocks) {
+            scheduleBlock(block, retryAt);
+        }
+    }
+
+    private static <T> List<List<T>> partition(List<T> items) {
+        List<List<T>> batches = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += BATCH_SIZE) {
+            batches.add(items.subList(from, Math.min(items.size(), from + BATCH_SIZE)));
+        }
+        return batches;
+    }
+
+    private static long toEpochMilli(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private sealed interface Expiry permits LockExpiry, StoredLockExpiry, SeatBlock {
+    }
+
+    private record LockExpiry(String lockId, Long trainId) implements Expiry {
+    }
+
+    /**
+     * An ACTIVE seat_locks row from an earlier run, which the in-memory lock table does not know.
+     */
+    private record StoredLockExpiry(String lockKey) implements Expiry {
+    }
+
+    /**
+     * A blocked ticket's seat, released back to the inventory when the block expires, and the
+     * booking it belongs to.
+     */
+    public record SeatBlock(Long ticketId, String trainNumber, LocalDate journeyDate, String coachNumber,
+                            String seatNumber, String boardingStation, String destinationStation,
+                            String bookingId) implements Expiry {
+    }
+}
@@ -0,0 +1,179 @@
+package com.design.bookingplatform.expiry;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel (Varghese and Lauck) with O(1) schedule and cancel.
+ *
+ * Time is counted in ticks. Each level has 64 slots; a slot of level L spans 64^L ticks, so four
+ * levels cover 2^24 ticks (about 39 days at 200 ms per tick). A timeout is placed on the lowest
+ * level whose higher digits it shares with the current tick and is cascaded one level down each
+ * time the wheel reaches its slot, so it is fired within one tick of its deadline. Deadlines
+ * beyond the top level wait in an overflow list that is re-examined whenever the top level wraps.
+ *
+ * Not thread-safe; the owner serialises access.
+ */
+final class TimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+    private final Bucket<T>[][] wheel;
+    private final Bucket<T> overflow = new Bucket<>();
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        this.wheel = (Bucket<T>[][]) new Bucket<?>[LEVELS][SLOTS];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                wheel[level][slot] = new Bucket<>();
+            }
+        }
+    }
+
+    /**
+     * Schedules the payload to fire at the first tick at or after the deadline.
+     * Deadlines already in the past fire on the next advance.
+     */
+    Timeout<T> schedule(T payload, long deadlineMillis) {
+        long tick = (deadlineMillis + tickMillis - 1) / tickMillis;
+        Timeout<T> timeout = new Timeout<>(payload, Math.max(tick, currentTick + 1));
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Removes a pending timeout. Returns false if it has already fired or been cancelled.
+     */
+    boolean cancel(Timeout<T> timeout) {
+        if (timeout.bucket == null) {
+            return false;
+        }
+        timeout.bucket.remove(timeout);
+        size--;
+        return true;
+    }
+
+    /**
+     * Moves the wheel forward to the given time, handing every due payload to the consumer.
+     */
+    void advance(long nowMillis, Consumer<T> expired) {
+        long target = nowMillis / tickMillis;
+        while (currentTick < target) {
+            currentTick++;
+            cascade();
+            Bucket<T> due = wheel[0][(int) (currentTick & SLOT_MASK)];
+            for (Timeout<T> timeout = due.poll(); timeout != null; timeout = due.poll()) {
+                size--;
+                expired.accept(timeout.payload);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    long tickMillis() {
+        return tickMillis;
+    }
+
+    private void cascade() {
+        if ((currentTick & ((1L << (SLOT_BITS * LEVELS)) - 1)) == 0) {
+            reinsert(overflow);
+        }
+        for (int level = LEVELS - 1; level >= 1; level--) {
+            if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                reinsert(wheel[level][(int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK)]);
+            }
+        }
+    }
+
+    private void reinsert(Bucket<T> bucket) {
+        for (Timeout<T> timeout = bucket.poll(); timeout != null; timeout = bucket.poll()) {
+            place(timeout);
+        }
+    }
+
+    private void place(Timeout<T> timeout) {
+        long deadline = timeout.deadlineTick;
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = SLOT_BITS * (level + 1);
+            if ((deadline >>> shift) == (currentTick >>> shift)) {
+                wheel[level][(int) ((deadline >>> (SLOT_BITS * level)) & SLOT_MASK)].add(timeout);
+                return;
+            }
+        }
+        overflow.add(timeout);
+    }
+
+    /**
+     * Handle returned by schedule, used to cancel.
+     */
+    static final class Timeout<T> {
+        private final T payload;
+        private final long deadlineTick;
+        private Bucket<T> bucket;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(T payload, long deadlineTick) {
+            this.payload = payload;
+            this.deadlineTick = deadlineTick;
+        }
+
+        T payload() {
+            return payload;
+        }
+    }
+
+    /**
+     * Intrusive doubly-linked list, so removal of a known timeout is O(1).
+     */
+    private static final class Bucket<T> {
+        private Timeout<T> head;
+
+        void add(Timeout<T> timeout) {
+            timeout.bucket = this;
+            timeout.prev = null;
+            timeout.next = head;
+            if (head != null) {
+                head.prev = timeout;
+            }
+            head = timeout;
+        }
+
+        void remove(Timeout<T> timeout) {
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.bucket = null;
+            timeout.prev = null;
+            timeout.next = null;
+        }
+
+        Timeout<T> poll() {
+            Timeout<T> timeout = head;
+            if (timeout != null) {
+                remove(timeout);
+            }
+            return timeout;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.design.bookingplatform.fare;
+
+import com.design.bookingplatform.models.CoachClass;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Per-passenger charges added on top of the distance fare, all in paise.
+ *
+ * A flat reservation charge per class, a flat superfast charge on the configured train types,
+ * and GST in basis points on the configured classes, levied on base plus charges. Every charge
+ * defaults to zero, so ticket fares stay the pro-rated base fare unless rules are configured.
+ */
+@Component
+public class FareRules {
+
+    private static final CoachClass[] CLASSES = CoachClass.values();
+
+    private final long[] reservationCharges;
+    private final long superfastCharge;
+    private final Set<String> superfastTypes;
+    private final boolean[] taxedClasses;
+    private final long gstBasisPoints;
+
+    public FareRules(@Value("${platform.fare.reservation-charges:}") String reservationCharges,
+                     @Value("${platform.fare.superfast-charge:0}") BigDecimal superfastCharge,
+                     @Value("${platform.fare.superfast-train-types:}") String superfastTypes,
+                     @Value("${platform.fare.gst-classes:}") String taxedClasses,
+                     @Value("${platform.fare.gst-basis-points:0}") long gstBasisPoints) {
+        this.reservationCharges = new long[CLASSES.length];
+        for (String entry : split(reservationCharges)) {
+            int colon = entry.indexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("Reservation charge must be CLASS:AMOUNT, got " + entry);
+            }
+            this.reservationCharges[coachClass(entry.substring(0, colon)).ordinal()] =
+                    FareTable.paise(new BigDecimal(entry.substring(colon + 1).trim()));
+        }
+        this.superfastCharge = FareTable.paise(superfastCharge);
+        this.superfastTypes = Arrays.stream(split(superfastTypes))
+                .map(type -> type.toUpperCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+        this.taxedClasses = new boolean[CLASSES.length];
+        for (String entry : split(taxedClasses)) {
+            this.taxedClasses[coachClass(entry).ordinal()] = true;
+        }
+        this.gstBasisPoints = gstBasisPoints;
+    }
+
+    public boolean isSuperfast(String trainType) {
+        return trainType != null && superfastTypes.contains(trainType.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Fare per passenger for a base fare, without allocating.
+     */
+    public long total(CoachClass coachClass, boolean superfast, long baseFare) {
+        long charged = baseFare + reservationCharges[coachClass.ordinal()] + (superfast ? superfastCharge : 0);
+        return charged + gst(coachClass, charged);
+    }
+
+    public Charges charges(CoachClass coachClass, boolean superfast, long baseFare) {
+        long reservation = reservationCharges[coachClass.ordinal()];
+        long superfastPart = superfast ? superfastCharge : 0;
+        return new Charges(baseFare, reservation, superfastPart,
+                gst(coachClass, baseFare + reservation + superfastPart));
+    }
+
+    private long gst(CoachClass coachClass, long amount) {
+        if (!taxedClasses[coachClass.ordinal()] || gstBasisPoints == 0) {
+            return 0;
+        }
+        return (amount * gstBasisPoints + 5_000) / 10_000;
+    }
+
+    private static String[] split(String list) {
+        return Arrays.stream(list.split(","))
+                .map(String::trim)
+                .filter(entry -> !entry.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    private static CoachClass coachClass(String value) {
+        CoachClass coachClass = CoachClass.fromValue(value);
+        if (coachClass == null) {
+            throw new IllegalArgumentException("Unknown coach class in fare rules: " + value);
+        }
+        return coachClass;
+    }
+
+    /**
+     * Breakdown of one passenger's fare in paise.
+     */
+    public record Charges(long base, long reservation, long superfast, long gst) {
+
+        public long total() {
+            return base + reservation + superfast + gst;
+        }
+    }
+}
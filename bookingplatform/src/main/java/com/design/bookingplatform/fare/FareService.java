@@ -0,0 +1,136 @@
+package com.design.bookingplatform.fare;
+
+import com.design.bookingplatform.dto.ClassFareDTO;
+import com.design.bookingplatform.dto.FareCalculationRequest;
+import com.design.bookingplatform.dto.FareResponse;
+import com.design.bookingplatform.events.TrainDataChangedEvent;
+import com.design.bookingplatform.exception.ResourceNotFoundException;
+import com.design.bookingplatform.index.RouteIndexService;
+import com.design.bookingplatform.index.TrainRoute;
+import com.design.bookingplatform.models.CoachClass;
+import com.design.bookingplatform.repository.CoachRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fare quotes and ticket fares from per-train {@link FareTable}s.
+ *
+ * A table is built on first use from the route index and the train's coaches, and rebuilt when
+ * the route index swaps in a new route for the train or the train's data changes.
+ */
+@Service
+@RequiredArgsConstructor
+public class FareService {
+
+    private final RouteIndexService routeIndexService;
+    private final CoachRepository coachRepository;
+    private final FareRules fareRules;
+
+    private final ConcurrentHashMap<String, FareTable> tables = new ConcurrentHashMap<>();
+
+    public FareTable table(String trainNumber) {
+        TrainRoute route = routeIndexService.current().route(trainNumber);
+        if (route == null) {
+            throw new ResourceNotFoundException("Train not found: " + trainNumber);
+        }
+        return table(route);
+    }
+
+    /**
+     * The table for this exact route snapshot, so stop indexes line up with the caller's route.
+     */
+    public FareTable table(TrainRoute route) {
+        FareTable table = tables.get(route.getTrainNumber());
+        if (table == null || table.route() != route) {
+            table = FareTable.of(route, coachRepository.findByTrainId(route.getTrainId()));
+            tables.put(route.getTrainNumber(), table);
+        }
+        return table;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTrainDataChanged(TrainDataChangedEvent event) {
+        if (event.trainNumber() == null) {
+            tables.clear();
+        } else {
+            tables.remove(event.trainNumber());
+        }
+    }
+
+    /**
+     * Fare in paise for one passenger in a coach with the given full-run base fare.
+     */
+    public long ticketFare(FareTable table, CoachClass coachClass, long baseFarePaise, int from, int to) {
+        return fareRules.total(coachClass, isSuperfast(table), table.fare(baseFarePaise, from, to));
+    }
+
+    /**
+     * Fare in paise for one passenger of the class, or -1 when the train does not have it.
+     */
+    public long classFare(FareTable table, CoachClass coachClass, int from, int to) {
+        long base = table.fare(coachClass, from, to);
+        return base < 0 ? -1 : fareRules.total(coachClass, isSuperfast(table), base);
+    }
+
+    public FareResponse quote(FareCalculationRequest request) {
+        FareTable table = table(request.getTrainNumber());
+        TrainRoute route = table.route();
+        int from = route.indexOf(request.getSource());
+        int to = route.indexOf(request.getDestination());
+        if (from < 0 || to < 0 || from >= to
+                || (request.getJourneyDate() != null && !route.operatesAt(from, request.getJourneyDate()))) {
+            throw new ResourceNotFoundException("Train " + request.getTrainNumber() + " does not run from "
+                    + request.getSource() + " to " + request.getDestination()
+                    + (request.getJourneyDate() == null ? "" : " on " + request.getJourneyDate()));
+        }
+
+        List<CoachClass> classes;
+        if (request.getCoachClass() == null || request.getCoachClass().isBlank()) {
+            classes = table.classes();
+        } else {
+            CoachClass coachClass = CoachClass.fromValue(request.getCoachClass());
+            if (coachClass == null || !table.hasClass(coachClass)) {
+                throw new ResourceNotFoundException("Train " + request.getTrainNumber() + " has no coach class "
+                        + request.getCoachClass());
+            }
+            classes = List.of(coachClass);
+        }
+
+        int passengers = request.getPassengers() == null ? 1 : request.getPassengers();
+        boolean superfast = isSuperfast(table);
+        List<ClassFareDTO> fares = new ArrayList<>(classes.size());
+        for (CoachClass coachClass : classes) {
+            FareRules.Charges charges = fareRules.charges(coachClass, superfast, table.fare(coachClass, from, to));
+            fares.add(ClassFareDTO.builder()
+                    .coachClass(coachClass.name())
+                    .baseFare(FareTable.rupees(charges.base()))
+                    .reservationCharge(FareTable.rupees(charges.reservation()))
+                    .superfastCharge(FareTable.rupees(charges.superfast()))
+                    .gst(FareTable.rupees(charges.gst()))
+                    .farePerPassenger(FareTable.rupees(charges.total()))
+                    .totalFare(FareTable.rupees(charges.total() * passengers))
+                    .build());
+        }
+
+        return FareResponse.builder()
+                .trainNumber(route.getTrainNumber())
+                .trainName(route.getTrain().getTrainName())
+                .sourceStation(route.stationName(from))
+                .destinationStation(route.stationName(to))
+                .journeyDate(request.getJourneyDate())
+                .distanceKm(BigDecimal.valueOf(table.distance(from, to), 2))
+                .passengers(passengers)
+                .fares(fares)
+                .build();
+    }
+
+    private boolean isSuperfast(FareTable table) {
+        return fareRules.isSuperfast(table.route().getTrain().getTrainType());
+    }
+}
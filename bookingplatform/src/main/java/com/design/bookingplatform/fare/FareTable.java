@@ -0,0 +1,164 @@
+package com.design.bookingplatform.fare;
+
+import com.design.bookingplatform.index.TrainRoute;
+import com.design.bookingplatform.models.Coach;
+import com.design.bookingplatform.models.CoachClass;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable distance-based base fares of one train.
+ *
+ * A coach's base fare covers the full run and is pro-rated by distance. Per coach class the table
+ * keeps the cumulative fare at every stop as base paise x hundredths of a km from the origin, so
+ * any (boarding, alighting) pair is two array reads, one subtraction and one rounded division by
+ * the run's length. Between stops whose distances are missing or equal the fare is pro-rated by
+ * scheduled minutes instead, so a real segment is never charged the full-run fare. Everything is
+ * a long in paise; convert with {@link #rupees(long)} at the edge.
+ */
+public final class FareTable {
+
+    private static final CoachClass[] CLASSES = CoachClass.values();
+
+    private final TrainRoute route;
+    private final long[] distances;
+    private final long totalDistance;
+    private final int[] minutes;
+    private final int totalMinutes;
+    private final long[] baseFares;
+    private final long[][] cumulative;
+
+    private FareTable(TrainRoute route, long[] distances, int[] minutes, long[] baseFares, long[][] cumulative) {
+        this.route = route;
+        this.distances = distances;
+        this.totalDistance = distances.length == 0 ? 0 : distances[distances.length - 1];
+        this.minutes = minutes;
+        this.totalMinutes = minutes.length == 0 ? 0 : minutes[minutes.length - 1];
+        this.baseFares = baseFares;
+        this.cumulative = cumulative;
+    }
+
+    /**
+     * Builds the table from the train's coaches; a class whose coaches differ in base fare is
+     * quoted at its lowest one.
+     */
+    public static FareTable of(TrainRoute route, Collection<Coach> coaches) {
+        long[] distances = new long[route.stopCount()];
+        int[] minutes = new int[distances.length];
+        for (int stop = 0; stop < distances.length; stop++) {
+            BigDecimal distance = route.distanceFromSource(stop);
+            distances[stop] = Math.max(distance == null ? 0 : hundredths(distance), stop > 0 ? distances[stop - 1] : 0);
+            minutes[stop] = stop == 0 ? 0
+                    : Math.max(route.arrivalMinute(stop) - route.departureMinute(0), minutes[stop - 1]);
+        }
+
+        long[] baseFares = new long[CLASSES.length];
+        Arrays.fill(baseFares, -1);
+        for (Coach coach : coaches) {
+            if (coach.getCoachClass() == null || coach.getBaseFare() == null) {
+                continue;
+            }
+            int ordinal = coach.getCoachClass().ordinal();
+            long base = paise(coach.getBaseFare());
+            baseFares[ordinal] = baseFares[ordinal] < 0 ? base : Math.min(baseFares[ordinal], base);
+        }
+
+        long[][] cumulative = new long[CLASSES.length][];
+        for (int ordinal = 0; ordinal < CLASSES.length; ordinal++) {
+            if (baseFares[ordinal] >= 0) {
+                long[] fares = new long[distances.length];
+                for (int stop = 0; stop < distances.length; stop++) {
+                    fares[stop] = Math.multiplyExact(baseFares[ordinal], distances[stop]);
+                }
+                cumulative[ordinal] = fares;
+            }
+        }
+        return new FareTable(route, distances, minutes, baseFares, cumulative);
+    }
+
+    public TrainRoute route() {
+        return route;
+    }
+
+    public boolean hasClass(CoachClass coachClass) {
+        return cumulative[coachClass.ordinal()] != null;
+    }
+
+    public List<CoachClass> classes() {
+        List<CoachClass> classes = new ArrayList<>();
+        for (CoachClass coachClass : CLASSES) {
+            if (hasClass(coachClass)) {
+                classes.add(coachClass);
+            }
+        }
+        return classes;
+    }
+
+    /**
+     * Base fare in paise of the class between two stops, or -1 when the train has no such class.
+     */
+    public long fare(CoachClass coachClass, int from, int to) {
+        long[] fares = cumulative[coachClass.ordinal()];
+        if (fares == null) {
+            return -1;
+        }
+        if (totalDistance <= 0 || distances[to] <= distances[from]) {
+            return byTime(baseFares[coachClass.ordinal()], from, to);
+        }
+        return divideHalfUp(fares[to] - fares[from], totalDistance);
+    }
+
+    /**
+     * Base fare in paise between two stops for a coach with its own full-run base fare.
+     */
+    public long fare(long baseFarePaise, int from, int to) {
+        long travelled = distances[to] - distances[from];
+        if (totalDistance <= 0 || travelled <= 0) {
+            return byTime(baseFarePaise, from, to);
+        }
+        return divideHalfUp(Math.multiplyExact(baseFarePaise, travelled), totalDistance);
+    }
+
+    /**
+     * Full-run fare pro-rated by scheduled minutes, for stops the distances cannot tell apart; the
+     * full fare only when the schedule cannot either.
+     */
+    private long byTime(long baseFarePaise, int from, int to) {
+        long scheduled = minutes[to] - minutes[from];
+        if (totalMinutes <= 0 || scheduled <= 0) {
+            return baseFarePaise;
+        }
+        return divideHalfUp(Math.multiplyExact(baseFarePaise, scheduled), totalMinutes);
+    }
+
+    /**
+     * Distance between two stops in hundredths of a km.
+     */
+    public long distance(int from, int to) {
+        return distances[to] - distances[from];
+    }
+
+    /**
+     * Whole paise of an amount in rupees, rounded half up.
+     */
+    public static long paise(BigDecimal amount) {
+        return hundredths(amount);
+    }
+
+    public static BigDecimal rupees(long paise) {
+        return BigDecimal.valueOf(paise, 2);
+    }
+
+    private static long hundredths(BigDecimal value) {
+        return value.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static long divideHalfUp(long dividend, long divisor) {
+        return (2 * dividend + divisor) / (2 * divisor);
+    }
+}
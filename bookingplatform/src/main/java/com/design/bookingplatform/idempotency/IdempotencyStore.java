@@ -0,0 +1,293 @@
+package com.design.bookingplatform.idempotency;
+
+import com.design.bookingplatform.exception.IdempotencyConflictException;
+import com.design.bookingplatform.metrics.BookingMetrics;
+import com.design.bookingplatform.models.IdempotencyKey;
+import com.design.bookingplatform.models.IdempotencyStatus;
+import com.design.bookingplatform.repository.IdempotencyKeyRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Two-tier store behind the X-Idempotency-Key header.
+ *
+ * The first tier is a bounded in-memory map of recent keys, evicted by age and oldest-first once
+ * it is full. Concurrent requests with the same key share one future, so only the first runs
+ * the operation and the rest wait for its response. Keys missing from memory fall through to
+ * idempotency_keys, which also guards against the same key being processed on another instance.
+ *
+ * Responses are kept as CBOR in memory and in the table; a key replayed with a different
+ * request body is rejected with a conflict.
+ */
+@Slf4j
+@Service
+public class IdempotencyStore {
+
+    private final IdempotencyKeyRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final BookingMetrics bookingMetrics;
+    private final ObjectMapper codec = CBORMapper.builder().addModule(new JavaTimeModule()).build();
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Entry> admissionOrder = new ConcurrentLinkedQueue<>();
+
+    private final int maxEntries;
+    private final long memoryTtlNanos;
+    private final Duration ttl;
+    private final Duration processingTimeout;
+
+    public IdempotencyStore(IdempotencyKeyRepository repository, PlatformTransactionManager transactionManager,
+                            BookingMetrics bookingMetrics,
+                            @Value("${platform.idempotency.memory-max-entries:50000}") int maxEntries,
+                            @Value("${platform.idempotency.memory-ttl:15m}") Duration memoryTtl,
+                            @Value("${platform.idempotency.ttl:24h}") Duration ttl,
+                            @Value("${platform.idempotency.processing-timeout:30s}") Duration processingTimeout) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.bookingMetrics = bookingMetrics;
+        this.maxEntries = maxEntries;
+        this.memoryTtlNanos = memoryTtl.toNanos();
+        this.ttl = ttl;
+        this.processingTimeout = processingTimeout;
+    }
+
+    public <T> T execute(String key, String operation, Object request, Class<T> responseType, Supplier<T> action) {
+        return execute(key, operation, request, responseType, action, response -> null);
+    }
+
+    /**
+     * Runs the action once per key and returns its stored response on every repeat.
+     * Without a key the action simply runs.
+     */
+    public <T> T execute(String key, String operation, Object request, Class<T> responseType,
+                         Supplier<T> action, Function<T, String> entityIdOf) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        String requestHash = hash(operation, request);
+        while (true) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.isExpired(System.nanoTime())) {
+                entries.remove(key, entry);
+                continue;
+            }
+            if (entry != null) {
+                if (!entry.requestHash.equals(requestHash)) {
+                    throw new IdempotencyConflictException("Idempotency key " + key + " was used with a different request");
+                }
+                bookingMetrics.idempotencyMemoryHit();
+                return decode(await(entry.response), responseType);
+            }
+            Entry created = new Entry(key, requestHash);
+            if (entries.putIfAbsent(key, created) == null) {
+                admit(created);
+                return resolve(created, operation, responseType, action, entityIdOf);
+            }
+        }
+    }
+
+    private <T> T resolve(Entry entry, String operation, Class<T> responseType,
+                          Supplier<T> action, Function<T, String> entityIdOf) {
+        boolean claimed = false;
+        try {
+            byte[] stored = claim(entry.key, entry.requestHash, operation);
+            if (stored != null) {
+                bookingMetrics.idempotencyStoreHit();
+                complete(entry, stored);
+                return decode(stored, responseType);
+            }
+            claimed = true;
+            bookingMetrics.idempotencyMiss();
+            T response = action.get();
+            byte[] payload = encode(response);
+            complete(entry, payload);
+            persistCompleted(entry.key, payload, entityIdOf.apply(response));
+            return response;
+        } catch (RuntimeException e) {
+            entries.remove(entry.key, entry);
+            entry.response.completeExceptionally(e);
+            if (claimed) {
+                persistFailed(entry.key, e);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the stored response of a completed key, or null once this caller owns the key
+     * in the table.
+     */
+    private byte[] claim(String key, String requestHash, String operation) {
+        try {
+            return transactionTemplate.execute(tx -> {
+                LocalDateTime now = LocalDateTime.now();
+                IdempotencyKey row = repository.findByIdempotencyKey(key).orElse(null);
+                if (row != null && row.getExpiresAt().isAfter(now)) {
+                    if (!row.getRequestHash().equals(requestHash)) {
+                        throw new IdempotencyConflictException("Idempotency key " + key + " was used with a different request");
+                    }
+                    if (row.getStatus() == IdempotencyStatus.COMPLETED) {
+                        return row.getResponsePayload();
+                    }
+                    if (row.getStatus() == IdempotencyStatus.PROCESSING
+                            && row.getCreatedAt().plus(processingTimeout).isAfter(now)) {
+                        throw new IdempotencyConflictException("Request with idempotency key " + key + " is already being processed");
+                    }
+                }
+                if (row == null) {
+                    row = IdempotencyKey.builder().idempotencyKey(key).build();
+                }
+                row.setRequestHash(requestHash);
+                row.setOperationType(operation);
+                row.setStatus(IdempotencyStatus.PROCESSING);
+                row.setResponsePayload(null);
+                row.setEntityId(null);
+                row.setErrorMessage(null);
+                row.setExpiresAt(now.plus(ttl));
+                repository.saveAndFlush(row);
+                return null;
+            });
+        } catch (DataIntegrityViolationException | OptimisticLockingFailureException e) {
+            throw new IdempotencyConflictException("Request with idempotency key " + key + " is already being processed");
+        }
+    }
+
+    private void persistCompleted(String key, byte[] payload, String entityId) {
+        try {
+            transactionTemplate.executeWithoutResult(tx -> repository.findByIdempotencyKey(key).ifPresent(row -> {
+                row.setStatus(IdempotencyStatus.COMPLETED);
+                row.setResponsePayload(payload);
+                row.setEntityId(entityId);
+            }));
+        } catch (RuntimeException e) {
+            log.warn("Could not store response for idempotency key {}; it stays cached in memory only", key, e);
+        }
+    }
+
+    private void persistFailed(String key, RuntimeException failure) {
+        try {
+            transactionTemplate.executeWithoutResult(tx -> repository.findByIdempotencyKey(key).ifPresent(row -> {
+                row.setStatus(IdempotencyStatus.FAILED);
+                row.setErrorMessage(String.valueOf(failure.getMessage()));
+            }));
+        } catch (RuntimeException e) {
+            log.warn("Could not mark idempotency key {} as failed", key, e);
+        }
+    }
+
+    private void complete(Entry entry, byte[] payload) {
+        entry.expiresAtNanos = System.nanoTime() + memoryTtlNanos;
+        entry.response.complete(payload);
+    }
+
+    private void admit(Entry entry) {
+        admissionOrder.add(entry);
+        int scanned = 0;
+        while (entries.size() > maxEntries && scanned++ < maxEntries) {
+            Entry oldest = admissionOrder.poll();
+            if (oldest == null) {
+                break;
+            }
+            if (oldest.response.isDone()) {
+                entries.remove(oldest.key, oldest);
+            } else {
+                admissionOrder.add(oldest);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${platform.idempotency.sweep-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.nanoTime();
+        admissionOrder.removeIf(entry -> {
+            if (entry.isExpired(now)) {
+                entries.remove(entry.key, entry);
+                return true;
+            }
+            return entries.get(entry.key) != entry;
+        });
+    }
+
+    public int cachedCount() {
+        return entries.size();
+    }
+
+    private String hash(String operation, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(encode(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private byte[] encode(Object value) {
+        try {
+            return codec.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private <T> T decode(byte[] payload, Class<T> type) {
+        try {
+            return codec.readValue(payload, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] await(CompletableFuture<byte[]> response) {
+        try {
+            return response.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Entry {
+        private final String key;
+        private final String requestHash;
+        private final CompletableFuture<byte[]> response = new CompletableFuture<>();
+        private volatile long expiresAtNanos = Long.MAX_VALUE;
+
+        private Entry(String key, String requestHash) {
+            this.key = key;
+            this.requestHash = requestHash;
+        }
+
+        private boolean isExpired(long now) {
+            return expiresAtNanos != Long.MAX_VALUE && now - expiresAtNanos > 0;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.design.bookingplatform.index;
+
+import com.design.bookingplatform.dto.TrainDTO;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable station -> (train, stop) inverted index over every active train.
+ * A route query intersects the posting lists of the two stations, so it never
+ * touches the database and costs O(postings(source) + postings(destination)).
+ */
+public final class RouteIndex {
+
+    private static final RouteIndex EMPTY = new RouteIndex(new TrainRoute[0], Map.of(), Map.of(), StationIndex.empty());
+
+    private final TrainRoute[] routes;
+    private final Map<String, Integer> routesByNumber;
+    private final Map<String, PostingList> postings;
+    private final StationIndex stations;
+
+    private RouteIndex(TrainRoute[] routes, Map<String, Integer> routesByNumber, Map<String, PostingList> postings,
+                       StationIndex stations) {
+        this.routes = routes;
+        this.routesByNumber = routesByNumber;
+        this.postings = postings;
+        this.stations = stations;
+    }
+
+    public static RouteIndex empty() {
+        return EMPTY;
+    }
+
+    public static RouteIndex build(Collection<TrainRoute> trainRoutes) {
+        TrainRoute[] routes = trainRoutes.toArray(new TrainRoute[0]);
+        Map<String, Integer> byNumber = new HashMap<>(routes.length * 2);
+        Map<String, PostingList.Builder> builders = new HashMap<>();
+
+        // Train indexes are visited in ascending order, so every posting list comes out sorted by train
+        for (int train = 0; train < routes.length; train++) {
+            TrainRoute route = routes[train];
+            byNumber.put(route.getTrainNumber(), train);
+            for (int stop = 0; stop < route.stopCount(); stop++) {
+                addPosting(builders, route.stationName(stop), train, stop);
+                String code = route.stationCode(stop);
+                if (code != null) {
+                    addPosting(builders, code, train, stop);
+                    addPosting(builders, TrainRoute.baseCode(code), train, stop);
+                }
+            }
+        }
+
+        Map<String, PostingList> postings = new HashMap<>(builders.size() * 2);
+        builders.forEach((key, builder) -> postings.put(key, builder.build()));
+        return new RouteIndex(routes, Map.copyOf(byNumber), Map.copyOf(postings),
+                StationIndex.build(Arrays.asList(routes)));
+    }
+
+    public int size() {
+        return routes.length;
+    }
+
+    public TrainRoute route(String trainNumber) {
+        Integer train = routesByNumber.get(trainNumber);
+        return train == null ? null : routes[train];
+    }
+
+    /**
+     * Station autocomplete over the same trains, swapped in together with the routes.
+     */
+    public StationIndex stations() {
+        return stations;
+    }
+
+    public List<TrainRoute> routes() {
+        return Collections.unmodifiableList(Arrays.asList(routes));
+    }
+
+    /**
+     * Trains that stop at source before destination and reach source on the given date,
+     * ordered by departure time from source. A null date skips the operating-day filter.
+     */
+    public List<TrainDTO> findTrains(String source, String destination, LocalDate date) {
+        if (source == null || destination == null) {
+            return List.of();
+        }
+        PostingList from = postings.get(TrainRoute.normalize(source));
+        PostingList to = postings.get(TrainRoute.normalize(destination));
+        if (from == null || to == null) {
+            return List.of();
+        }
+
+        List<TrainRoute> matches = new ArrayList<>();
+        int[] departures = new int[Math.min(from.size(), to.size())];
+        int i = 0;
+        int j = 0;
+        while (i < from.size() && j < to.size()) {
+            int fromTrain = from.train(i);
+            int toTrain = to.train(j);
+            if (fromTrain < toTrain) {
+                i++;
+            } else if (fromTrain > toTrain) {
+                j++;
+            } else {
+                TrainRoute route = routes[fromTrain];
+                int boarding = from.stop(i);
+                if (boarding < to.stop(j) && route.operatesAt(boarding, date)) {
+                    departures[matches.size()] = route.departureMinute(boarding) % (24 * 60);
+                    matches.add(route);
+                }
+                i++;
+                j++;
+            }
+        }
+
+        Integer[] order = new Integer[matches.size()];
+        for (int k = 0; k < order.length; k++) {
+            order[k] = k;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(departures[a], departures[b]));
+
+        List<TrainDTO> trains = new ArrayList<>(order.length);
+        for (Integer k : order) {
+            trains.add(matches.get(k).getTrain());
+        }
+        return trains;
+    }
+
+    private static void addPosting(Map<String, PostingList.Builder> builders, String station, int train, int stop) {
+        if (station == null || station.isBlank()) {
+            return;
+        }
+        builders.computeIfAbsent(TrainRoute.normalize(station), key -> new PostingList.Builder()).add(train, stop);
+    }
+
+    /**
+     * Parallel primitive arrays of (train index, stop index), sorted by train index,
+     * with at most one entry per train.
+     */
+    static final class PostingList {
+        private final int[] trains;
+        private final int[] stops;
+
+        private PostingList(int[] trains, int[] stops) {
+            this.trains = trains;
+            this.stops = stops;
+        }
+
+        int size() {
+            return trains.length;
+        }
+
+        int train(int posting) {
+            return trains[posting];
+        }
+
+        int stop(int posting) {
+            return stops[posting];
+        }
+
+        static final class Builder {
+            private int[] trains = new int[8];
+            private int[] stops = new int[8];
+            private int size;
+
+            void add(int train, int stop) {
+                if (size > 0 && trains[size - 1] == train) {
+                    return;
+                }
+                if (size == trains.length) {
+                    trains = Arrays.copyOf(trains, size * 2);
+                    stops = Arrays.copyOf(stops, size * 2);
+                }
+                trains[size] = train;
+                stops[size] = stop;
+                size++;
+            }
+
+            PostingList build() {
+                return new PostingList(Arrays.copyOf(trains, size), Arrays.copyOf(stops, size));
+            }
+        }
+    }
+}
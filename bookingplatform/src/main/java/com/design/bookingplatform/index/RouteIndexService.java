@@ -0,0 +1,84 @@
+package com.design.bookingplatform.index;
+
+import com.design.bookingplatform.events.TrainDataChangedEvent;
+import com.design.bookingplatform.models.Train;
+import com.design.bookingplatform.repository.TrainRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Owns the current RouteIndex snapshot.
+ * Readers always see a complete index; rebuilds happen off-thread and are swapped in atomically.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RouteIndexService {
+
+    private final TrainRepository trainRepository;
+
+    private final AtomicReference<RouteIndex> snapshot = new AtomicReference<>(RouteIndex.empty());
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "route-index-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RouteIndex current() {
+        return snapshot.get();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Coalesces bursts of changes (e.g. a bulk timetable load) into a single rebuild.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTrainDataChanged(TrainDataChangedEvent event) {
+        if (rebuildPending.compareAndSet(false, true)) {
+            rebuildExecutor.execute(() -> {
+                rebuildPending.set(false);
+                rebuild();
+            });
+        }
+    }
+
+    public void rebuild() {
+        long started = System.nanoTime();
+        try {
+            List<TrainRoute> routes = new ArrayList<>();
+            for (Train train : trainRepository.findAllWithStations()) {
+                if (!Boolean.FALSE.equals(train.getIsActive())) {
+                    routes.add(TrainRoute.of(train));
+                }
+            }
+            RouteIndex index = RouteIndex.build(routes);
+            snapshot.set(index);
+            log.info("Route index rebuilt with {} trains in {} ms",
+                    index.size(), (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("Route index rebuild failed, keeping previous snapshot", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,289 @@
+package com.design.bookingplatform.index;
+
+import com.design.bookingplatform.dto.StationDTO;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Immutable autocomplete index over every station served by an active train.
+ *
+ * Station names, each word of a name and base codes (AJME for AJME_2) are folded to upper-case
+ * ASCII and kept in one sorted term array, so a prefix is a binary search followed by a scan of
+ * the matching range. When the prefixes give too few results, word trigrams of the query are
+ * counted against trigram postings to catch typos. Results rank by match quality, then by the
+ * number of trains serving the station.
+ */
+public final class StationIndex {
+
+    private static final StationIndex EMPTY = build(List.of());
+
+    private static final int MIN_FUZZY_LENGTH = 3;
+    private static final double MIN_FUZZY_SIMILARITY = 0.5;
+
+    private static final int EXACT_CODE = 4;
+    private static final int EXACT_NAME = 3;
+    private static final int NAME_PREFIX = 2;
+    private static final int WORD_OR_CODE_PREFIX = 1;
+
+    private final StationDTO[] stations;
+    private final String[] keys;
+    private final String[] codes;
+    private final String[] terms;
+    private final int[] termOffsets;
+    private final int[] termStations;
+    private final Map<String, int[]> trigrams;
+    private final List<StationDTO> byTrainCount;
+
+    private StationIndex(StationDTO[] stations, String[] keys, String[] codes, String[] terms, int[] termOffsets,
+                         int[] termStations, Map<String, int[]> trigrams) {
+        this.stations = stations;
+        this.keys = keys;
+        this.codes = codes;
+        this.terms = terms;
+        this.termOffsets = termOffsets;
+        this.termStations = termStations;
+        this.trigrams = trigrams;
+        this.byTrainCount = List.of(stations);
+    }
+
+    public static StationIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Stations are identified by folded name; the code is the base code of the first coded stop
+     * seen, since origin and terminus stops may carry only a name.
+     */
+    public static StationIndex build(Collection<TrainRoute> routes) {
+        Map<String, StationBuilder> byKey = new HashMap<>();
+        int train = 0;
+        for (TrainRoute route : routes) {
+            for (int stop = 0; stop < route.stopCount(); stop++) {
+                String name = route.stationName(stop);
+                if (name == null || name.isBlank()) {
+                    continue;
+                }
+                StationBuilder station = byKey.computeIfAbsent(fold(name), key -> new StationBuilder(key, name.trim()));
+                String code = route.stationCode(stop);
+                if (station.code == null && code != null && !code.isBlank()) {
+                    station.code = TrainRoute.normalize(TrainRoute.baseCode(code));
+                }
+                if (station.lastTrain != train) {
+                    station.lastTrain = train;
+                    station.trains++;
+                }
+            }
+            train++;
+        }
+
+        List<StationBuilder> ordered = new ArrayList<>(byKey.values());
+        ordered.sort(Comparator.comparingInt((StationBuilder station) -> station.trains).reversed()
+                .thenComparing(station -> station.key));
+
+        // Station ids follow the train-count order, so a lower id always ranks higher on ties
+        int size = ordered.size();
+        StationDTO[] stations = new StationDTO[size];
+        String[] keys = new String[size];
+        String[] codes = new String[size];
+        TreeMap<String, Set<Integer>> termPostings = new TreeMap<>();
+        Map<String, Set<Integer>> gramPostings = new HashMap<>();
+        for (int id = 0; id < size; id++) {
+            StationBuilder station = ordered.get(id);
+            stations[id] = StationDTO.builder()
+                    .stationCode(station.code)
+                    .stationName(station.name)
+                    .trainCount(station.trains)
+                    .build();
+            keys[id] = station.key;
+            codes[id] = station.code;
+            addTerm(termPostings, station.key, id);
+            for (String word : station.key.split(" ")) {
+                addTerm(termPostings, word, id);
+                for (String gram : trigrams(word)) {
+                    gramPostings.computeIfAbsent(gram, key -> new LinkedHashSet<>()).add(id);
+                }
+            }
+            if (station.code != null) {
+                addTerm(termPostings, station.code, id);
+            }
+        }
+
+        String[] terms = termPostings.keySet().toArray(new String[0]);
+        int[] offsets = new int[terms.length + 1];
+        int[] postings = new int[termPostings.values().stream().mapToInt(Set::size).sum()];
+        int next = 0;
+        for (int term = 0; term < terms.length; term++) {
+            offsets[term] = next;
+            for (int id : termPostings.get(terms[term])) {
+                postings[next++] = id;
+            }
+        }
+        offsets[terms.length] = next;
+
+        Map<String, int[]> grams = new HashMap<>(gramPostings.size() * 2);
+        gramPostings.forEach((gram, ids) -> grams.put(gram, ids.stream().mapToInt(Integer::intValue).toArray()));
+        return new StationIndex(stations, keys, codes, terms, offsets, postings, Map.copyOf(grams));
+    }
+
+    public int size() {
+        return stations.length;
+    }
+
+    /**
+     * Every station, most-served first.
+     */
+    public List<StationDTO> all() {
+        return byTrainCount;
+    }
+
+    /**
+     * Up to limit stations whose name, a word of the name or the code starts with the query,
+     * topped up with trigram matches for misspelt queries.
+     */
+    public List<StationDTO> search(String query, int limit) {
+        if (query == null || limit <= 0) {
+            return List.of();
+        }
+        String prefix = fold(query.indexOf('_') > 0 ? TrainRoute.baseCode(query.trim()) : query);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+
+        int[] rank = new int[stations.length];
+        for (int term = lowerBound(prefix); term < terms.length && terms[term].startsWith(prefix); term++) {
+            for (int posting = termOffsets[term]; posting < termOffsets[term + 1]; posting++) {
+                int id = termStations[posting];
+                rank[id] = Math.max(rank[id], quality(id, prefix));
+            }
+        }
+
+        List<StationDTO> results = collect(rank, EXACT_CODE, WORD_OR_CODE_PREFIX, limit);
+        if (results.size() < limit && prefix.length() >= MIN_FUZZY_LENGTH) {
+            results.addAll(fuzzy(prefix, rank, limit - results.size()));
+        }
+        return results;
+    }
+
+    private int quality(int id, String prefix) {
+        if (prefix.equals(codes[id])) {
+            return EXACT_CODE;
+        }
+        if (prefix.equals(keys[id])) {
+            return EXACT_NAME;
+        }
+        return keys[id].startsWith(prefix) ? NAME_PREFIX : WORD_OR_CODE_PREFIX;
+    }
+
+    /**
+     * Stations sharing at least half of the query's word trigrams that the prefix scan missed.
+     */
+    private List<StationDTO> fuzzy(String query, int[] prefixRank, int limit) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (String word : query.split(" ")) {
+            grams.addAll(trigrams(word));
+        }
+        int[] shared = new int[stations.length];
+        for (String gram : grams) {
+            int[] ids = trigrams.get(gram);
+            if (ids != null) {
+                for (int id : ids) {
+                    shared[id]++;
+                }
+            }
+        }
+        int threshold = (int) Math.ceil(grams.size() * MIN_FUZZY_SIMILARITY);
+        for (int id = 0; id < shared.length; id++) {
+            if (prefixRank[id] != 0 || shared[id] < threshold) {
+                shared[id] = 0;
+            }
+        }
+        return collect(shared, grams.size(), threshold, limit);
+    }
+
+    /**
+     * Ids with scores in [min, max], best score first and by id (train count) within a score.
+     */
+    private List<StationDTO> collect(int[] scores, int max, int min, int limit) {
+        List<StationDTO> results = new ArrayList<>(Math.min(limit, 16));
+        for (int score = max; score >= Math.max(min, 1) && results.size() < limit; score--) {
+            for (int id = 0; id < scores.length && results.size() < limit; id++) {
+                if (scores[id] == score) {
+                    results.add(stations[id]);
+                }
+            }
+        }
+        return results;
+    }
+
+    private int lowerBound(String prefix) {
+        int index = Arrays.binarySearch(terms, prefix);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static void addTerm(Map<String, Set<Integer>> postings, String term, int id) {
+        if (!term.isEmpty()) {
+            postings.computeIfAbsent(term, key -> new LinkedHashSet<>()).add(id);
+        }
+    }
+
+    /**
+     * Trigrams of a word padded with one leading space, so the first letters weigh the most.
+     */
+    private static List<String> trigrams(String word) {
+        String padded = " " + word;
+        if (padded.length() < 3) {
+            return List.of(padded);
+        }
+        List<String> grams = new ArrayList<>(padded.length() - 2);
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    /**
+     * Upper-case ASCII letters and digits with single spaces between words.
+     */
+    static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD).toUpperCase(Locale.ROOT);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        boolean space = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if ((c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')) {
+                if (space && folded.length() > 0) {
+                    folded.append(' ');
+                }
+                folded.append(c);
+                space = false;
+            } else if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                space = true;
+            }
+        }
+        return folded.toString();
+    }
+
+    private static final class StationBuilder {
+        private final String key;
+        private final String name;
+        private String code;
+        private int trains;
+        private int lastTrain = -1;
+
+        private StationBuilder(String key, String name) {
+            this.key = key;
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.design.bookingplatform.index;
+
+import com.design.bookingplatform.dto.StationStopDTO;
+import com.design.bookingplatform.dto.TrainDTO;
+import com.design.bookingplatform.models.Train;
+import com.design.bookingplatform.models.TrainStation;
+import com.design.bookingplatform.service.TrainMapper;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Immutable, flattened stop sequence of one train.
+ * Stop 0 is the origin and the last stop is the terminus, even when train_stations
+ * only lists the intermediate halts. Times are minutes since midnight of the day the
+ * train leaves its origin, so overnight runs keep increasing past 1440. A synthesized terminus
+ * is placed beyond the last halt at that halt's average speed from the origin.
+ */
+public final class TrainRoute {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int ALL_DAYS = 0b111_1111;
+
+    private final long trainId;
+    private final TrainDTO train;
+    private final String[] stationCodes;
+    private final String[] stationNames;
+    private final int[] arrivalMinutes;
+    private final int[] departureMinutes;
+    private final BigDecimal[] distances;
+    private final String[] platforms;
+    private final int operatingDaysMask;
+
+    private TrainRoute(long trainId, TrainDTO train, String[] stationCodes, String[] stationNames,
+                       int[] arrivalMinutes, int[] departureMinutes, BigDecimal[] distances,
+                       String[] platforms, int operatingDaysMask) {
+        this.trainId = trainId;
+        this.train = train;
+        this.stationCodes = stationCodes;
+        this.stationNames = stationNames;
+        this.arrivalMinutes = arrivalMinutes;
+        this.departureMinutes = departureMinutes;
+        this.distances = distances;
+        this.platforms = platforms;
+        this.operatingDaysMask = operatingDaysMask;
+    }
+
+    /**
+     * Builds the route from a train whose stations collection is already initialised.
+     */
+    public static TrainRoute of(Train train) {
+        List<TrainStation> halts = new ArrayList<>(train.getStations());
+        halts.sort(Comparator.comparing(TrainStation::getStationOrder));
+
+        boolean hasOrigin = !halts.isEmpty() && sameStation(halts.get(0).getStationName(), train.getSourceStation());
+        boolean hasTerminus = !halts.isEmpty()
+                && sameStation(halts.get(halts.size() - 1).getStationName(), train.getDestinationStation());
+        int size = halts.size() + (hasOrigin ? 0 : 1) + (hasTerminus ? 0 : 1);
+
+        String[] codes = new String[size];
+        String[] names = new String[size];
+        int[] arrivals = new int[size];
+        int[] departures = new int[size];
+        BigDecimal[] distances = new BigDecimal[size];
+        String[] platforms = new String[size];
+
+        int originDeparture = minuteOfDay(train.getDepartureTime());
+        int i = 0;
+        if (!hasOrigin) {
+            names[0] = train.getSourceStation();
+            arrivals[0] = originDeparture;
+            departures[0] = originDeparture;
+            distances[0] = BigDecimal.ZERO;
+            i = 1;
+        }
+
+        int previous = originDeparture;
+        for (TrainStation halt : halts) {
+            int arrival = rollForward(minuteOfDay(halt.getArrivalTime()), previous);
+            int departure = rollForward(minuteOfDay(halt.getDepartureTime()), arrival);
+            codes[i] = halt.getStationCode();
+            names[i] = halt.getStationName();
+            arrivals[i] = arrival;
+            departures[i] = departure;
+            distances[i] = halt.getDistanceFromSource() == null ? BigDecimal.ZERO : halt.getDistanceFromSource();
+            platforms[i] = halt.getPlatform();
+            previous = departure;
+            i++;
+        }
+
+        if (!hasTerminus) {
+            Integer duration = train.getJourneyDurationMinutes();
+            int arrival = duration != null
+                    ? originDeparture + duration
+                    : rollForward(minuteOfDay(train.getArrivalTime()), previous);
+            names[i] = train.getDestinationStation();
+            arrivals[i] = Math.max(arrival, previous);
+            departures[i] = arrivals[i];
+            distances[i] = i > 0 ? extrapolate(distances[i - 1], arrivals[i - 1] - originDeparture,
+                    arrivals[i] - originDeparture) : BigDecimal.ZERO;
+        }
+
+        return new TrainRoute(train.getId() == null ? -1L : train.getId(), TrainMapper.toDto(train),
+                codes, names, arrivals, departures, distances, platforms,
+                parseOperatingDays(train.getOperatingDays()));
+    }
+
+    public long getTrainId() {
+        return trainId;
+    }
+
+    public String getTrainNumber() {
+        return train.getTrainNumber();
+    }
+
+    public TrainDTO getTrain() {
+        return train;
+    }
+
+    public int stopCount() {
+        return stationNames.length;
+    }
+
+    public String stationCode(int stop) {
+        return stationCodes[stop];
+    }
+
+    public String stationName(int stop) {
+        return stationNames[stop];
+    }
+
+    public int arrivalMinute(int stop) {
+        return arrivalMinutes[stop];
+    }
+
+    public int departureMinute(int stop) {
+        return departureMinutes[stop];
+    }
+
+    public BigDecimal distanceFromSource(int stop) {
+        return distances[stop];
+    }
+
+    /**
+     * Resolves a station name or code (with or without the _n order suffix) to its stop index, or -1.
+     */
+    public int indexOf(String station) {
+        if (station == null) {
+            return -1;
+        }
+        String key = normalize(station);
+        for (int stop = 0; stop < stationNames.length; stop++) {
+            if (key.equals(normalize(stationNames[stop]))) {
+                return stop;
+            }
+            String code = stationCodes[stop];
+            if (code != null && (key.equals(normalize(code)) || key.equals(normalize(baseCode(code))))) {
+                return stop;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * True when the train reaches the given stop on the given calendar date.
+     * A null date matches every day.
+     */
+    public boolean operatesAt(int stop, LocalDate date) {
+        if (date == null || operatingDaysMask == ALL_DAYS) {
+            return true;
+        }
+        return (operatingDaysMask & dayBit(originDate(stop, date).getDayOfWeek())) != 0;
+    }
+
+    /**
+     * The day the run that departs the given stop on the given calendar date left its origin.
+     */
+    public LocalDate originDate(int stop, LocalDate date) {
+        return date.minusDays(departureMinutes[stop] / MINUTES_PER_DAY);
+    }
+
+    public List<StationStopDTO> toStops() {
+        List<StationStopDTO> stops = new ArrayList<>(stationNames.length);
+        for (int stop = 0; stop < stationNames.length; stop++) {
+            stops.add(StationStopDTO.builder()
+                    .stationCode(stationCodes[stop])
+                    .stationName(stationNames[stop])
+                    .stationOrder(stop + 1)
+                    .arrivalTime(toLocalTime(arrivalMinutes[stop]))
+                    .departureTime(toLocalTime(departureMinutes[stop]))
+                    .haltTimeMinutes(departureMinutes[stop] - arrivalMinutes[stop])
+                    .distanceFromSource(distances[stop])
+                    .platform(platforms[stop])
+                    .build());
+        }
+        return stops;
+    }
+
+    static String normalize(String station) {
+        return station.trim().toUpperCase(Locale.ROOT);
+    }
+
+    static String baseCode(String code) {
+        int suffix = code.lastIndexOf('_');
+        return suffix > 0 ? code.substring(0, suffix) : code;
+    }
+
+    static int parseOperatingDays(String operatingDays) {
+        if (operatingDays == null || operatingDays.isBlank()) {
+            return ALL_DAYS;
+        }
+        int mask = 0;
+        for (String token : operatingDays.split(",")) {
+            String day = normalize(token);
+            for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+                if (dayOfWeek.name().startsWith(day) && day.length() >= 3) {
+                    mask |= dayBit(dayOfWeek);
+                }
+            }
+        }
+        return mask == 0 ? ALL_DAYS : mask;
+    }
+
+    private static int dayBit(DayOfWeek dayOfWeek) {
+        return 1 << (dayOfWeek.getValue() - 1);
+    }
+
+    /**
+     * Distance of a synthesized terminus, at the average speed the train keeps up to its last
+     * listed halt; the last halt's own distance when that speed is unknown.
+     */
+    private static BigDecimal extrapolate(BigDecimal lastDistance, int lastMinutes, int terminusMinutes) {
+        if (lastDistance.signum() <= 0 || lastMinutes <= 0 || terminusMinutes <= lastMinutes) {
+            return lastDistance;
+        }
+        return lastDistance.multiply(BigDecimal.valueOf(terminusMinutes))
+                .divide(BigDecimal.valueOf(lastMinutes), 2, RoundingMode.HALF_UP);
+    }
+
+    private static boolean sameStation(String a, String b) {
+        return a != null && b != null && normalize(a).equals(normalize(b));
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        return time == null ? 0 : time.getHour() * 60 + time.getMinute();
+    }
+
+    private static int rollForward(int minuteOfDay, int notBefore) {
+        int minute = minuteOfDay + (notBefore / MINUTES_PER_DAY) * MINUTES_PER_DAY;
+        return minute < notBefore ? minute + MINUTES_PER_DAY : minute;
+    }
+
+    private static LocalTime toLocalTime(int minute) {
+        return LocalTime.of((minute / 60) % 24, minute % 60);
+    }
+}
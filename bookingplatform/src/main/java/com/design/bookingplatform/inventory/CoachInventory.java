@@ -0,0 +1,71 @@
+package com.design.bookingplatform.inventory;
+
+import com.design.bookingplatform.fare.FareTable;
+import com.design.bookingplatform.models.Coach;
+import com.design.bookingplatform.models.CoachClass;
+
+import java.math.BigDecimal;
+
+/**
+ * Static coach attributes plus the live seat map for one travel date.
+ */
+public final class CoachInventory {
+
+    private final long coachId;
+    private final String coachNumber;
+    private final CoachClass coachClass;
+    private final BigDecimal baseFare;
+    private final long baseFarePaise;
+    private final boolean hasAC;
+    private final boolean hasCharging;
+    private final boolean hasWifi;
+    private final SegmentSeatMap seatMap;
+
+    CoachInventory(Coach coach, int legs) {
+        this.coachId = coach.getId();
+        this.coachNumber = coach.getCoachNumber();
+        this.coachClass = coach.getCoachClass();
+        this.baseFare = coach.getBaseFare();
+        this.baseFarePaise = FareTable.paise(coach.getBaseFare());
+        this.hasAC = Boolean.TRUE.equals(coach.getHasAC());
+        this.hasCharging = Boolean.TRUE.equals(coach.getHasCharging());
+        this.hasWifi = Boolean.TRUE.equals(coach.getHasWifi());
+        this.seatMap = new SegmentSeatMap(coach.getTotalSeats(), legs);
+    }
+
+    public long getCoachId() {
+        return coachId;
+    }
+
+    public String getCoachNumber() {
+        return coachNumber;
+    }
+
+    public CoachClass getCoachClass() {
+        return coachClass;
+    }
+
+    public BigDecimal getBaseFare() {
+        return baseFare;
+    }
+
+    public long getBaseFarePaise() {
+        return baseFarePaise;
+    }
+
+    public boolean hasAC() {
+        return hasAC;
+    }
+
+    public boolean hasCharging() {
+        return hasCharging;
+    }
+
+    public boolean hasWifi() {
+        return hasWifi;
+    }
+
+    public SegmentSeatMap seats() {
+        return seatMap;
+    }
+}
@@ -0,0 +1,244 @@
+package com.design.bookingplatform.inventory;
+
+import com.design.bookingplatform.dto.InventoryDeltaEvent.SeatState;
+import com.design.bookingplatform.events.TrainDataChangedEvent;
+import com.design.bookingplatform.exception.BookingHorizonException;
+import com.design.bookingplatform.exception.ResourceNotFoundException;
+import com.design.bookingplatform.index.RouteIndexService;
+import com.design.bookingplatform.index.TrainRoute;
+import com.design.bookingplatform.journal.BookingJournal;
+import com.design.bookingplatform.models.Coach;
+import com.design.bookingplatform.models.CoachClass;
+import com.design.bookingplatform.models.TicketStatus;
+import com.design.bookingplatform.repository.CoachRepository;
+import com.design.bookingplatform.repository.TicketRepository;
+import com.design.bookingplatform.stream.InventoryStreamPublisher;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the seat-by-segment inventory of every (train, date) that has been queried or booked.
+ * An inventory is loaded once from coaches and the live tickets of that date, then kept in
+ * step by the booking paths, so availability checks never scan the tickets table. Each coach
+ * class gets a waitlist of rac-per-coach RAC positions per coach and at most max-per-class
+ * passengers, loaded with the class's waitlisted tickets in booking order.
+ *
+ * Only dates from today to advance-days ahead are loaded, and inventories of past dates are
+ * evicted every night, so the cache is bounded by the booking horizon.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SeatInventoryService {
+
+    private final RouteIndexService routeIndexService;
+    private final CoachRepository coachRepository;
+    private final TicketRepository ticketRepository;
+    private final InventoryStreamPublisher inventoryStreamPublisher;
+    private final BookingJournal bookingJournal;
+
+    @Value("${platform.waitlist.rac-per-coach:4}")
+    private int racPerCoach;
+
+    @Value("${platform.waitlist.max-per-class:400}")
+    private int waitlistCapacity;
+
+    @Value("${platform.booking.advance-days:120}")
+    private int advanceDays;
+
+    private final ConcurrentHashMap<Key, CompletableFuture<TrainInventory>> inventories = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the inventory, loading it on first use. Concurrent first callers share one load.
+     */
+    public TrainInventory inventory(String trainNumber, LocalDate date) {
+        checkHorizon(date);
+        Key key = new Key(trainNumber, date);
+        CompletableFuture<TrainInventory> created = new CompletableFuture<>();
+        CompletableFuture<TrainInventory> existing = inventories.putIfAbsent(key, created);
+        if (existing != null) {
+            return join(existing);
+        }
+        try {
+            TrainInventory inventory = load(trainNumber, date);
+            created.complete(inventory);
+            inventoryStreamPublisher.snapshot(inventory);
+        } catch (RuntimeException e) {
+            inventories.remove(key, created);
+            created.completeExceptionally(e);
+        }
+        return join(created);
+    }
+
+    /**
+     * Drops cached inventories so they are rebuilt from the database on next use,
+     * e.g. after the train's coaches or route change.
+     */
+    public void invalidate(String trainNumber) {
+        inventories.keySet().removeIf(key -> key.trainNumber().equals(trainNumber));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTrainDataChanged(TrainDataChangedEvent event) {
+        if (event.trainNumber() == null) {
+            inventories.clear();
+        } else {
+            invalidate(event.trainNumber());
+        }
+    }
+
+    /**
+     * The inventory if it is already loaded, otherwise null; never triggers a load.
+     */
+    public TrainInventory loaded(String trainNumber, LocalDate date) {
+        CompletableFuture<TrainInventory> future = inventories.get(new Key(trainNumber, date));
+        if (future == null || !future.isDone() || future.isCompletedExceptionally()) {
+            return null;
+        }
+        return future.join();
+    }
+
+    /**
+     * Frees a seat in the cached inventory, if that inventory is loaded. An inventory loaded later
+     * reads the ticket's new status from the database instead.
+     */
+    public void releaseIfLoaded(String trainNumber, LocalDate date, String coachNumber, String seatNumber,
+                                String boardingStation, String destinationStation) {
+        TrainInventory inventory = loaded(trainNumber, date);
+        if (inventory == null) {
+            return;
+        }
+        CoachInventory coach = inventory.coach(coachNumber);
+        int seat = parseSeat(seatNumber);
+        if (coach == null || seat < 1 || seat > coach.seats().seats()) {
+            return;
+        }
+        int[] range = inventory.legRange(boardingStation, destinationStation);
+        if (range == null) {
+            range = new int[]{0, inventory.legs()};
+        }
+        coach.seats().release(seat, range[0], range[1]);
+        inventoryStreamPublisher.seatsChanged(inventory, coach, new int[]{seat}, range[0], range[1], SeatState.RELEASED);
+    }
+
+    public void evictBefore(LocalDate date) {
+        inventories.keySet().removeIf(key -> key.date().isBefore(date));
+    }
+
+    @Scheduled(cron = "${platform.booking.evict-cron:0 5 0 * * *}")
+    public void evictPast() {
+        int before = inventories.size();
+        evictBefore(LocalDate.now());
+        log.info("Evicted {} seat inventories of past dates", before - inventories.size());
+    }
+
+    /**
+     * Rejects dates before today or more than advance-days ahead; advance-days of 0 turns the
+     * check off.
+     */
+    private void checkHorizon(LocalDate date) {
+        if (advanceDays <= 0) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        if (date == null || date.isBefore(today) || date.isAfter(today.plusDays(advanceDays))) {
+            throw new BookingHorizonException("Journey date " + date + " is outside the booking horizon of "
+                    + advanceDays + " days");
+        }
+    }
+
+    private TrainInventory load(String trainNumber, LocalDate date) {
+        TrainRoute route = routeIndexService.current().route(trainNumber);
+        if (route == null) {
+            throw new ResourceNotFoundException("Train not found: " + trainNumber);
+        }
+        int legs = Math.max(1, route.stopCount() - 1);
+
+        List<CoachInventory> coaches = new ArrayList<>();
+        Map<Long, CoachInventory> coachesById = new HashMap<>();
+        for (Coach coach : coachRepository.findByTrainId(route.getTrainId())) {
+            CoachInventory inventory = new CoachInventory(coach, legs);
+            coaches.add(inventory);
+            coachesById.put(inventory.getCoachId(), inventory);
+        }
+        Map<CoachClass, Integer> classCoaches = new EnumMap<>(CoachClass.class);
+        for (CoachInventory coach : coaches) {
+            classCoaches.merge(coach.getCoachClass(), 1, Integer::sum);
+        }
+        Map<CoachClass, Waitlist> waitlists = new EnumMap<>(CoachClass.class);
+        classCoaches.forEach((coachClass, count) ->
+                waitlists.put(coachClass, new Waitlist(racPerCoach * count, waitlistCapacity)));
+        TrainInventory inventory = new TrainInventory(route, date, coaches, waitlists);
+
+        // Seats freed by journaled transitions are only free in the tickets table once applied.
+        bookingJournal.awaitApplied();
+        int skipped = 0;
+        for (TicketRepository.OccupiedSeat seat : ticketRepository.findOccupiedSeats(route.getTrainId(), date)) {
+            CoachInventory coach = coachesById.get(seat.getCoachId());
+            int seatNumber = parseSeat(seat.getSeatNumber());
+            int[] range = inventory.legRange(seat.getBoardingStation(), seat.getDestinationStation());
+            if (range == null) {
+                range = new int[]{0, legs};
+            }
+            if (coach == null || seatNumber < 1 || seatNumber > coach.seats().seats()
+                    || !coach.seats().occupy(seatNumber, range[0], range[1])) {
+                skipped++;
+            }
+        }
+        for (TicketRepository.WaitlistedTicket ticket
+                : ticketRepository.findWaitlisted(route.getTrainId(), date, TicketStatus.WAIT_LISTED)) {
+            CoachInventory coach = coachesById.get(ticket.getCoachId());
+            int[] range = inventory.legRange(ticket.getBoardingStation(), ticket.getDestinationStation());
+            if (coach == null || range == null) {
+                skipped++;
+                continue;
+            }
+            waitlists.get(coach.getCoachClass()).add(ticket.getBookingId(), new long[]{ticket.getTicketId()},
+                    range[0], range[1]);
+        }
+        if (skipped > 0) {
+            log.warn("Skipped {} inconsistent ticket rows while loading inventory of train {} on {}",
+                    skipped, trainNumber, date);
+        }
+        return inventory;
+    }
+
+    public static int parseSeat(String seatNumber) {
+        if (seatNumber == null) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(seatNumber.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static TrainInventory join(CompletableFuture<TrainInventory> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record Key(String trainNumber, LocalDate date) {
+    }
+}
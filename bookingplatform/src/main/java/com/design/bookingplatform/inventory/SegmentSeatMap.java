@@ -0,0 +1,180 @@
+package com.design.bookingplatform.inventory;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Seat-by-leg occupancy of one coach on one travel date.
+ *
+ * Leg i is the stretch between stop i and stop i + 1 of the train's route. Each leg owns a
+ * bitset with one bit per seat, so a seat freed at an intermediate stop is immediately
+ * reusable for the rest of the route. A sub-route [fromLeg, toLeg) is free for a seat when the
+ * seat's bit is clear in every covered leg; counting free seats is a word-wise OR over the
+ * covered legs followed by a popcount.
+ *
+ * Seat numbers are 1-based, matching Ticket.seatNumber. All methods are thread-safe.
+ */
+public final class SegmentSeatMap {
+
+    private final int seats;
+    private final int legs;
+    private final int words;
+    private final long[] occupied;
+
+    public SegmentSeatMap(int seats, int legs) {
+        if (seats <= 0 || legs <= 0) {
+            throw new IllegalArgumentException("seats and legs must be positive");
+        }
+        this.seats = seats;
+        this.legs = legs;
+        this.words = (seats + 63) >>> 6;
+        this.occupied = new long[legs * words];
+    }
+
+    public int seats() {
+        return seats;
+    }
+
+    public int legs() {
+        return legs;
+    }
+
+    /**
+     * Copy of the occupancy bitsets, leg by leg, ((seats + 63) / 64) words per leg.
+     */
+    public synchronized long[] snapshot() {
+        return occupied.clone();
+    }
+
+    public synchronized boolean isFree(int seat, int fromLeg, int toLeg) {
+        checkRange(seat, fromLeg, toLeg);
+        int word = (seat - 1) >>> 6;
+        long bit = 1L << ((seat - 1) & 63);
+        for (int leg = fromLeg; leg < toLeg; leg++) {
+            if ((occupied[leg * words + word] & bit) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Marks the seat occupied on every covered leg. Returns false, changing nothing,
+     * if any of those legs is already taken.
+     */
+    public synchronized boolean occupy(int seat, int fromLeg, int toLeg) {
+        if (!isFree(seat, fromLeg, toLeg)) {
+            return false;
+        }
+        set(seat, fromLeg, toLeg, true);
+        return true;
+    }
+
+    /**
+     * Occupies all given seats or none of them.
+     */
+    public synchronized boolean occupyAll(int[] seatNumbers, int fromLeg, int toLeg) {
+        for (int seat : seatNumbers) {
+            if (!isFree(seat, fromLeg, toLeg)) {
+                return false;
+            }
+        }
+        for (int seat : seatNumbers) {
+            set(seat, fromLeg, toLeg, true);
+        }
+        return true;
+    }
+
+    public synchronized void release(int seat, int fromLeg, int toLeg) {
+        checkRange(seat, fromLeg, toLeg);
+        set(seat, fromLeg, toLeg, false);
+    }
+
+    public synchronized int countFree(int fromLeg, int toLeg) {
+        checkLegs(fromLeg, toLeg);
+        int taken = 0;
+        for (int word = 0; word < words; word++) {
+            taken += Long.bitCount(coveredWord(word, fromLeg, toLeg));
+        }
+        return seats - taken;
+    }
+
+    /**
+     * Lowest-numbered seats free across the whole sub-route, up to limit of them.
+     */
+    public synchronized int[] findFree(int fromLeg, int toLeg, int limit) {
+        checkLegs(fromLeg, toLeg);
+        int[] found = new int[Math.min(limit, seats)];
+        int count = 0;
+        for (int word = 0; word < words && count < found.length; word++) {
+            long free = ~coveredWord(word, fromLeg, toLeg);
+            if (word == words - 1 && (seats & 63) != 0) {
+                free &= (1L << (seats & 63)) - 1;
+            }
+            while (free != 0 && count < found.length) {
+                int bit = Long.numberOfTrailingZeros(free);
+                found[count++] = (word << 6) + bit + 1;
+                free &= free - 1;
+            }
+        }
+        return count == found.length ? found : Arrays.copyOf(found, count);
+    }
+
+    /**
+     * Finds and occupies up to limit of the lowest-numbered seats that are free across the
+     * sub-route and accepted by the filter, in one step.
+     */
+    public synchronized int[] claimFree(int fromLeg, int toLeg, int limit, IntPredicate eligible) {
+        checkLegs(fromLeg, toLeg);
+        int[] claimed = new int[Math.min(limit, seats)];
+        int count = 0;
+        for (int word = 0; word < words && count < claimed.length; word++) {
+            long free = ~coveredWord(word, fromLeg, toLeg);
+            if (word == words - 1 && (seats & 63) != 0) {
+                free &= (1L << (seats & 63)) - 1;
+            }
+            while (free != 0 && count < claimed.length) {
+                int seat = (word << 6) + Long.numberOfTrailingZeros(free) + 1;
+                free &= free - 1;
+                if (eligible.test(seat)) {
+                    set(seat, fromLeg, toLeg, true);
+                    claimed[count++] = seat;
+                }
+            }
+        }
+        return count == claimed.length ? claimed : Arrays.copyOf(claimed, count);
+    }
+
+    private long coveredWord(int word, int fromLeg, int toLeg) {
+        long union = 0;
+        for (int leg = fromLeg; leg < toLeg; leg++) {
+            union |= occupied[leg * words + word];
+        }
+        return union;
+    }
+
+    private void set(int seat, int fromLeg, int toLeg, boolean taken) {
+        int word = (seat - 1) >>> 6;
+        long bit = 1L << ((seat - 1) & 63);
+        for (int leg = fromLeg; leg < toLeg; leg++) {
+            if (taken) {
+                occupied[leg * words + word] |= bit;
+            } else {
+                occupied[leg * words + word] &= ~bit;
+            }
+        }
+    }
+
+    private void checkRange(int seat, int fromLeg, int toLeg) {
+        if (seat < 1 || seat > seats) {
+            throw new IllegalArgumentException("Seat " + seat + " outside 1.." + seats);
+        }
+        checkLegs(fromLeg, toLeg);
+    }
+
+    private void checkLegs(int fromLeg, int toLeg) {
+        if (fromLeg < 0 || toLeg > legs || fromLeg >= toLeg) {
+            throw new IllegalArgumentException("Invalid leg range [" + fromLeg + ", " + toLeg + ") of " + legs);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.design.bookingplatform.inventory;
+
+import com.design.bookingplatform.index.TrainRoute;
+import com.design.bookingplatform.models.CoachClass;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Seat inventory of every coach of one train on one travel date, and the waitlist of each
+ * coach class.
+ */
+public final class TrainInventory {
+
+    private final TrainRoute route;
+    private final LocalDate date;
+    private final List<CoachInventory> coaches;
+    private final Map<String, CoachInventory> coachesByNumber;
+    private final Map<CoachClass, Waitlist> waitlists;
+
+    TrainInventory(TrainRoute route, LocalDate date, List<CoachInventory> coaches,
+                   Map<CoachClass, Waitlist> waitlists) {
+        this.route = route;
+        this.date = date;
+        this.coaches = List.copyOf(coaches);
+        this.coachesByNumber = coaches.stream()
+                .collect(Collectors.toUnmodifiableMap(CoachInventory::getCoachNumber, Function.identity(), (a, b) -> a));
+        this.waitlists = waitlists.isEmpty() ? Map.of() : Collections.unmodifiableMap(new EnumMap<>(waitlists));
+    }
+
+    public TrainRoute route() {
+        return route;
+    }
+
+    public LocalDate date() {
+        return date;
+    }
+
+    public List<CoachInventory> coaches() {
+        return coaches;
+    }
+
+    public CoachInventory coach(String coachNumber) {
+        return coachNumber == null ? null : coachesByNumber.get(coachNumber);
+    }
+
+    /**
+     * The waitlist of a coach class, or null when the train has no coach of that class.
+     */
+    public Waitlist waitlist(CoachClass coachClass) {
+        return coachClass == null ? null : waitlists.get(coachClass);
+    }
+
+    public Map<CoachClass, Waitlist> waitlists() {
+        return waitlists;
+    }
+
+    public int legs() {
+        return Math.max(1, route.stopCount() - 1);
+    }
+
+    /**
+     * Leg range [from, to) between two stations; null stations mean the route's ends.
+     * Returns null when a station is not on the route or the order is reversed.
+     */
+    public int[] legRange(String source, String destination) {
+        int from = source == null ? 0 : route.indexOf(source);
+        int to = destination == null ? route.stopCount() - 1 : route.indexOf(destination);
+        if (from < 0 || to < 0 || from >= to) {
+            return null;
+        }
+        return new int[]{from, to};
+    }
+}
@@ -0,0 +1,250 @@
+package com.design.bookingplatform.inventory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Waitlisted tickets of one coach class of a train on one travel date, in booking order.
+ *
+ * Each waiting passenger is one slot of a ring: its booking sequence, ticket id, leg range and
+ * booking reference in parallel arrays, so a group of passengers occupies consecutive slots and
+ * can be promoted in part. Tickets that leave the waitlist are tombstoned in place and dropped
+ * once they reach the head or outnumber the live slots. The first racSeats live slots are RAC,
+ * the rest WL; the list admits at most capacity passengers.
+ *
+ * All methods are thread-safe.
+ */
+public final class Waitlist {
+
+    /**
+     * Seat number of a waitlisted ticket until a seat is assigned.
+     */
+    public static final String SEAT = "WL";
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int racSeats;
+    private final int capacity;
+    private long[] seqs = new long[INITIAL_CAPACITY];
+    private long[] tickets = new long[INITIAL_CAPACITY];
+    private int[] legs = new int[INITIAL_CAPACITY];
+    private String[] bookings = new String[INITIAL_CAPACITY];
+    private int head;
+    private int slots;
+    private int live;
+    private long nextSeq;
+
+    public Waitlist(int racSeats, int capacity) {
+        this.racSeats = Math.max(0, racSeats);
+        this.capacity = Math.max(0, capacity);
+    }
+
+    public synchronized int size() {
+        return live;
+    }
+
+    public synchronized boolean admits(int passengers) {
+        return live + passengers <= capacity;
+    }
+
+    /**
+     * "RAC" while a new passenger would get an RAC position, "WAITLIST" while the list admits
+     * passengers, otherwise "FULL".
+     */
+    public synchronized String status() {
+        if (live < racSeats) {
+            return "RAC";
+        }
+        return live < capacity ? "WAITLIST" : "FULL";
+    }
+
+    /**
+     * Appends the tickets of one booking and returns their positions, e.g. "RAC 2" or "WL 14".
+     */
+    public synchronized List<String> add(String bookingId, long[] ticketIds, int fromLeg, int toLeg) {
+        List<String> positions = new ArrayList<>(ticketIds.length);
+        for (long ticketId : ticketIds) {
+            append(nextSeq++, ticketId, fromLeg, toLeg, bookingId);
+            positions.add(label(live));
+        }
+        return positions;
+    }
+
+    /**
+     * Drops the given tickets from the list; tickets not on it are ignored.
+     */
+    public synchronized void remove(Collection<Long> ticketIds) {
+        if (live == 0 || ticketIds.isEmpty()) {
+            return;
+        }
+        Set<Long> removed = new HashSet<>(ticketIds);
+        for (int i = 0; i < slots; i++) {
+            int slot = slot(i);
+            if (tickets[slot] != 0 && removed.contains(tickets[slot])) {
+                tickets[slot] = 0;
+                live--;
+            }
+        }
+        trim();
+    }
+
+    /**
+     * Position label of a waitlisted ticket, or null when it is not on the list.
+     */
+    public synchronized String position(long ticketId) {
+        int position = 0;
+        for (int i = 0; i < slots; i++) {
+            long ticket = tickets[slot(i)];
+            if (ticket != 0) {
+                position++;
+                if (ticket == ticketId) {
+                    return label(position);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Offers a seat to every waiting passenger in booking order and removes the ones that got
+     * one. A leg range no seat was found for is not tried again in the same pass, and a
+     * passenger who gets no seat does not hold up later passengers with a different range.
+     */
+    public synchronized List<Promotion> promote(SeatClaim claim) {
+        List<Promotion> promoted = new ArrayList<>();
+        Set<Integer> exhausted = new HashSet<>();
+        for (int i = 0; i < slots && live > 0; i++) {
+            int slot = slot(i);
+            if (tickets[slot] == 0 || exhausted.contains(legs[slot])) {
+                continue;
+            }
+            int fromLeg = legs[slot] >>> 16;
+            int toLeg = legs[slot] & 0xFFFF;
+            Seat seat = claim.claim(bookings[slot], fromLeg, toLeg);
+            if (seat == null) {
+                exhausted.add(legs[slot]);
+                continue;
+            }
+            promoted.add(new Promotion(seqs[slot], tickets[slot], bookings[slot], fromLeg, toLeg,
+                    seat.coach(), seat.seat()));
+            tickets[slot] = 0;
+            live--;
+        }
+        trim();
+        return promoted;
+    }
+
+    /**
+     * Puts a promotion that could not be applied back at its original place in the list.
+     */
+    public synchronized void restore(Promotion promotion) {
+        append(promotion.seq(), promotion.ticketId(), promotion.fromLeg(), promotion.toLeg(), promotion.bookingId());
+        for (int i = slots - 1; i > 0; i--) {
+            int slot = slot(i);
+            int previous = slot(i - 1);
+            if (tickets[previous] != 0 && seqs[previous] < seqs[slot]) {
+                break;
+            }
+            swap(slot, previous);
+        }
+    }
+
+    private void append(long seq, long ticketId, int fromLeg, int toLeg, String bookingId) {
+        if (slots == seqs.length) {
+            grow();
+        }
+        int slot = slot(slots++);
+        seqs[slot] = seq;
+        tickets[slot] = ticketId;
+        legs[slot] = fromLeg << 16 | toLeg;
+        bookings[slot] = bookingId;
+        live++;
+        nextSeq = Math.max(nextSeq, seq + 1);
+    }
+
+    private String label(int position) {
+        return position <= racSeats ? "RAC " + position : "WL " + (position - racSeats);
+    }
+
+    private int slot(int index) {
+        return (head + index) & (seqs.length - 1);
+    }
+
+    /**
+     * Drops tombstones at the head, and compacts the ring when most of it is tombstones.
+     */
+    private void trim() {
+        while (slots > 0 && tickets[head] == 0) {
+            bookings[head] = null;
+            head = (head + 1) & (seqs.length - 1);
+            slots--;
+        }
+        if (slots > INITIAL_CAPACITY && live < slots / 2) {
+            resize(seqs.length);
+        }
+    }
+
+    private void grow() {
+        resize(seqs.length * 2);
+    }
+
+    private void resize(int length) {
+        long[] newSeqs = new long[length];
+        long[] newTickets = new long[length];
+        int[] newLegs = new int[length];
+        String[] newBookings = new String[length];
+        int kept = 0;
+        for (int i = 0; i < slots; i++) {
+            int slot = slot(i);
+            if (tickets[slot] != 0) {
+                newSeqs[kept] = seqs[slot];
+                newTickets[kept] = tickets[slot];
+                newLegs[kept] = legs[slot];
+                newBookings[kept] = bookings[slot];
+                kept++;
+            }
+        }
+        seqs = newSeqs;
+        tickets = newTickets;
+        legs = newLegs;
+        bookings = newBookings;
+        head = 0;
+        slots = kept;
+    }
+
+    private void swap(int a, int b) {
+        long seq = seqs[a];
+        seqs[a] = seqs[b];
+        seqs[b] = seq;
+        long ticket = tickets[a];
+        tickets[a] = tickets[b];
+        tickets[b] = ticket;
+        int range = legs[a];
+        legs[a] = legs[b];
+        legs[b] = range;
+        String booking = bookings[a];
+        bookings[a] = bookings[b];
+        bookings[b] = booking;
+    }
+
+    /**
+     * Finds and takes a seat for one passenger over the legs [fromLeg, toLeg), or returns null.
+     */
+    @FunctionalInterface
+    public interface SeatClaim {
+        Seat claim(String bookingId, int fromLeg, int toLeg);
+    }
+
+    public record Seat(CoachInventory coach, int seat) {
+    }
+
+    /**
+     * A waitlisted ticket and the seat it was given.
+     */
+    public record Promotion(long seq, long ticketId, String bookingId, int fromLeg, int toLeg,
+                            CoachInventory coach, int seat) {
+    }
+}
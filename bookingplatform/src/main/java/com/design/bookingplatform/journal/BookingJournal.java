@@ -0,0 +1,613 @@
+package com.design.bookingplatform.journal;
+
+import com.design.bookingplatform.metrics.BookingMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/**
+ * Write-ahead journal of booking transitions, group-committed to memory-mapped segment files.
+ *
+ * Callers hand their transitions to one sync thread, which appends everything that arrives
+ * within sync-interval-us of the first record, or up to sync-max-records, to the current segment
+ * and forces it to disk once for the whole group before acknowledging every caller in it. An
+ * apply thread then writes the synced records to PostgreSQL in batches with
+ * {@link TransitionWriter} and records the last applied sequence in a checkpoint file; segments
+ * wholly behind the checkpoint are deleted. On startup every record after the checkpoint is
+ * applied before the journal accepts new ones. Transitions are absolute, so a record applied
+ * again after a crash between the database commit and the checkpoint write changes nothing.
+ *
+ * Until a record is applied the database still shows the booking's previous state;
+ * {@link #awaitApplied} lets the booking engine wait for it before loading the booking again,
+ * and {@link #reservePayment} holds a payment transaction id that is not in the database yet.
+ * With the journal disabled, {@link #commit} writes straight to the database.
+ *
+ * A synced record is never skipped: if the database refuses one, the journal stops taking and
+ * applying records and the record is replayed on restart, where a refusal stops startup.
+ *
+ * Record layout: payload length, CRC32C of sequence and payload, sequence, payload. A segment is
+ * named after its first sequence and ends at the first zero length.
+ */
+@Slf4j
+@Component
+public class BookingJournal {
+
+    static final String SUFFIX = ".wal";
+
+    private static final String CHECKPOINT = "checkpoint";
+    private static final int HEADER_BYTES = Integer.BYTES + Integer.BYTES + Long.BYTES;
+    private static final long RETRY_MILLIS = 1_000;
+
+    private final TransitionWriter writer;
+    private final BookingMetrics bookingMetrics;
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentBytes;
+    private final long syncIntervalNanos;
+    private final int syncMaxRecords;
+    private final int applyMaxBatch;
+
+    private final BlockingQueue<Append> appends = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Entry> synced = new LinkedBlockingQueue<>();
+    private final Queue<Sealed> sealed = new ConcurrentLinkedQueue<>();
+    private final Map<String, Integer> unappliedByBooking = new ConcurrentHashMap<>();
+    private final Map<String, String> unappliedPayments = new ConcurrentHashMap<>();
+    private final Object appliedMonitor = new Object();
+    private final ByteArrayOutputStream scratch = new ByteArrayOutputStream(512);
+    private final CRC32C crc = new CRC32C();
+
+    private FileChannel checkpointChannel;
+    private Path segmentPath;
+    private FileChannel segmentChannel;
+    private MappedByteBuffer segment;
+    private int syncedPosition;
+    private long nextSeq;
+    private volatile long syncedSeq;
+    private volatile long appliedSeq;
+    private volatile RuntimeException failure;
+    private volatile RuntimeException applyFailure;
+    private Thread syncThread;
+    private Thread applyThread;
+
+    public BookingJournal(TransitionWriter writer, BookingMetrics bookingMetrics,
+                          @Value("${platform.journal.enabled:true}") boolean enabled,
+                          @Value("${platform.journal.dir:journal}") String directory,
+                          @Value("${platform.journal.segment-bytes:67108864}") int segmentBytes,
+                          @Value("${platform.journal.sync-interval-us:500}") long syncIntervalMicros,
+                          @Value("${platform.journal.sync-max-records:256}") int syncMaxRecords,
+                          @Value("${platform.journal.apply-max-batch:512}") int applyMaxBatch) {
+        this.writer = writer;
+        this.bookingMetrics = bookingMetrics;
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentBytes = segmentBytes;
+        this.syncIntervalNanos = TimeUnit.MICROSECONDS.toNanos(syncIntervalMicros);
+        this.syncMaxRecords = syncMaxRecords;
+        this.applyMaxBatch = applyMaxBatch;
+        if (!enabled) {
+            log.info("Booking journal disabled; booking transitions are written straight to the database");
+            return;
+        }
+        try {
+            open();
+        } catch (IOException e) {
+            close();
+            throw new UncheckedIOException("Cannot open booking journal in " + this.directory.toAbsolutePath(), e);
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+        this.syncThread = daemon(this::syncLoop, "booking-journal-sync");
+        this.applyThread = daemon(this::applyLoop, "booking-journal-apply");
+    }
+
+    /**
+     * Makes the transitions durable: returns once they are synced to the journal, or with the
+     * journal disabled once they are committed to the database.
+     */
+    public void commit(List<BookingTransition> transitions) {
+        if (transitions.isEmpty()) {
+            return;
+        }
+        if (!enabled) {
+            try {
+                writer.apply(transitions);
+            } finally {
+                releasePayments(transitions);
+            }
+            return;
+        }
+        if (failure != null) {
+            releasePayments(transitions);
+            throw new IllegalStateException("Booking journal is unavailable", failure);
+        }
+        for (BookingTransition transition : transitions) {
+            unappliedByBooking.merge(transition.bookingId(), 1, Integer::sum);
+        }
+        Append append = new Append(transitions, new CompletableFuture<>());
+        appends.add(append);
+        try {
+            append.synced().get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the booking journal", e);
+        }
+    }
+
+    /**
+     * Waits until every journaled transition of the bookings is in the database.
+     */
+    public void awaitApplied(Collection<String> bookingIds) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (appliedMonitor) {
+            while (hasUnapplied(bookingIds)) {
+                checkApplying();
+                try {
+                    appliedMonitor.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for the booking journal", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits until every transition synced so far is in the database, for readers that rebuild
+     * state from it.
+     */
+    public void awaitApplied() {
+        if (!enabled) {
+            return;
+        }
+        long target = syncedSeq;
+        synchronized (appliedMonitor) {
+            while (appliedSeq < target) {
+                checkApplying();
+                try {
+                    appliedMonitor.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for the booking journal", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Holds a payment transaction id for the booking until the transition recording it is in the
+     * database, where the transactions table shows it. Returns false when another booking holds
+     * it; the holder itself may reserve it again, as when its confirm is retried.
+     */
+    public boolean reservePayment(String transactionId, String bookingId) {
+        String holder = unappliedPayments.putIfAbsent(transactionId, bookingId);
+        return holder == null || holder.equals(bookingId);
+    }
+
+    /**
+     * Gives up a reservation the booking does not commit.
+     */
+    public void releasePayment(String transactionId, String bookingId) {
+        unappliedPayments.remove(transactionId, bookingId);
+    }
+
+    /**
+     * Synced records not yet applied to the database.
+     */
+    public long unappliedCount() {
+        return syncedSeq - appliedSeq;
+    }
+
+    private boolean hasUnapplied(Collection<String> bookingIds) {
+        for (String bookingId : bookingIds) {
+            if (unappliedByBooking.containsKey(bookingId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void syncLoop() {
+        List<Append> group = new ArrayList<>();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                group.add(appends.take());
+                int records = group.get(0).transitions().size();
+                long deadline = System.nanoTime() + syncIntervalNanos;
+                while (records < syncMaxRecords) {
+                    Append next = appends.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    group.add(next);
+                    records += next.transitions().size();
+                }
+            } catch (InterruptedException e) {
+                break;
+            }
+            sync(group);
+            group.clear();
+        }
+        group.addAll(appends);
+        fail(group, new IllegalStateException("Booking journal stopped"));
+    }
+
+    private void sync(List<Append> group) {
+        if (failure != null) {
+            fail(group, new IllegalStateException("Booking journal is unavailable", failure));
+            return;
+        }
+        long start = System.nanoTime();
+        List<Append> accepted = new ArrayList<>(group.size());
+        List<byte[]> payloads = new ArrayList<>();
+        for (Append append : group) {
+            try {
+                List<byte[]> encoded = new ArrayList<>(append.transitions().size());
+                for (BookingTransition transition : append.transitions()) {
+                    encoded.add(encode(transition));
+                }
+                payloads.addAll(encoded);
+                accepted.add(append);
+            } catch (IOException | IllegalArgumentException e) {
+                fail(List.of(append), new IllegalArgumentException("Cannot journal booking transition", e));
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+        List<Entry> entries = new ArrayList<>(payloads.size());
+        try {
+            int next = 0;
+            for (Append append : accepted) {
+                for (BookingTransition transition : append.transitions()) {
+                    entries.add(new Entry(append(payloads.get(next++)), transition));
+                }
+            }
+            segment.force(syncedPosition, segment.position() - syncedPosition);
+            syncedPosition = segment.position();
+        } catch (IOException | RuntimeException e) {
+            // The segment's state on disk is unknown, so stop taking records, like a database
+            // that cannot fsync its log. What reached the file is replayed on restart.
+            failure = e instanceof IOException io ? new UncheckedIOException(io) : (RuntimeException) e;
+            log.error("Booking journal sync failed; refusing further booking changes", e);
+            fail(accepted, new IllegalStateException("Booking journal sync failed", e));
+            return;
+        }
+        syncedSeq = entries.get(entries.size() - 1).seq();
+        synced.addAll(entries);
+        bookingMetrics.journalSync(entries.size(), System.nanoTime() - start);
+        for (Append append : accepted) {
+            append.synced().complete(null);
+        }
+    }
+
+    private byte[] encode(BookingTransition transition) throws IOException {
+        scratch.reset();
+        transition.write(new DataOutputStream(scratch));
+        if (HEADER_BYTES + scratch.size() + Integer.BYTES > segmentBytes) {
+            throw new IllegalArgumentException("Journal record of booking " + transition.bookingId()
+                    + " is larger than a segment");
+        }
+        return scratch.toByteArray();
+    }
+
+    private long append(byte[] payload) throws IOException {
+        long seq = nextSeq;
+        if (segment.remaining() < HEADER_BYTES + payload.length + Integer.BYTES) {
+            roll(seq);
+        }
+        segment.putInt(payload.length).putInt(checksum(seq, payload, payload.length)).putLong(seq).put(payload);
+        nextSeq = seq + 1;
+        return seq;
+    }
+
+    private void applyLoop() {
+        List<Entry> batch = new ArrayList<>(applyMaxBatch);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(synced.take());
+                synced.drainTo(batch, applyMaxBatch - 1);
+                apply(batch);
+            } catch (InterruptedException e) {
+                break;
+            } catch (RuntimeException e) {
+                stopApplying(batch, e);
+                break;
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Applies the records in one transaction, retrying while the database is unavailable. When
+     * it refuses the batch the records are applied one at a time; a record it refuses on its own
+     * is left unapplied and stops the journal.
+     */
+    private void apply(List<Entry> batch) throws InterruptedException {
+        try {
+            writeRetrying(batch);
+        } catch (NonTransientDataAccessException e) {
+            if (batch.size() > 1) {
+                for (Entry entry : batch) {
+                    apply(List.of(entry));
+                }
+                return;
+            }
+            Entry entry = batch.get(0);
+            bookingMetrics.journalRecordRefused();
+            throw new IllegalStateException("Database refused journal record " + entry.seq() + " of booking "
+                    + entry.transition().bookingId() + ": " + entry.transition(), e);
+        }
+        applied(batch);
+    }
+
+    /**
+     * Stops taking and applying records after one could not be applied. Acknowledged changes must
+     * not be lost, so the record and everything after it stay in the journal for a restart, and
+     * callers waiting on them fail instead of waiting forever.
+     */
+    private void stopApplying(List<Entry> batch, RuntimeException error) {
+        applyFailure = error;
+        if (failure == null) {
+            failure = error;
+        }
+        log.error("Booking journal stopped applying at record {}; refusing further booking changes until it"
+                + " is fixed and the platform restarted", batch.get(0).seq(), error);
+        synchronized (appliedMonitor) {
+            appliedMonitor.notifyAll();
+        }
+    }
+
+    private void checkApplying() {
+        if (applyFailure != null) {
+            throw new IllegalStateException("Booking journal stopped applying", applyFailure);
+        }
+    }
+
+    private void writeRetrying(List<Entry> batch) throws InterruptedException {
+        List<BookingTransition> transitions = batch.stream().map(Entry::transition).toList();
+        while (true) {
+            try {
+                writer.apply(transitions);
+                return;
+            } catch (NonTransientDataAccessException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                log.warn("Applying {} booking journal records failed, retrying in {} ms", batch.size(), RETRY_MILLIS, e);
+                Thread.sleep(RETRY_MILLIS);
+            }
+        }
+    }
+
+    private void applied(List<Entry> batch) {
+        long seq = batch.get(batch.size() - 1).seq();
+        try {
+            writeCheckpoint(seq);
+        } catch (IOException e) {
+            log.warn("Could not write booking journal checkpoint {}", seq, e);
+        }
+        appliedSeq = seq;
+        for (Entry entry : batch) {
+            unappliedByBooking.computeIfPresent(entry.transition().bookingId(), (id, count) -> count > 1 ? count - 1 : null);
+            releasePayments(List.of(entry.transition()));
+        }
+        synchronized (appliedMonitor) {
+            appliedMonitor.notifyAll();
+        }
+        Sealed oldest;
+        while ((oldest = sealed.peek()) != null && oldest.lastSeq() <= seq) {
+            sealed.poll();
+            try {
+                Files.deleteIfExists(oldest.path());
+            } catch (IOException e) {
+                log.warn("Could not delete applied journal segment {}", oldest.path(), e);
+            }
+        }
+    }
+
+    private void fail(List<Append> group, RuntimeException error) {
+        for (Append append : group) {
+            for (BookingTransition transition : append.transitions()) {
+                unappliedByBooking.computeIfPresent(transition.bookingId(), (id, count) -> count > 1 ? count - 1 : null);
+            }
+            releasePayments(append.transitions());
+            append.synced().completeExceptionally(error);
+        }
+        synchronized (appliedMonitor) {
+            appliedMonitor.notifyAll();
+        }
+    }
+
+    private void releasePayments(List<BookingTransition> transitions) {
+        for (BookingTransition transition : transitions) {
+            for (BookingTransition.TransactionChange payment : transition.transactions()) {
+                if (payment.transactionId() != null) {
+                    unappliedPayments.remove(payment.transactionId(), transition.bookingId());
+                }
+            }
+        }
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(directory);
+        checkpointChannel = FileChannel.open(directory.resolve(CHECKPOINT), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long checkpoint = 0;
+        ByteBuffer stored = ByteBuffer.allocate(Long.BYTES);
+        if (checkpointChannel.read(stored, 0) == Long.BYTES) {
+            checkpoint = stored.flip().getLong();
+        }
+
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            entries.forEach(files::add);
+        }
+        files.sort(null);
+        long previous = 0;
+        int replayed = 0;
+        List<BookingTransition> batch = new ArrayList<>();
+        for (Path file : files) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                while (buffer.remaining() >= HEADER_BYTES) {
+                    int length = buffer.getInt();
+                    int checksum = buffer.getInt();
+                    long seq = buffer.getLong();
+                    if (length <= 0 || length > buffer.remaining() || seq <= previous) {
+                        break;
+                    }
+                    byte[] payload = new byte[length];
+                    buffer.get(payload);
+                    if (checksum(seq, payload, length) != checksum) {
+                        log.warn("Journal segment {} ends in a torn record at sequence {}", file, seq);
+                        break;
+                    }
+                    if (seq > checkpoint) {
+                        batch.add(BookingTransition.read(new DataInputStream(new ByteArrayInputStream(payload))));
+                        replayed++;
+                        if (batch.size() >= applyMaxBatch) {
+                            replay(batch);
+                        }
+                    }
+                    previous = seq;
+                }
+            }
+        }
+        replay(batch);
+        long lastSeq = Math.max(checkpoint, previous);
+        writeCheckpoint(lastSeq);
+        for (Path file : files) {
+            Files.delete(file);
+        }
+        appliedSeq = lastSeq;
+        syncedSeq = lastSeq;
+        nextSeq = lastSeq + 1;
+        roll(nextSeq);
+        log.info("Booking journal in {} replayed {} transitions after checkpoint {}",
+                directory.toAbsolutePath(), replayed, checkpoint);
+    }
+
+    private void replay(List<BookingTransition> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            writer.apply(batch);
+        } catch (NonTransientDataAccessException e) {
+            for (BookingTransition transition : batch) {
+                try {
+                    writer.apply(List.of(transition));
+                } catch (NonTransientDataAccessException refused) {
+                    bookingMetrics.journalRecordRefused();
+                    throw new IllegalStateException("Database refused replayed transition of booking "
+                            + transition.bookingId() + "; it stays in the journal until fixed: " + transition, refused);
+                }
+            }
+        }
+        batch.clear();
+    }
+
+    /**
+     * Starts a new segment whose first record has the given sequence. The current one is forced
+     * first and deleted once its records are applied.
+     */
+    private void roll(long firstSeq) throws IOException {
+        if (segment != null) {
+            segment.force(syncedPosition, segment.position() - syncedPosition);
+            segmentChannel.close();
+            sealed.add(new Sealed(segmentPath, firstSeq - 1));
+        }
+        segmentPath = directory.resolve(String.format("%020d", firstSeq) + SUFFIX);
+        segmentChannel = FileChannel.open(segmentPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        segment = segmentChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        syncedPosition = 0;
+    }
+
+    private void writeCheckpoint(long seq) throws IOException {
+        checkpointChannel.write(ByteBuffer.allocate(Long.BYTES).putLong(seq).flip(), 0);
+    }
+
+    private int checksum(long seq, byte[] payload, int length) {
+        crc.reset();
+        crc.update(ByteBuffer.allocate(Long.BYTES).putLong(0, seq));
+        crc.update(payload, 0, length);
+        return (int) crc.getValue();
+    }
+
+    private static Thread daemon(Runnable body, String name) {
+        Thread thread = new Thread(body, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    @PreDestroy
+    public void close() {
+        for (Thread thread : new Thread[]{syncThread, applyThread}) {
+            if (thread != null) {
+                thread.interrupt();
+                try {
+                    thread.join(5_000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        for (FileChannel channel : new FileChannel[]{segmentChannel, checkpointChannel}) {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    log.warn("Failed to close booking journal file", e);
+                }
+            }
+        }
+    }
+
+    private record Append(List<BookingTransition> transitions, CompletableFuture<Void> synced) {
+    }
+
+    private record Entry(long seq, BookingTransition transition) {
+    }
+
+    /**
+     * A full segment, deleted once the record with its last sequence is applied.
+     */
+    private record Sealed(Path path, long lastSeq) {
+    }
+}
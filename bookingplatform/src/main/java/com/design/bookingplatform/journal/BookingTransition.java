@@ -0,0 +1,217 @@
+package com.design.bookingplatform.journal;
+
+import com.design.bookingplatform.models.Journey;
+import com.design.bookingplatform.models.JourneyStatus;
+import com.design.bookingplatform.models.LockStatus;
+import com.design.bookingplatform.models.Ticket;
+import com.design.bookingplatform.models.TicketStatus;
+import com.design.bookingplatform.models.Transaction;
+import com.design.bookingplatform.models.TransactionStatus;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The row changes of one booking state transition: the journey's new status and timestamps, the
+ * tickets and payment transactions that changed, and the status to give the booking's active
+ * seat_locks rows. Every value is absolute, so applying a transition twice leaves the same rows.
+ * A ticket change carries a coach and seat only when the ticket was given a seat, as when it is
+ * promoted from the waitlist.
+ */
+public record BookingTransition(String bookingId, long journeyId, JourneyStatus journeyStatus,
+                                LocalDateTime confirmedAt, LocalDateTime cancelledAt,
+                                List<TicketChange> tickets, List<TransactionChange> transactions,
+                                LockStatus seatLocks) {
+
+    public record TicketChange(long ticketId, TicketStatus status, LocalDateTime confirmedAt,
+                               LocalDateTime cancelledAt, Long coachId, String seatNumber) {
+    }
+
+    public record TransactionChange(long id, TransactionStatus status, String transactionId, String failureReason,
+                                    LocalDateTime completedAt) {
+    }
+
+    /**
+     * Remembers the state of a booking before a mutation so {@link Snapshot#diff} can tell what it
+     * changed.
+     */
+    public static Snapshot capture(Journey journey, List<Transaction> transactions) {
+        Map<Long, TicketState> tickets = new HashMap<>();
+        for (Ticket ticket : journey.getTickets()) {
+            tickets.put(ticket.getId(), state(ticket));
+        }
+        Map<Long, TransactionChange> payments = new HashMap<>();
+        for (Transaction transaction : transactions) {
+            payments.put(transaction.getId(), change(transaction));
+        }
+        return new Snapshot(journey.getStatus(), journey.getConfirmedAt(), journey.getCancelledAt(), tickets, payments);
+    }
+
+    record TicketState(TicketStatus status, Long coachId, String seatNumber) {
+    }
+
+    public record Snapshot(JourneyStatus status, LocalDateTime confirmedAt, LocalDateTime cancelledAt,
+                           Map<Long, TicketState> tickets, Map<Long, TransactionChange> transactions) {
+
+        /**
+         * The transition from this snapshot to the booking's current state, or null when nothing
+         * changed. Active seat locks close with the block: EXPIRED when blocked tickets expired,
+         * RELEASED when they were confirmed or cancelled.
+         */
+        public BookingTransition diff(Journey journey, List<Transaction> current) {
+            List<TicketChange> ticketChanges = new ArrayList<>();
+            LockStatus seatLocks = null;
+            for (Ticket ticket : journey.getTickets()) {
+                TicketState before = tickets.get(ticket.getId());
+                TicketState after = state(ticket);
+                if (!after.equals(before)) {
+                    boolean seated = before == null || !Objects.equals(before.coachId(), after.coachId())
+                            || !Objects.equals(before.seatNumber(), after.seatNumber());
+                    ticketChanges.add(new TicketChange(ticket.getId(), ticket.getStatus(), ticket.getConfirmedAt(),
+                            ticket.getCancelledAt(), seated ? after.coachId() : null,
+                            seated ? after.seatNumber() : null));
+                    if (before != null && before.status() == TicketStatus.BLOCKED
+                            && after.status() != TicketStatus.BLOCKED && seatLocks != LockStatus.RELEASED) {
+                        seatLocks = ticket.getStatus() == TicketStatus.BLOCK_EXPIRED
+                                ? LockStatus.EXPIRED : LockStatus.RELEASED;
+                    }
+                }
+            }
+            List<TransactionChange> transactionChanges = new ArrayList<>();
+            for (Transaction transaction : current) {
+                TransactionChange after = change(transaction);
+                if (!after.equals(transactions.get(transaction.getId()))) {
+                    transactionChanges.add(after);
+                }
+            }
+            boolean journeyChanged = status != journey.getStatus()
+                    || !Objects.equals(confirmedAt, journey.getConfirmedAt())
+                    || !Objects.equals(cancelledAt, journey.getCancelledAt());
+            if (!journeyChanged && ticketChanges.isEmpty() && transactionChanges.isEmpty()) {
+                return null;
+            }
+            return new BookingTransition(journey.getBookingId(), journey.getId(),
+                    journeyChanged ? journey.getStatus() : null, journey.getConfirmedAt(), journey.getCancelledAt(),
+                    ticketChanges, transactionChanges, seatLocks);
+        }
+    }
+
+    void write(DataOutput out) throws IOException {
+        writeString(out, bookingId);
+        out.writeLong(journeyId);
+        writeEnum(out, journeyStatus);
+        writeTime(out, confirmedAt);
+        writeTime(out, cancelledAt);
+        out.writeShort(tickets.size());
+        for (TicketChange ticket : tickets) {
+            out.writeLong(ticket.ticketId());
+            writeEnum(out, ticket.status());
+            writeTime(out, ticket.confirmedAt());
+            writeTime(out, ticket.cancelledAt());
+            out.writeLong(ticket.coachId() == null ? -1 : ticket.coachId());
+            writeString(out, ticket.seatNumber());
+        }
+        out.writeShort(transactions.size());
+        for (TransactionChange transaction : transactions) {
+            out.writeLong(transaction.id());
+            writeEnum(out, transaction.status());
+            writeString(out, transaction.transactionId());
+            writeString(out, transaction.failureReason());
+            writeTime(out, transaction.completedAt());
+        }
+        writeEnum(out, seatLocks);
+    }
+
+    static BookingTransition read(DataInput in) throws IOException {
+        String bookingId = readString(in);
+        long journeyId = in.readLong();
+        JourneyStatus journeyStatus = readEnum(in, JourneyStatus.values());
+        LocalDateTime confirmedAt = readTime(in);
+        LocalDateTime cancelledAt = readTime(in);
+        int ticketCount = in.readUnsignedShort();
+        List<TicketChange> tickets = new ArrayList<>(ticketCount);
+        for (int i = 0; i < ticketCount; i++) {
+            long ticketId = in.readLong();
+            TicketStatus status = readEnum(in, TicketStatus.values());
+            LocalDateTime ticketConfirmedAt = readTime(in);
+            LocalDateTime ticketCancelledAt = readTime(in);
+            long coachId = in.readLong();
+            tickets.add(new TicketChange(ticketId, status, ticketConfirmedAt, ticketCancelledAt,
+                    coachId < 0 ? null : coachId, readString(in)));
+        }
+        int transactionCount = in.readUnsignedShort();
+        List<TransactionChange> transactions = new ArrayList<>(transactionCount);
+        for (int i = 0; i < transactionCount; i++) {
+            transactions.add(new TransactionChange(in.readLong(), readEnum(in, TransactionStatus.values()),
+                    readString(in), readString(in), readTime(in)));
+        }
+        LockStatus seatLocks = readEnum(in, LockStatus.values());
+        return new BookingTransition(bookingId, journeyId, journeyStatus, confirmedAt, cancelledAt, tickets,
+                transactions, seatLocks);
+    }
+
+    private static TicketState state(Ticket ticket) {
+        return new TicketState(ticket.getStatus(), ticket.getCoach() == null ? null : ticket.getCoach().getId(),
+                ticket.getSeatNumber());
+    }
+
+    private static TransactionChange change(Transaction transaction) {
+        return new TransactionChange(transaction.getId(), transaction.getStatus(), transaction.getTransactionId(),
+                transaction.getFailureReason(), transaction.getCompletedAt());
+    }
+
+    private static void writeEnum(DataOutput out, Enum<?> value) throws IOException {
+        out.writeByte(value == null ? -1 : value.ordinal());
+    }
+
+    private static <E extends Enum<E>> E readEnum(DataInput in, E[] values) throws IOException {
+        byte ordinal = in.readByte();
+        return ordinal < 0 ? null : values[ordinal];
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeTime(DataOutput out, LocalDateTime time) throws IOException {
+        out.writeBoolean(time != null);
+        if (time != null) {
+            out.writeLong(time.toLocalDate().toEpochDay());
+            out.writeLong(time.toLocalTime().toNanoOfDay());
+        }
+    }
+
+    private static LocalDateTime readTime(DataInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        LocalDate date = LocalDate.ofEpochDay(in.readLong());
+        return LocalDateTime.of(date, LocalTime.ofNanoOfDay(in.readLong()));
+    }
+}
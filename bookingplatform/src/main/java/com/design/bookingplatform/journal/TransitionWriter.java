@@ -0,0 +1,81 @@
+package com.design.bookingplatform.journal;
+
+import com.design.bookingplatform.journal.BookingTransition.TicketChange;
+import com.design.bookingplatform.journal.BookingTransition.TransactionChange;
+import com.design.bookingplatform.models.LockStatus;
+import com.design.bookingplatform.models.TicketStatus;
+import com.design.bookingplatform.repository.JourneyRepository;
+import com.design.bookingplatform.repository.SeatLockRepository;
+import com.design.bookingplatform.repository.TicketRepository;
+import com.design.bookingplatform.repository.TransactionRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes booking transitions to PostgreSQL with bulk updates, one transaction per call. The
+ * tickets of a booking that move together are one update, a ticket given a seat gets one more,
+ * and the seat locks of all bookings in the call are closed with one update per status.
+ */
+@Component
+public class TransitionWriter {
+
+    private final JourneyRepository journeyRepository;
+    private final TicketRepository ticketRepository;
+    private final TransactionRepository transactionRepository;
+    private final SeatLockRepository seatLockRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public TransitionWriter(JourneyRepository journeyRepository, TicketRepository ticketRepository,
+                            TransactionRepository transactionRepository, SeatLockRepository seatLockRepository,
+                            PlatformTransactionManager transactionManager) {
+        this.journeyRepository = journeyRepository;
+        this.ticketRepository = ticketRepository;
+        this.transactionRepository = transactionRepository;
+        this.seatLockRepository = seatLockRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public void apply(List<BookingTransition> transitions) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            LocalDateTime now = LocalDateTime.now();
+            Map<LockStatus, List<String>> seatLocks = new EnumMap<>(LockStatus.class);
+            for (BookingTransition transition : transitions) {
+                if (transition.journeyStatus() != null) {
+                    journeyRepository.applyTransition(transition.journeyId(), transition.journeyStatus(),
+                            transition.confirmedAt(), transition.cancelledAt());
+                }
+                Map<TicketState, List<Long>> tickets = new LinkedHashMap<>();
+                for (TicketChange ticket : transition.tickets()) {
+                    if (ticket.coachId() != null) {
+                        ticketRepository.assignSeat(ticket.ticketId(), ticket.coachId(), ticket.seatNumber());
+                    }
+                    tickets.computeIfAbsent(new TicketState(ticket.status(), ticket.confirmedAt(), ticket.cancelledAt()),
+                            state -> new ArrayList<>()).add(ticket.ticketId());
+                }
+                tickets.forEach((state, ids) ->
+                        ticketRepository.applyTransition(ids, state.status(), state.confirmedAt(), state.cancelledAt()));
+                for (TransactionChange transaction : transition.transactions()) {
+                    transactionRepository.applyTransition(transaction.id(), transaction.status(),
+                            transaction.transactionId(), transaction.failureReason(), transaction.completedAt(), now);
+                }
+                if (transition.seatLocks() != null) {
+                    seatLocks.computeIfAbsent(transition.seatLocks(), status -> new ArrayList<>())
+                            .add(transition.bookingId());
+                }
+            }
+            seatLocks.forEach((status, bookingIds) ->
+                    seatLockRepository.updateActiveStatusByBookingIds(bookingIds, status.name()));
+        });
+    }
+
+    private record TicketState(TicketStatus status, LocalDateTime confirmedAt, LocalDateTime cancelledAt) {
+    }
+}
@@ -0,0 +1,223 @@
+package com.design.bookingplatform.locking;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process seat lock table, striped by (train, date).
+ *
+ * Every seat of a request belongs to the same train and date and therefore to a single stripe,
+ * so a multi-seat lock is granted all-or-nothing under one mutex. Seats are still visited in a
+ * deterministic (coach, seat) order, which keeps results stable and leaves no room for
+ * lock-ordering deadlocks if a caller ever spans stripes. Holds past their expiry are treated as
+ * free straight away and removed by the expiry scheduler shortly after.
+ */
+@Component
+public class SeatLockManager {
+
+    private final Stripe[] stripes;
+    private final Map<String, LockGrant> grants = new ConcurrentHashMap<>();
+
+    public SeatLockManager(@Value("${platform.seat-lock.stripes:64}") int stripeCount) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Locks every requested seat for the booking or none of them. Seats already held by the same
+     * booking reference are re-granted, so client retries do not fail on their own locks.
+     */
+    public LockResult acquire(String trainNumber, LocalDate date, Collection<SeatRef> seats,
+                              String bookingReference, int durationMinutes, Instant now) {
+        List<SeatRef> ordered = seats.stream().distinct().sorted().toList();
+        Stripe stripe = stripeFor(trainNumber, date);
+        Instant expiresAt = now.plusSeconds(durationMinutes * 60L);
+
+        stripe.lock.lock();
+        try {
+            List<SeatRef> conflicts = new ArrayList<>();
+            for (SeatRef seat : ordered) {
+                Hold hold = stripe.holds.get(new HoldKey(trainNumber, date, seat));
+                if (hold != null && hold.expiresAt().isAfter(now)
+                        && !hold.bookingReference().equals(bookingReference)) {
+                    conflicts.add(seat);
+                }
+            }
+            if (!conflicts.isEmpty()) {
+                return LockResult.rejected(conflicts);
+            }
+
+            String lockId = UUID.randomUUID().toString();
+            for (SeatRef seat : ordered) {
+                Hold previous = stripe.holds.put(new HoldKey(trainNumber, date, seat),
+                        new Hold(lockId, bookingReference, expiresAt));
+                if (previous != null) {
+                    detach(previous.lockId(), seat);
+                }
+            }
+            LockGrant grant = new LockGrant(lockId, trainNumber, date, bookingReference, ordered, now, expiresAt);
+            grants.put(lockId, grant);
+            return LockResult.granted(grant);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Releases the seats still held under the lock id. Returns the grant, or null if it is unknown.
+     */
+    public LockGrant release(String lockId) {
+        LockGrant grant = grants.remove(lockId);
+        if (grant == null) {
+            return null;
+        }
+        Stripe stripe = stripeFor(grant.trainNumber(), grant.date());
+        stripe.lock.lock();
+        try {
+            for (SeatRef seat : grant.seats()) {
+                HoldKey key = new HoldKey(grant.trainNumber(), grant.date(), seat);
+                Hold hold = stripe.holds.get(key);
+                if (hold != null && hold.lockId().equals(lockId)) {
+                    stripe.holds.remove(key);
+                }
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+        return grant;
+    }
+
+    /**
+     * Releases the lock if it has reached its expiry. Returns the grant, or null if the lock is
+     * unknown, was released meanwhile or has been extended by a re-lock.
+     */
+    public LockGrant expire(String lockId, Instant now) {
+        LockGrant grant = grants.get(lockId);
+        if (grant == null || grant.expiresAt().isAfter(now)) {
+            return null;
+        }
+        return release(lockId);
+    }
+
+    /**
+     * True when the seat carries an unexpired hold from a booking other than the given one.
+     */
+    public boolean isHeldByOther(String trainNumber, LocalDate date, SeatRef seat, String bookingReference, Instant now) {
+        Stripe stripe = stripeFor(trainNumber, date);
+        stripe.lock.lock();
+        try {
+            Hold hold = stripe.holds.get(new HoldKey(trainNumber, date, seat));
+            return hold != null && hold.expiresAt().isAfter(now) && !hold.bookingReference().equals(bookingReference);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Seats of the coach under an unexpired hold, as a bitset with bit (seat - 1) set.
+     */
+    public long[] heldSeats(String trainNumber, LocalDate date, String coachNumber, int seats, Instant now) {
+        long[] held = new long[(seats + 63) >>> 6];
+        Stripe stripe = stripeFor(trainNumber, date);
+        stripe.lock.lock();
+        try {
+            for (Map.Entry<HoldKey, Hold> entry : stripe.holds.entrySet()) {
+                HoldKey key = entry.getKey();
+                int seat = key.seat().seatNumber();
+                if (key.trainNumber().equals(trainNumber) && key.date().equals(date)
+                        && key.seat().coachNumber().equals(coachNumber) && seat >= 1 && seat <= seats
+                        && entry.getValue().expiresAt().isAfter(now)) {
+                    held[(seat - 1) >>> 6] |= 1L << ((seat - 1) & 63);
+                }
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+        return held;
+    }
+
+    public LockGrant grant(String lockId) {
+        return grants.get(lockId);
+    }
+
+    public int activeLockCount() {
+        return grants.size();
+    }
+
+    private void detach(String lockId, SeatRef seat) {
+        grants.computeIfPresent(lockId, (id, grant) -> {
+            List<SeatRef> remaining = grant.seats().stream().filter(s -> !s.equals(seat)).toList();
+            return remaining.isEmpty() ? null : grant.withSeats(remaining);
+        });
+    }
+
+    private Stripe stripeFor(String trainNumber, LocalDate date) {
+        int hash = Objects.hash(trainNumber, date);
+        hash ^= hash >>> 16;
+        return stripes[hash & (stripes.length - 1)];
+    }
+
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<HoldKey, Hold> holds = new HashMap<>();
+    }
+
+    private record HoldKey(String trainNumber, LocalDate date, SeatRef seat) {
+    }
+
+    private record Hold(String lockId, String bookingReference, Instant expiresAt) {
+    }
+
+    /**
+     * A coach and 1-based seat number; ordered by coach, then seat.
+     */
+    public record SeatRef(String coachNumber, int seatNumber) implements Comparable<SeatRef> {
+
+        private static final Comparator<SeatRef> ORDER =
+                Comparator.comparing(SeatRef::coachNumber).thenComparingInt(SeatRef::seatNumber);
+
+        @Override
+        public int compareTo(SeatRef other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    public record LockGrant(String lockId, String trainNumber, LocalDate date, String bookingReference,
+                            List<SeatRef> seats, Instant lockedAt, Instant expiresAt) {
+
+        LockGrant withSeats(List<SeatRef> remaining) {
+            return new LockGrant(lockId, trainNumber, date, bookingReference, remaining, lockedAt, expiresAt);
+        }
+    }
+
+    public record LockResult(LockGrant grant, List<SeatRef> conflicts) {
+
+        static LockResult granted(LockGrant grant) {
+            return new LockResult(grant, List.of());
+        }
+
+        static LockResult rejected(List<SeatRef> conflicts) {
+            return new LockResult(null, List.copyOf(conflicts));
+        }
+
+        public boolean isGranted() {
+            return grant != null;
+        }
+    }
+}
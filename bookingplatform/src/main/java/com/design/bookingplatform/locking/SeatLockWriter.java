@@ -0,0 +1,193 @@
+package com.design.bookingplatform.locking;
+
+import com.design.bookingplatform.locking.SeatLockManager.LockGrant;
+import com.design.bookingplatform.locking.SeatLockManager.SeatRef;
+import com.design.bookingplatform.models.LockStatus;
+import com.design.bookingplatform.models.SeatLock;
+import com.design.bookingplatform.models.Train;
+import com.design.bookingplatform.models.User;
+import com.design.bookingplatform.repository.SeatLockRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Write-behind persistence of seat locks.
+ *
+ * The in-memory SeatLockManager is authoritative for granting locks; seat_locks is an audit
+ * trail written off the request path. Grants and status changes are queued and flushed in one
+ * batched transaction per interval. A lock acquired and released within the same interval is
+ * written once, already RELEASED. A batch that fails to commit is queued again and retried on
+ * the following flushes, up to MAX_ATTEMPTS, before it is given up.
+ */
+@Slf4j
+@Component
+public class SeatLockWriter {
+
+    private static final int MAX_ATTEMPTS = 5;
+
+    private final SeatLockRepository seatLockRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ConcurrentLinkedQueue<PendingLock> acquired = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<PendingStatus> statusChanges = new ConcurrentLinkedQueue<>();
+
+    public SeatLockWriter(SeatLockRepository seatLockRepository, EntityManager entityManager,
+                          PlatformTransactionManager transactionManager) {
+        this.seatLockRepository = seatLockRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Queues the grant for insert. The lock belongs to the user who requested it; a lock taken
+     * before a booking exists has no journey to take the owner from.
+     */
+    public void lockAcquired(LockGrant grant, Long trainId, Long userId) {
+        acquired.add(new PendingLock(grant, trainId, userId, 1));
+    }
+
+    public void lockEnded(LockGrant grant, Long trainId, LockStatus status) {
+        statusChanges.add(new PendingStatus(new PendingLock(grant, trainId, null, 1), status, 1));
+    }
+
+    public static String lockKey(Long trainId, SeatRef seat, LockGrant grant) {
+        return "lock:seat:" + trainId + ":" + seatLabel(seat) + ":" + grant.date() + ":" + grant.lockId();
+    }
+
+    public static String seatLabel(SeatRef seat) {
+        return seat.coachNumber() + "-" + seat.seatNumber();
+    }
+
+    @Scheduled(fixedDelayString = "${platform.seat-lock.flush-interval-ms:200}")
+    public void flush() {
+        // Drain status changes first: every lock they refer to was queued for insert before them,
+        // so it is guaranteed to be in the insert batch drained below or in an earlier one.
+        List<PendingStatus> changes = drain(statusChanges);
+        List<PendingLock> inserts = drain(acquired);
+        if (changes.isEmpty() && inserts.isEmpty()) {
+            return;
+        }
+
+        Map<String, LockStatus> endedInBatch = new HashMap<>();
+        for (PendingStatus change : changes) {
+            endedInBatch.put(change.lock().grant().lockId(), change.status());
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(tx -> {
+                writeInserts(inserts, endedInBatch);
+                writeStatusChanges(changes, inserts);
+            });
+        } catch (RuntimeException e) {
+            log.error("Failed to persist {} seat locks and {} status changes", inserts.size(), changes.size(), e);
+            requeue(changes, inserts);
+        }
+    }
+
+    /**
+     * Queues a failed batch again. Flushes never overlap, so the re-queued inserts are back before
+     * the next flush drains the status changes that may refer to them.
+     */
+    private void requeue(List<PendingStatus> changes, List<PendingLock> inserts) {
+        int dropped = 0;
+        for (PendingStatus change : changes) {
+            if (change.attempts() < MAX_ATTEMPTS) {
+                statusChanges.add(new PendingStatus(change.lock(), change.status(), change.attempts() + 1));
+            } else {
+                dropped++;
+            }
+        }
+        for (PendingLock pending : inserts) {
+            if (pending.attempts() < MAX_ATTEMPTS) {
+                acquired.add(pending.retried());
+            } else {
+                dropped++;
+            }
+        }
+        if (dropped > 0) {
+            log.error("Gave up persisting {} seat locks and status changes after {} attempts", dropped, MAX_ATTEMPTS);
+        }
+    }
+
+    private void writeInserts(List<PendingLock> inserts, Map<String, LockStatus> endedInBatch) {
+        if (inserts.isEmpty()) {
+            return;
+        }
+        List<SeatLock> rows = new ArrayList<>();
+        for (PendingLock pending : inserts) {
+            LockGrant grant = pending.grant();
+            LockStatus status = endedInBatch.getOrDefault(grant.lockId(), LockStatus.ACTIVE);
+            for (SeatRef seat : grant.seats()) {
+                rows.add(SeatLock.builder()
+                        .lockKey(lockKey(pending.trainId(), seat, grant))
+                        .train(entityManager.getReference(Train.class, pending.trainId()))
+                        .seatNumber(seatLabel(seat))
+                        .user(entityManager.getReference(User.class, pending.userId()))
+                        .bookingId(grant.bookingReference())
+                        .lockedAt(toLocal(grant.lockedAt()))
+                        .expiresAt(toLocal(grant.expiresAt()))
+                        .status(status)
+                        .build());
+            }
+        }
+        seatLockRepository.saveAll(rows);
+    }
+
+    private void writeStatusChanges(List<PendingStatus> changes, List<PendingLock> inserts) {
+        Set<String> insertedNow = new HashSet<>();
+        for (PendingLock pending : inserts) {
+            insertedNow.add(pending.grant().lockId());
+        }
+        Map<LockStatus, List<String>> keysByStatus = new EnumMap<>(LockStatus.class);
+        for (PendingStatus change : changes) {
+            LockGrant grant = change.lock().grant();
+            if (insertedNow.contains(grant.lockId())) {
+                continue;
+            }
+            List<String> keys = keysByStatus.computeIfAbsent(change.status(), s -> new ArrayList<>());
+            for (SeatRef seat : grant.seats()) {
+                keys.add(lockKey(change.lock().trainId(), seat, grant));
+            }
+        }
+        keysByStatus.forEach((status, keys) -> seatLockRepository.updateActiveStatus(keys, status.name()));
+    }
+
+    private static LocalDateTime toLocal(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+
+    private static <T> List<T> drain(ConcurrentLinkedQueue<T> queue) {
+        List<T> drained = new ArrayList<>();
+        for (T item; (item = queue.poll()) != null; ) {
+            drained.add(item);
+        }
+        return drained;
+    }
+
+    private record PendingLock(LockGrant grant, Long trainId, Long userId, int attempts) {
+
+        PendingLock retried() {
+            return new PendingLock(grant, trainId, userId, attempts + 1);
+        }
+    }
+
+    private record PendingStatus(PendingLock lock, LockStatus status, int attempts) {
+    }
+}
@@ -0,0 +1,127 @@
+package com.design.bookingplatform.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counters of the booking hot paths, registered once so recording is a single increment.
+ * Request latency per endpoint comes from the http.server.requests timer; gauges are bound in
+ * {@link com.design.bookingplatform.config.MetricsConfig}.
+ */
+@Component
+public class BookingMetrics {
+
+    private final Counter seatsUnavailable;
+    private final Counter seatsLockedByOther;
+    private final Counter idempotencyMemoryHits;
+    private final Counter idempotencyStoreHits;
+    private final Counter idempotencyMisses;
+    private final Counter lockExpiries;
+    private final Counter blockExpiries;
+    private final DistributionSummary engineBatches;
+    private final DistributionSummary journalGroups;
+    private final Timer journalSyncs;
+    private final Counter journalRefusals;
+    private final Counter waitlistPromotions;
+
+    public BookingMetrics(MeterRegistry registry) {
+        this.seatsUnavailable = conflicts(registry, "unavailable");
+        this.seatsLockedByOther = conflicts(registry, "locked");
+        this.idempotencyMemoryHits = Counter.builder("booking.idempotency.requests")
+                .description("Requests with an idempotency key, by where their response was found")
+                .tag("result", "hit").tag("tier", "memory").register(registry);
+        this.idempotencyStoreHits = Counter.builder("booking.idempotency.requests")
+                .description("Requests with an idempotency key, by where their response was found")
+                .tag("result", "hit").tag("tier", "database").register(registry);
+        this.idempotencyMisses = Counter.builder("booking.idempotency.requests")
+                .description("Requests with an idempotency key, by where their response was found")
+                .tag("result", "miss").tag("tier", "none").register(registry);
+        this.lockExpiries = expiries(registry, "lock");
+        this.blockExpiries = expiries(registry, "block");
+        this.engineBatches = DistributionSummary.builder("booking.engine.batch.size")
+                .description("Booking changes applied per group commit of a booking engine partition")
+                .register(registry);
+        this.journalGroups = DistributionSummary.builder("booking.journal.group.size")
+                .description("Booking transitions made durable per booking journal sync")
+                .register(registry);
+        this.journalSyncs = Timer.builder("booking.journal.sync")
+                .description("Time to append and force one group of booking journal records")
+                .register(registry);
+        this.journalRefusals = Counter.builder("booking.journal.refused")
+                .description("Synced booking journal records the database refused, each stopping the journal")
+                .register(registry);
+        this.waitlistPromotions = Counter.builder("booking.waitlist.promoted")
+                .description("Waitlisted tickets given a freed seat")
+                .register(registry);
+    }
+
+    /**
+     * A seat lock request refused because a seat is booked or outside the coach.
+     */
+    public void seatsUnavailable() {
+        seatsUnavailable.increment();
+    }
+
+    /**
+     * A seat lock request refused because another booking holds one of the seats.
+     */
+    public void seatsLockedByOther() {
+        seatsLockedByOther.increment();
+    }
+
+    public void idempotencyMemoryHit() {
+        idempotencyMemoryHits.increment();
+    }
+
+    public void idempotencyStoreHit() {
+        idempotencyStoreHits.increment();
+    }
+
+    public void idempotencyMiss() {
+        idempotencyMisses.increment();
+    }
+
+    public void locksExpired(int count) {
+        lockExpiries.increment(count);
+    }
+
+    public void blocksExpired(int count) {
+        blockExpiries.increment(count);
+    }
+
+    public void engineBatch(int commands) {
+        engineBatches.record(commands);
+    }
+
+    public void journalSync(int records, long nanos) {
+        journalGroups.record(records);
+        journalSyncs.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void journalRecordRefused() {
+        journalRefusals.increment();
+    }
+
+    public void waitlistPromoted(int count) {
+        waitlistPromotions.increment(count);
+    }
+
+    private static Counter conflicts(MeterRegistry registry, String reason) {
+        return Counter.builder("booking.seat_lock.conflicts")
+                .description("Seat lock requests refused")
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    private static Counter expiries(MeterRegistry registry, String type) {
+        return Counter.builder("booking.expiries")
+                .description("Seat locks and seat blocks expired by the expiry scheduler")
+                .tag("type", type)
+                .register(registry);
+    }
+}
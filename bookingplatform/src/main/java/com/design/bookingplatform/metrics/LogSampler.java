@@ -0,0 +1,25 @@
+package com.design.bookingplatform.metrics;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides which hot-path calls get a DEBUG line: about one in sample-rate, and none unless
+ * DEBUG is enabled for the logger, so unsampled calls never format their arguments.
+ */
+@Component
+public class LogSampler {
+
+    private final int rate;
+
+    public LogSampler(@Value("${platform.logging.sample-rate:100}") int rate) {
+        this.rate = Math.max(1, rate);
+    }
+
+    public boolean sample(Logger log) {
+        return log.isDebugEnabled() && (rate == 1 || ThreadLocalRandom.current().nextInt(rate) == 0);
+    }
+}
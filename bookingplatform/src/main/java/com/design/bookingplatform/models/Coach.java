@@ -51,23 +51,3 @@ public class Coach {
     @Column
     private Boolean hasWifi = false;
 }
-
-enum CoachClass {
-    FIRST_AC("1A"),
-    SECOND_AC("2A"),
-    THIRD_AC("3A"),
-    SLEEPER("SL"),
-    CHAIR_CAR("CC"),
-    EXECUTIVE_CHAIR("EC"),
-    GENERAL("GN");
-
-    private final String code;
-
-    CoachClass(String code) {
-        this.code = code;
-    }
-
-    public String getCode() {
-        return code;
-    }
-}
\ No newline at end of file
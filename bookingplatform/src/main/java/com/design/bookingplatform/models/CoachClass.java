@@ -0,0 +1,38 @@
+package com.design.bookingplatform.models;
+
+public enum CoachClass {
+    FIRST_AC("1A"),
+    SECOND_AC("2A"),
+    THIRD_AC("3A"),
+    SLEEPER("SL"),
+    CHAIR_CAR("CC"),
+    EXECUTIVE_CHAIR("EC"),
+    GENERAL("GN");
+
+    private final String code;
+
+    CoachClass(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * Accepts either the enum name ("THIRD_AC") or the short code ("3A"), case-insensitively.
+     * Returns null for anything else.
+     */
+    public static CoachClass fromValue(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        for (CoachClass coachClass : values()) {
+            if (coachClass.name().equalsIgnoreCase(trimmed) || coachClass.code.equalsIgnoreCase(trimmed)) {
+                return coachClass;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,7 @@
+package com.design.bookingplatform.models;
+
+public enum Gender {
+    MALE,
+    FEMALE,
+    OTHER
+}
@@ -30,8 +30,8 @@ public class IdempotencyKey {
     @Column(nullable = false, columnDefinition = "TEXT")
     private String requestHash; // SHA-256 of request body
 
-    @Column(columnDefinition = "TEXT")
-    private String responseBody; // Cached response
+    @Column(columnDefinition = "BYTEA")
+    private byte[] responsePayload; // Cached response, CBOR-encoded
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
@@ -56,9 +56,3 @@ public class IdempotencyKey {
     @Version
     private Long version; // Optimistic locking to prevent duplicates
 }
-
-enum IdempotencyStatus {
-    PROCESSING,
-    COMPLETED,
-    FAILED
-}
\ No newline at end of file
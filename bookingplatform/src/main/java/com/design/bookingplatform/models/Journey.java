@@ -83,19 +83,3 @@ public class Journey {
     @Version
     private Long version; // Optimistic locking
 }
-
-enum JourneyStatus {
-    DRAFT,              // User building the journey
-    AVAILABILITY_CHECK, // Checking seat availability
-    SEATS_BLOCKED,      // Seats temporarily blocked
-    PAYMENT_PENDING,    // Waiting for payment
-    PAYMENT_FAILED,     // Payment failed
-    CONFIRMED,          // Booking confirmed
-    CANCELLED,          // User cancelled
-    COMPLETED           // Journey completed
-}
-
-enum JourneyType {
-    SINGLE_TRAIN,
-    MULTI_TRAIN
-}
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.design.bookingplatform.models;
+
+public enum JourneyStatus {
+    DRAFT,              // User building the journey
+    AVAILABILITY_CHECK, // Checking seat availability
+    SEATS_BLOCKED,      // Seats temporarily blocked
+    PAYMENT_PENDING,    // Waiting for payment
+    PAYMENT_FAILED,     // Payment failed
+    CONFIRMED,          // Booking confirmed
+    CANCELLED,          // User cancelled
+    COMPLETED           // Journey completed
+}
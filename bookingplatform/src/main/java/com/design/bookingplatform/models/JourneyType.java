@@ -0,0 +1,6 @@
+package com.design.bookingplatform.models;
+
+public enum JourneyType {
+    SINGLE_TRAIN,
+    MULTI_TRAIN
+}
@@ -0,0 +1,7 @@
+package com.design.bookingplatform.models;
+
+public enum LockStatus {
+    ACTIVE,
+    RELEASED,
+    EXPIRED
+}
@@ -14,7 +14,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "seat_locks", indexes = {
         @Index(name = "idx_lock_key", columnList = "lockKey", unique = true),
-        @Index(name = "idx_expires_at", columnList = "expiresAt")
+        @Index(name = "idx_expires_at", columnList = "expiresAt"),
+        @Index(name = "idx_lock_booking", columnList = "bookingId")
 })
 @Data
 @Builder
@@ -23,8 +24,9 @@ import java.time.LocalDateTime;
 public class SeatLock {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "seat_lock_seq")
+    @SequenceGenerator(name = "seat_lock_seq", sequenceName = "seat_locks_id_seq", allocationSize = 50)
+    private Long id; // Pooled sequence so inserts can be JDBC-batched
 
     @Column(nullable = false, unique = true, length = 200)
     private String lockKey; // Format: "lock:seat:{trainId}:{seatId}:{date}"
@@ -54,9 +56,3 @@ public class SeatLock {
     @Column(nullable = false)
     private LockStatus status;
 }
-
-enum LockStatus {
-    ACTIVE,
-    RELEASED,
-    EXPIRED
-}
\ No newline at end of file
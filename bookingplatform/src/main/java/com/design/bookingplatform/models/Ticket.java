@@ -27,8 +27,9 @@ import java.time.LocalTime;
 public class Ticket {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ticket_seq")
+    @SequenceGenerator(name = "ticket_seq", sequenceName = "tickets_id_seq", allocationSize = 50)
+    private Long id; // Pooled sequence so inserts can be JDBC-batched
 
     @Column(nullable = false, unique = true, length = 50)
     private String pnrNumber; // Unique PNR from booking platform
@@ -103,21 +104,3 @@ public class Ticket {
     @Version
     private Long version; // Optimistic locking
 }
-
-enum Gender {
-    MALE,
-    FEMALE,
-    OTHER
-}
-
-enum TicketStatus {
-    DRAFT,
-    CHECKING_AVAILABILITY,
-    AVAILABLE,
-    BLOCKED,          // Temporarily blocked for payment
-    BLOCK_EXPIRED,    // Block expired due to timeout
-    CONFIRMED,        // Booking confirmed
-    WAIT_LISTED,      // On waiting list
-    CANCELLED,        // User cancelled
-    REFUNDED          // Refund processed
-}
\ No newline at end of file
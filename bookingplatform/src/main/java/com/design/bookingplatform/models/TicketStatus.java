@@ -0,0 +1,13 @@
+package com.design.bookingplatform.models;
+
+public enum TicketStatus {
+    DRAFT,
+    CHECKING_AVAILABILITY,
+    AVAILABLE,
+    BLOCKED,          // Temporarily blocked for payment
+    BLOCK_EXPIRED,    // Block expired due to timeout
+    CONFIRMED,        // Booking confirmed
+    WAIT_LISTED,      // On waiting list
+    CANCELLED,        // User cancelled
+    REFUNDED          // Refund processed
+}
@@ -1,5 +1,6 @@
 package com.design.bookingplatform.models;
 
+import com.design.bookingplatform.events.TrainDataChangeListener;
 import com.design.bookingplatform.models.Coach;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -9,12 +10,14 @@ import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@EntityListeners(TrainDataChangeListener.class)
 @Table(name = "trains", indexes = {
         @Index(name = "idx_train_number", columnList = "trainNumber"),
         @Index(name = "idx_train_route", columnList = "sourceStation,destinationStation")
@@ -60,6 +63,20 @@ public class Train {
     @Column
     private Boolean isActive = true;
 
+    // Latest reported delay of the train's run of the day, dated by delayedRunDate; read into the
+    // delay overlay at startup and never part of the static schedule
+    @Column(name = "delayedtime")
+    private Integer delayedMinutes;
+
+    @Column(name = "rescheduledstarttime")
+    private LocalTime rescheduledDepartureTime;
+
+    @Column(name = "rescheduleddestinationtime")
+    private LocalTime rescheduledArrivalTime;
+
+    @Column(name = "delayedrundate")
+    private LocalDate delayedRunDate;
+
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
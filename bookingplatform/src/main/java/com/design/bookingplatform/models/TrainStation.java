@@ -1,5 +1,6 @@
 package com.design.bookingplatform.models;
 
+import com.design.bookingplatform.events.TrainDataChangeListener;
 import com.design.bookingplatform.models.Train;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -11,6 +12,7 @@ import java.math.BigDecimal;
 import java.time.LocalTime;
 
 @Entity
+@EntityListeners(TrainDataChangeListener.class)
 @Table(name = "train_stations", indexes = {
         @Index(name = "idx_train_station", columnList = "train_id,stationOrder")
 })
@@ -25,8 +25,9 @@ import java.time.LocalDateTime;
 public class Transaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_seq")
+    @SequenceGenerator(name = "transaction_seq", sequenceName = "transactions_id_seq", allocationSize = 50)
+    private Long id; // Pooled sequence so inserts can be JDBC-batched
 
     @Column(nullable = false, unique = true)
     private String transactionId; // External payment gateway transaction ID
@@ -82,18 +83,6 @@ public class Transaction {
     private Long version; // Optimistic locking
 }
 
-enum TransactionStatus {
-    INITIATED,
-    PENDING,
-    PROCESSING,
-    SUCCESS,
-    FAILED,
-    CANCELLED,
-    REFUNDED,
-    REFUND_PENDING,
-    EXPIRED
-}
-
 enum PaymentMethod {
     CREDIT_CARD,
     DEBIT_CARD,
@@ -0,0 +1,13 @@
+package com.design.bookingplatform.models;
+
+public enum TransactionStatus {
+    INITIATED,
+    PENDING,
+    PROCESSING,
+    SUCCESS,
+    FAILED,
+    CANCELLED,
+    REFUNDED,
+    REFUND_PENDING,
+    EXPIRED
+}
@@ -0,0 +1,16 @@
+package com.design.bookingplatform.repository;
+
+import com.design.bookingplatform.models.Coach;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CoachRepository extends JpaRepository<Coach, Long> {
+
+    @Query("select c from Coach c where c.train.id = :trainId order by c.coachNumber")
+    List<Coach> findByTrainId(@Param("trainId") Long trainId);
+}
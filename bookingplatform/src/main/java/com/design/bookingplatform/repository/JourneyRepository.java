@@ -0,0 +1,92 @@
+package com.design.bookingplatform.repository;
+
+import com.design.bookingplatform.models.Journey;
+import com.design.bookingplatform.models.JourneyStatus;
+import com.design.bookingplatform.models.TicketStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface JourneyRepository extends JpaRepository<Journey, Long> {
+
+    Optional<Journey> findByBookingId(String bookingId);
+
+    @Query("""
+            select distinct j from Journey j
+            left join fetch j.tickets t
+            left join fetch t.train
+            left join fetch t.coach
+            where j.bookingId = :bookingId
+            """)
+    Optional<Journey> findWithTicketsByBookingId(@Param("bookingId") String bookingId);
+
+    @Query("""
+            select distinct j from Journey j
+            left join fetch j.tickets t
+            left join fetch t.train
+            left join fetch t.coach
+            where j.bookingId in :bookingIds
+            """)
+    List<Journey> findWithTicketsByBookingIds(@Param("bookingIds") Collection<String> bookingIds);
+
+    /**
+     * Booking ids after the given one whose journey is over: before the date and either in a
+     * terminal status or without a ticket outside the closed statuses.
+     */
+    @Query("""
+            select j.bookingId from Journey j
+            where j.journeyDate < :before
+              and j.bookingId > :after
+              and (j.status in :terminal
+                   or not exists (select t.id from Ticket t where t.journey = j and t.status not in :closedTickets))
+            order by j.bookingId
+            """)
+    List<String> findArchivableBookingIds(@Param("before") LocalDate before, @Param("after") String after,
+                                          @Param("terminal") Collection<JourneyStatus> terminal,
+                                          @Param("closedTickets") Collection<TicketStatus> closedTickets,
+                                          Pageable page);
+
+    @Modifying
+    @Query(value = "DELETE FROM journeys WHERE id IN (:ids)", nativeQuery = true)
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Writes a journaled transition; the booking engine is the only writer of these columns.
+     */
+    @Modifying
+    @Query("""
+            update Journey j
+            set j.status = :status, j.confirmedAt = :confirmedAt, j.cancelledAt = :cancelledAt,
+                j.version = j.version + 1
+            where j.id = :id
+            """)
+    int applyTransition(@Param("id") Long id, @Param("status") JourneyStatus status,
+                        @Param("confirmedAt") LocalDateTime confirmedAt,
+                        @Param("cancelledAt") LocalDateTime cancelledAt);
+
+    /**
+     * Train and date of each ticket of a booking, which decide the booking engine partition.
+     */
+    @Query("""
+            select distinct t.train.trainNumber as trainNumber, t.journeyDate as journeyDate
+            from Ticket t
+            where t.journey.bookingId = :bookingId
+            """)
+    List<BookingTrain> findBookingTrains(@Param("bookingId") String bookingId);
+
+    interface BookingTrain {
+        String getTrainNumber();
+
+        LocalDate getJourneyDate();
+    }
+}
@@ -0,0 +1,37 @@
+package com.design.bookingplatform.repository;
+
+import com.design.bookingplatform.models.LockStatus;
+import com.design.bookingplatform.models.SeatLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SeatLockRepository extends JpaRepository<SeatLock, Long> {
+
+    @Modifying
+    @Query(value = "UPDATE seat_locks SET status = :status WHERE lock_key IN (:lockKeys) AND status = 'ACTIVE'",
+            nativeQuery = true)
+    int updateActiveStatus(@Param("lockKeys") Collection<String> lockKeys, @Param("status") String status);
+
+    @Modifying
+    @Query(value = "UPDATE seat_locks SET status = :status WHERE booking_id IN (:bookingIds) AND status = 'ACTIVE'",
+            nativeQuery = true)
+    int updateActiveStatusByBookingIds(@Param("bookingIds") Collection<String> bookingIds,
+                                       @Param("status") String status);
+
+    @Query("select s.lockKey as lockKey, s.expiresAt as expiresAt from SeatLock s where s.status = :status")
+    List<PendingLock> findPendingLocks(@Param("status") LockStatus status);
+
+    interface PendingLock {
+        String getLockKey();
+
+        LocalDateTime getExpiresAt();
+    }
+}
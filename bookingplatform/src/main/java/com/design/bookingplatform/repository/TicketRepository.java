@@ -0,0 +1,120 @@
+package com.design.bookingplatform.repository;
+
+import com.design.bookingplatform.models.JourneyStatus;
+import com.design.bookingplatform.models.Ticket;
+import com.design.bookingplatform.models.TicketStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TicketRepository extends JpaRepository<Ticket, Long> {
+
+    /**
+     * Seats held by blocked or confirmed tickets of one train on one date, without loading entities.
+     */
+    @Query(value = """
+            SELECT t.coach_id AS coachId, t.seat_number AS seatNumber,
+                   t.boarding_station AS boardingStation, t.destination_station AS destinationStation
+            FROM tickets t
+            WHERE t.train_id = :trainId
+              AND t.journey_date = :journeyDate
+              AND t.status IN ('BLOCKED', 'CONFIRMED')
+            """, nativeQuery = true)
+    List<OccupiedSeat> findOccupiedSeats(@Param("trainId") Long trainId, @Param("journeyDate") LocalDate journeyDate);
+
+    /**
+     * Waitlisted tickets of one train on one date in booking order, without loading entities.
+     */
+    @Query("""
+            select t.id as ticketId, t.journey.bookingId as bookingId, t.coach.id as coachId,
+                   t.boardingStation as boardingStation, t.destinationStation as destinationStation
+            from Ticket t
+            where t.train.id = :trainId and t.journeyDate = :journeyDate and t.status = :status
+            order by t.bookedAt, t.id
+            """)
+    List<WaitlistedTicket> findWaitlisted(@Param("trainId") Long trainId, @Param("journeyDate") LocalDate journeyDate,
+                                          @Param("status") TicketStatus status);
+
+    @Query("""
+            select t.id as ticketId, t.train.trainNumber as trainNumber, t.journeyDate as journeyDate,
+                   t.coach.coachNumber as coachNumber, t.seatNumber as seatNumber,
+                   t.boardingStation as boardingStation, t.destinationStation as destinationStation,
+                   t.blockExpiresAt as blockExpiresAt, t.journey.bookingId as bookingId
+            from Ticket t
+            where t.status in :statuses and t.blockExpiresAt is not null and t.journey.status <> :paid
+            """)
+    List<PendingBlock> findPendingBlocks(@Param("statuses") Collection<TicketStatus> statuses,
+                                         @Param("paid") JourneyStatus paid);
+
+    @Modifying
+    @Query("""
+            update Ticket t
+            set t.status = :status, t.confirmedAt = :confirmedAt, t.cancelledAt = :cancelledAt,
+                t.version = t.version + 1
+            where t.id in :ids
+            """)
+    int applyTransition(@Param("ids") Collection<Long> ids, @Param("status") TicketStatus status,
+                        @Param("confirmedAt") LocalDateTime confirmedAt,
+                        @Param("cancelledAt") LocalDateTime cancelledAt);
+
+    @Modifying
+    @Query(value = """
+            UPDATE tickets SET coach_id = :coachId, seat_number = :seatNumber, version = version + 1
+            WHERE id = :id
+            """, nativeQuery = true)
+    int assignSeat(@Param("id") Long id, @Param("coachId") Long coachId, @Param("seatNumber") String seatNumber);
+
+    @Modifying
+    @Query(value = "DELETE FROM tickets WHERE journey_id IN (:journeyIds)", nativeQuery = true)
+    int deleteByJourneyIds(@Param("journeyIds") Collection<Long> journeyIds);
+
+    interface OccupiedSeat {
+        Long getCoachId();
+
+        String getSeatNumber();
+
+        String getBoardingStation();
+
+        String getDestinationStation();
+    }
+
+    interface WaitlistedTicket {
+        Long getTicketId();
+
+        String getBookingId();
+
+        Long getCoachId();
+
+        String getBoardingStation();
+
+        String getDestinationStation();
+    }
+
+    interface PendingBlock {
+        Long getTicketId();
+
+        String getTrainNumber();
+
+        LocalDate getJourneyDate();
+
+        String getCoachNumber();
+
+        String getSeatNumber();
+
+        String getBoardingStation();
+
+        String getDestinationStation();
+
+        LocalDateTime getBlockExpiresAt();
+
+        String getBookingId();
+    }
+}
@@ -0,0 +1,85 @@
+package com.design.bookingplatform.repository;
+
+import com.design.bookingplatform.models.Train;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TrainRepository extends JpaRepository<Train, Long> {
+
+    Optional<Train> findByTrainNumber(String trainNumber);
+
+    /**
+     * Loads every train together with its intermediate stops in a single query,
+     * so snapshot builders never trigger the lazy N+1 load of {@code Train.stations}.
+     */
+    @Query("select distinct t from Train t left join fetch t.stations")
+    List<Train> findAllWithStations();
+
+    @Query("select t from Train t left join fetch t.stations where t.trainNumber = :trainNumber")
+    Optional<Train> findByTrainNumberWithStations(@Param("trainNumber") String trainNumber);
+
+    /**
+     * Trains with a delay recorded for their run leaving on the given date, without loading entities.
+     */
+    @Query("""
+            select t.trainNumber as trainNumber, t.departureTime as departureTime, t.arrivalTime as arrivalTime,
+                   t.delayedMinutes as delayedMinutes, t.rescheduledDepartureTime as rescheduledDepartureTime,
+                   t.rescheduledArrivalTime as rescheduledArrivalTime
+            from Train t
+            where t.delayedRunDate = :runDate
+              and (t.delayedMinutes > 0 or t.rescheduledDepartureTime is not null or t.rescheduledArrivalTime is not null)
+            """)
+    List<DelayedTrain> findDelayed(@Param("runDate") LocalDate runDate);
+
+    /**
+     * Records the delay of a train's run of the given date; a null date clears it. A bulk update,
+     * so no entity listener fires and nothing built from the static schedule is dropped.
+     */
+    @Modifying
+    @Query("""
+            update Train t
+            set t.delayedMinutes = :delayedMinutes, t.rescheduledDepartureTime = :rescheduledDepartureTime,
+                t.rescheduledArrivalTime = :rescheduledArrivalTime, t.delayedRunDate = :runDate
+            where t.trainNumber = :trainNumber
+            """)
+    int updateDelay(@Param("trainNumber") String trainNumber, @Param("delayedMinutes") Integer delayedMinutes,
+                    @Param("rescheduledDepartureTime") LocalTime rescheduledDepartureTime,
+                    @Param("rescheduledArrivalTime") LocalTime rescheduledArrivalTime,
+                    @Param("runDate") LocalDate runDate);
+
+    /**
+     * Clears the delays recorded for runs before the given date, or for no dated run at all.
+     */
+    @Modifying
+    @Query("""
+            update Train t
+            set t.delayedMinutes = 0, t.rescheduledDepartureTime = null, t.rescheduledArrivalTime = null,
+                t.delayedRunDate = null
+            where (t.delayedRunDate is null or t.delayedRunDate < :runDate)
+              and (t.delayedMinutes > 0 or t.rescheduledDepartureTime is not null or t.rescheduledArrivalTime is not null)
+            """)
+    int clearDelaysBefore(@Param("runDate") LocalDate runDate);
+
+    interface DelayedTrain {
+        String getTrainNumber();
+
+        LocalTime getDepartureTime();
+
+        LocalTime getArrivalTime();
+
+        Integer getDelayedMinutes();
+
+        LocalTime getRescheduledDepartureTime();
+
+        LocalTime getRescheduledArrivalTime();
+    }
+}
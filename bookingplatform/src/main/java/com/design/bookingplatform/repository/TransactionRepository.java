@@ -0,0 +1,37 @@
+package com.design.bookingplatform.repository;
+
+import com.design.bookingplatform.models.Transaction;
+import com.design.bookingplatform.models.TransactionStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+
+    @Query("select t from Transaction t where t.journey.id in :journeyIds")
+    List<Transaction> findByJourneyIds(@Param("journeyIds") Collection<Long> journeyIds);
+
+    boolean existsByTransactionId(String transactionId);
+
+    @Modifying
+    @Query("""
+            update Transaction t
+            set t.status = :status, t.transactionId = :transactionId, t.failureReason = :failureReason,
+                t.completedAt = :completedAt, t.updatedAt = :updatedAt, t.version = t.version + 1
+            where t.id = :id
+            """)
+    int applyTransition(@Param("id") Long id, @Param("status") TransactionStatus status,
+                        @Param("transactionId") String transactionId, @Param("failureReason") String failureReason,
+                        @Param("completedAt") LocalDateTime completedAt, @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Modifying
+    @Query(value = "DELETE FROM transactions WHERE journey_id IN (:journeyIds)", nativeQuery = true)
+    int deleteByJourneyIds(@Param("journeyIds") Collection<Long> journeyIds);
+}
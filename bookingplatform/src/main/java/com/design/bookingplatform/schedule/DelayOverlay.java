@@ -0,0 +1,232 @@
+package com.design.bookingplatform.schedule;
+
+import com.design.bookingplatform.dto.TrainDTO;
+import com.design.bookingplatform.dto.TrainDelayEvent;
+import com.design.bookingplatform.repository.TrainRepository;
+import com.design.bookingplatform.repository.TrainRepository.DelayedTrain;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Reported delays of train runs, applied on top of the static schedule when it is read for a date.
+ *
+ * The overlay is an immutable map from train and origin date to the run's delay, replaced
+ * copy-on-write with a compare-and-set, so reads are a single volatile load and the schedule
+ * cache and route index, which only hold the static timetable, stay valid when a delay lands.
+ * Every report is published to the train-delays topic. The delay of a run leaving today is also
+ * written to the train's delay columns with its run date, by a bulk update that fires no entity
+ * listener, and the overlay is loaded back from the columns dated today at startup. Columns left
+ * by earlier runs are cleared at startup and each midnight; runs more than RETAINED_DAYS old are
+ * dropped from the overlay on the next report.
+ */
+@Slf4j
+@Component
+public class DelayOverlay {
+
+    private static final int RETAINED_DAYS = 3;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final TrainRepository trainRepository;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String topic;
+    private final boolean enabled;
+
+    private final AtomicReference<Map<Run, Delay>> delays = new AtomicReference<>(Map.of());
+
+    public DelayOverlay(TrainRepository trainRepository, KafkaTemplate<String, byte[]> kafkaTemplate,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${platform.delay-stream.topic:train-delays}") String topic,
+                        @Value("${platform.delay-stream.enabled:true}") boolean enabled) {
+        this.trainRepository = trainRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.topic = topic;
+        this.enabled = enabled;
+    }
+
+    /**
+     * The delay of the run leaving its origin on the given date, or null when it runs on time.
+     */
+    public Delay delay(String trainNumber, LocalDate date) {
+        Map<Run, Delay> current = delays.get();
+        if (date == null || current.isEmpty()) {
+            return null;
+        }
+        return current.get(new Run(trainNumber, date));
+    }
+
+    public boolean isEmpty() {
+        return delays.get().isEmpty();
+    }
+
+    /**
+     * The train as its run of the given date is expected to run: a copy carrying the delay, or
+     * the static train itself when there is none.
+     */
+    public TrainDTO apply(TrainDTO train, LocalDate date) {
+        Delay delay = delay(train.getTrainNumber(), date);
+        return delay == null ? train : apply(train, delay);
+    }
+
+    public TrainDTO apply(TrainDTO train, Delay delay) {
+        return train.toBuilder()
+                .delayedMinutes(delay.departureMinutes())
+                .rescheduledDepartureTime(plus(train.getDepartureTime(), delay.departureMinutes()))
+                .rescheduledArrivalTime(plus(train.getArrivalTime(), delay.arrivalMinutes()))
+                .build();
+    }
+
+    /**
+     * Replaces the delay of one run; zero at both ends clears it.
+     */
+    public void report(TrainDTO train, LocalDate date, int departureMinutes, int arrivalMinutes) {
+        String trainNumber = train.getTrainNumber();
+        Delay delay = departureMinutes == 0 && arrivalMinutes == 0 ? null : new Delay(departureMinutes, arrivalMinutes);
+        LocalDate today = LocalDate.now();
+        LocalDate oldest = today.minusDays(RETAINED_DAYS);
+        update(current -> {
+            Map<Run, Delay> next = new HashMap<>(current);
+            next.keySet().removeIf(run -> run.date().isBefore(oldest));
+            if (delay == null) {
+                next.remove(new Run(trainNumber, date));
+            } else {
+                next.put(new Run(trainNumber, date), delay);
+            }
+            return next;
+        });
+        if (date.equals(today)) {
+            transactionTemplate.executeWithoutResult(status -> trainRepository.updateDelay(trainNumber,
+                    delay == null ? 0 : delay.departureMinutes(),
+                    delay == null ? null : plus(train.getDepartureTime(), delay.departureMinutes()),
+                    delay == null ? null : plus(train.getArrivalTime(), delay.arrivalMinutes()),
+                    delay == null ? null : date));
+        }
+        publish(trainNumber, date, delay);
+        log.info("Train {} on {} delayed {} min at origin, {} min at terminus", trainNumber, date,
+                departureMinutes, arrivalMinutes);
+    }
+
+    /**
+     * Loads the delays recorded in the trains table for the runs leaving today, and publishes them
+     * so consumers reading the topic from the start see them too. Delays of earlier runs are
+     * cleared from the table first.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        LocalDate today = LocalDate.now();
+        try {
+            clearPastRuns(today);
+            Map<Run, Delay> loaded = new HashMap<>();
+            for (DelayedTrain train : trainRepository.findDelayed(today)) {
+                int departure = delayMinutes(train.getDepartureTime(), train.getRescheduledDepartureTime(),
+                        train.getDelayedMinutes());
+                int arrival = delayMinutes(train.getArrivalTime(), train.getRescheduledArrivalTime(),
+                        train.getDelayedMinutes());
+                if (departure > 0 || arrival > 0) {
+                    loaded.put(new Run(train.getTrainNumber(), today), new Delay(departure, arrival));
+                }
+            }
+            update(current -> {
+                Map<Run, Delay> next = new HashMap<>(loaded);
+                next.putAll(current);
+                return next;
+            });
+            loaded.forEach((run, delay) -> publish(run.trainNumber(), run.date(), delay));
+            log.info("Delay overlay loaded with {} delayed runs", loaded.size());
+        } catch (RuntimeException e) {
+            log.error("Delay overlay load failed, schedules read as static until delays are reported", e);
+        }
+    }
+
+    /**
+     * Clears the trains table's delay columns once the run they describe has left, so only the
+     * overlay and the topic keep delays of past runs.
+     */
+    @Scheduled(cron = "${platform.delay-stream.clear-cron:0 0 0 * * *}")
+    public void clearPastRuns() {
+        try {
+            clearPastRuns(LocalDate.now());
+        } catch (RuntimeException e) {
+            log.warn("Could not clear delays of past runs: {}", e.toString());
+        }
+    }
+
+    private void clearPastRuns(LocalDate today) {
+        Integer cleared = transactionTemplate.execute(status -> trainRepository.clearDelaysBefore(today));
+        if (cleared != null && cleared > 0) {
+            log.info("Cleared recorded delays of {} trains for runs before {}", cleared, today);
+        }
+    }
+
+    private void update(UnaryOperator<Map<Run, Delay>> change) {
+        Map<Run, Delay> current;
+        Map<Run, Delay> next;
+        do {
+            current = delays.get();
+            next = Map.copyOf(change.apply(current));
+        } while (!delays.compareAndSet(current, next));
+    }
+
+    private void publish(String trainNumber, LocalDate date, Delay delay) {
+        if (!enabled) {
+            return;
+        }
+        byte[] value = delay == null ? null : TrainDelayEvent.builder()
+                .trainNumber(trainNumber)
+                .journeyDate(date)
+                .departureDelayMinutes(delay.departureMinutes())
+                .arrivalDelayMinutes(delay.arrivalMinutes())
+                .publishedAt(System.currentTimeMillis())
+                .build()
+                .encode();
+        try {
+            kafkaTemplate.send(topic, TrainDelayEvent.key(trainNumber, date), value).whenComplete((result, error) -> {
+                if (error != null) {
+                    log.warn("Could not publish delay of train {} on {}: {}", trainNumber, date, error.toString());
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Could not publish delay of train {} on {}: {}", trainNumber, date, e.toString());
+        }
+    }
+
+    /**
+     * Minutes from the scheduled to the rescheduled time, which may fall on the next day, or the
+     * recorded delay when no rescheduled time is set.
+     */
+    private static int delayMinutes(LocalTime scheduled, LocalTime rescheduled, Integer delayed) {
+        if (scheduled != null && rescheduled != null) {
+            return Math.floorMod((int) Duration.between(scheduled, rescheduled).toMinutes(), MINUTES_PER_DAY);
+        }
+        return delayed == null ? 0 : Math.max(delayed, 0);
+    }
+
+    private static LocalTime plus(LocalTime time, int minutes) {
+        return time == null ? null : time.plusMinutes(minutes);
+    }
+
+    /**
+     * Delay of a run at its origin and at its terminus, in minutes.
+     */
+    public record Delay(int departureMinutes, int arrivalMinutes) {
+    }
+
+    private record Run(String trainNumber, LocalDate date) {
+    }
+}
@@ -0,0 +1,173 @@
+package com.design.bookingplatform.schedule;
+
+import com.design.bookingplatform.dto.TrainDTO;
+import com.design.bookingplatform.dto.TrainScheduleDTO;
+import com.design.bookingplatform.events.TrainDataChangedEvent;
+import com.design.bookingplatform.exception.ResourceNotFoundException;
+import com.design.bookingplatform.index.TrainRoute;
+import com.design.bookingplatform.models.Train;
+import com.design.bookingplatform.repository.TrainRepository;
+import com.design.bookingplatform.schedule.DelayOverlay.Delay;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Train schedules by train number, each serialized once and tagged for HTTP revalidation.
+ *
+ * The cache is warmed at startup from one bulk query and misses load a single train with its
+ * stops in one query. A train is dropped when its row or stops change. Every invalidation bumps
+ * a counter; a load started before the bump is not installed, so a slow load can never put back
+ * a schedule that was invalidated while it ran.
+ *
+ * Delays are not part of a cached schedule: reading a schedule for a date applies the run's
+ * delay from the DelayOverlay to a copy, so a delay never invalidates anything here.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ScheduleCache {
+
+    private final TrainRepository trainRepository;
+    private final ObjectMapper objectMapper;
+    private final DelayOverlay delayOverlay;
+
+    private final ConcurrentHashMap<String, CachedSchedule> schedules = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public CachedSchedule get(String trainNumber) {
+        CachedSchedule cached = schedules.get(trainNumber);
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = invalidations.get();
+        Train train = trainRepository.findByTrainNumberWithStations(trainNumber)
+                .orElseThrow(() -> new ResourceNotFoundException("Train not found: " + trainNumber));
+        CachedSchedule loaded = snapshot(train);
+        install(loaded, stamp);
+        return loaded;
+    }
+
+    /**
+     * The schedule of the run leaving its origin on the given date: the cached schedule, or when
+     * the run is delayed a copy whose train carries the delay, rendered per call and tagged with
+     * the delay. A null date means the static schedule.
+     */
+    public CachedSchedule get(String trainNumber, LocalDate date) {
+        CachedSchedule cached = get(trainNumber);
+        Delay delay = delayOverlay.delay(trainNumber, date);
+        if (delay == null) {
+            return cached;
+        }
+        TrainDTO train = delayOverlay.apply(cached.schedule().getTrain(), delay);
+        TrainScheduleDTO schedule = TrainScheduleDTO.builder()
+                .train(train)
+                .stations(cached.schedule().getStations())
+                .build();
+        String etag = cached.etag().substring(0, cached.etag().length() - 1)
+                + "-d" + delay.departureMinutes() + "-" + delay.arrivalMinutes() + "\"";
+        return new CachedSchedule(trainNumber, schedule, write(schedule, trainNumber), write(train, trainNumber), etag);
+    }
+
+    public int size() {
+        return schedules.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        long started = System.nanoTime();
+        long stamp = invalidations.get();
+        try {
+            int loaded = 0;
+            for (Train train : trainRepository.findAllWithStations()) {
+                install(snapshot(train), stamp);
+                loaded++;
+            }
+            log.info("Schedule cache warmed with {} trains in {} ms", loaded, (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("Schedule cache warm-up failed, schedules will load on demand", e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTrainDataChanged(TrainDataChangedEvent event) {
+        invalidations.incrementAndGet();
+        if (event.trainNumber() == null) {
+            schedules.clear();
+        } else {
+            schedules.remove(event.trainNumber());
+        }
+    }
+
+    private void install(CachedSchedule schedule, long stamp) {
+        schedules.compute(schedule.trainNumber(), (trainNumber, current) ->
+                invalidations.get() == stamp ? schedule : current);
+    }
+
+    private CachedSchedule snapshot(Train train) {
+        TrainRoute route = TrainRoute.of(train);
+        TrainScheduleDTO schedule = TrainScheduleDTO.builder()
+                .train(route.getTrain())
+                .stations(Collections.unmodifiableList(route.toStops()))
+                .build();
+        byte[] json = write(schedule, train.getTrainNumber());
+        byte[] trainJson = write(schedule.getTrain(), train.getTrainNumber());
+        CRC32 crc = new CRC32();
+        crc.update(json);
+        String etag = "\"" + Long.toHexString(versionOf(train.getUpdatedAt())) + "-" + Long.toHexString(crc.getValue()) + "\"";
+        return new CachedSchedule(train.getTrainNumber(), schedule, json, trainJson, etag);
+    }
+
+    private byte[] write(Object value, String trainNumber) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize schedule of train " + trainNumber, e);
+        }
+    }
+
+    private static long versionOf(LocalDateTime updatedAt) {
+        return updatedAt == null ? 0 : updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * A cached schedule. The DTO is shared between requests and must be treated as read-only;
+     * json is its serialized form, trainJson that of its train alone, and etag is derived from
+     * the train's updatedAt and json.
+     */
+    public record CachedSchedule(String trainNumber, TrainScheduleDTO schedule, byte[] json, byte[] trainJson,
+                                 String etag) {
+
+        /**
+         * True when an If-None-Match header value names this version.
+         */
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+                return false;
+            }
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -1,33 +1,795 @@
 package com.design.bookingplatform.service;
 
+import com.design.bookingplatform.archive.ArchivedBooking;
+import com.design.bookingplatform.archive.ArchivedBooking.ArchivedTicket;
+import com.design.bookingplatform.archive.BookingArchive;
+import com.design.bookingplatform.datasource.ReplicaReads;
 import com.design.bookingplatform.dto.*;
+import com.design.bookingplatform.dto.InventoryDeltaEvent.SeatState;
+import com.design.bookingplatform.engine.BookingEngine;
+import com.design.bookingplatform.engine.BookingEngine.Applied;
+import com.design.bookingplatform.exception.BookingStateException;
+import com.design.bookingplatform.exception.ResourceNotFoundException;
+import com.design.bookingplatform.expiry.ExpiryScheduler;
+import com.design.bookingplatform.fare.FareService;
+import com.design.bookingplatform.fare.FareTable;
+import com.design.bookingplatform.expiry.ExpiryScheduler.SeatBlock;
+import com.design.bookingplatform.idempotency.IdempotencyStore;
+import com.design.bookingplatform.index.TrainRoute;
+import com.design.bookingplatform.journal.BookingJournal;
+import com.design.bookingplatform.inventory.CoachInventory;
+import com.design.bookingplatform.inventory.SeatInventoryService;
+import com.design.bookingplatform.inventory.TrainInventory;
+import com.design.bookingplatform.inventory.Waitlist;
+import com.design.bookingplatform.locking.SeatLockManager;
+import com.design.bookingplatform.locking.SeatLockManager.LockGrant;
+import com.design.bookingplatform.locking.SeatLockManager.LockResult;
+import com.design.bookingplatform.locking.SeatLockManager.SeatRef;
+import com.design.bookingplatform.locking.SeatLockWriter;
+import com.design.bookingplatform.metrics.BookingMetrics;
+import com.design.bookingplatform.models.*;
+import com.design.bookingplatform.repository.JourneyRepository;
+import com.design.bookingplatform.repository.SeatLockRepository;
+import com.design.bookingplatform.repository.TicketRepository;
+import com.design.bookingplatform.repository.TransactionRepository;
+import com.design.bookingplatform.stream.InventoryStreamPublisher;
+import com.design.bookingplatform.waitlist.WaitlistEngine;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Service
+@RequiredArgsConstructor
 public class BookingService {
+
+    private static final int DEFAULT_LOCK_MINUTES = 3;
+    private static final int DEFAULT_BLOCK_MINUTES = 3;
+    private static final String REFERENCE_ALPHABET = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789";
+    private static final DateTimeFormatter REFERENCE_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final SeatInventoryService seatInventoryService;
+    private final SeatLockManager seatLockManager;
+    private final SeatLockWriter seatLockWriter;
+    private final ExpiryScheduler expiryScheduler;
+    private final IdempotencyStore idempotencyStore;
+    private final InventoryStreamPublisher inventoryStreamPublisher;
+    private final FareService fareService;
+    private final BookingEngine bookingEngine;
+    private final BookingJournal bookingJournal;
+    private final WaitlistEngine waitlistEngine;
+    private final BookingArchive bookingArchive;
+    private final BookingMetrics bookingMetrics;
+    private final ReplicaReads replicaReads;
+    private final JourneyRepository journeyRepository;
+    private final TicketRepository ticketRepository;
+    private final SeatLockRepository seatLockRepository;
+    private final TransactionRepository transactionRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Locks the requested seats over the train's full route, all or nothing. Seats that are
+     * already booked or held by another booking come back as UNAVAILABLE.
+     */
     public SeatLockResponse acquireSeatLock(SeatLockRequest request, String idempotencyKey) {
-        return null;
+        return idempotencyStore.execute(idempotencyKey, "SEAT_LOCK", request, SeatLockResponse.class,
+                () -> lockSeats(request), SeatLockResponse::getLockId);
     }
 
     public void releaseSeatLock(String lockId) {
+        LockGrant grant = seatLockManager.release(lockId);
+        if (grant == null) {
+            throw new ResourceNotFoundException("Seat lock not found: " + lockId);
+        }
+        lockReleased(grant, seatInventoryService.inventory(grant.trainNumber(), grant.date()));
     }
 
+    /**
+     * Blocks one seat per passenger until payment, all or nothing unless the request allows the
+     * waitlist, in which case passengers left without a seat are waitlisted in the class and
+     * promoted when seats free up. Seats are claimed from the inventory in a single pass over the
+     * coaches of the class, or, when the request names a seat lock, exactly the locked seats are
+     * claimed. Then the journey, its tickets, their seat locks and the pending payment are written
+     * in one batched transaction, and the named lock is released.
+     */
     public BlockSeatsResponse blockSeats(BlockSeatsRequest request, String idempotencyKey) {
-        return null;
+        return idempotencyStore.execute(idempotencyKey, "BLOCK_SEATS", request, BlockSeatsResponse.class,
+                () -> block(request), BlockSeatsResponse::getBookingReference);
     }
 
+    /**
+     * Confirms a blocked booking once its payment matches the fare. Runs on the booking engine
+     * partition of the booking's train and date; a block that has expired is not confirmed.
+     * Waitlisted tickets are paid for and stay on the waitlist until they are given a seat.
+     */
     public BookingConfirmationResponse confirmBooking(ConfirmBookingRequest request, String idempotencyKey) {
-        return null;
+        return idempotencyStore.execute(idempotencyKey, "CONFIRM_BOOKING", request, BookingConfirmationResponse.class,
+                () -> bookingEngine.execute(request.getBookingReference(),
+                        (journey, transactions) -> confirm(request, journey, transactions)),
+                BookingConfirmationResponse::getBookingId);
     }
 
+    /**
+     * Gives the blocked seats of an unpaid booking back. Releasing a booking whose seats are
+     * already free is a no-op.
+     */
     public void releaseSeats(String bookingReference) {
+        bookingEngine.execute(bookingReference, this::release);
     }
 
+    /**
+     * Looks the booking up in the live tables, then in the archive of finished bookings, once its
+     * journaled transitions are in the database. The live lookup may be served by a replica; a
+     * booking it does not see yet is looked up again on the primary before falling back to the
+     * archive.
+     */
     public BookingDetailsResponse getBookingDetails(String bookingId) {
-        return null;
+        bookingJournal.awaitApplied(Set.of(bookingId));
+        return replicaReads.readFresh(() -> journeyRepository.findWithTicketsByBookingId(bookingId))
+                .or(() -> journeyRepository.findWithTicketsByBookingId(bookingId))
+                .map(BookingService::details)
+                .or(() -> bookingArchive.find(bookingId).map(BookingService::details))
+                .orElseThrow(() -> new ResourceNotFoundException("Booking not found: " + bookingId));
     }
 
+    /**
+     * Cancels every blocked, confirmed or waitlisted ticket of the booking, frees their seats and
+     * promotes waitlisted passengers into them. Paid tickets are refunded in full; cancelling a
+     * cancelled booking returns it unchanged.
+     */
     public CancellationResponse cancelBooking(String bookingId, CancellationRequest request) {
+        return bookingEngine.execute(bookingId,
+                (journey, transactions) -> cancel(request.getReason(), journey, transactions));
+    }
+
+    private Applied<BookingConfirmationResponse> confirm(ConfirmBookingRequest request, Journey journey,
+                                                         List<Transaction> transactions) {
+        if (journey.getStatus() == JourneyStatus.CONFIRMED) {
+            return Applied.of(confirmation(journey, "Booking already confirmed"));
+        }
+        if (journey.getStatus() != JourneyStatus.SEATS_BLOCKED && journey.getStatus() != JourneyStatus.PAYMENT_PENDING) {
+            return Applied.of(confirmationFailed(journey, "Booking is " + journey.getStatus()));
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (Ticket ticket : journey.getTickets()) {
+            if ((ticket.getStatus() != TicketStatus.BLOCKED && ticket.getStatus() != TicketStatus.WAIT_LISTED)
+                    || (ticket.getBlockExpiresAt() != null && ticket.getBlockExpiresAt().isBefore(now))) {
+                return Applied.of(confirmationFailed(journey, "Seat block has expired"));
+            }
+        }
+        if (request.getPaymentAmount().compareTo(journey.getTotalFare()) != 0) {
+            return Applied.of(confirmationFailed(journey, "Payment amount " + request.getPaymentAmount()
+                    + " does not match the fare " + journey.getTotalFare()));
+        }
+        // Reserved before the lookup: a payment confirmed elsewhere is either still held in the
+        // journal or already in the transactions table.
+        String paymentId = request.getPaymentTransactionId();
+        if (!bookingJournal.reservePayment(paymentId, journey.getBookingId())) {
+            return Applied.of(confirmationFailed(journey, "Payment transaction " + paymentId + " is already used"));
+        }
+        if (transactionRepository.existsByTransactionId(paymentId)) {
+            bookingJournal.releasePayment(paymentId, journey.getBookingId());
+            return Applied.of(confirmationFailed(journey, "Payment transaction " + paymentId + " is already used"));
+        }
+
+        for (Ticket ticket : journey.getTickets()) {
+            if (ticket.getStatus() == TicketStatus.BLOCKED) {
+                ticket.setStatus(TicketStatus.CONFIRMED);
+                ticket.setConfirmedAt(now);
+            }
+        }
+        journey.setStatus(JourneyStatus.CONFIRMED);
+        journey.setConfirmedAt(now);
+        for (Transaction transaction : transactions) {
+            if (isPending(transaction)) {
+                transaction.setTransactionId(request.getPaymentTransactionId());
+                transaction.setStatus(TransactionStatus.SUCCESS);
+                transaction.setCompletedAt(now);
+            }
+        }
+
+        List<Ticket> tickets = List.copyOf(journey.getTickets());
+        return Applied.of(confirmation(journey, "Booking confirmed"), () -> {
+            for (Ticket ticket : tickets) {
+                expiryScheduler.cancelBlock(ticket.getId());
+            }
+            publishConfirmed(tickets);
+        });
+    }
+
+    private Applied<Void> release(Journey journey, List<Transaction> transactions) {
+        if (journey.getStatus() == JourneyStatus.CONFIRMED || journey.getStatus() == JourneyStatus.COMPLETED) {
+            throw new BookingStateException("Booking " + journey.getBookingId() + " is " + journey.getStatus()
+                    + "; cancel it instead");
+        }
+        List<Ticket> released = closeTickets(journey, EnumSet.of(TicketStatus.BLOCKED, TicketStatus.WAIT_LISTED));
+        if (released.isEmpty()) {
+            return Applied.of(null);
+        }
+        if (journey.getStatus() != JourneyStatus.CANCELLED) {
+            journey.setStatus(JourneyStatus.PAYMENT_FAILED);
+        }
+        for (Transaction transaction : transactions) {
+            if (isPending(transaction)) {
+                transaction.setStatus(TransactionStatus.FAILED);
+                transaction.setFailureReason("Seats released before payment");
+            }
+        }
+        return Applied.of(null, () -> freeSeats(released));
+    }
+
+    private Applied<CancellationResponse> cancel(String reason, Journey journey, List<Transaction> transactions) {
+        if (journey.getStatus() == JourneyStatus.COMPLETED) {
+            throw new BookingStateException("Booking " + journey.getBookingId() + " is already completed");
+        }
+        if (journey.getStatus() == JourneyStatus.CANCELLED) {
+            return Applied.of(cancellation(journey, 0, BigDecimal.ZERO, reason, "Booking already cancelled"));
+        }
+        BigDecimal refund = BigDecimal.ZERO;
+        boolean paid = journey.getStatus() == JourneyStatus.CONFIRMED;
+        for (Ticket ticket : journey.getTickets()) {
+            if (ticket.getStatus() == TicketStatus.CONFIRMED
+                    || (paid && ticket.getStatus() == TicketStatus.WAIT_LISTED)) {
+                refund = refund.add(ticket.getFare());
+            }
+        }
+        List<Ticket> cancelled = closeTickets(journey,
+                EnumSet.of(TicketStatus.BLOCKED, TicketStatus.CONFIRMED, TicketStatus.WAIT_LISTED));
+        journey.setStatus(JourneyStatus.CANCELLED);
+        journey.setCancelledAt(LocalDateTime.now());
+        for (Transaction transaction : transactions) {
+            if (transaction.getStatus() == TransactionStatus.SUCCESS && refund.signum() > 0) {
+                transaction.setStatus(TransactionStatus.REFUND_PENDING);
+                transaction.setFailureReason(reason);
+            } else if (isPending(transaction)) {
+                transaction.setStatus(TransactionStatus.CANCELLED);
+                transaction.setFailureReason(reason);
+            }
+        }
+        return Applied.of(cancellation(journey, cancelled.size(), refund, reason, "Booking cancelled"),
+                () -> freeSeats(cancelled));
+    }
+
+    /**
+     * Moves the tickets in one of the given statuses to CANCELLED and returns them.
+     */
+    private static List<Ticket> closeTickets(Journey journey, Set<TicketStatus> from) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Ticket> closed = new ArrayList<>();
+        for (Ticket ticket : journey.getTickets()) {
+            if (from.contains(ticket.getStatus())) {
+                ticket.setStatus(TicketStatus.CANCELLED);
+                ticket.setCancelledAt(now);
+                closed.add(ticket);
+            }
+        }
+        return closed;
+    }
+
+    /**
+     * Gives the seats of closed tickets back, takes waitlisted ones off the waitlist and lets the
+     * waitlist take the freed seats.
+     */
+    private void freeSeats(List<Ticket> tickets) {
+        for (Ticket ticket : tickets) {
+            expiryScheduler.cancelBlock(ticket.getId());
+            seatInventoryService.releaseIfLoaded(ticket.getTrain().getTrainNumber(), ticket.getJourneyDate(),
+                    ticket.getCoach().getCoachNumber(), ticket.getSeatNumber(), ticket.getBoardingStation(),
+                    ticket.getDestinationStation());
+        }
+        if (tickets.isEmpty()) {
+            return;
+        }
+        Ticket first = tickets.get(0);
+        waitlistEngine.ticketsClosed(first.getTrain().getTrainNumber(), first.getJourneyDate(),
+                tickets.stream().map(Ticket::getId).toList());
+    }
+
+    private void publishConfirmed(List<Ticket> tickets) {
+        for (Ticket ticket : tickets) {
+            TrainInventory inventory = seatInventoryService.loaded(ticket.getTrain().getTrainNumber(),
+                    ticket.getJourneyDate());
+            CoachInventory coach = inventory == null ? null : inventory.coach(ticket.getCoach().getCoachNumber());
+            int[] legs = inventory == null ? null
+                    : inventory.legRange(ticket.getBoardingStation(), ticket.getDestinationStation());
+            int seat = SeatInventoryService.parseSeat(ticket.getSeatNumber());
+            if (coach != null && legs != null && seat > 0) {
+                inventoryStreamPublisher.seatsChanged(inventory, coach, new int[]{seat}, legs[0], legs[1],
+                        SeatState.CONFIRMED);
+            }
+        }
+    }
+
+    private static boolean isPending(Transaction transaction) {
+        return transaction.getStatus() == TransactionStatus.INITIATED
+                || transaction.getStatus() == TransactionStatus.PENDING
+                || transaction.getStatus() == TransactionStatus.PROCESSING;
+    }
+
+    private static BookingConfirmationResponse confirmation(Journey journey, String message) {
+        return BookingConfirmationResponse.builder()
+                .bookingId(journey.getBookingId())
+                .status("CONFIRMED")
+                .tickets(details(journey).getTickets())
+                .totalAmount(journey.getTotalFare())
+                .confirmedAt(instant(journey.getConfirmedAt()))
+                .message(message)
+                .build();
+    }
+
+    private static BookingConfirmationResponse confirmationFailed(Journey journey, String message) {
+        return BookingConfirmationResponse.builder()
+                .bookingId(journey.getBookingId())
+                .status("FAILED")
+                .tickets(List.of())
+                .totalAmount(journey.getTotalFare())
+                .message(message)
+                .build();
+    }
+
+    private static CancellationResponse cancellation(Journey journey, int tickets, BigDecimal refund, String reason,
+                                                     String message) {
+        return CancellationResponse.builder()
+                .bookingId(journey.getBookingId())
+                .status("CANCELLED")
+                .cancelledTickets(tickets)
+                .refundAmount(refund)
+                .reason(reason)
+                .cancelledAt(instant(journey.getCancelledAt()))
+                .message(message)
+                .build();
+    }
+
+    private SeatLockResponse lockSeats(SeatLockRequest request) {
+        TrainInventory inventory = seatInventoryService.inventory(request.getTrainNumber(), request.getJourneyDate());
+        int legs = inventory.legs();
+
+        List<SeatRef> seats = new ArrayList<>(request.getSeats().size());
+        Set<SeatRef> unavailable = new HashSet<>();
+        for (SeatIdentifier identifier : request.getSeats()) {
+            CoachInventory coach = inventory.coach(identifier.getCoachNumber());
+            int seatNumber = SeatInventoryService.parseSeat(identifier.getSeatNumber());
+            SeatRef seat = new SeatRef(identifier.getCoachNumber(), seatNumber);
+            seats.add(seat);
+            if (coach == null || seatNumber < 1 || seatNumber > coach.seats().seats()
+                    || !coach.seats().isFree(seatNumber, 0, legs)) {
+                unavailable.add(seat);
+            }
+        }
+        if (!unavailable.isEmpty()) {
+            bookingMetrics.seatsUnavailable();
+            return failed(seats, unavailable, "Some seats are not available");
+        }
+
+        int duration = request.getLockDurationMinutes() != null ? request.getLockDurationMinutes() : DEFAULT_LOCK_MINUTES;
+        LockResult result = seatLockManager.acquire(request.getTrainNumber(), request.getJourneyDate(), seats,
+                request.getBookingReference(), duration, Instant.now());
+        if (!result.isGranted()) {
+            bookingMetrics.seatsLockedByOther();
+            return failed(seats, new HashSet<>(result.conflicts()), "Some seats are locked by another booking");
+        }
+
+        LockGrant grant = result.grant();
+        Long trainId = inventory.route().getTrainId();
+        seatLockWriter.lockAcquired(grant, trainId, request.getUserId());
+        expiryScheduler.scheduleLock(grant, trainId);
+        inventoryStreamPublisher.locksChanged(inventory, grant, SeatState.LOCKED);
+        return SeatLockResponse.builder()
+                .lockId(grant.lockId())
+                .status("LOCKED")
+                .lockedSeats(lockedSeats(grant.seats(), Set.of()))
+                .expiresAt(grant.expiresAt())
+                .message("Seats locked")
+                .build();
+    }
+
+    private BlockSeatsResponse block(BlockSeatsRequest request) {
+        LocalDate date = request.getJourneyDate();
+        TrainInventory inventory = seatInventoryService.inventory(request.getTrainNumber(), date);
+        TrainRoute route = inventory.route();
+        int[] legs = inventory.legRange(request.getSourceStation(), request.getDestinationStation());
+        if (legs == null || !route.operatesAt(legs[0], date)) {
+            return blockFailed(request, "Train does not run between these stations on this date");
+        }
+        CoachClass coachClass = CoachClass.fromValue(request.getCoachClass());
+        if (coachClass == null) {
+            return blockFailed(request, "Unknown coach class: " + request.getCoachClass());
+        }
+
+        Instant now = Instant.now();
+        int needed = request.getPassengers().size();
+        LockGrant lock = null;
+        if (request.getLockId() != null) {
+            lock = seatLockManager.grant(request.getLockId());
+            if (lock == null || !lock.trainNumber().equals(request.getTrainNumber()) || !lock.date().equals(date)
+                    || !lock.expiresAt().isAfter(now)) {
+                return blockFailed(request, "Seat lock " + request.getLockId() + " is not held on this train and date");
+            }
+            if (lock.seats().size() != needed) {
+                return blockFailed(request, "Seat lock holds " + lock.seats().size() + " seats for "
+                        + needed + " passengers");
+            }
+        }
+
+        String bookingReference = newReference("BLK-" + date.format(REFERENCE_DATE) + "-", 8);
+        List<Allocation> allocations;
+        if (lock != null) {
+            allocations = claimLocked(inventory, lock, coachClass, legs);
+            if (allocations == null) {
+                return blockFailed(request, "Locked seats are not all free in " + coachClass
+                        + " between these stations");
+            }
+        } else {
+            allocations = new ArrayList<>(needed);
+            for (CoachInventory coach : inventory.coaches()) {
+                if (allocations.size() == needed) {
+                    break;
+                }
+                if (coach.getCoachClass() != coachClass) {
+                    continue;
+                }
+                String coachNumber = coach.getCoachNumber();
+                int[] seats = coach.seats().claimFree(legs[0], legs[1], needed - allocations.size(),
+                        seat -> !seatLockManager.isHeldByOther(request.getTrainNumber(), date,
+                                new SeatRef(coachNumber, seat), bookingReference, now));
+                for (int seat : seats) {
+                    allocations.add(new Allocation(coach, seat));
+                }
+            }
+        }
+        int seated = allocations.size();
+        Waitlist waitlist = inventory.waitlist(coachClass);
+        CoachInventory waitlistCoach = seated < needed ? firstCoach(inventory, coachClass) : null;
+        if (seated < needed) {
+            if (!Boolean.TRUE.equals(request.getAllowWaitlist()) || waitlistCoach == null) {
+                release(allocations, legs);
+                return blockFailed(request, "Only " + seated + " of " + needed + " seats available");
+            }
+            if (!waitlist.admits(needed - seated)) {
+                release(allocations, legs);
+                return blockFailed(request, "Only " + seated + " of " + needed
+                        + " seats available and the waitlist is full");
+            }
+        }
+
+        int duration = request.getBlockDurationMinutes() != null ? request.getBlockDurationMinutes() : DEFAULT_BLOCK_MINUTES;
+        LocalDateTime blockedAt = LocalDateTime.ofInstant(now, ZoneId.systemDefault());
+        LocalDateTime expiresAt = blockedAt.plusMinutes(duration);
+        String boarding = route.stationName(legs[0]);
+        String destination = route.stationName(legs[1]);
+        FareTable fareTable = fareService.table(route);
+        List<BigDecimal> fares = new ArrayList<>(needed);
+        long totalPaise = 0;
+        for (int i = 0; i < needed; i++) {
+            CoachInventory coach = i < seated ? allocations.get(i).coach() : waitlistCoach;
+            long fare = fareService.ticketFare(fareTable, coachClass, coach.getBaseFarePaise(), legs[0], legs[1]);
+            fares.add(FareTable.rupees(fare));
+            totalPaise += fare;
+        }
+        BigDecimal totalFare = FareTable.rupees(totalPaise);
+
+        List<Ticket> tickets;
+        try {
+            BigDecimal journeyFare = totalFare;
+            tickets = transactionTemplate.execute(tx -> {
+                User user = entityManager.getReference(User.class, request.getUserId());
+                Train train = entityManager.getReference(Train.class, route.getTrainId());
+                Journey journey = journeyRepository.save(Journey.builder()
+                        .bookingId(bookingReference)
+                        .user(user)
+                        .sourceStation(boarding)
+                        .destinationStation(destination)
+                        .journeyDate(date)
+                        .status(JourneyStatus.SEATS_BLOCKED)
+                        .journeyType(JourneyType.SINGLE_TRAIN)
+                        .totalFare(journeyFare)
+                        .totalTravelTimeMinutes(route.arrivalMinute(legs[1]) - route.departureMinute(legs[0]))
+                        .totalLayoverMinutes(0)
+                        .build());
+
+                List<Ticket> created = new ArrayList<>(needed);
+                List<SeatLock> locks = new ArrayList<>(seated);
+                for (int i = 0; i < needed; i++) {
+                    PassengerDTO passenger = request.getPassengers().get(i);
+                    Allocation allocation = i < seated ? allocations.get(i) : null;
+                    CoachInventory coach = allocation != null ? allocation.coach() : waitlistCoach;
+                    created.add(Ticket.builder()
+                            .pnrNumber(newPnr())
+                            .journey(journey)
+                            .train(train)
+                            .coach(entityManager.getReference(Coach.class, coach.getCoachId()))
+                            .seatNumber(allocation != null ? String.valueOf(allocation.seat()) : Waitlist.SEAT)
+                            .passengerName(passenger.getName())
+                            .passengerAge(passenger.getAge())
+                            .passengerGender(Gender.valueOf(passenger.getGender()))
+                            .boardingStation(boarding)
+                            .destinationStation(destination)
+                            .journeyDate(date)
+                            .departureTime(timeOfDay(route.departureMinute(legs[0])))
+                            .arrivalTime(timeOfDay(route.arrivalMinute(legs[1])))
+                            .fare(fares.get(i))
+                            .status(allocation != null ? TicketStatus.BLOCKED : TicketStatus.WAIT_LISTED)
+                            .blockedAt(blockedAt)
+                            .blockExpiresAt(expiresAt)
+                            .externalBookingReference(bookingReference)
+                            .build());
+                    if (allocation == null) {
+                        continue;
+                    }
+                    locks.add(SeatLock.builder()
+                            .lockKey(blockLockKey(route.getTrainId(), allocation, date, bookingReference))
+                            .train(train)
+                            .seatNumber(allocation.label())
+                            .user(user)
+                            .bookingId(bookingReference)
+                            .lockedAt(blockedAt)
+                            .expiresAt(expiresAt)
+                            .status(LockStatus.ACTIVE)
+                            .build());
+                }
+                ticketRepository.saveAll(created);
+                seatLockRepository.saveAll(locks);
+                transactionRepository.save(Transaction.builder()
+                        .transactionId(newReference("TXN-", 16))
+                        .bookingId(bookingReference)
+                        .user(user)
+                        .journey(journey)
+                        .amount(journeyFare)
+                        .currency("INR")
+                        .status(TransactionStatus.INITIATED)
+                        .expiresAt(expiresAt)
+                        .build());
+                return created;
+            });
+        } catch (RuntimeException e) {
+            release(allocations, legs);
+            throw e;
+        }
+
+        if (lock != null) {
+            LockGrant released = seatLockManager.release(lock.lockId());
+            if (released != null) {
+                lockReleased(released, inventory);
+            }
+        }
+        publishBlocked(inventory, allocations, legs);
+        List<String> positions = List.of();
+        if (seated < needed) {
+            long[] waitlisted = tickets.subList(seated, needed).stream().mapToLong(Ticket::getId).toArray();
+            positions = waitlistEngine.join(inventory, coachClass, bookingReference, waitlisted, legs[0], legs[1]);
+        }
+        List<BlockedTicketDTO> blocked = new ArrayList<>(needed);
+        for (int i = 0; i < needed; i++) {
+            Ticket ticket = tickets.get(i);
+            CoachInventory coach = i < seated ? allocations.get(i).coach() : waitlistCoach;
+            expiryScheduler.scheduleBlock(new SeatBlock(ticket.getId(), request.getTrainNumber(), date,
+                    coach.getCoachNumber(), ticket.getSeatNumber(), boarding, destination, bookingReference),
+                    expiresAt);
+            String position = i < seated ? null : positions.get(i - seated);
+            blocked.add(BlockedTicketDTO.builder()
+                    .pnrNumber(ticket.getPnrNumber())
+                    .coachNumber(position == null ? coach.getCoachNumber() : null)
+                    .seatNumber(position == null ? ticket.getSeatNumber() : position)
+                    .passengerName(ticket.getPassengerName())
+                    .fare(ticket.getFare())
+                    .status(position == null ? "BLOCKED" : position.startsWith("RAC") ? "RAC" : "WAITLIST")
+                    .build());
+        }
+
+        return BlockSeatsResponse.builder()
+                .bookingReference(bookingReference)
+                .status(seated == needed ? "BLOCKED" : seated > 0 ? "PARTIALLY_BLOCKED" : "WAITLISTED")
+                .tickets(blocked)
+                .totalFare(totalFare)
+                .expiresAt(expiresAt.atZone(ZoneId.systemDefault()).toInstant())
+                .message(seated == needed ? "Seats blocked"
+                        : seated + " of " + needed + " seats blocked, " + (needed - seated) + " waitlisted")
+                .build();
+    }
+
+    private static CoachInventory firstCoach(TrainInventory inventory, CoachClass coachClass) {
+        for (CoachInventory coach : inventory.coaches()) {
+            if (coach.getCoachClass() == coachClass) {
+                return coach;
+            }
+        }
         return null;
     }
+
+    /**
+     * Claims exactly the seats held under the lock on the requested legs, all or none. Returns
+     * null when a seat is not in the class or is no longer free on those legs.
+     */
+    private static List<Allocation> claimLocked(TrainInventory inventory, LockGrant lock, CoachClass coachClass,
+                                                int[] legs) {
+        List<Allocation> allocations = new ArrayList<>(lock.seats().size());
+        for (SeatRef seat : lock.seats()) {
+            CoachInventory coach = inventory.coach(seat.coachNumber());
+            if (coach == null || coach.getCoachClass() != coachClass
+                    || seat.seatNumber() < 1 || seat.seatNumber() > coach.seats().seats()
+                    || !coach.seats().occupy(seat.seatNumber(), legs[0], legs[1])) {
+                release(allocations, legs);
+                return null;
+            }
+            allocations.add(new Allocation(coach, seat.seatNumber()));
+        }
+        return allocations;
+    }
+
+    /**
+     * Records a lock that was released, by the client or because its seats are now blocked.
+     */
+    private void lockReleased(LockGrant grant, TrainInventory inventory) {
+        expiryScheduler.cancelLock(grant.lockId());
+        seatLockWriter.lockEnded(grant, inventory.route().getTrainId(), LockStatus.RELEASED);
+        inventoryStreamPublisher.locksChanged(inventory, grant, SeatState.UNLOCKED);
+    }
+
+    private static void release(List<Allocation> allocations, int[] legs) {
+        for (Allocation allocation : allocations) {
+            allocation.coach().seats().release(allocation.seat(), legs[0], legs[1]);
+        }
+    }
+
+    private void publishBlocked(TrainInventory inventory, List<Allocation> allocations, int[] legs) {
+        Map<CoachInventory, List<Integer>> seatsByCoach = new LinkedHashMap<>();
+        for (Allocation allocation : allocations) {
+            seatsByCoach.computeIfAbsent(allocation.coach(), coach -> new ArrayList<>()).add(allocation.seat());
+        }
+        seatsByCoach.forEach((coach, seats) -> inventoryStreamPublisher.seatsChanged(inventory, coach,
+                seats.stream().mapToInt(Integer::intValue).toArray(), legs[0], legs[1], SeatState.BLOCKED));
+    }
+
+    private static LocalTime timeOfDay(int minute) {
+        return LocalTime.ofSecondOfDay(Math.floorMod(minute, 1440) * 60L);
+    }
+
+    private static String blockLockKey(long trainId, Allocation allocation, LocalDate date, String bookingReference) {
+        return "lock:seat:" + trainId + ":" + allocation.label() + ":" + date + ":" + bookingReference;
+    }
+
+    private static String newReference(String prefix, int length) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringBuilder reference = new StringBuilder(prefix);
+        for (int i = 0; i < length; i++) {
+            reference.append(REFERENCE_ALPHABET.charAt(random.nextInt(REFERENCE_ALPHABET.length())));
+        }
+        return reference.toString();
+    }
+
+    private static String newPnr() {
+        return String.valueOf(ThreadLocalRandom.current().nextLong(1_000_000_000L, 10_000_000_000L));
+    }
+
+    private static BookingDetailsResponse details(Journey journey) {
+        List<ConfirmedTicketDTO> tickets = new ArrayList<>(journey.getTickets().size());
+        for (Ticket ticket : journey.getTickets()) {
+            tickets.add(ConfirmedTicketDTO.builder()
+                    .pnrNumber(ticket.getPnrNumber())
+                    .trainNumber(ticket.getTrain().getTrainNumber())
+                    .coachNumber(ticket.getCoach().getCoachNumber())
+                    .seatNumber(ticket.getSeatNumber())
+                    .passengerName(ticket.getPassengerName())
+                    .boardingStation(ticket.getBoardingStation())
+                    .destinationStation(ticket.getDestinationStation())
+                    .journeyDate(ticket.getJourneyDate())
+                    .departureTime(ticket.getDepartureTime())
+                    .arrivalTime(ticket.getArrivalTime())
+                    .fare(ticket.getFare())
+                    .status(ticket.getStatus().name())
+                    .build());
+        }
+        Train train = journey.getTickets().isEmpty() ? null : journey.getTickets().get(0).getTrain();
+        return BookingDetailsResponse.builder()
+                .bookingId(journey.getBookingId())
+                .trainNumber(train == null ? null : train.getTrainNumber())
+                .trainName(train == null ? null : train.getTrainName())
+                .journeyDate(journey.getJourneyDate())
+                .sourceStation(journey.getSourceStation())
+                .destinationStation(journey.getDestinationStation())
+                .status(journey.getStatus().name())
+                .tickets(tickets)
+                .totalFare(journey.getTotalFare())
+                .bookedAt(instant(journey.getCreatedAt()))
+                .confirmedAt(instant(journey.getConfirmedAt()))
+                .build();
+    }
+
+    private static BookingDetailsResponse details(ArchivedBooking booking) {
+        List<ConfirmedTicketDTO> tickets = new ArrayList<>(booking.tickets().size());
+        for (ArchivedTicket ticket : booking.tickets()) {
+            tickets.add(ConfirmedTicketDTO.builder()
+                    .pnrNumber(ticket.pnrNumber())
+                    .trainNumber(ticket.trainNumber())
+                    .coachNumber(ticket.coachNumber())
+                    .seatNumber(ticket.seatNumber())
+                    .passengerName(ticket.passengerName())
+                    .boardingStation(ticket.boardingStation())
+                    .destinationStation(ticket.destinationStation())
+                    .journeyDate(ticket.journeyDate())
+                    .departureTime(ticket.departureTime())
+                    .arrivalTime(ticket.arrivalTime())
+                    .fare(ticket.fare())
+                    .status(ticket.status())
+                    .build());
+        }
+        ArchivedTicket first = booking.tickets().isEmpty() ? null : booking.tickets().get(0);
+        return BookingDetailsResponse.builder()
+                .bookingId(booking.bookingId())
+                .trainNumber(first == null ? null : first.trainNumber())
+                .trainName(first == null ? null : first.trainName())
+                .journeyDate(booking.journeyDate())
+                .sourceStation(booking.sourceStation())
+                .destinationStation(booking.destinationStation())
+                .status(booking.status())
+                .tickets(tickets)
+                .totalFare(booking.totalFare())
+                .bookedAt(instant(booking.createdAt()))
+                .confirmedAt(instant(booking.confirmedAt()))
+                .build();
+    }
+
+    private static Instant instant(LocalDateTime time) {
+        return time == null ? null : time.atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    private static BlockSeatsResponse blockFailed(BlockSeatsRequest request, String message) {
+        List<BlockedTicketDTO> tickets = new ArrayList<>(request.getPassengers().size());
+        for (PassengerDTO passenger : request.getPassengers()) {
+            tickets.add(BlockedTicketDTO.builder()
+                    .passengerName(passenger.getName())
+                    .status("UNAVAILABLE")
+                    .build());
+        }
+        return BlockSeatsResponse.builder()
+                .status("FAILED")
+                .tickets(tickets)
+                .totalFare(BigDecimal.ZERO)
+                .message(message)
+                .build();
+    }
+
+    private record Allocation(CoachInventory coach, int seat) {
+
+        String label() {
+            return coach.getCoachNumber() + "-" + seat;
+        }
+    }
+
+    private static SeatLockResponse failed(List<SeatRef> seats, Set<SeatRef> unavailable, String message) {
+        return SeatLockResponse.builder()
+                .status("FAILED")
+                .lockedSeats(lockedSeats(seats, unavailable))
+                .message(message)
+                .build();
+    }
+
+    private static List<LockedSeat> lockedSeats(List<SeatRef> seats, Set<SeatRef> unavailable) {
+        List<LockedSeat> lockedSeats = new ArrayList<>(seats.size());
+        for (SeatRef seat : seats) {
+            lockedSeats.add(LockedSeat.builder()
+                    .coachNumber(seat.coachNumber())
+                    .seatNumber(String.valueOf(seat.seatNumber()))
+                    .status(unavailable.contains(seat) ? "UNAVAILABLE" : "LOCKED")
+                    .build());
+        }
+        return lockedSeats;
+    }
 }
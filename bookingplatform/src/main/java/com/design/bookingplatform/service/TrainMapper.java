@@ -0,0 +1,29 @@
+package com.design.bookingplatform.service;
+
+import com.design.bookingplatform.dto.TrainDTO;
+import com.design.bookingplatform.models.Train;
+
+/**
+ * Entity to DTO conversions for train data
+ */
+public final class TrainMapper {
+
+    private TrainMapper() {
+    }
+
+    public static TrainDTO toDto(Train train) {
+        return TrainDTO.builder()
+                .id(train.getId())
+                .trainNumber(train.getTrainNumber())
+                .trainName(train.getTrainName())
+                .trainType(train.getTrainType() == null ? null : String.valueOf(train.getTrainType()))
+                .sourceStation(train.getSourceStation())
+                .destinationStation(train.getDestinationStation())
+                .departureTime(train.getDepartureTime())
+                .arrivalTime(train.getArrivalTime())
+                .journeyDurationMinutes(train.getJourneyDurationMinutes())
+                .operatingDays(train.getOperatingDays())
+                .isActive(train.getIsActive())
+                .build();
+    }
+}
@@ -2,39 +2,291 @@ package com.design.bookingplatform.service;
 
 
 import com.design.bookingplatform.dto.*;
+import com.design.bookingplatform.exception.BookingHorizonException;
+import com.design.bookingplatform.exception.ResourceNotFoundException;
+import com.design.bookingplatform.fare.FareService;
+import com.design.bookingplatform.index.RouteIndex;
+import com.design.bookingplatform.index.RouteIndexService;
+import com.design.bookingplatform.index.TrainRoute;
+import com.design.bookingplatform.inventory.CoachInventory;
+import com.design.bookingplatform.inventory.SeatInventoryService;
+import com.design.bookingplatform.inventory.TrainInventory;
+import com.design.bookingplatform.inventory.Waitlist;
+import com.design.bookingplatform.models.CoachClass;
+import com.design.bookingplatform.schedule.DelayOverlay;
+import com.design.bookingplatform.schedule.ScheduleCache;
+import com.design.bookingplatform.schedule.ScheduleCache.CachedSchedule;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+@Slf4j
 @Service
+@RequiredArgsConstructor
 public class TrainService {
+
+    private final RouteIndexService routeIndexService;
+    private final SeatInventoryService seatInventoryService;
+    private final ScheduleCache scheduleCache;
+    private final FareService fareService;
+    private final DelayOverlay delayOverlay;
+
+    @Qualifier("availabilityExecutor")
+    private final ThreadPoolTaskExecutor availabilityExecutor;
+
+    @Value("${platform.availability.bulk-deadline-ms:800}")
+    private long bulkDeadlineMillis;
+
+    @Value("${platform.stations.max-results:50}")
+    private int maxStationResults;
+
     public List<TrainDTO> getAllTrains(Boolean isActive) {
         return List.of();
     }
 
     public TrainDTO getTrainByNumber(String trainNumber) {
-        return null;
+        return scheduleCache.get(trainNumber).schedule().getTrain();
     }
 
+    /**
+     * Trains serving the route on the date, each carrying the delay of its run when one is reported.
+     */
     public List<TrainDTO> getTrainsByRoute(String source, String destination, LocalDate date) {
-        return List.of();
+        RouteIndex index = routeIndexService.current();
+        List<TrainDTO> trains = index.findTrains(source, destination, date);
+        if (date == null || delayOverlay.isEmpty()) {
+            return trains;
+        }
+        List<TrainDTO> expected = new ArrayList<>(trains.size());
+        for (TrainDTO train : trains) {
+            expected.add(delayOverlay.apply(train, runDate(index, train.getTrainNumber(), source, date)));
+        }
+        return expected;
+    }
+
+    public FareResponse calculateFare(FareCalculationRequest request) {
+        return fareService.quote(request);
+    }
+
+    public List<StationDTO> getAllStations() {
+        return routeIndexService.current().stations().all();
+    }
+
+    /**
+     * Type-ahead over station names and codes from the route index snapshot, most-served first.
+     */
+    public List<StationDTO> searchStations(String query, int limit) {
+        return routeIndexService.current().stations().search(query, Math.min(Math.max(limit, 1), maxStationResults));
+    }
+
+    /**
+     * The same trains as getTrainsByRoute, as the cached JSON of each train, for responses that
+     * splice them in without serializing again.
+     */
+    public RawJson getTrainsByRouteJson(String source, String destination, LocalDate date) {
+        RouteIndex index = routeIndexService.current();
+        List<TrainDTO> trains = index.findTrains(source, destination, date);
+        List<RawJson> rendered = new ArrayList<>(trains.size());
+        for (TrainDTO train : trains) {
+            String trainNumber = train.getTrainNumber();
+            LocalDate runDate = runDate(index, trainNumber, source, date);
+            rendered.add(RawJson.of(scheduleCache.get(trainNumber, runDate).trainJson()));
+        }
+        return RawJson.array(rendered);
     }
 
     public TrainScheduleDTO getTrainSchedule(String trainNumber) {
-        return null;
+        return scheduleCache.get(trainNumber).schedule();
+    }
+
+    /**
+     * The cached schedule together with its ETag, for endpoints that support revalidation.
+     */
+    public CachedSchedule getScheduleSnapshot(String trainNumber) {
+        return scheduleCache.get(trainNumber);
+    }
+
+    /**
+     * As getScheduleSnapshot, for the run leaving its origin on the given date, with its delay.
+     */
+    public CachedSchedule getScheduleSnapshot(String trainNumber, LocalDate date) {
+        return scheduleCache.get(trainNumber, date);
+    }
+
+    /**
+     * Records the delay of one run of a train and returns the train as that run is now expected.
+     */
+    public TrainDTO reportDelay(String trainNumber, TrainDelayRequest request) {
+        TrainDTO train = scheduleCache.get(trainNumber).schedule().getTrain();
+        int arrivalDelay = request.getArrivalDelayMinutes() != null
+                ? request.getArrivalDelayMinutes()
+                : request.getDelayMinutes();
+        delayOverlay.report(train, request.getJourneyDate(), request.getDelayMinutes(), arrivalDelay);
+        return delayOverlay.apply(train, request.getJourneyDate());
     }
 
     public AvailabilityResponse checkAvailability(String trainNumber, LocalDate date, String coachClass, String source, String destination) {
-        return null;
+        TrainInventory inventory = seatInventoryService.inventory(trainNumber, date);
+        int[] legs = inventory.legRange(source, destination);
+        if (legs == null || !inventory.route().operatesAt(legs[0], date)) {
+            return AvailabilityResponse.builder()
+                    .trainNumber(trainNumber)
+                    .date(date)
+                    .status("NOT_OPERATING")
+                    .coaches(List.of())
+                    .totalAvailableSeats(0)
+                    .waitlistCount(0)
+                    .build();
+        }
+
+        CoachClass requestedClass = CoachClass.fromValue(coachClass);
+        List<CoachAvailabilityDTO> coaches = new ArrayList<>();
+        int totalAvailable = 0;
+        int waitlisted = 0;
+        boolean waitlistOpen = false;
+        for (Map.Entry<CoachClass, Waitlist> entry : inventory.waitlists().entrySet()) {
+            if (requestedClass == null || requestedClass == entry.getKey()) {
+                waitlisted += entry.getValue().size();
+                waitlistOpen |= !"FULL".equals(entry.getValue().status());
+            }
+        }
+        for (CoachInventory coach : inventory.coaches()) {
+            if (requestedClass != null && requestedClass != coach.getCoachClass()) {
+                continue;
+            }
+            int available = coach.seats().countFree(legs[0], legs[1]);
+            totalAvailable += available;
+            coaches.add(CoachAvailabilityDTO.builder()
+                    .coachId(coach.getCoachId())
+                    .coachNumber(coach.getCoachNumber())
+                    .coachClass(coach.getCoachClass().name())
+                    .totalSeats(coach.seats().seats())
+                    .availableSeats(available)
+                    .fare(coach.getBaseFare())
+                    .hasAC(coach.hasAC())
+                    .hasCharging(coach.hasCharging())
+                    .hasWifi(coach.hasWifi())
+                    .status(available > 0 ? "AVAILABLE" : inventory.waitlist(coach.getCoachClass()).status())
+                    .build());
+        }
+
+        return AvailabilityResponse.builder()
+                .trainNumber(trainNumber)
+                .date(date)
+                .status(totalAvailable > 0 ? "AVAILABLE" : waitlistOpen ? "WAITLIST" : "FULL")
+                .coaches(coaches)
+                .totalAvailableSeats(totalAvailable)
+                .waitlistCount(waitlisted)
+                .build();
     }
 
+    /**
+     * Looks up every distinct train concurrently under one request-wide deadline.
+     * Trains that miss the deadline or fail are still present in the result, with a status
+     * of TIMEOUT, NOT_FOUND, NOT_BOOKABLE or ERROR, so callers always get one entry per requested train.
+     * Lookups are submitted as plain tasks so that cancelling one past the deadline interrupts
+     * it, or drops it from the queue if it has not started, instead of leaving it on a pool thread.
+     */
     public Map<String, AvailabilityResponse> checkBulkAvailability(BulkAvailabilityRequest request) {
-        return Map.of();
+        Set<String> trainNumbers = new LinkedHashSet<>();
+        for (String trainNumber : request.getTrainNumbers()) {
+            if (trainNumber != null && !trainNumber.isBlank()) {
+                trainNumbers.add(trainNumber.trim());
+            }
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(bulkDeadlineMillis);
+        Map<String, Future<AvailabilityResponse>> pending = new LinkedHashMap<>();
+        for (String trainNumber : trainNumbers) {
+            try {
+                pending.put(trainNumber, availabilityExecutor.submit(() -> checkAvailability(
+                        trainNumber, request.getDate(), request.getCoachClass(), null, null)));
+            } catch (RejectedExecutionException e) {
+                pending.put(trainNumber, CompletableFuture.failedFuture(e));
+            }
+        }
+
+        Map<String, AvailabilityResponse> results = new LinkedHashMap<>();
+        for (Map.Entry<String, Future<AvailabilityResponse>> entry : pending.entrySet()) {
+            String trainNumber = entry.getKey();
+            Future<AvailabilityResponse> future = entry.getValue();
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                results.put(trainNumber, future.get(remaining, TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                results.put(trainNumber, unresolved(trainNumber, request.getDate(), "TIMEOUT"));
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof BookingHorizonException) {
+                    results.put(trainNumber, unresolved(trainNumber, request.getDate(), "NOT_BOOKABLE"));
+                    continue;
+                }
+                boolean notFound = e.getCause() instanceof ResourceNotFoundException;
+                if (!notFound) {
+                    log.warn("Availability lookup failed for train {}", trainNumber, e.getCause());
+                }
+                results.put(trainNumber, unresolved(trainNumber, request.getDate(), notFound ? "NOT_FOUND" : "ERROR"));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                results.put(trainNumber, unresolved(trainNumber, request.getDate(), "TIMEOUT"));
+            }
+        }
+        return results;
     }
 
     public List<CoachDTO> getAvailableCoaches(String trainNumber, LocalDate date) {
-        return List.of();
+        TrainInventory inventory = seatInventoryService.inventory(trainNumber, date);
+        int legs = inventory.legs();
+        List<CoachDTO> coaches = new ArrayList<>(inventory.coaches().size());
+        for (CoachInventory coach : inventory.coaches()) {
+            coaches.add(CoachDTO.builder()
+                    .id(coach.getCoachId())
+                    .coachNumber(coach.getCoachNumber())
+                    .coachClass(coach.getCoachClass().name())
+                    .totalSeats(coach.seats().seats())
+                    .availableSeats(coach.seats().countFree(0, legs))
+                    .baseFare(coach.getBaseFare())
+                    .hasAC(coach.hasAC())
+                    .hasCharging(coach.hasCharging())
+                    .hasWifi(coach.hasWifi())
+                    .build());
+        }
+        return coaches;
+    }
+
+    /**
+     * The day the run serving the source station on the given date left its origin.
+     */
+    private static LocalDate runDate(RouteIndex index, String trainNumber, String source, LocalDate date) {
+        TrainRoute route = date == null ? null : index.route(trainNumber);
+        int stop = route == null ? -1 : route.indexOf(source);
+        return stop < 0 ? date : route.originDate(stop, date);
+    }
+
+    private static AvailabilityResponse unresolved(String trainNumber, LocalDate date, String status) {
+        return AvailabilityResponse.builder()
+                .trainNumber(trainNumber)
+                .date(date)
+                .status(status)
+                .coaches(List.of())
+                .build();
     }
 }
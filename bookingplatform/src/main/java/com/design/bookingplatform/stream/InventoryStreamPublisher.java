@@ -0,0 +1,219 @@
+package com.design.bookingplatform.stream;
+
+import com.design.bookingplatform.dto.InventoryDeltaEvent;
+import com.design.bookingplatform.dto.InventoryDeltaEvent.SeatState;
+import com.design.bookingplatform.inventory.CoachInventory;
+import com.design.bookingplatform.inventory.SegmentSeatMap;
+import com.design.bookingplatform.inventory.TrainInventory;
+import com.design.bookingplatform.locking.SeatLockManager;
+import com.design.bookingplatform.locking.SeatLockManager.LockGrant;
+import com.design.bookingplatform.locking.SeatLockManager.SeatRef;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Publishes seat-state changes to the seat-inventory topic.
+ *
+ * Booking paths only queue the change; a single publisher thread turns each one into a record
+ * with the coach's current occupancy and holds and hands it to the producer. One thread and
+ * train-keyed partitioning keep every coach's records in change order, so the last record per
+ * key is always the newest state. When the queue is full, changes are dropped with a warning
+ * rather than slowing bookings down; the next change of the coach publishes its state again.
+ */
+@Slf4j
+@Component
+public class InventoryStreamPublisher {
+
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final SeatLockManager seatLockManager;
+    private final String topic;
+    private final boolean enabled;
+    private final long flushIntervalMillis;
+    private final int maxPending;
+
+    private final ConcurrentLinkedQueue<Change> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicInteger dropped = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final ScheduledExecutorService publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "inventory-publisher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public InventoryStreamPublisher(KafkaTemplate<String, byte[]> kafkaTemplate, SeatLockManager seatLockManager,
+                                    @Value("${platform.inventory-stream.topic:seat-inventory}") String topic,
+                                    @Value("${platform.inventory-stream.enabled:true}") boolean enabled,
+                                    @Value("${platform.inventory-stream.flush-interval-ms:50}") long flushIntervalMillis,
+                                    @Value("${platform.inventory-stream.max-pending:100000}") int maxPending) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.seatLockManager = seatLockManager;
+        this.topic = topic;
+        this.enabled = enabled;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * Publishes the state of every coach, e.g. when the inventory is loaded.
+     */
+    public void snapshot(TrainInventory inventory) {
+        for (CoachInventory coach : inventory.coaches()) {
+            enqueue(new Change(inventory, coach, SeatState.SNAPSHOT, 0, inventory.legs(), new int[0]));
+        }
+    }
+
+    public void seatsChanged(TrainInventory inventory, CoachInventory coach, int[] seats, int fromLeg, int toLeg,
+                             SeatState state) {
+        enqueue(new Change(inventory, coach, state, fromLeg, toLeg, runs(seats)));
+    }
+
+    /**
+     * A lock covers the whole route of each of its seats.
+     */
+    public void locksChanged(TrainInventory inventory, LockGrant grant, SeatState state) {
+        Map<String, List<Integer>> seatsByCoach = new LinkedHashMap<>();
+        for (SeatRef seat : grant.seats()) {
+            seatsByCoach.computeIfAbsent(seat.coachNumber(), coach -> new ArrayList<>()).add(seat.seatNumber());
+        }
+        seatsByCoach.forEach((coachNumber, seats) -> {
+            CoachInventory coach = inventory.coach(coachNumber);
+            if (coach != null) {
+                int[] numbers = seats.stream().mapToInt(Integer::intValue).toArray();
+                seatsChanged(inventory, coach, numbers, 0, inventory.legs(), state);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            publisher.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        publisher.shutdown();
+        try {
+            if (publisher.awaitTermination(2, TimeUnit.SECONDS)) {
+                flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void enqueue(Change change) {
+        if (!enabled) {
+            return;
+        }
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            dropped.incrementAndGet();
+            return;
+        }
+        queue.add(change);
+    }
+
+    private void flush() {
+        Instant now = Instant.now();
+        Change change;
+        try {
+            while ((change = queue.poll()) != null) {
+                pending.decrementAndGet();
+                InventoryDeltaEvent event = toEvent(change, now);
+                kafkaTemplate.send(topic, event.key(), event.encode()).whenComplete((result, error) -> {
+                    if (error != null) {
+                        failed.incrementAndGet();
+                    }
+                });
+            }
+        } catch (RuntimeException e) {
+            // The producer could not take the record, typically because the broker is unreachable;
+            // drop this batch instead of stalling on every queued change
+            int discarded = 1;
+            while (queue.poll() != null) {
+                pending.decrementAndGet();
+                discarded++;
+            }
+            log.warn("Could not publish inventory changes, discarded {}: {}", discarded, e.toString());
+        }
+        int droppedChanges = dropped.getAndSet(0);
+        int failedRecords = failed.getAndSet(0);
+        if (droppedChanges > 0 || failedRecords > 0) {
+            log.warn("Inventory stream lost {} changes to a full queue and {} records to send failures",
+                    droppedChanges, failedRecords);
+        }
+    }
+
+    private InventoryDeltaEvent toEvent(Change change, Instant now) {
+        TrainInventory inventory = change.inventory();
+        CoachInventory coach = change.coach();
+        SegmentSeatMap seats = coach.seats();
+        String trainNumber = inventory.route().getTrainNumber();
+        return InventoryDeltaEvent.builder()
+                .trainNumber(trainNumber)
+                .journeyDate(inventory.date())
+                .coachNumber(coach.getCoachNumber())
+                .coachClass(coach.getCoachClass() == null ? null : coach.getCoachClass().name())
+                .coachCount(inventory.coaches().size())
+                .state(change.state())
+                .fromLeg(change.fromLeg())
+                .toLeg(change.toLeg())
+                .seatRuns(change.seatRuns())
+                .seats(seats.seats())
+                .legs(seats.legs())
+                .occupied(seats.snapshot())
+                .held(seatLockManager.heldSeats(trainNumber, inventory.date(), coach.getCoachNumber(), seats.seats(), now))
+                .publishedAt(now.toEpochMilli())
+                .build();
+    }
+
+    /**
+     * Collapses seat numbers into inclusive (first, last) runs.
+     */
+    private static int[] runs(int[] seats) {
+        if (seats.length == 0) {
+            return seats;
+        }
+        int[] sorted = seats.clone();
+        Arrays.sort(sorted);
+        int[] runs = new int[sorted.length * 2];
+        int count = 0;
+        int first = sorted[0];
+        int last = first;
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] > last + 1) {
+                runs[count++] = first;
+                runs[count++] = last;
+                first = sorted[i];
+            }
+            last = sorted[i];
+        }
+        runs[count++] = first;
+        runs[count++] = last;
+        return Arrays.copyOf(runs, count);
+    }
+
+    private record Change(TrainInventory inventory, CoachInventory coach, SeatState state, int fromLeg, int toLeg,
+                          int[] seatRuns) {
+    }
+}
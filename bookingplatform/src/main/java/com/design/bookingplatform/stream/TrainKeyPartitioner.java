@@ -0,0 +1,40 @@
+package com.design.bookingplatform.stream;
+
+import org.apache.kafka.clients.producer.Partitioner;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.utils.Utils;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Partitions train|date|coach keys by the train number alone, so every change of a train lands
+ * on one partition and is consumed in the order it was published.
+ */
+public class TrainKeyPartitioner implements Partitioner {
+
+    @Override
+    public int partition(String topic, Object key, byte[] keyBytes, Object value, byte[] valueBytes, Cluster cluster) {
+        int partitions = cluster.partitionsForTopic(topic).size();
+        if (keyBytes == null) {
+            return 0;
+        }
+        int length = keyBytes.length;
+        for (int i = 0; i < keyBytes.length; i++) {
+            if (keyBytes[i] == '|') {
+                length = i;
+                break;
+            }
+        }
+        byte[] train = length == keyBytes.length ? keyBytes : Arrays.copyOf(keyBytes, length);
+        return Utils.toPositive(Utils.murmur2(train)) % partitions;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+    }
+
+    @Override
+    public void close() {
+    }
+}
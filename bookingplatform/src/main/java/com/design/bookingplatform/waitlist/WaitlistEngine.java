@@ -0,0 +1,288 @@
+package com.design.bookingplatform.waitlist;
+
+import com.design.bookingplatform.dto.InventoryDeltaEvent.SeatState;
+import com.design.bookingplatform.engine.BookingEngine;
+import com.design.bookingplatform.engine.BookingEngine.Applied;
+import com.design.bookingplatform.exception.BookingHorizonException;
+import com.design.bookingplatform.exception.ResourceNotFoundException;
+import com.design.bookingplatform.inventory.CoachInventory;
+import com.design.bookingplatform.inventory.SeatInventoryService;
+import com.design.bookingplatform.inventory.TrainInventory;
+import com.design.bookingplatform.inventory.Waitlist;
+import com.design.bookingplatform.inventory.Waitlist.Promotion;
+import com.design.bookingplatform.inventory.Waitlist.Seat;
+import com.design.bookingplatform.locking.SeatLockManager;
+import com.design.bookingplatform.locking.SeatLockManager.SeatRef;
+import com.design.bookingplatform.metrics.BookingMetrics;
+import com.design.bookingplatform.models.Coach;
+import com.design.bookingplatform.models.CoachClass;
+import com.design.bookingplatform.models.Journey;
+import com.design.bookingplatform.models.JourneyStatus;
+import com.design.bookingplatform.models.Ticket;
+import com.design.bookingplatform.models.TicketStatus;
+import com.design.bookingplatform.stream.InventoryStreamPublisher;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Promotes waitlisted tickets into the seats that cancellations, releases and block expiries free.
+ *
+ * Freeing seats marks the train and date for promotion, and a single promoter thread coalesces
+ * the marks, so a burst of cancellations on one train costs one pass over its waitlists rather
+ * than one per seat. A pass offers the free seats of each coach class to its waiting passengers
+ * in booking order, claiming them in the inventory straight away, and hands each promoted
+ * booking to the booking engine, which seats the tickets: CONFIRMED when the booking is paid,
+ * BLOCKED until the booking's block expires otherwise. The engine commits the promotions of a
+ * pass in group commits, and once all of them are durable they are published to the inventory
+ * stream together, one change per coach and leg range. A promotion the engine cannot take goes
+ * back to its place in the waitlist and the pass is retried later.
+ */
+@Slf4j
+@Component
+public class WaitlistEngine {
+
+    private static final long RETRY_MILLIS = 1000;
+
+    private final SeatInventoryService seatInventoryService;
+    private final SeatLockManager seatLockManager;
+    private final BookingEngine bookingEngine;
+    private final InventoryStreamPublisher inventoryStreamPublisher;
+    private final BookingMetrics bookingMetrics;
+    private final EntityManager entityManager;
+
+    private final Set<Key> pending = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService promoter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "waitlist-promoter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public WaitlistEngine(SeatInventoryService seatInventoryService, SeatLockManager seatLockManager,
+                          BookingEngine bookingEngine, InventoryStreamPublisher inventoryStreamPublisher,
+                          BookingMetrics bookingMetrics, EntityManager entityManager) {
+        this.seatInventoryService = seatInventoryService;
+        this.seatLockManager = seatLockManager;
+        this.bookingEngine = bookingEngine;
+        this.inventoryStreamPublisher = inventoryStreamPublisher;
+        this.bookingMetrics = bookingMetrics;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Puts the booking's tickets that found no seat on the waitlist of their class and returns
+     * their positions. A seat freed meanwhile is offered to them by the next pass.
+     */
+    public List<String> join(TrainInventory inventory, CoachClass coachClass, String bookingId, long[] ticketIds,
+                             int fromLeg, int toLeg) {
+        List<String> positions = inventory.waitlist(coachClass).add(bookingId, ticketIds, fromLeg, toLeg);
+        schedule(new Key(inventory.route().getTrainNumber(), inventory.date()), 0);
+        return positions;
+    }
+
+    /**
+     * Takes tickets that were cancelled, released or expired off the waitlists of their train and
+     * date, and promotes into the seats the others of them freed.
+     */
+    public void ticketsClosed(String trainNumber, LocalDate date, Collection<Long> ticketIds) {
+        TrainInventory inventory = seatInventoryService.loaded(trainNumber, date);
+        if (inventory != null) {
+            for (Waitlist waitlist : inventory.waitlists().values()) {
+                waitlist.remove(ticketIds);
+            }
+        }
+        schedule(new Key(trainNumber, date), 0);
+    }
+
+    @PreDestroy
+    public void stop() {
+        promoter.shutdownNow();
+    }
+
+    private void schedule(Key key, long delayMillis) {
+        if (!pending.add(key)) {
+            return;
+        }
+        try {
+            promoter.schedule(() -> run(key), delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            pending.remove(key);
+        }
+    }
+
+    private void run(Key key) {
+        pending.remove(key);
+        try {
+            promote(key);
+        } catch (RuntimeException e) {
+            log.error("Waitlist promotion of train {} on {} failed", key.trainNumber(), key.date(), e);
+        }
+    }
+
+    private void promote(Key key) {
+        TrainInventory inventory;
+        try {
+            inventory = seatInventoryService.inventory(key.trainNumber(), key.date());
+        } catch (ResourceNotFoundException | BookingHorizonException e) {
+            return;
+        } catch (RuntimeException e) {
+            log.warn("Could not load train {} on {} for waitlist promotion, retrying in {} ms", key.trainNumber(),
+                    key.date(), RETRY_MILLIS, e);
+            schedule(key, RETRY_MILLIS);
+            return;
+        }
+        Instant now = Instant.now();
+        List<Promotion> promoted = new ArrayList<>();
+        inventory.waitlists().forEach((coachClass, waitlist) -> {
+            if (waitlist.size() == 0) {
+                return;
+            }
+            List<CoachInventory> coaches = inventory.coaches().stream()
+                    .filter(coach -> coach.getCoachClass() == coachClass)
+                    .toList();
+            promoted.addAll(waitlist.promote((bookingId, fromLeg, toLeg) ->
+                    claim(key, coaches, bookingId, fromLeg, toLeg, now)));
+        });
+        if (promoted.isEmpty()) {
+            return;
+        }
+
+        Map<String, List<Promotion>> byBooking = new LinkedHashMap<>();
+        for (Promotion promotion : promoted) {
+            byBooking.computeIfAbsent(promotion.bookingId(), id -> new ArrayList<>()).add(promotion);
+        }
+        List<CompletableFuture<List<Seated>>> results = new ArrayList<>(byBooking.size());
+        byBooking.forEach((bookingId, promotions) -> results.add(bookingEngine
+                .submit(key.trainNumber(), key.date(), bookingId,
+                        (journey, transactions) -> seat(key, journey, promotions))
+                .whenComplete((seated, error) -> {
+                    if (error != null) {
+                        restore(key, inventory, promotions, error);
+                    }
+                })));
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new))
+                .whenComplete((ignored, error) -> publish(inventory, results));
+    }
+
+    private Seat claim(Key key, List<CoachInventory> coaches, String bookingId, int fromLeg, int toLeg, Instant now) {
+        for (CoachInventory coach : coaches) {
+            String coachNumber = coach.getCoachNumber();
+            int[] seats = coach.seats().claimFree(fromLeg, toLeg, 1,
+                    seat -> !seatLockManager.isHeldByOther(key.trainNumber(), key.date(),
+                            new SeatRef(coachNumber, seat), bookingId, now));
+            if (seats.length > 0) {
+                return new Seat(coach, seats[0]);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Seats the promoted tickets that are still waitlisted. A ticket that was closed since, or
+     * whose unpaid booking's block has run out, gives its seat back.
+     */
+    private Applied<List<Seated>> seat(Key key, Journey journey, List<Promotion> promotions) {
+        Map<Long, Ticket> tickets = new HashMap<>();
+        for (Ticket ticket : journey.getTickets()) {
+            tickets.put(ticket.getId(), ticket);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        boolean paid = journey.getStatus() == JourneyStatus.CONFIRMED;
+        List<Seated> seated = new ArrayList<>(promotions.size());
+        List<Promotion> stale = new ArrayList<>();
+        for (Promotion promotion : promotions) {
+            Ticket ticket = tickets.get(promotion.ticketId());
+            if (ticket == null || ticket.getStatus() != TicketStatus.WAIT_LISTED
+                    || (!paid && ticket.getBlockExpiresAt() != null && ticket.getBlockExpiresAt().isBefore(now))) {
+                stale.add(promotion);
+                continue;
+            }
+            ticket.setCoach(entityManager.getReference(Coach.class, promotion.coach().getCoachId()));
+            ticket.setSeatNumber(String.valueOf(promotion.seat()));
+            if (paid) {
+                ticket.setStatus(TicketStatus.CONFIRMED);
+                ticket.setConfirmedAt(now);
+            } else {
+                ticket.setStatus(TicketStatus.BLOCKED);
+            }
+            seated.add(new Seated(promotion, paid ? SeatState.CONFIRMED : SeatState.BLOCKED));
+        }
+        return Applied.of(seated, () -> {
+            if (!stale.isEmpty()) {
+                release(stale);
+                schedule(key, 0);
+            }
+            bookingMetrics.waitlistPromoted(seated.size());
+        });
+    }
+
+    private void restore(Key key, TrainInventory inventory, List<Promotion> promotions, Throwable error) {
+        release(promotions);
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof ResourceNotFoundException) {
+            schedule(key, 0);
+            return;
+        }
+        log.warn("Promoting {} waitlisted tickets of booking {} failed, retrying in {} ms", promotions.size(),
+                promotions.get(0).bookingId(), RETRY_MILLIS, cause);
+        for (Promotion promotion : promotions) {
+            inventory.waitlist(promotion.coach().getCoachClass()).restore(promotion);
+        }
+        schedule(key, RETRY_MILLIS);
+    }
+
+    private static void release(List<Promotion> promotions) {
+        for (Promotion promotion : promotions) {
+            promotion.coach().seats().release(promotion.seat(), promotion.fromLeg(), promotion.toLeg());
+        }
+    }
+
+    /**
+     * Publishes the seats of one pass's committed promotions, one change per coach, leg range
+     * and state.
+     */
+    private void publish(TrainInventory inventory, List<CompletableFuture<List<Seated>>> results) {
+        Map<Change, List<Integer>> seatsByChange = new LinkedHashMap<>();
+        for (CompletableFuture<List<Seated>> result : results) {
+            if (result.isCompletedExceptionally()) {
+                continue;
+            }
+            for (Seated seated : result.join()) {
+                Promotion promotion = seated.promotion();
+                seatsByChange.computeIfAbsent(new Change(promotion.coach(), promotion.fromLeg(), promotion.toLeg(),
+                        seated.state()), change -> new ArrayList<>()).add(promotion.seat());
+            }
+        }
+        seatsByChange.forEach((change, seats) -> inventoryStreamPublisher.seatsChanged(inventory, change.coach(),
+                seats.stream().mapToInt(Integer::intValue).toArray(), change.fromLeg(), change.toLeg(),
+                change.state()));
+    }
+
+    private record Key(String trainNumber, LocalDate date) {
+    }
+
+    private record Seated(Promotion promotion, SeatState state) {
+    }
+
+    private record Change(CoachInventory coach, int fromLeg, int toLeg, SeatState state) {
+    }
+}
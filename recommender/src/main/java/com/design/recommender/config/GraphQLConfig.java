@@ -1,6 +1,10 @@
 package com.design.recommender.config;
 
+import graphql.analysis.FieldComplexityEnvironment;
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
 import graphql.scalars.ExtendedScalars;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.graphql.execution.RuntimeWiringConfigurer;
@@ -8,8 +12,45 @@ import org.springframework.graphql.execution.RuntimeWiringConfigurer;
 @Configuration
 public class GraphQLConfig {
 
+    // Expected list sizes used to estimate the cost of nested selections
+    private static final int SEARCH_RESULTS = 10;
+    private static final int ROUTE_TRAINS = 20;
+    private static final int SCHEDULE_STOPS = 25;
+    private static final int COACHES = 12;
+
     @Bean
     public RuntimeWiringConfigurer runtimeWiringConfigurer() {
         return wiringBuilder -> wiringBuilder.scalar(ExtendedScalars.Date);
     }
+
+    @Bean
+    public MaxQueryDepthInstrumentation maxQueryDepthInstrumentation(
+            @Value("${recommender.graphql.max-depth:8}") int maxDepth) {
+        return new MaxQueryDepthInstrumentation(maxDepth);
+    }
+
+    /**
+     * Rejects a query before execution when its estimated cost is too high. Each field costs one
+     * plus its selection, and list fields multiply their selection by the expected list size.
+     */
+    @Bean
+    public MaxQueryComplexityInstrumentation maxQueryComplexityInstrumentation(
+            @Value("${recommender.graphql.max-complexity:5000}") int maxComplexity) {
+        return new MaxQueryComplexityInstrumentation(maxComplexity, GraphQLConfig::fieldComplexity);
+    }
+
+    static int fieldComplexity(FieldComplexityEnvironment environment, int childComplexity) {
+        String field = environment.getParentType().getName() + "." + environment.getField().getName();
+        return switch (field) {
+            case "Query.searchTrains" -> 1 + childComplexity * listSize(environment.getArguments().get("first"));
+            case "Query.trainsByRoute" -> 1 + childComplexity * ROUTE_TRAINS;
+            case "Train.schedule" -> 1 + childComplexity * SCHEDULE_STOPS;
+            case "Availability.coaches" -> 1 + childComplexity * COACHES;
+            default -> 1 + childComplexity;
+        };
+    }
+
+    private static int listSize(Object first) {
+        return first instanceof Integer size ? Math.max(1, Math.min(size, SEARCH_RESULTS)) : SEARCH_RESULTS;
+    }
 }
@@ -0,0 +1,76 @@
+package com.design.recommender.config;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.netty.channel.ChannelOption;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.circuitbreaker.resilience4j.ReactiveResilience4JCircuitBreakerFactory;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JConfigBuilder;
+import org.springframework.cloud.client.circuitbreaker.Customizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+@Configuration
+@EnableConfigurationProperties(PlatformClientProperties.class)
+public class PlatformClientConfig {
+
+    /**
+     * Shared connection pool for platform calls. Connections are kept alive and reused,
+     * idle ones are evicted in the background before the server would close them.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider platformConnectionProvider(PlatformClientProperties properties) {
+        return ConnectionProvider.builder("booking-platform")
+                .maxConnections(properties.getMaxConnections())
+                .pendingAcquireMaxCount(properties.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(properties.getPendingAcquireTimeout())
+                .maxIdleTime(properties.getMaxIdleTime())
+                .maxLifeTime(properties.getMaxLifeTime())
+                .evictInBackground(Duration.ofSeconds(15))
+                .lifo()
+                .build();
+    }
+
+    @Bean
+    public WebClient platformWebClient(WebClient.Builder builder, ConnectionProvider platformConnectionProvider,
+                                       PlatformClientProperties properties) {
+        HttpClient httpClient = HttpClient.create(platformConnectionProvider)
+                .keepAlive(true)
+                .compress(true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, true);
+        return builder
+                .baseUrl(properties.getBaseUrl())
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+
+    /**
+     * Circuit breakers for platform endpoints. Only server errors, timeouts and connection
+     * failures count against an endpoint; 4xx answers are the caller's problem. Deadlines are
+     * enforced per endpoint by WebClientService, so the breaker's own time limiter is only a backstop.
+     */
+    @Bean
+    public Customizer<ReactiveResilience4JCircuitBreakerFactory> platformCircuitBreakerCustomizer(
+            PlatformClientProperties properties) {
+        return factory -> factory.configureDefault(id -> new Resilience4JConfigBuilder(id)
+                .circuitBreakerConfig(CircuitBreakerConfig.custom()
+                        .slidingWindowSize(properties.getSlidingWindowSize())
+                        .failureRateThreshold(properties.getFailureRateThreshold())
+                        .waitDurationInOpenState(properties.getOpenStateWait())
+                        .recordException(e -> !(e instanceof WebClientResponseException response)
+                                || response.getStatusCode().is5xxServerError())
+                        .build())
+                .timeLimiterConfig(TimeLimiterConfig.custom()
+                        .timeoutDuration(Duration.ofSeconds(30))
+                        .build())
+                .build());
+    }
+}
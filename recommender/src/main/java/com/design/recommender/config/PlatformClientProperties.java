@@ -0,0 +1,47 @@
+package com.design.recommender.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings of the booking platform client, bound from recommender.platform.*.
+ * Timeouts and hedge delays are keyed by endpoint name (e.g. schedule, availability).
+ */
+@Data
+@ConfigurationProperties(prefix = "recommender.platform")
+public class PlatformClientProperties {
+
+    private String baseUrl = "http://localhost:8080/api/platform";
+
+    private int maxConnections = 200;
+    private int pendingAcquireMaxCount = 1000;
+    private Duration pendingAcquireTimeout = Duration.ofSeconds(2);
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+    private Duration maxLifeTime = Duration.ofMinutes(5);
+    private Duration connectTimeout = Duration.ofMillis(500);
+
+    private Duration defaultTimeout = Duration.ofSeconds(2);
+    private Map<String, Duration> timeouts = new HashMap<>();
+
+    /**
+     * Delay after which an idempotent GET is sent a second time if the first has not answered.
+     * Endpoints without an entry are not hedged.
+     */
+    private Map<String, Duration> hedgeDelays = new HashMap<>();
+
+    private float failureRateThreshold = 50;
+    private int slidingWindowSize = 50;
+    private Duration openStateWait = Duration.ofSeconds(10);
+
+    public Duration timeout(String endpoint) {
+        return timeouts.getOrDefault(endpoint, defaultTimeout);
+    }
+
+    public Duration hedgeDelay(String endpoint) {
+        return hedgeDelays.get(endpoint);
+    }
+}
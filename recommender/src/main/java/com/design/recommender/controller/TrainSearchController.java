@@ -0,0 +1,181 @@
+package com.design.recommender.controller;
+
+import com.design.bookingplatform.dto.AvailabilityResponse;
+import com.design.bookingplatform.dto.BulkAvailabilityRequest;
+import com.design.bookingplatform.dto.StationStopDTO;
+import com.design.bookingplatform.dto.TrainDTO;
+import com.design.recommender.dto.TrainMatchDTO;
+import com.design.recommender.inventory.AvailabilityView;
+import com.design.recommender.services.BookingService;
+import com.design.recommender.services.WebClientService;
+import lombok.extern.slf4j.Slf4j;
+import org.dataloader.DataLoader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuples;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * GraphQL entry points for search: route search, trains, schedules and coach availability.
+ *
+ * Nested fields are resolved through request-scoped DataLoaders, so a train's schedule or
+ * availability is fetched at most once per request however often it is selected. Availability
+ * is read from the local inventory view where possible; the remaining keys are grouped by date
+ * and class and each group is sent as one /trains/bulk-availability call; schedules and train details for distinct trains are fetched concurrently on the client pool.
+ */
+@Slf4j
+@Controller
+public class TrainSearchController {
+
+    private final BookingService bookingService;
+    private final WebClientService webClientService;
+    private final AvailabilityView availabilityView;
+    private final int fetchConcurrency;
+
+    public TrainSearchController(BookingService bookingService, WebClientService webClientService,
+                                 AvailabilityView availabilityView, BatchLoaderRegistry batchLoaderRegistry,
+                                 @Value("${recommender.graphql.bulk-batch-size:50}") int bulkBatchSize,
+                                 @Value("${recommender.graphql.fetch-concurrency:8}") int fetchConcurrency) {
+        this.bookingService = bookingService;
+        this.webClientService = webClientService;
+        this.availabilityView = availabilityView;
+        this.fetchConcurrency = fetchConcurrency;
+        batchLoaderRegistry.forTypePair(AvailabilityKey.class, AvailabilityResponse.class)
+                .withOptions(options -> options.setMaxBatchSize(bulkBatchSize))
+                .registerMappedBatchLoader((keys, environment) -> loadAvailability(keys));
+    }
+
+    @QueryMapping
+    public Flux<TrainMatchDTO> searchTrains(@Argument String source, @Argument String destination,
+                                            @Argument LocalDate date, @Argument String earliestDeparture,
+                                            @Argument String latestArrival, @Argument String coachClass,
+                                            @Argument Integer first) {
+        Flux<TrainMatchDTO> matches = bookingService.matchTrainsByRoutes(source, destination, date,
+                earliestDeparture, latestArrival, coachClass);
+        return first == null ? matches : matches.take(Math.max(first, 0));
+    }
+
+    @QueryMapping
+    public Mono<List<TrainDTO>> trainsByRoute(@Argument String source, @Argument String destination,
+                                              @Argument LocalDate date) {
+        return webClientService.getTrainsByRoute(source, destination, date).defaultIfEmpty(List.of());
+    }
+
+    @QueryMapping
+    public Mono<TrainDTO> train(@Argument String trainNumber) {
+        return webClientService.getTrainByNumber(trainNumber);
+    }
+
+    @BatchMapping(typeName = "TrainMatch", field = "train")
+    public Mono<Map<TrainMatchDTO, TrainDTO>> matchTrain(List<TrainMatchDTO> matches) {
+        Set<String> trainNumbers = new LinkedHashSet<>();
+        for (TrainMatchDTO match : matches) {
+            trainNumbers.add(match.getTrainNumber());
+        }
+        return Flux.fromIterable(trainNumbers)
+                .flatMap(trainNumber -> webClientService.getTrainByNumber(trainNumber)
+                        .onErrorResume(e -> {
+                            log.warn("Could not fetch train {}: {}", trainNumber, e.toString());
+                            return Mono.empty();
+                        }), fetchConcurrency)
+                .collectMap(TrainDTO::getTrainNumber)
+                .map(trains -> {
+                    Map<TrainMatchDTO, TrainDTO> byMatch = new LinkedHashMap<>();
+                    for (TrainMatchDTO match : matches) {
+                        TrainDTO train = trains.get(match.getTrainNumber());
+                        if (train != null) {
+                            byMatch.put(match, train);
+                        }
+                    }
+                    return byMatch;
+                });
+    }
+
+    @BatchMapping(typeName = "Train", field = "schedule")
+    public Mono<Map<TrainDTO, List<StationStopDTO>>> schedule(List<TrainDTO> trains) {
+        Set<String> trainNumbers = new LinkedHashSet<>();
+        for (TrainDTO train : trains) {
+            trainNumbers.add(train.getTrainNumber());
+        }
+        return Flux.fromIterable(trainNumbers)
+                .flatMap(trainNumber -> webClientService.getTrainSchedule(trainNumber)
+                        .map(schedule -> Tuples.of(trainNumber, schedule.getStations() == null
+                                ? List.<StationStopDTO>of() : schedule.getStations()))
+                        .onErrorResume(e -> {
+                            log.warn("Could not fetch schedule of train {}: {}", trainNumber, e.toString());
+                            return Mono.empty();
+                        }), fetchConcurrency)
+                .collectMap(tuple -> tuple.getT1(), tuple -> tuple.getT2())
+                .map(stops -> {
+                    Map<TrainDTO, List<StationStopDTO>> byTrain = new LinkedHashMap<>();
+                    for (TrainDTO train : trains) {
+                        byTrain.put(train, stops.getOrDefault(train.getTrainNumber(), List.of()));
+                    }
+                    return byTrain;
+                });
+    }
+
+    @SchemaMapping(typeName = "Train", field = "availability")
+    public CompletableFuture<AvailabilityResponse> availability(TrainDTO train, @Argument LocalDate date,
+                                                               @Argument String coachClass,
+                                                               DataLoader<AvailabilityKey, AvailabilityResponse> loader) {
+        return loader.load(new AvailabilityKey(train.getTrainNumber(), date, coachClass));
+    }
+
+    private Mono<Map<AvailabilityKey, AvailabilityResponse>> loadAvailability(Set<AvailabilityKey> keys) {
+        Map<AvailabilityKey, AvailabilityResponse> local = new LinkedHashMap<>();
+        Map<BulkKey, List<AvailabilityKey>> groups = new LinkedHashMap<>();
+        for (AvailabilityKey key : keys) {
+            AvailabilityResponse availability = availabilityView.availability(key.trainNumber(), key.date(), key.coachClass());
+            if (availability != null) {
+                local.put(key, availability);
+                continue;
+            }
+            groups.computeIfAbsent(new BulkKey(key.date(), key.coachClass()), group -> new ArrayList<>()).add(key);
+        }
+        return Flux.fromIterable(groups.entrySet())
+                .flatMap(group -> {
+                    List<String> trainNumbers = group.getValue().stream().map(AvailabilityKey::trainNumber).toList();
+                    BulkAvailabilityRequest request = new BulkAvailabilityRequest(trainNumbers,
+                            group.getKey().date(), group.getKey().coachClass());
+                    return webClientService.checkBulkAvailability(request)
+                            .flatMapIterable(results -> {
+                                List<Map.Entry<AvailabilityKey, AvailabilityResponse>> resolved = new ArrayList<>();
+                                for (AvailabilityKey key : group.getValue()) {
+                                    AvailabilityResponse availability = results.get(key.trainNumber());
+                                    if (availability != null) {
+                                        resolved.add(Map.entry(key, availability));
+                                    }
+                                }
+                                return resolved;
+                            })
+                            .onErrorResume(e -> {
+                                log.warn("Bulk availability for {} trains on {} failed: {}",
+                                        trainNumbers.size(), group.getKey().date(), e.toString());
+                                return Flux.empty();
+                            });
+                }, fetchConcurrency)
+                .collect(() -> local, (resolved, entry) -> resolved.put(entry.getKey(), entry.getValue()));
+    }
+
+    public record AvailabilityKey(String trainNumber, LocalDate date, String coachClass) {
+    }
+
+    private record BulkKey(LocalDate date, String coachClass) {
+    }
+}
@@ -3,10 +3,12 @@ package com.design.bookingplatform.dto;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 
+@Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,27 @@
+package com.design.recommender.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItineraryDTO {
+    private String sourceStation;
+    private String destinationStation;
+    private String journeyType; // "SINGLE_TRAIN", "MULTI_TRAIN"
+    private LocalDateTime departure;
+    private LocalDateTime arrival;
+    private Integer transfers;
+    private Integer totalTravelTimeMinutes;
+    private Integer totalLayoverMinutes;
+    private BigDecimal totalFare;
+    private List<ItineraryLegDTO> legs;
+}
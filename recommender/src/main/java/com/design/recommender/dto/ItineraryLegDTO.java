@@ -0,0 +1,25 @@
+package com.design.recommender.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItineraryLegDTO {
+    private String trainNumber;
+    private String trainName;
+    private String boardingStation;
+    private String alightingStation;
+    private LocalDateTime departure;
+    private LocalDateTime arrival;
+    private BigDecimal fare;
+    private Integer layoverBeforeMinutes; // Wait at boardingStation after the previous leg
+    private Integer delayMinutes; // How late the train is expected at alightingStation; included in arrival
+}
@@ -23,4 +23,8 @@ public class TrainDTO {
     private Integer journeyDurationMinutes;
     private String operatingDays;
     private Boolean isActive;
+    // Set only when read for a travel date whose run has a reported delay
+    private Integer delayedMinutes;
+    private LocalTime rescheduledDepartureTime;
+    private LocalTime rescheduledArrivalTime;
 }
@@ -0,0 +1,75 @@
+package com.design.bookingplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+
+/**
+ * The reported delay of one run of a train on the train-delays topic, keyed train|date, where
+ * date is the day the run leaves its origin. Each record replaces the previous delay of its run
+ * and a tombstone clears it. Shared as-is between the platform and its consumers.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrainDelayEvent {
+
+    private static final byte FORMAT = 1;
+
+    private String trainNumber;
+    private LocalDate journeyDate;
+    private Integer departureDelayMinutes; // At the origin
+    private Integer arrivalDelayMinutes; // At the terminus; stops in between are interpolated
+    private Long publishedAt; // Epoch millis
+
+    public static String key(String trainNumber, LocalDate journeyDate) {
+        return trainNumber + "|" + journeyDate;
+    }
+
+    public String key() {
+        return key(trainNumber, journeyDate);
+    }
+
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT);
+            out.writeUTF(trainNumber);
+            out.writeInt((int) journeyDate.toEpochDay());
+            out.writeInt(departureDelayMinutes);
+            out.writeInt(arrivalDelayMinutes);
+            out.writeLong(publishedAt);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static TrainDelayEvent decode(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            byte format = in.readByte();
+            if (format != FORMAT) {
+                throw new IllegalArgumentException("Unsupported train delay format " + format);
+            }
+            TrainDelayEvent event = new TrainDelayEvent();
+            event.trainNumber = in.readUTF();
+            event.journeyDate = LocalDate.ofEpochDay(in.readInt());
+            event.departureDelayMinutes = in.readInt();
+            event.arrivalDelayMinutes = in.readInt();
+            event.publishedAt = in.readLong();
+            return event;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.design.recommender.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrainMatchDTO {
+    private String trainNumber;
+    private String trainName;
+    private String boardingStation;
+    private String alightingStation;
+    private LocalDateTime departure;
+    private LocalDateTime arrival;
+    private Integer durationMinutes;
+    private BigDecimal fare; // Cheapest class, pro-rated to the segment
+    private String coachClass; // Class the seat count refers to: the preferred one when it has seats
+    private Integer availableSeats;
+    private String availabilityStatus; // "AVAILABLE", "OTHER_CLASS", "WAITLIST", "UNKNOWN"
+    private Double score; // Lower is better
+}
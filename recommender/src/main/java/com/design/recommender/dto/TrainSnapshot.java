@@ -0,0 +1,24 @@
+package com.design.recommender.dto;
+
+import com.design.bookingplatform.dto.AvailabilityResponse;
+import com.design.bookingplatform.dto.CoachDTO;
+import com.design.bookingplatform.dto.TrainScheduleDTO;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Schedule, availability and coaches of one train on one date, fetched together.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrainSnapshot {
+    private TrainScheduleDTO schedule;
+    private AvailabilityResponse availability;
+    private List<CoachDTO> coaches;
+}
@@ -0,0 +1,166 @@
+package com.design.recommender.inventory;
+
+import com.design.bookingplatform.dto.AvailabilityResponse;
+import com.design.bookingplatform.dto.CoachAvailabilityDTO;
+import com.design.bookingplatform.dto.InventoryDeltaEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Local seat availability materialized from the platform's seat-inventory topic.
+ *
+ * Every record replaces the state of one coach on one date. The listener joins under a group of
+ * its own and reads the compacted topic from the beginning on every assignment, so the view is
+ * rebuilt at startup without a call to the platform. A (train, date) is answered only once all of
+ * its coaches have arrived; anything else returns null and callers ask the platform instead.
+ */
+@Slf4j
+@Component
+public class AvailabilityView implements ConsumerSeekAware {
+
+    private final ConcurrentHashMap<TrainDate, TrainState> trains = new ConcurrentHashMap<>();
+    private volatile LocalDate sweptBefore = LocalDate.MIN;
+
+    @KafkaListener(topics = "${recommender.inventory-stream.topic:seat-inventory}",
+            groupId = "recommender-availability-${random.uuid}",
+            autoStartup = "${recommender.inventory-stream.enabled:true}")
+    public void onRecord(ConsumerRecord<String, byte[]> record) {
+        if (record.value() == null) {
+            remove(record.key());
+            return;
+        }
+        InventoryDeltaEvent event;
+        try {
+            event = InventoryDeltaEvent.decode(record.value());
+        } catch (RuntimeException e) {
+            log.warn("Skipping unreadable inventory record {} at offset {}: {}", record.key(), record.offset(), e.toString());
+            return;
+        }
+        apply(event);
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        callback.seekToBeginning(assignments.keySet());
+    }
+
+    public void apply(InventoryDeltaEvent event) {
+        LocalDate today = LocalDate.now();
+        if (event.getJourneyDate().isBefore(today)) {
+            return;
+        }
+        if (sweptBefore.isBefore(today)) {
+            sweptBefore = today;
+            trains.keySet().removeIf(key -> key.date().isBefore(today));
+        }
+        TrainState train = trains.computeIfAbsent(new TrainDate(event.getTrainNumber(), event.getJourneyDate()),
+                key -> new TrainState());
+        train.coachCount = event.getCoachCount();
+        train.coaches.put(event.getCoachNumber(), new CoachState(event.getCoachNumber(), event.getCoachClass(),
+                event.getSeats(), event.getLegs(), event.getOccupied(), event.getHeld()));
+    }
+
+    /**
+     * Whole-route availability, or null when the view cannot answer for this train and date.
+     */
+    public AvailabilityResponse availability(String trainNumber, LocalDate date, String coachClass) {
+        return availability(trainNumber, date, coachClass, 0, -1, -1);
+    }
+
+    /**
+     * Availability over legs [fromLeg, toLeg) of a route with routeLegs legs, or null when the view
+     * cannot answer. toLeg and routeLegs of -1 mean the whole route as published.
+     */
+    public AvailabilityResponse availability(String trainNumber, LocalDate date, String coachClass,
+                                             int fromLeg, int toLeg, int routeLegs) {
+        TrainState train = trains.get(new TrainDate(trainNumber, date));
+        if (train == null || train.coaches.size() < train.coachCount) {
+            return null;
+        }
+        List<CoachAvailabilityDTO> coaches = new ArrayList<>();
+        int totalAvailable = 0;
+        for (CoachState coach : train.coaches.values()) {
+            int to = toLeg < 0 ? coach.legs() : toLeg;
+            if ((routeLegs >= 0 && coach.legs() != routeLegs) || fromLeg < 0 || fromLeg >= to || to > coach.legs()) {
+                return null;
+            }
+            if (coachClass != null && !coachClass.equalsIgnoreCase(coach.coachClass())) {
+                continue;
+            }
+            int available = coach.countFree(fromLeg, to);
+            totalAvailable += available;
+            coaches.add(CoachAvailabilityDTO.builder()
+                    .coachNumber(coach.coachNumber())
+                    .coachClass(coach.coachClass())
+                    .totalSeats(coach.seats())
+                    .availableSeats(available)
+                    .status(available > 0 ? "AVAILABLE" : "WAITLIST")
+                    .build());
+        }
+        return AvailabilityResponse.builder()
+                .trainNumber(trainNumber)
+                .date(date)
+                .status(totalAvailable > 0 ? "AVAILABLE" : "WAITLIST")
+                .coaches(coaches)
+                .totalAvailableSeats(totalAvailable)
+                .waitlistCount(0)
+                .build();
+    }
+
+    public int trainCount() {
+        return trains.size();
+    }
+
+    private void remove(String key) {
+        if (key == null) {
+            return;
+        }
+        String[] parts = key.split("\\|", 3);
+        if (parts.length < 3) {
+            return;
+        }
+        TrainState train = trains.get(new TrainDate(parts[0], LocalDate.parse(parts[1])));
+        if (train != null) {
+            train.coaches.remove(parts[2]);
+        }
+    }
+
+    private record TrainDate(String trainNumber, LocalDate date) {
+    }
+
+    private static final class TrainState {
+        private final Map<String, CoachState> coaches = new ConcurrentSkipListMap<>();
+        private volatile int coachCount;
+    }
+
+    /**
+     * Immutable state of one coach as of its latest record.
+     */
+    private record CoachState(String coachNumber, String coachClass, int seats, int legs, long[] occupied,
+                              long[] held) {
+
+        int countFree(int fromLeg, int toLeg) {
+            int words = held.length;
+            int taken = 0;
+            for (int word = 0; word < words; word++) {
+                long union = held[word];
+                for (int leg = fromLeg; leg < toLeg; leg++) {
+                    union |= occupied[leg * words + word];
+                }
+                taken += Long.bitCount(union);
+            }
+            return seats - taken;
+        }
+    }
+}
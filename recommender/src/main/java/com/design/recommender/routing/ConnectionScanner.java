@@ -0,0 +1,428 @@
+package com.design.recommender.routing;
+
+import com.design.recommender.routing.DelayOverlay.Delay;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Multi-criteria connection scan over a packed Timetable.
+ *
+ * All transfer rounds are evaluated in one pass over the departure-sorted connections: a label
+ * created on arrival can only be used by connections departing later, so round k may read the
+ * bags of round k-1 while the scan is still running. Each bag keeps the Pareto front of
+ * (arrival, fare) per station and round, which gives the (arrival, transfers, fare) front at the
+ * target once rounds are compared at the end. Away from the target an earlier label only
+ * dominates a later one if it can also catch every departure the later one can: with a maximum
+ * layover, a departure more than maxLayoverMinutes after the earlier arrival is reachable only
+ * from the later label, which must be kept.
+ *
+ * Trains leaving their origin on the day before and after the query date are scanned too by
+ * merging three cursors over the same connection array, offset by -1440, 0 and +1440 minutes.
+ *
+ * Delays from a DelayOverlay are applied without touching the timetable: the static connections
+ * of a delayed run are skipped, and the run's connections at their delayed times, sorted once
+ * per scan, are merged in through a fourth cursor. A delay therefore costs a scan only the
+ * connections of the delayed runs, and the departure-sorted timetable is never rebuilt.
+ */
+public final class ConnectionScanner {
+
+    private static final int INFINITY = Integer.MAX_VALUE;
+    private static final int NONE = -1;
+    private static final int DAY_OFFSETS = 3;
+
+    private final Timetable timetable;
+
+    public ConnectionScanner(Timetable timetable) {
+        this.timetable = timetable;
+    }
+
+    public List<PlannedJourney> scan(int source, int target, LocalDate date, ScanOptions options) {
+        return scan(source, target, date, DelayOverlay.empty(), options);
+    }
+
+    public List<PlannedJourney> scan(int source, int target, LocalDate date, DelayOverlay delays,
+                                     ScanOptions options) {
+        if (source < 0 || target < 0 || source == target || timetable.connectionCount() == 0) {
+            return List.of();
+        }
+
+        int rounds = options.maxTransfers() + 1;
+        int stations = timetable.stationCount();
+        int instances = timetable.trainCount() * DAY_OFFSETS;
+
+        int[] bagHead = new int[rounds * stations];
+        Arrays.fill(bagHead, NONE);
+        int[] tripFare = new int[rounds * instances];
+        Arrays.fill(tripFare, INFINITY);
+        int[] tripBoardLabel = new int[rounds * instances];
+        int[] tripBoardStop = new int[rounds * instances];
+        Labels labels = new Labels();
+
+        int[] dayBits = new int[DAY_OFFSETS];
+        int[] cursor = new int[DAY_OFFSETS];
+        for (int day = 0; day < DAY_OFFSETS; day++) {
+            int offset = (day - 1) * TimeMath.MINUTES_PER_DAY;
+            dayBits[day] = TimeMath.dayBit(date.plusDays(day - 1L).getDayOfWeek());
+            cursor[day] = timetable.firstConnectionAtOrAfter(options.earliestDeparture() - offset);
+        }
+        long horizon = (long) options.earliestDeparture() + options.horizonMinutes();
+        Window layover = new Window(options.maxLayoverMinutes(), horizon);
+        int connections = timetable.connectionCount();
+        Delayed delayed = delayed(date, delays, dayBits, options.earliestDeparture());
+
+        while (true) {
+            int day = NONE;
+            int departure = INFINITY;
+            for (int d = 0; d < DAY_OFFSETS; d++) {
+                if (cursor[d] < connections) {
+                    int time = timetable.connectionDeparture(cursor[d]) + (d - 1) * TimeMath.MINUTES_PER_DAY;
+                    if (time < departure) {
+                        departure = time;
+                        day = d;
+                    }
+                }
+            }
+            boolean late = delayed.cursor < delayed.size && delayed.departure[delayed.cursor] < departure;
+            if (late) {
+                departure = delayed.departure[delayed.cursor];
+            }
+            if ((day == NONE && !late) || departure > horizon) {
+                break;
+            }
+
+            int train;
+            int stop;
+            int arrival;
+            if (late) {
+                int connection = delayed.cursor++;
+                train = delayed.train[connection];
+                day = delayed.day[connection];
+                stop = delayed.stop[connection];
+                arrival = delayed.arrival[connection];
+            } else {
+                int connection = cursor[day]++;
+                train = timetable.connectionTrain(connection);
+                if ((timetable.operatingDays(train) & dayBits[day]) == 0 || delayed.delay(day, train) != null) {
+                    continue;
+                }
+                stop = timetable.connectionStop(connection);
+                arrival = timetable.stopArrival(stop + 1) + (day - 1) * TimeMath.MINUTES_PER_DAY;
+            }
+            int from = timetable.stopStation(stop);
+            int to = timetable.stopStation(stop + 1);
+            int instance = train * DAY_OFFSETS + day;
+
+            for (int round = 0; round < rounds; round++) {
+                int trip = round * instances + instance;
+
+                int boardFare = INFINITY;
+                int boardLabel = NONE;
+                if (round == 0) {
+                    if (from == source) {
+                        boardFare = -timetable.cumulativeFare(stop);
+                    }
+                } else {
+                    for (int label = bagHead[(round - 1) * stations + from]; label != NONE; label = labels.next[label]) {
+                        if (labels.instance[label] == instance) {
+                            continue;
+                        }
+                        int wait = departure - labels.arrival[label];
+                        if (wait < options.minLayoverMinutes() || wait > options.maxLayoverMinutes()) {
+                            continue;
+                        }
+                        int fare = labels.fare[label] - timetable.cumulativeFare(stop);
+                        if (fare < boardFare) {
+                            boardFare = fare;
+                            boardLabel = label;
+                        }
+                    }
+                }
+                if (boardFare < tripFare[trip]) {
+                    tripFare[trip] = boardFare;
+                    tripBoardLabel[trip] = boardLabel;
+                    tripBoardStop[trip] = stop;
+                }
+                if (tripFare[trip] == INFINITY || to == source) {
+                    continue;
+                }
+                // Labels away from the target are only worth keeping if another transfer is allowed
+                if (to != target && round == rounds - 1) {
+                    continue;
+                }
+
+                int fare = tripFare[trip] + timetable.cumulativeFare(stop + 1);
+                Window window = to == target ? Window.TERMINAL : layover;
+                if (dominated(bagHead, labels, stations, to, round, arrival, fare, window)
+                        || (to != target
+                        && dominated(bagHead, labels, stations, target, round, arrival, fare, Window.TERMINAL))) {
+                    continue;
+                }
+                int label = labels.add(arrival, fare, instance, tripBoardStop[trip], stop + 1, tripBoardLabel[trip]);
+                insert(bagHead, labels, round * stations + to, label, window);
+            }
+        }
+
+        return collect(bagHead, labels, stations, target, rounds, options.maxResults(), delayed);
+    }
+
+    /**
+     * The connections of the runs delayed on the three origin days of the scan, at their delayed
+     * times and sorted by departure, from the first one leaving at or after earliestDeparture.
+     */
+    private Delayed delayed(LocalDate date, DelayOverlay delays, int[] dayBits, int earliestDeparture) {
+        Delayed delayed = new Delayed();
+        if (delays.isEmpty()) {
+            return delayed;
+        }
+        List<int[]> runs = new ArrayList<>();
+        int count = 0;
+        for (int day = 0; day < DAY_OFFSETS; day++) {
+            Map<String, Delay> runDelays = delays.delays(date.plusDays(day - 1L));
+            for (Map.Entry<String, Delay> entry : runDelays.entrySet()) {
+                int train = timetable.trainId(entry.getKey());
+                if (train < 0 || (timetable.operatingDays(train) & dayBits[day]) == 0) {
+                    continue;
+                }
+                if (delayed.runs[day] == null) {
+                    delayed.runs[day] = new Delay[timetable.trainCount()];
+                }
+                delayed.runs[day][train] = entry.getValue();
+                runs.add(new int[]{train, day});
+                count += timetable.lastStop(train) - timetable.firstStop(train);
+            }
+        }
+
+        int[] departure = new int[count];
+        int[] arrival = new int[count];
+        int[] stopOf = new int[count];
+        int[] dayOf = new int[count];
+        int[] trainOf = new int[count];
+        long[] keys = new long[count];
+        int k = 0;
+        for (int[] run : runs) {
+            int train = run[0];
+            int day = run[1];
+            int offset = (day - 1) * TimeMath.MINUTES_PER_DAY;
+            Delay delay = delayed.runs[day][train];
+            int late = delay.at(timetable, train, timetable.firstStop(train));
+            for (int stop = timetable.firstStop(train); stop < timetable.lastStop(train); stop++) {
+                int nextLate = delay.at(timetable, train, stop + 1);
+                departure[k] = timetable.stopDeparture(stop) + late + offset;
+                arrival[k] = Math.max(timetable.stopArrival(stop + 1) + nextLate + offset, departure[k]);
+                stopOf[k] = stop;
+                dayOf[k] = day;
+                trainOf[k] = train;
+                keys[k] = ((long) departure[k] << 32) | k;
+                late = nextLate;
+                k++;
+            }
+        }
+        Arrays.sort(keys);
+        delayed.departure = new int[count];
+        delayed.arrival = new int[count];
+        delayed.stop = new int[count];
+        delayed.day = new int[count];
+        delayed.train = new int[count];
+        for (int c = 0; c < count; c++) {
+            int index = (int) keys[c];
+            delayed.departure[c] = departure[index];
+            delayed.arrival[c] = arrival[index];
+            delayed.stop[c] = stopOf[index];
+            delayed.day[c] = dayOf[index];
+            delayed.train[c] = trainOf[index];
+            if (departure[index] < earliestDeparture) {
+                delayed.cursor = c + 1;
+            }
+        }
+        delayed.size = count;
+        return delayed;
+    }
+
+    /**
+     * True when some label at the station in this or an earlier round is at least as good on
+     * arrival and fare and can catch every departure the new label could.
+     */
+    private static boolean dominated(int[] bagHead, Labels labels, int stations, int station, int round,
+                                     int arrival, int fare, Window window) {
+        for (int r = 0; r <= round; r++) {
+            for (int label = bagHead[r * stations + station]; label != NONE; label = labels.next[label]) {
+                if (labels.arrival[label] <= arrival && labels.fare[label] <= fare
+                        && window.covers(labels.arrival[label], arrival)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** Prepends the label and unlinks same-round labels it dominates. */
+    private static void insert(int[] bagHead, Labels labels, int bag, int label, Window window) {
+        int previous = NONE;
+        int current = bagHead[bag];
+        while (current != NONE) {
+            int next = labels.next[current];
+            if (labels.arrival[label] <= labels.arrival[current] && labels.fare[label] <= labels.fare[current]
+                    && window.covers(labels.arrival[label], labels.arrival[current])) {
+                if (previous == NONE) {
+                    bagHead[bag] = next;
+                } else {
+                    labels.next[previous] = next;
+                }
+            } else {
+                previous = current;
+            }
+            current = next;
+        }
+        labels.next[label] = bagHead[bag];
+        bagHead[bag] = label;
+    }
+
+    private List<PlannedJourney> collect(int[] bagHead, Labels labels, int stations, int target, int rounds,
+                                         int maxResults, Delayed delayed) {
+        List<int[]> candidates = new ArrayList<>();
+        for (int round = 0; round < rounds; round++) {
+            for (int label = bagHead[round * stations + target]; label != NONE; label = labels.next[label]) {
+                candidates.add(new int[]{label, round});
+            }
+        }
+
+        List<PlannedJourney> journeys = new ArrayList<>();
+        for (int[] candidate : candidates) {
+            int label = candidate[0];
+            boolean dominated = false;
+            for (int[] other : candidates) {
+                int o = other[0];
+                if (o == label) {
+                    continue;
+                }
+                boolean noWorse = labels.arrival[o] <= labels.arrival[label]
+                        && labels.fare[o] <= labels.fare[label] && other[1] <= candidate[1];
+                boolean better = labels.arrival[o] < labels.arrival[label]
+                        || labels.fare[o] < labels.fare[label] || other[1] < candidate[1];
+                if (noWorse && (better || o < label)) {
+                    dominated = true;
+                    break;
+                }
+            }
+            if (!dominated) {
+                journeys.add(reconstruct(labels, label, delayed));
+            }
+        }
+
+        journeys.sort(Comparator.comparingInt(PlannedJourney::arrival)
+                .thenComparingInt(PlannedJourney::transfers)
+                .thenComparingInt(PlannedJourney::farePaise));
+        return journeys.size() > maxResults ? List.copyOf(journeys.subList(0, maxResults)) : journeys;
+    }
+
+    private PlannedJourney reconstruct(Labels labels, int last, Delayed delayed) {
+        List<PlannedLeg> legs = new ArrayList<>();
+        for (int label = last; label != NONE; label = labels.previous[label]) {
+            int instance = labels.instance[label];
+            int train = instance / DAY_OFFSETS;
+            int day = instance % DAY_OFFSETS;
+            int board = labels.boardStop[label];
+            Delay delay = delayed.delay(day, train);
+            int departure = timetable.stopDeparture(board) + (day - 1) * TimeMath.MINUTES_PER_DAY
+                    + (delay == null ? 0 : delay.at(timetable, train, board));
+            legs.add(new PlannedLeg(train, day - 1, board, labels.alightStop[label], departure,
+                    labels.arrival[label], delay == null ? 0 : delay.at(timetable, train, labels.alightStop[label])));
+        }
+        Collections.reverse(legs);
+        return new PlannedJourney(legs.get(0).departure(), labels.arrival[last], legs.size() - 1, labels.fare[last],
+                List.copyOf(legs));
+    }
+
+    /**
+     * Departures a label at a station can catch: up to maxLayover minutes after its arrival and
+     * no later than the horizon. Nothing is boarded at the target, so there any arrival covers.
+     */
+    private record Window(int maxLayover, long horizon) {
+
+        static final Window TERMINAL = new Window(Integer.MAX_VALUE, Long.MAX_VALUE);
+
+        /** True when a label arriving at earlier can catch every departure one arriving at later can. */
+        boolean covers(int earlier, int later) {
+            return this == TERMINAL || Math.min((long) earlier + maxLayover, horizon)
+                    >= Math.min((long) later + maxLayover, horizon);
+        }
+    }
+
+    /**
+     * Search parameters, all in minutes; earliestDeparture is measured from midnight of the query date.
+     */
+    public record ScanOptions(int earliestDeparture, int minLayoverMinutes, int maxLayoverMinutes,
+                              int maxTransfers, int horizonMinutes, int maxResults) {
+    }
+
+    /**
+     * One train ridden from boardStop to alightStop (flattened train-stop indexes);
+     * dayOffset is the origin day of the train relative to the query date. departure and arrival
+     * are minutes from midnight of the query date with the run's delay applied, and
+     * delayMinutes is how late the run reaches alightStop.
+     */
+    public record PlannedLeg(int train, int dayOffset, int boardStop, int alightStop, int departure, int arrival,
+                             int delayMinutes) {
+    }
+
+    /**
+     * A Pareto-optimal journey; departure and arrival are minutes from midnight of the query date.
+     */
+    public record PlannedJourney(int departure, int arrival, int transfers, int farePaise, List<PlannedLeg> legs) {
+    }
+
+    /** Connections of delayed runs for one scan, and the delay of each run by origin day and train. */
+    private static final class Delayed {
+        final Delay[][] runs = new Delay[DAY_OFFSETS][];
+        int[] departure;
+        int[] arrival;
+        int[] stop;
+        int[] day;
+        int[] train;
+        int size;
+        int cursor;
+
+        Delay delay(int day, int train) {
+            return runs[day] == null ? null : runs[day][train];
+        }
+    }
+
+    /** Growable label pool in parallel primitive arrays. */
+    private static final class Labels {
+        int[] arrival = new int[256];
+        int[] fare = new int[256];
+        int[] instance = new int[256];
+        int[] boardStop = new int[256];
+        int[] alightStop = new int[256];
+        int[] previous = new int[256];
+        int[] next = new int[256];
+        int size;
+
+        int add(int arrivalMinute, int farePaise, int tripInstance, int board, int alight, int previousLabel) {
+            if (size == arrival.length) {
+                int capacity = size * 2;
+                arrival = Arrays.copyOf(arrival, capacity);
+                fare = Arrays.copyOf(fare, capacity);
+                instance = Arrays.copyOf(instance, capacity);
+                boardStop = Arrays.copyOf(boardStop, capacity);
+                alightStop = Arrays.copyOf(alightStop, capacity);
+                previous = Arrays.copyOf(previous, capacity);
+                next = Arrays.copyOf(next, capacity);
+            }
+            arrival[size] = arrivalMinute;
+            fare[size] = farePaise;
+            instance[size] = tripInstance;
+            boardStop[size] = board;
+            alightStop[size] = alight;
+            previous[size] = previousLabel;
+            next[size] = NONE;
+            return size++;
+        }
+    }
+}
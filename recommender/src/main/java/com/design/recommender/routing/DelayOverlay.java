@@ -0,0 +1,94 @@
+package com.design.recommender.routing;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reported delays of train runs, keyed by train number and the date the run leaves its origin.
+ *
+ * Immutable: with and since return a new overlay, so the planner swaps it copy-on-write and a
+ * scan reads one consistent set of delays on top of the static timetable. A delay is known at
+ * the origin and at the terminus; stops in between are interpolated by scheduled time.
+ */
+public final class DelayOverlay {
+
+    private static final DelayOverlay EMPTY = new DelayOverlay(Map.of());
+
+    private final Map<LocalDate, Map<String, Delay>> byDate;
+
+    private DelayOverlay(Map<LocalDate, Map<String, Delay>> byDate) {
+        this.byDate = byDate;
+    }
+
+    public static DelayOverlay empty() {
+        return EMPTY;
+    }
+
+    public boolean isEmpty() {
+        return byDate.isEmpty();
+    }
+
+    /**
+     * Delayed runs leaving their origin on the date, by train number.
+     */
+    public Map<String, Delay> delays(LocalDate date) {
+        return byDate.getOrDefault(date, Map.of());
+    }
+
+    /** The delay of one run, or null when it runs on time. */
+    public Delay delay(String trainNumber, LocalDate date) {
+        return delays(date).get(trainNumber);
+    }
+
+    /**
+     * This overlay with the delay of one run replaced; a null delay clears it.
+     */
+    public DelayOverlay with(String trainNumber, LocalDate date, Delay delay) {
+        Map<String, Delay> runs = new HashMap<>(delays(date));
+        if (delay == null) {
+            runs.remove(trainNumber);
+        } else {
+            runs.put(trainNumber, delay);
+        }
+        Map<LocalDate, Map<String, Delay>> next = new HashMap<>(byDate);
+        if (runs.isEmpty()) {
+            next.remove(date);
+        } else {
+            next.put(date, Map.copyOf(runs));
+        }
+        return new DelayOverlay(Map.copyOf(next));
+    }
+
+    /**
+     * This overlay without the runs that left their origin before the given date.
+     */
+    public DelayOverlay since(LocalDate oldest) {
+        if (byDate.keySet().stream().noneMatch(date -> date.isBefore(oldest))) {
+            return this;
+        }
+        Map<LocalDate, Map<String, Delay>> next = new HashMap<>(byDate);
+        next.keySet().removeIf(date -> date.isBefore(oldest));
+        return new DelayOverlay(Map.copyOf(next));
+    }
+
+    /**
+     * Minutes a run is late at its origin and at its terminus.
+     */
+    public record Delay(int departureMinutes, int arrivalMinutes) {
+
+        /**
+         * Minutes the run is late at one stop of the train, interpolated between origin and
+         * terminus by the stop's scheduled arrival.
+         */
+        public int at(Timetable timetable, int train, int stop) {
+            int start = timetable.stopDeparture(timetable.firstStop(train));
+            int end = timetable.stopArrival(timetable.lastStop(train));
+            if (departureMinutes == arrivalMinutes || end <= start) {
+                return departureMinutes;
+            }
+            int time = Math.max(start, Math.min(end, timetable.stopArrival(stop)));
+            return departureMinutes + (int) ((long) (arrivalMinutes - departureMinutes) * (time - start) / (end - start));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.design.recommender.routing;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.Locale;
+
+/**
+ * Minute and operating-day arithmetic shared by the timetable loader and the scanner.
+ */
+public final class TimeMath {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+    public static final int ALL_DAYS = 0b111_1111;
+
+    private TimeMath() {
+    }
+
+    public static int minuteOfDay(LocalTime time) {
+        return time == null ? 0 : time.getHour() * 60 + time.getMinute();
+    }
+
+    /**
+     * Parses "H:mm", "HH:mm" or "HH:mm:ss" into a minute of the day; blank means -1.
+     * Seconds are ignored.
+     */
+    public static int parseMinuteOfDay(String time) {
+        if (time == null || time.isBlank()) {
+            return -1;
+        }
+        String value = time.trim();
+        int colon = value.indexOf(':');
+        if (colon < 1 || colon > 2 || value.length() < colon + 3) {
+            throw new IllegalArgumentException("Invalid time: " + time);
+        }
+        int hours = digits(value, 0, colon, time);
+        int minutes = digits(value, colon + 1, colon + 3, time);
+        if (value.length() > colon + 3 && value.charAt(colon + 3) != ':') {
+            throw new IllegalArgumentException("Invalid time: " + time);
+        }
+        if (hours > 23 || minutes > 59) {
+            throw new IllegalArgumentException("Invalid time: " + time);
+        }
+        return hours * 60 + minutes;
+    }
+
+    private static int digits(String value, int from, int to, String original) {
+        int result = 0;
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("Invalid time: " + original);
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    /**
+     * Moves a minute-of-day forward by whole days until it is not earlier than notBefore.
+     */
+    public static int rollForward(int minuteOfDay, int notBefore) {
+        int minute = minuteOfDay + (notBefore / MINUTES_PER_DAY) * MINUTES_PER_DAY;
+        return minute < notBefore ? minute + MINUTES_PER_DAY : minute;
+    }
+
+    /**
+     * Parses "MON,TUE,..." into a bitmask with bit (dayOfWeek - 1) set. Blank means every day.
+     */
+    public static int parseOperatingDays(String operatingDays) {
+        if (operatingDays == null || operatingDays.isBlank()) {
+            return ALL_DAYS;
+        }
+        int mask = 0;
+        for (String token : operatingDays.split(",")) {
+            String day = token.trim().toUpperCase(Locale.ROOT);
+            if (day.length() < 3) {
+                continue;
+            }
+            for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+                if (dayOfWeek.name().startsWith(day)) {
+                    mask |= dayBit(dayOfWeek);
+                }
+            }
+        }
+        return mask == 0 ? ALL_DAYS : mask;
+    }
+
+    public static int dayBit(DayOfWeek dayOfWeek) {
+        return 1 << (dayOfWeek.getValue() - 1);
+    }
+
+    public static String normalizeStation(String station) {
+        return station.trim().toUpperCase(Locale.ROOT);
+    }
+}
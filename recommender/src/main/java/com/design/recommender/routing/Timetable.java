@@ -0,0 +1,297 @@
+package com.design.recommender.routing;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable timetable packed into flat primitive arrays.
+ *
+ * Stations are interned to dense int ids by normalised name (codes in train_stations carry a
+ * per-train order suffix, so names are the only key shared between trains). Every pair of
+ * consecutive stops of a train becomes one elementary connection; connections are sorted by
+ * departure minute, measured from midnight of the day the train leaves its origin.
+ * Fares are kept in paise as cumulative values per train stop.
+ */
+public final class Timetable {
+
+    private final String[] stationNames;
+    private final Map<String, Integer> stationIds;
+
+    private final String[] trainNumbers;
+    private final Map<String, Integer> trainIds;
+    private final String[] trainNames;
+    private final int[] trainOperatingDays;
+    /** First index into the flattened train-stop arrays for each train, plus a sentinel. */
+    private final int[] trainStopOffset;
+
+    private final int[] stopStation;
+    private final int[] stopArrival;
+    private final int[] stopDeparture;
+    private final int[] stopCumulativeFare;
+
+    private final int[] connTrain;
+    /** Index into the flattened train-stop arrays of the departure stop; the arrival stop is the next one. */
+    private final int[] connStop;
+    private final int[] connDeparture;
+
+    private Timetable(String[] stationNames, Map<String, Integer> stationIds, String[] trainNumbers,
+                      String[] trainNames, int[] trainOperatingDays, int[] trainStopOffset, int[] stopStation,
+                      int[] stopArrival, int[] stopDeparture, int[] stopCumulativeFare,
+                      int[] connTrain, int[] connStop, int[] connDeparture) {
+        this.stationNames = stationNames;
+        this.stationIds = stationIds;
+        this.trainNumbers = trainNumbers;
+        Map<String, Integer> ids = new HashMap<>(trainNumbers.length * 2);
+        for (int train = 0; train < trainNumbers.length; train++) {
+            ids.putIfAbsent(trainNumbers[train], train);
+        }
+        this.trainIds = ids;
+        this.trainNames = trainNames;
+        this.trainOperatingDays = trainOperatingDays;
+        this.trainStopOffset = trainStopOffset;
+        this.stopStation = stopStation;
+        this.stopArrival = stopArrival;
+        this.stopDeparture = stopDeparture;
+        this.stopCumulativeFare = stopCumulativeFare;
+        this.connTrain = connTrain;
+        this.connStop = connStop;
+        this.connDeparture = connDeparture;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static Timetable empty() {
+        return new Builder().build();
+    }
+
+    /** Station id for a name, or -1 when unknown. */
+    public int stationId(String stationName) {
+        if (stationName == null) {
+            return -1;
+        }
+        Integer id = stationIds.get(TimeMath.normalizeStation(stationName));
+        return id == null ? -1 : id;
+    }
+
+    public String stationName(int station) {
+        return stationNames[station];
+    }
+
+    public int stationCount() {
+        return stationNames.length;
+    }
+
+    public int trainCount() {
+        return trainNumbers.length;
+    }
+
+    public int connectionCount() {
+        return connTrain.length;
+    }
+
+    /** Train id for a train number, or -1 when unknown. */
+    public int trainId(String trainNumber) {
+        Integer id = trainNumber == null ? null : trainIds.get(trainNumber);
+        return id == null ? -1 : id;
+    }
+
+    public String trainNumber(int train) {
+        return trainNumbers[train];
+    }
+
+    public String trainName(int train) {
+        return trainNames[train];
+    }
+
+    public int operatingDays(int train) {
+        return trainOperatingDays[train];
+    }
+
+    public int firstStop(int train) {
+        return trainStopOffset[train];
+    }
+
+    public int lastStop(int train) {
+        return trainStopOffset[train + 1] - 1;
+    }
+
+    public int stopStation(int stop) {
+        return stopStation[stop];
+    }
+
+    public int stopArrival(int stop) {
+        return stopArrival[stop];
+    }
+
+    public int stopDeparture(int stop) {
+        return stopDeparture[stop];
+    }
+
+    public int cumulativeFare(int stop) {
+        return stopCumulativeFare[stop];
+    }
+
+    public int connectionTrain(int connection) {
+        return connTrain[connection];
+    }
+
+    public int connectionStop(int connection) {
+        return connStop[connection];
+    }
+
+    public int connectionDeparture(int connection) {
+        return connDeparture[connection];
+    }
+
+    /** First connection departing at or after the given minute. */
+    public int firstConnectionAtOrAfter(int minute) {
+        int low = 0;
+        int high = connDeparture.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (connDeparture[mid] < minute) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Collects trains stop by stop. Stop minutes must already be rolled forward so they never decrease.
+     */
+    public static final class Builder {
+        private final Map<String, Integer> stationIds = new HashMap<>();
+        private String[] stationNames = new String[64];
+
+        private String[] trainNumbers = new String[64];
+        private String[] trainNames = new String[64];
+        private int[] trainOperatingDays = new int[64];
+        private int[] trainStopOffset = new int[65];
+        private int trainCount;
+
+        private int[] stopStation = new int[256];
+        private int[] stopArrival = new int[256];
+        private int[] stopDeparture = new int[256];
+        private double[] stopDistance = new double[256];
+        private int stopCount;
+
+        private int[] trainFarePaise = new int[64];
+
+        private Builder() {
+        }
+
+        /**
+         * Starts a new train. fullRouteFarePaise is the cheapest class fare for the whole run and is
+         * spread over the stops in proportion to distance.
+         */
+        public Builder addTrain(String trainNumber, String trainName, int operatingDaysMask, int fullRouteFarePaise) {
+            closeTrain();
+            if (trainCount == trainNumbers.length) {
+                int size = trainCount * 2;
+                trainNumbers = Arrays.copyOf(trainNumbers, size);
+                trainNames = Arrays.copyOf(trainNames, size);
+                trainOperatingDays = Arrays.copyOf(trainOperatingDays, size);
+                trainFarePaise = Arrays.copyOf(trainFarePaise, size);
+                trainStopOffset = Arrays.copyOf(trainStopOffset, size + 1);
+            }
+            trainNumbers[trainCount] = trainNumber;
+            trainNames[trainCount] = trainName;
+            trainOperatingDays[trainCount] = operatingDaysMask;
+            trainFarePaise[trainCount] = fullRouteFarePaise;
+            trainStopOffset[trainCount] = stopCount;
+            trainCount++;
+            return this;
+        }
+
+        public Builder addStop(String stationName, int arrivalMinute, int departureMinute, double distanceKm) {
+            if (trainCount == 0) {
+                throw new IllegalStateException("addTrain must be called before addStop");
+            }
+            if (stopCount == stopStation.length) {
+                int size = stopCount * 2;
+                stopStation = Arrays.copyOf(stopStation, size);
+                stopArrival = Arrays.copyOf(stopArrival, size);
+                stopDeparture = Arrays.copyOf(stopDeparture, size);
+                stopDistance = Arrays.copyOf(stopDistance, size);
+            }
+            stopStation[stopCount] = intern(stationName);
+            stopArrival[stopCount] = arrivalMinute;
+            stopDeparture[stopCount] = Math.max(departureMinute, arrivalMinute);
+            stopDistance[stopCount] = distanceKm;
+            stopCount++;
+            return this;
+        }
+
+        public Timetable build() {
+            closeTrain();
+            trainStopOffset[trainCount] = stopCount;
+
+            int[] cumulativeFare = new int[stopCount];
+            int connections = 0;
+            for (int train = 0; train < trainCount; train++) {
+                int first = trainStopOffset[train];
+                int last = trainStopOffset[train + 1] - 1;
+                connections += Math.max(0, last - first);
+                double totalDistance = stopDistance[last] - stopDistance[first];
+                int stops = last - first;
+                for (int stop = first; stop <= last; stop++) {
+                    double share = totalDistance > 0
+                            ? (stopDistance[stop] - stopDistance[first]) / totalDistance
+                            : stops == 0 ? 0 : (double) (stop - first) / stops;
+                    cumulativeFare[stop] = (int) Math.round(trainFarePaise[train] * share);
+                }
+            }
+
+            // Sort connections by departure through a packed (departure << 32 | stop) key
+            long[] keys = new long[connections];
+            int[] trainOfStop = new int[stopCount];
+            int k = 0;
+            for (int train = 0; train < trainCount; train++) {
+                for (int stop = trainStopOffset[train]; stop < trainStopOffset[train + 1]; stop++) {
+                    trainOfStop[stop] = train;
+                    if (stop < trainStopOffset[train + 1] - 1) {
+                        keys[k++] = ((long) stopDeparture[stop] << 32) | stop;
+                    }
+                }
+            }
+            Arrays.sort(keys);
+            int[] connTrain = new int[connections];
+            int[] connStop = new int[connections];
+            int[] connDeparture = new int[connections];
+            for (int c = 0; c < connections; c++) {
+                int stop = (int) keys[c];
+                connStop[c] = stop;
+                connTrain[c] = trainOfStop[stop];
+                connDeparture[c] = (int) (keys[c] >>> 32);
+            }
+
+            return new Timetable(Arrays.copyOf(stationNames, stationIds.size()), Map.copyOf(stationIds),
+                    Arrays.copyOf(trainNumbers, trainCount), Arrays.copyOf(trainNames, trainCount),
+                    Arrays.copyOf(trainOperatingDays, trainCount), Arrays.copyOf(trainStopOffset, trainCount + 1),
+                    Arrays.copyOf(stopStation, stopCount), Arrays.copyOf(stopArrival, stopCount),
+                    Arrays.copyOf(stopDeparture, stopCount), cumulativeFare, connTrain, connStop, connDeparture);
+        }
+
+        private void closeTrain() {
+            if (trainCount > 0) {
+                trainStopOffset[trainCount] = stopCount;
+            }
+        }
+
+        private int intern(String stationName) {
+            return stationIds.computeIfAbsent(TimeMath.normalizeStation(stationName), key -> {
+                int id = stationIds.size();
+                if (id == stationNames.length) {
+                    stationNames = Arrays.copyOf(stationNames, id * 2);
+                }
+                stationNames[id] = stationName.trim();
+                return id;
+            });
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.design.recommender.routing;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Time;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads trains, train_stations and the cheapest coach fare per train with three flat
+ * JDBC queries and packs them into a Timetable. No JPA entities are materialised.
+ */
+@Component
+@RequiredArgsConstructor
+public class TimetableLoader {
+
+    private static final String TRAINS_SQL = """
+            SELECT id, train_number, train_name, source_station, destination_station,
+                   departure_time, arrival_time, journey_duration_minutes, operating_days
+            FROM trains
+            WHERE is_active IS NOT FALSE
+            ORDER BY id
+            """;
+
+    private static final String STOPS_SQL = """
+            SELECT train_id, station_name, arrival_time, departure_time, distance_from_source
+            FROM train_stations
+            ORDER BY train_id, station_order
+            """;
+
+    private static final String FARES_SQL = """
+            SELECT train_id, MIN(base_fare) AS fare
+            FROM coaches
+            GROUP BY train_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Timetable load() {
+        Map<Long, List<StopRow>> stopsByTrain = new HashMap<>();
+        jdbcTemplate.query(STOPS_SQL, rs -> {
+            stopsByTrain.computeIfAbsent(rs.getLong("train_id"), id -> new ArrayList<>())
+                    .add(new StopRow(rs.getString("station_name"), minuteOf(rs.getTime("arrival_time")),
+                            minuteOf(rs.getTime("departure_time")), toDouble(rs.getBigDecimal("distance_from_source"))));
+        });
+
+        Map<Long, Integer> faresByTrain = new HashMap<>();
+        jdbcTemplate.query(FARES_SQL, rs -> {
+            BigDecimal fare = rs.getBigDecimal("fare");
+            faresByTrain.put(rs.getLong("train_id"), fare == null ? 0 : fare.movePointRight(2).intValue());
+        });
+
+        Timetable.Builder builder = Timetable.builder();
+        jdbcTemplate.query(TRAINS_SQL, rs -> {
+            long trainId = rs.getLong("id");
+            builder.addTrain(rs.getString("train_number"), rs.getString("train_name"),
+                    TimeMath.parseOperatingDays(rs.getString("operating_days")),
+                    faresByTrain.getOrDefault(trainId, 0));
+
+            String origin = rs.getString("source_station");
+            String terminus = rs.getString("destination_station");
+            int originDeparture = minuteOf(rs.getTime("departure_time"));
+            int duration = rs.getInt("journey_duration_minutes");
+            List<StopRow> halts = stopsByTrain.getOrDefault(trainId, List.of());
+
+            double lastDistance = 0;
+            int previous = originDeparture;
+            boolean hasOrigin = !halts.isEmpty() && sameStation(halts.get(0).stationName(), origin);
+            if (!hasOrigin) {
+                builder.addStop(origin, originDeparture, originDeparture, 0);
+            }
+            for (StopRow halt : halts) {
+                int arrival = TimeMath.rollForward(halt.arrivalMinute(), previous);
+                int departure = TimeMath.rollForward(halt.departureMinute(), arrival);
+                builder.addStop(halt.stationName(), arrival, departure, halt.distanceKm());
+                previous = departure;
+                lastDistance = halt.distanceKm();
+            }
+            boolean hasTerminus = !halts.isEmpty() && sameStation(halts.get(halts.size() - 1).stationName(), terminus);
+            if (!hasTerminus) {
+                int arrival = duration > 0
+                        ? originDeparture + duration
+                        : TimeMath.rollForward(minuteOf(rs.getTime("arrival_time")), previous);
+                arrival = Math.max(arrival, previous);
+                // train_stations has no row for the terminus, so extrapolate its distance at the average speed so far
+                double distance = previous > originDeparture
+                        ? lastDistance * (arrival - originDeparture) / (previous - originDeparture)
+                        : lastDistance;
+                builder.addStop(terminus, arrival, arrival, distance);
+            }
+        });
+        return builder.build();
+    }
+
+    private static boolean sameStation(String a, String b) {
+        return a != null && b != null && TimeMath.normalizeStation(a).equals(TimeMath.normalizeStation(b));
+    }
+
+    private static int minuteOf(Time time) {
+        return time == null ? 0 : TimeMath.minuteOfDay(time.toLocalTime());
+    }
+
+    private static double toDouble(BigDecimal value) {
+        return value == null ? 0 : value.doubleValue();
+    }
+
+    private record StopRow(String stationName, int arrivalMinute, int departureMinute, double distanceKm) {
+    }
+}
@@ -0,0 +1,114 @@
+package com.design.recommender.seed;
+
+import org.postgresql.copy.CopyIn;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+/**
+ * Buffers CSV rows for a PostgreSQL COPY ... FROM STDIN (FORMAT csv) and hands them to the
+ * driver in large chunks. Raw fields from a {@link CsvReader} are copied byte for byte.
+ */
+final class CopyWriter {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final CopyIn copyIn;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int length;
+    private boolean rowStarted;
+
+    CopyWriter(CopyIn copyIn) {
+        this.copyIn = copyIn;
+    }
+
+    CopyWriter raw(byte[] source, int from, int to) throws SQLException {
+        separator();
+        int remaining = to - from;
+        while (remaining > 0) {
+            if (length == buffer.length) {
+                flush();
+            }
+            int chunk = Math.min(remaining, buffer.length - length);
+            System.arraycopy(source, from, buffer, length, chunk);
+            length += chunk;
+            from += chunk;
+            remaining -= chunk;
+        }
+        return this;
+    }
+
+    CopyWriter number(long value) throws SQLException {
+        separator();
+        ensure(20);
+        if (value < 0) {
+            buffer[length++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = length + digits - 1; i >= length; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        length += digits;
+        return this;
+    }
+
+    /**
+     * A text value, quoted when it needs to be; empty text is written quoted so it is not NULL.
+     */
+    CopyWriter text(String value) throws SQLException {
+        boolean quote = value.isEmpty();
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        byte[] bytes = (quote ? '"' + value.replace("\"", "\"\"") + '"' : value).getBytes(StandardCharsets.UTF_8);
+        return raw(bytes, 0, bytes.length);
+    }
+
+    void endRow() throws SQLException {
+        ensure(1);
+        buffer[length++] = '\n';
+        rowStarted = false;
+    }
+
+    long finish() throws SQLException {
+        flush();
+        return copyIn.endCopy();
+    }
+
+    void cancel() {
+        try {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        } catch (SQLException ignored) {
+            // The connection is discarded with the failed load
+        }
+    }
+
+    private void separator() throws SQLException {
+        if (rowStarted) {
+            ensure(1);
+            buffer[length++] = ',';
+        }
+        rowStarted = true;
+    }
+
+    private void ensure(int bytes) throws SQLException {
+        if (length + bytes > buffer.length) {
+            flush();
+        }
+    }
+
+    private void flush() throws SQLException {
+        if (length > 0) {
+            copyIn.writeToCopy(buffer, 0, length);
+            length = 0;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.design.recommender.seed;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Streaming RFC 4180 reader that does not materialise fields.
+ *
+ * Each record is parsed in place in a reusable byte buffer and exposed as (start, end) offsets
+ * into it. Quoted fields keep their quotes and doubled-quote escapes, so a field can be copied
+ * verbatim into CSV output; only {@link #text(int)} and {@link #longValue(int)} decode one.
+ * Offsets are valid until the next call to {@link #next()}.
+ */
+final class CsvReader implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final InputStream in;
+    private byte[] buffer = new byte[BUFFER_SIZE];
+    private int limit;
+    private int position;
+    private boolean eof;
+
+    private int[] starts = new int[32];
+    private int[] ends = new int[32];
+    private int fields;
+    private long records;
+
+    CsvReader(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Advances to the next record, skipping blank lines; false at the end of the input.
+     */
+    boolean next() throws IOException {
+        while (true) {
+            int end = parse();
+            if (end < 0) {
+                if (eof) {
+                    return false;
+                }
+                fill();
+                continue;
+            }
+            position = end;
+            if (fields == 1 && starts[0] == ends[0]) {
+                continue;
+            }
+            records++;
+            return true;
+        }
+    }
+
+    int fields() {
+        return fields;
+    }
+
+    byte[] buffer() {
+        return buffer;
+    }
+
+    /**
+     * Raw start offset of a field, including its opening quote.
+     */
+    int start(int field) {
+        return starts[field];
+    }
+
+    int end(int field) {
+        return ends[field];
+    }
+
+    /**
+     * Unquoted and empty, which COPY reads as NULL.
+     */
+    boolean isNull(int field) {
+        return starts[field] == ends[field];
+    }
+
+    long longValue(int field) {
+        int from = starts[field];
+        int to = ends[field];
+        if (from < to && buffer[from] == '"') {
+            from++;
+            to--;
+        }
+        if (from >= to) {
+            throw new NumberFormatException("Empty number in record " + records);
+        }
+        boolean negative = buffer[from] == '-';
+        if (negative) {
+            from++;
+        }
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Invalid number in record " + records + ": " + text(field));
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    String text(int field) {
+        int from = starts[field];
+        int to = ends[field];
+        if (from == to || buffer[from] != '"') {
+            return new String(buffer, from, to - from, StandardCharsets.UTF_8);
+        }
+        String quoted = new String(buffer, from + 1, to - from - 2, StandardCharsets.UTF_8);
+        return quoted.indexOf('"') < 0 ? quoted : quoted.replace("\"\"", "\"");
+    }
+
+    String[] texts() {
+        String[] values = new String[fields];
+        for (int i = 0; i < fields; i++) {
+            values[i] = text(i);
+        }
+        return values;
+    }
+
+    /**
+     * Number of records returned so far, for error messages.
+     */
+    long records() {
+        return records;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Parses the record at the current position. Returns the offset after it, or -1 when the
+     * buffer ends inside the record and more input is needed.
+     */
+    private int parse() throws IOException {
+        fields = 0;
+        int i = position;
+        if (i >= limit) {
+            return -1;
+        }
+        while (true) {
+            int start = i;
+            if (i < limit && buffer[i] == '"') {
+                i++;
+                while (true) {
+                    if (i >= limit) {
+                        return eof ? malformed("unterminated quoted field") : -1;
+                    }
+                    if (buffer[i] == '"') {
+                        if (i + 1 >= limit && !eof) {
+                            return -1;
+                        }
+                        if (i + 1 < limit && buffer[i + 1] == '"') {
+                            i += 2;
+                            continue;
+                        }
+                        i++;
+                        break;
+                    }
+                    i++;
+                }
+            } else {
+                while (i < limit && buffer[i] != ',' && buffer[i] != '\n' && buffer[i] != '\r') {
+                    i++;
+                }
+                if (i >= limit && !eof) {
+                    return -1;
+                }
+            }
+            addField(start, i);
+            if (i >= limit) {
+                return i;
+            }
+            byte b = buffer[i];
+            if (b == ',') {
+                i++;
+                continue;
+            }
+            if (b == '\r') {
+                i++;
+                if (i >= limit && !eof) {
+                    return -1;
+                }
+                if (i < limit && buffer[i] == '\n') {
+                    i++;
+                }
+                return i;
+            }
+            if (b == '\n') {
+                return i + 1;
+            }
+            return malformed("unexpected character after quoted field");
+        }
+    }
+
+    private void addField(int start, int end) {
+        if (fields == starts.length) {
+            starts = Arrays.copyOf(starts, fields * 2);
+            ends = Arrays.copyOf(ends, fields * 2);
+        }
+        starts[fields] = start;
+        ends[fields] = end;
+        fields++;
+    }
+
+    /**
+     * Moves the unfinished record to the front of the buffer, growing it when the record alone
+     * fills it, and reads more input behind it.
+     */
+    private void fill() throws IOException {
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+        if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        int read = in.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            eof = true;
+        } else {
+            limit += read;
+        }
+    }
+
+    private int malformed(String reason) throws IOException {
+        throw new IOException("Malformed CSV after record " + records + ": " + reason);
+    }
+}
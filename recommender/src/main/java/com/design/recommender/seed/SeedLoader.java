@@ -0,0 +1,205 @@
+package com.design.recommender.seed;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk-loads the recommenderCSV seed dataset into an existing schema at startup.
+ *
+ * Tables are loaded parents first, in the foreign key order of ddl.sql. Each CSV is streamed
+ * through a {@link CsvReader} straight into a PostgreSQL COPY, one transaction per table, and
+ * the table's id sequence is moved past the loaded ids afterwards. With a scale above 1 every
+ * row is written once per copy (see {@link TablePlan}) to produce a proportionally larger
+ * dataset. Enabled with recommender.seed.enabled=true, e.g. as a command line argument.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "recommender.seed", name = "enabled", havingValue = "true")
+public class SeedLoader implements ApplicationRunner {
+
+    private static final String TABLE_COLUMNS_SQL = """
+            SELECT column_name
+            FROM information_schema.columns
+            WHERE table_schema = current_schema() AND table_name = ?
+            """;
+
+    private final DataSource dataSource;
+    private final ResourceLoader resourceLoader;
+    private final String location;
+    private final String ddlLocation;
+    private final int scale;
+    private final boolean truncate;
+
+    public SeedLoader(DataSource dataSource, ResourceLoader resourceLoader,
+                      @Value("${recommender.seed.location:classpath:scripts/recommenderCSV/}") String location,
+                      @Value("${recommender.seed.ddl:classpath:scripts/ddl.sql}") String ddlLocation,
+                      @Value("${recommender.seed.scale:1}") int scale,
+                      @Value("${recommender.seed.truncate:false}") boolean truncate) {
+        if (scale < 1 || scale > TablePlan.MAX_COPIES) {
+            throw new IllegalArgumentException("recommender.seed.scale must be between 1 and " + TablePlan.MAX_COPIES);
+        }
+        this.dataSource = dataSource;
+        this.resourceLoader = resourceLoader;
+        this.location = location.endsWith("/") ? location : location + "/";
+        this.ddlLocation = ddlLocation;
+        this.scale = scale;
+        this.truncate = truncate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        load();
+    }
+
+    public List<TableLoad> load() throws IOException, SQLException {
+        SeedSchema schema;
+        try (InputStream ddl = resourceLoader.getResource(ddlLocation).getInputStream()) {
+            schema = SeedSchema.parse(new String(ddl.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        Map<String, Resource> files = new LinkedHashMap<>();
+        for (String table : schema.tables()) {
+            Resource file = resourceLoader.getResource(location + table + ".csv");
+            if (file.exists()) {
+                files.put(table, file);
+            }
+        }
+        log.info("Seeding {} tables from {} at scale {}: {}", files.size(), location, scale, files.keySet());
+
+        List<TableLoad> loads = new ArrayList<>();
+        Map<String, Long> spans = new HashMap<>();
+        long started = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            PGConnection postgres = connection.unwrap(PGConnection.class);
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                if (truncate && !files.isEmpty()) {
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute("TRUNCATE " + String.join(", ", files.keySet()) + " RESTART IDENTITY CASCADE");
+                    }
+                    connection.commit();
+                }
+                for (Map.Entry<String, Resource> file : files.entrySet()) {
+                    TableLoad load = loadTable(connection, postgres, file.getKey(), file.getValue(), schema, spans);
+                    loads.add(load);
+                    log.info("Loaded {} rows into {} in {} ms ({} rows/s)",
+                            load.rows(), load.table(), load.millis(), load.rowsPerSecond());
+                }
+            } catch (IOException | SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+        long rows = loads.stream().mapToLong(TableLoad::rows).sum();
+        TableLoad total = new TableLoad("all tables", rows, (System.nanoTime() - started) / 1_000_000);
+        log.info("Seed complete: {} rows in {} ms ({} rows/s)", total.rows(), total.millis(), total.rowsPerSecond());
+        return loads;
+    }
+
+    private TableLoad loadTable(Connection connection, PGConnection postgres, String table, Resource file,
+                                SeedSchema schema, Map<String, Long> spans) throws IOException, SQLException {
+        long started = System.nanoTime();
+        Set<String> tableColumns = tableColumns(connection, table);
+        if (tableColumns.isEmpty()) {
+            throw new IllegalStateException("Table " + table + " does not exist; apply ddl.sql before seeding");
+        }
+        spans.put(table, scale > 1 ? maxId(file) : 0L);
+
+        long rows;
+        try (CsvReader reader = new CsvReader(file.getInputStream())) {
+            if (!reader.next()) {
+                return new TableLoad(table, 0, 0);
+            }
+            TablePlan plan = TablePlan.of(table, reader.texts(), tableColumns, schema.foreignKeys(table), spans);
+            CopyWriter writer = new CopyWriter(postgres.getCopyAPI().copyIn(plan.copySql()));
+            try {
+                while (reader.next()) {
+                    for (int copy = 0; copy < scale; copy++) {
+                        plan.write(reader, copy, writer);
+                    }
+                }
+                rows = writer.finish();
+            } catch (IOException | SQLException | RuntimeException e) {
+                writer.cancel();
+                throw e;
+            }
+        }
+        if (tableColumns.contains("id")) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SELECT setval(pg_get_serial_sequence('" + table + "', 'id'), MAX(id)) FROM "
+                        + table + " HAVING MAX(id) IS NOT NULL");
+            }
+        }
+        connection.commit();
+        return new TableLoad(table, rows, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private static Set<String> tableColumns(Connection connection, String table) throws SQLException {
+        Set<String> columns = new HashSet<>();
+        try (PreparedStatement statement = connection.prepareStatement(TABLE_COLUMNS_SQL)) {
+            statement.setString(1, table);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    columns.add(rs.getString(1).toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Largest id in the file: the distance between consecutive copies of the table.
+     */
+    private static long maxId(Resource file) throws IOException {
+        try (CsvReader reader = new CsvReader(file.getInputStream())) {
+            if (!reader.next()) {
+                return 0;
+            }
+            int idColumn = List.of(reader.texts()).indexOf("id");
+            if (idColumn < 0) {
+                return 0;
+            }
+            long max = 0;
+            while (reader.next()) {
+                if (idColumn < reader.fields() && !reader.isNull(idColumn)) {
+                    max = Math.max(max, reader.longValue(idColumn));
+                }
+            }
+            return max;
+        }
+    }
+
+    public record TableLoad(String table, long rows, long millis) {
+
+        public long rowsPerSecond() {
+            return millis == 0 ? rows * 1000 : rows * 1000 / millis;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.design.recommender.seed;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Tables and foreign keys read from ddl.sql, enough to load tables parents first and to know
+ * which columns point at which table. Only column-level REFERENCES clauses are recognised,
+ * which is the only form the ddl uses.
+ */
+final class SeedSchema {
+
+    private static final Pattern CREATE_TABLE =
+            Pattern.compile("^\\s*CREATE\\s+TABLE\\s+(?:IF\\s+NOT\\s+EXISTS\\s+)?(\\w+)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern COLUMN_REFERENCE =
+            Pattern.compile("^\\s*(\\w+)\\s+[^,]*?\\bREFERENCES\\s+(\\w+)\\s*\\(", Pattern.CASE_INSENSITIVE);
+    private static final Pattern END_OF_TABLE = Pattern.compile("^\\s*\\)\\s*;");
+
+    private final List<String> tables;
+    private final Map<String, Map<String, String>> foreignKeys;
+
+    private SeedSchema(List<String> tables, Map<String, Map<String, String>> foreignKeys) {
+        this.tables = tables;
+        this.foreignKeys = foreignKeys;
+    }
+
+    static SeedSchema parse(String ddl) {
+        Map<String, Map<String, String>> foreignKeys = new LinkedHashMap<>();
+        String current = null;
+        for (String line : ddl.split("\\R")) {
+            String code = stripComment(line);
+            Matcher create = CREATE_TABLE.matcher(code);
+            if (create.find()) {
+                current = create.group(1).toLowerCase(Locale.ROOT);
+                foreignKeys.put(current, new LinkedHashMap<>());
+                continue;
+            }
+            if (current == null) {
+                continue;
+            }
+            Matcher reference = COLUMN_REFERENCE.matcher(code);
+            if (reference.find()) {
+                foreignKeys.get(current).put(reference.group(1).toLowerCase(Locale.ROOT),
+                        reference.group(2).toLowerCase(Locale.ROOT));
+            }
+            if (END_OF_TABLE.matcher(code).find()) {
+                current = null;
+            }
+        }
+        return new SeedSchema(loadOrder(foreignKeys), foreignKeys);
+    }
+
+    /**
+     * Every table after the tables it references, otherwise in ddl order.
+     */
+    List<String> tables() {
+        return tables;
+    }
+
+    /**
+     * Column to referenced table.
+     */
+    Map<String, String> foreignKeys(String table) {
+        return foreignKeys.getOrDefault(table, Collections.emptyMap());
+    }
+
+    private static List<String> loadOrder(Map<String, Map<String, String>> foreignKeys) {
+        List<String> order = new ArrayList<>();
+        Set<String> done = new LinkedHashSet<>();
+        Set<String> visiting = new LinkedHashSet<>();
+        for (String table : foreignKeys.keySet()) {
+            visit(table, foreignKeys, done, visiting, order);
+        }
+        return List.copyOf(order);
+    }
+
+    private static void visit(String table, Map<String, Map<String, String>> foreignKeys, Set<String> done,
+                              Set<String> visiting, List<String> order) {
+        if (done.contains(table) || !foreignKeys.containsKey(table)) {
+            return;
+        }
+        if (!visiting.add(table)) {
+            throw new IllegalStateException("Foreign key cycle through " + table + " in ddl");
+        }
+        for (String parent : foreignKeys.get(table).values()) {
+            if (!parent.equals(table)) {
+                visit(parent, foreignKeys, done, visiting, order);
+            }
+        }
+        visiting.remove(table);
+        done.add(table);
+        order.add(table);
+    }
+
+    private static String stripComment(String line) {
+        int comment = line.indexOf("--");
+        return comment < 0 ? line : line.substring(0, comment);
+    }
+}
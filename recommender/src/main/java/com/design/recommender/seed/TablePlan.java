@@ -0,0 +1,134 @@
+package com.design.recommender.seed;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * How the columns of one CSV file map onto its table, and how a row is rewritten for each
+ * synthesized copy of the dataset.
+ *
+ * CSV columns the table does not have are dropped. Copy 0 is the file as-is. Copy n shifts
+ * the id by n times the table's id span and every foreign key by the span of the referenced
+ * table, so each copy is a self-contained replica of the original graph with the same value
+ * distributions. Unique business keys get a copy suffix that keeps their check constraints.
+ */
+final class TablePlan {
+
+    // Unique or cross-table string keys; all other text columns are copied unchanged
+    private static final Map<String, Set<String>> BUSINESS_KEYS = Map.of(
+            "users", Set.of("email", "contact"),
+            "trains", Set.of("train_number"),
+            "journeys", Set.of("booking_id"),
+            "tickets", Set.of("pnr_number", "external_booking_reference"),
+            "transactions", Set.of("transaction_id", "booking_id"),
+            "idempotency_keys", Set.of("idempotency_key", "entity_id"),
+            "seat_locks", Set.of("lock_key", "booking_id"),
+            "notifications", Set.of("related_entity_id"));
+
+    private static final int MAX_CONTACT_DIGITS = 15;
+    private static final int COPY_DIGITS = 3;
+
+    static final int MAX_COPIES = 1000; // Bounded by the three digits a copy adds to a contact number
+
+    private enum Rule {
+        PASS, SHIFT, KEY, EMAIL, CONTACT
+    }
+
+    private final String table;
+    private final List<String> columns = new ArrayList<>();
+    private final int[] sources;
+    private final Rule[] rules;
+    private final long[] spans;
+
+    private TablePlan(String table, int size) {
+        this.table = table;
+        this.sources = new int[size];
+        this.rules = new Rule[size];
+        this.spans = new long[size];
+    }
+
+    /**
+     * @param spans id span of every table loaded so far, including this one
+     */
+    static TablePlan of(String table, String[] header, Set<String> tableColumns, Map<String, String> foreignKeys,
+                        Map<String, Long> spans) {
+        List<Integer> kept = new ArrayList<>();
+        for (int i = 0; i < header.length; i++) {
+            if (tableColumns.contains(header[i].trim().toLowerCase(Locale.ROOT))) {
+                kept.add(i);
+            }
+        }
+        Set<String> keys = BUSINESS_KEYS.getOrDefault(table, Set.of());
+        TablePlan plan = new TablePlan(table, kept.size());
+        for (int k = 0; k < kept.size(); k++) {
+            int source = kept.get(k);
+            String column = header[source].trim().toLowerCase(Locale.ROOT);
+            plan.columns.add(column);
+            plan.sources[k] = source;
+            if (column.equals("id")) {
+                plan.rules[k] = Rule.SHIFT;
+                plan.spans[k] = spans.getOrDefault(table, 0L);
+            } else if (foreignKeys.containsKey(column)) {
+                plan.rules[k] = Rule.SHIFT;
+                plan.spans[k] = spans.getOrDefault(foreignKeys.get(column), 0L);
+            } else if (keys.contains(column)) {
+                plan.rules[k] = column.equals("email") ? Rule.EMAIL : column.equals("contact") ? Rule.CONTACT : Rule.KEY;
+            } else {
+                plan.rules[k] = Rule.PASS;
+            }
+        }
+        return plan;
+    }
+
+    List<String> columns() {
+        return columns;
+    }
+
+    String copySql() {
+        return "COPY " + table + " (" + String.join(", ", columns) + ") FROM STDIN WITH (FORMAT csv)";
+    }
+
+    void write(CsvReader row, int copy, CopyWriter out) throws SQLException {
+        byte[] buffer = row.buffer();
+        for (int k = 0; k < sources.length; k++) {
+            int field = sources[k];
+            if (field >= row.fields()) {
+                throw new IllegalStateException(table + ": record " + row.records() + " has " + row.fields()
+                        + " fields, expected at least " + (field + 1));
+            }
+            if (copy == 0 || rules[k] == Rule.PASS || row.isNull(field)) {
+                out.raw(buffer, row.start(field), row.end(field));
+                continue;
+            }
+            switch (rules[k]) {
+                case SHIFT -> out.number(row.longValue(field) + copy * spans[k]);
+                case KEY -> out.text(row.text(field) + "-S" + copy);
+                case EMAIL -> out.text(email(row.text(field), copy));
+                case CONTACT -> out.text(contact(row.text(field), copy));
+                default -> out.raw(buffer, row.start(field), row.end(field));
+            }
+        }
+        out.endRow();
+    }
+
+    private static String email(String email, int copy) {
+        int at = email.indexOf('@');
+        return at < 0 ? email + "+s" + copy : email.substring(0, at) + "+s" + copy + email.substring(at);
+    }
+
+    /**
+     * Originals carry a leading '+', copies are bare digits ending in the copy number, so the
+     * two never collide and both stay within 10 to 15 digits.
+     */
+    private static String contact(String contact, int copy) {
+        String digits = contact.startsWith("+") ? contact.substring(1) : contact;
+        if (digits.length() > MAX_CONTACT_DIGITS - COPY_DIGITS) {
+            digits = digits.substring(0, MAX_CONTACT_DIGITS - COPY_DIGITS);
+        }
+        return digits + String.format("%0" + COPY_DIGITS + "d", copy);
+    }
+}
@@ -1,9 +1,344 @@
 package com.design.recommender.services;
 
+import com.design.bookingplatform.dto.AvailabilityResponse;
+import com.design.bookingplatform.dto.CoachAvailabilityDTO;
+import com.design.bookingplatform.dto.StationStopDTO;
+import com.design.bookingplatform.dto.TrainDTO;
+import com.design.bookingplatform.dto.TrainScheduleDTO;
+import com.design.recommender.dto.TrainMatchDTO;
+import com.design.recommender.inventory.AvailabilityView;
+import com.design.recommender.routing.TimeMath;
+import com.design.recommender.routing.Timetable;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Direct-train search between two stations.
+ *
+ * Candidates come from the platform's route index and are resolved to their segment times and
+ * fares from the local timetable, or from the train's schedule when the timetable does not know
+ * the train. Trains outside the time window are dropped and the rest ranked by a static cost of
+ * travel time plus weighted fare; trains whose fare is unknown rank after every priced one, by
+ * travel time alone. Availability lookups then run concurrently in that order and
+ * can only add a penalty, so a scored train is emitted as soon as no pending lookup can beat it.
+ * The first matches reach the caller while slower lookups are still running, and the stream stops,
+ * cancelling outstanding lookups, after top-k matches.
+ */
+@Slf4j
+@Service
 public class BookingService {
 
-    public List<TrainDTO> matchTrainsByRoutes(String startStation, String destStation, String startTime, String destTime){
+    private static final String AVAILABLE = "AVAILABLE";
+    private static final String OTHER_CLASS = "OTHER_CLASS";
+    private static final String WAITLIST = "WAITLIST";
+    private static final String UNKNOWN = "UNKNOWN";
+
+    private static final Comparator<Candidate> CANDIDATE_ORDER = Comparator
+            .comparing((Candidate candidate) -> !candidate.priced())
+            .thenComparingDouble(Candidate::staticCost);
+    private static final Comparator<Scored> SCORED_ORDER = Comparator
+            .comparing((Scored scored) -> !scored.priced())
+            .thenComparingDouble(Scored::cost);
+
+    private final WebClientService webClientService;
+    private final RouteService routeService;
+    private final AvailabilityView availabilityView;
+
+    private final int topK;
+    private final int maxCandidates;
+    private final int availabilityConcurrency;
+    private final double minutesPerRupee;
+    private final int classMissPenaltyMinutes;
+    private final int waitlistPenaltyMinutes;
+
+    public BookingService(WebClientService webClientService, RouteService routeService, AvailabilityView availabilityView,
+                          @Value("${recommender.search.top-k:10}") int topK,
+                          @Value("${recommender.search.max-candidates:50}") int maxCandidates,
+                          @Value("${recommender.search.availability-concurrency:8}") int availabilityConcurrency,
+                          @Value("${recommender.search.minutes-per-rupee:0.1}") double minutesPerRupee,
+                          @Value("${recommender.search.class-miss-penalty-minutes:120}") int classMissPenaltyMinutes,
+                          @Value("${recommender.search.waitlist-penalty-minutes:600}") int waitlistPenaltyMinutes) {
+        this.webClientService = webClientService;
+        this.routeService = routeService;
+        this.availabilityView = availabilityView;
+        this.topK = topK;
+        this.maxCandidates = maxCandidates;
+        this.availabilityConcurrency = availabilityConcurrency;
+        this.minutesPerRupee = minutesPerRupee;
+        this.classMissPenaltyMinutes = classMissPenaltyMinutes;
+        this.waitlistPenaltyMinutes = waitlistPenaltyMinutes;
+    }
+
+    public Flux<TrainMatchDTO> matchTrainsByRoutes(String startStation, String destStation, String startTime, String destTime) {
+        return matchTrainsByRoutes(startStation, destStation, LocalDate.now(), startTime, destTime, null);
+    }
+
+    /**
+     * startTime is the earliest departure from startStation and destTime the latest arrival at
+     * destStation, both as "HH:mm" on the travel date; a destTime before startTime means the next
+     * day. Either may be blank. Matches are emitted best first.
+     */
+    public Flux<TrainMatchDTO> matchTrainsByRoutes(String startStation, String destStation, LocalDate date,
+                                                   String startTime, String destTime, String preferredClass) {
+        int earliest = TimeMath.parseMinuteOfDay(startTime);
+        int latest = TimeMath.parseMinuteOfDay(destTime);
+        if (latest >= 0 && earliest >= 0 && latest < earliest) {
+            latest += TimeMath.MINUTES_PER_DAY;
+        }
+        int earliestDeparture = earliest;
+        int latestArrival = latest;
+        Timetable timetable = routeService.currentTimetable();
+
+        return webClientService.getTrainsByRoute(startStation, destStation, date)
+                .flatMapMany(Flux::fromIterable)
+                .flatMap(train -> segment(timetable, train, startStation, destStation), availabilityConcurrency)
+                .filter(candidate -> candidate.departureMinute() >= Math.max(earliestDeparture, 0)
+                        && (latestArrival < 0 || candidate.departureMinute() + candidate.durationMinutes() <= latestArrival))
+                .collectSortedList(CANDIDATE_ORDER)
+                .flatMapMany(candidates -> rank(candidates.subList(0, Math.min(candidates.size(), maxCandidates)),
+                        date, preferredClass));
+    }
+
+    // ------------------------------------------------------------ candidates
+
+    private Mono<Candidate> segment(Timetable timetable, TrainDTO train, String from, String to) {
+        int trainId = timetable.trainId(train.getTrainNumber());
+        if (trainId >= 0) {
+            return Mono.justOrEmpty(fromTimetable(timetable, trainId, from, to));
+        }
+        return webClientService.getTrainSchedule(train.getTrainNumber())
+                .mapNotNull(schedule -> fromSchedule(train, schedule, from, to))
+                .onErrorResume(e -> {
+                    log.debug("No schedule for train {}, skipping it: {}", train.getTrainNumber(), e.toString());
+                    return Mono.empty();
+                });
+    }
+
+    private Candidate fromTimetable(Timetable timetable, int train, String from, String to) {
+        int fromStation = timetable.stationId(from);
+        int toStation = timetable.stationId(to);
+        int board = -1;
+        for (int stop = timetable.firstStop(train); stop <= timetable.lastStop(train); stop++) {
+            int station = timetable.stopStation(stop);
+            if (board < 0 && station == fromStation) {
+                board = stop;
+            } else if (board >= 0 && station == toStation) {
+                int first = timetable.firstStop(train);
+                int departure = timetable.stopDeparture(board);
+                return candidate(timetable.trainNumber(train), timetable.trainName(train),
+                        timetable.stationName(fromStation), timetable.stationName(toStation),
+                        departure % TimeMath.MINUTES_PER_DAY, timetable.stopArrival(stop) - departure,
+                        timetable.cumulativeFare(stop) - timetable.cumulativeFare(board),
+                        board - first, stop - first, timetable.lastStop(train) - first);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Segment of a train the timetable does not know yet; its fare is unknown.
+     */
+    private Candidate fromSchedule(TrainDTO train, TrainScheduleDTO schedule, String from, String to) {
+        String fromKey = TimeMath.normalizeStation(from);
+        String toKey = TimeMath.normalizeStation(to);
+        List<StationStopDTO> stops = schedule.getStations();
+        StationStopDTO board = null;
+        int boardIndex = -1;
+        int departure = 0;
+        int clock = 0;
+        for (int index = 0; index < stops.size(); index++) {
+            StationStopDTO stop = stops.get(index);
+            String station = TimeMath.normalizeStation(stop.getStationName());
+            if (board == null) {
+                if (station.equals(fromKey)) {
+                    board = stop;
+                    boardIndex = index;
+                    departure = minuteOf(stop.getDepartureTime(), stop.getArrivalTime());
+                    clock = departure;
+                }
+                continue;
+            }
+            clock = TimeMath.rollForward(minuteOf(stop.getArrivalTime(), stop.getDepartureTime()), clock);
+            if (station.equals(toKey)) {
+                return candidate(train.getTrainNumber(), train.getTrainName(), board.getStationName(),
+                        stop.getStationName(), departure, clock - departure, -1, boardIndex, index, stops.size() - 1);
+            }
+            clock = TimeMath.rollForward(minuteOf(stop.getDepartureTime(), stop.getArrivalTime()), clock);
+        }
+        return null;
+    }
+
+    private Candidate candidate(String trainNumber, String trainName, String boarding, String alighting,
+                                int departureMinute, int durationMinutes, int farePaise,
+                                int fromLeg, int toLeg, int routeLegs) {
+        double cost = farePaise < 0 ? durationMinutes : durationMinutes + farePaise / 100.0 * minutesPerRupee;
+        return new Candidate(trainNumber, trainName, boarding, alighting, departureMinute, durationMinutes,
+                farePaise, fromLeg, toLeg, routeLegs, cost);
+    }
+
+    private static int minuteOf(LocalTime time, LocalTime fallback) {
+        return TimeMath.minuteOfDay(time != null ? time : fallback);
+    }
+
+    // --------------------------------------------------------------- ranking
+
+    private Flux<TrainMatchDTO> rank(List<Candidate> candidates, LocalDate date, String preferredClass) {
+        return Flux.defer(() -> {
+            Ranking ranking = new Ranking(candidates);
+            return Flux.range(0, candidates.size())
+                    .flatMap(index -> score(index, candidates.get(index), date, preferredClass), availabilityConcurrency)
+                    .concatMapIterable(ranking::offer)
+                    .concatWith(Flux.defer(() -> Flux.fromIterable(ranking.drain())));
+        }).take(topK);
+    }
+
+    /**
+     * Reads availability from the local view when it can answer and asks the platform otherwise.
+     */
+    private Mono<Scored> score(int index, Candidate candidate, LocalDate date, String preferredClass) {
+        AvailabilityResponse local = availabilityView.availability(candidate.trainNumber(), date, null,
+                candidate.fromLeg(), candidate.toLeg(), candidate.routeLegs());
+        Mono<AvailabilityResponse> lookup = local != null
+                ? Mono.just(local)
+                : webClientService.checkAvailability(candidate.trainNumber(), date, null,
+                        candidate.boarding(), candidate.alighting());
+        return lookup
+                .map(availability -> score(index, candidate, date, availability, preferredClass))
+                .onErrorResume(e -> {
+                    log.debug("Availability of train {} unavailable: {}", candidate.trainNumber(), e.toString());
+                    return Mono.empty();
+                })
+                .switchIfEmpty(Mono.fromSupplier(() ->
+                        scored(index, candidate, date, UNKNOWN, preferredClass, null, classMissPenaltyMinutes)));
+    }
+
+    private Scored score(int index, Candidate candidate, LocalDate date, AvailabilityResponse availability,
+                         String preferredClass) {
+        if ("NOT_OPERATING".equals(availability.getStatus())) {
+            return new Scored(index, Double.NaN, candidate.priced(), null);
+        }
+        int preferred = 0;
+        int any = 0;
+        if (availability.getCoaches() != null) {
+            for (CoachAvailabilityDTO coach : availability.getCoaches()) {
+                int seats = coach.getAvailableSeats() == null ? 0 : coach.getAvailableSeats();
+                any += seats;
+                if (preferredClass != null && preferredClass.equalsIgnoreCase(coach.getCoachClass())) {
+                    preferred += seats;
+                }
+            }
+        }
+        if (preferredClass != null && preferred > 0) {
+            return scored(index, candidate, date, AVAILABLE, preferredClass, preferred, 0);
+        }
+        if (any > 0) {
+            return preferredClass == null
+                    ? scored(index, candidate, date, AVAILABLE, null, any, 0)
+                    : scored(index, candidate, date, OTHER_CLASS, null, any, classMissPenaltyMinutes);
+        }
+        return scored(index, candidate, date, WAITLIST, preferredClass, 0, waitlistPenaltyMinutes);
+    }
+
+    private static Scored scored(int index, Candidate candidate, LocalDate date, String status, String coachClass,
+                                 Integer availableSeats, int penaltyMinutes) {
+        double cost = candidate.staticCost() + penaltyMinutes;
+        LocalDateTime midnight = date.atStartOfDay();
+        TrainMatchDTO match = TrainMatchDTO.builder()
+                .trainNumber(candidate.trainNumber())
+                .trainName(candidate.trainName())
+                .boardingStation(candidate.boarding())
+                .alightingStation(candidate.alighting())
+                .departure(midnight.plusMinutes(candidate.departureMinute()))
+                .arrival(midnight.plusMinutes(candidate.departureMinute() + candidate.durationMinutes()))
+                .durationMinutes(candidate.durationMinutes())
+                .fare(candidate.farePaise() < 0 ? null : BigDecimal.valueOf(candidate.farePaise(), 2))
+                .coachClass(coachClass)
+                .availableSeats(availableSeats)
+                .availabilityStatus(status)
+                .score(cost)
+                .build();
+        return new Scored(index, cost, candidate.priced(), match);
+    }
+
+    /**
+     * A train that runs the requested segment. departureMinute is the minute of the travel day it
+     * leaves the boarding station; farePaise is -1 when unknown. The segment covers legs
+     * [fromLeg, toLeg) of a route with routeLegs legs.
+     */
+    private record Candidate(String trainNumber, String trainName, String boarding, String alighting,
+                             int departureMinute, int durationMinutes, int farePaise, int fromLeg, int toLeg,
+                             int routeLegs, double staticCost) {
+
+        boolean priced() {
+            return farePaise >= 0;
+        }
+    }
+
+    /**
+     * Outcome of one availability lookup; match is null for a train that turned out not to run.
+     */
+    private record Scored(int index, double cost, boolean priced, TrainMatchDTO match) {
+    }
+
+    /**
+     * Releases scored matches priced first, then in cost order. Candidates are sorted the same
+     * way and a lookup never lowers a cost, so the first candidate still pending bounds every score
+     * yet to come. Not thread-safe: offer is called from serialized onNext signals.
+     */
+    private static final class Ranking {
+        private final List<Candidate> candidates;
+        private final boolean[] settled;
+        private final PriorityQueue<Scored> ready = new PriorityQueue<>(SCORED_ORDER);
+        private int frontier;
+
+        private Ranking(List<Candidate> candidates) {
+            this.candidates = candidates;
+            this.settled = new boolean[candidates.size()];
+        }
+
+        private List<TrainMatchDTO> offer(Scored scored) {
+            settled[scored.index()] = true;
+            if (scored.match() != null) {
+                ready.add(scored);
+            }
+            while (frontier < settled.length && settled[frontier]) {
+                frontier++;
+            }
+            return release(frontier < settled.length ? candidates.get(frontier) : null);
+        }
+
+        private List<TrainMatchDTO> drain() {
+            return release(null);
+        }
 
+        /**
+         * Releases the matches that rank no later than the pending candidate; all of them when null.
+         */
+        private List<TrainMatchDTO> release(Candidate pending) {
+            List<TrainMatchDTO> released = new ArrayList<>();
+            while (!ready.isEmpty() && (pending == null || ranksBefore(ready.peek(), pending))) {
+                released.add(ready.poll().match());
+            }
+            return released;
+        }
 
+        private static boolean ranksBefore(Scored scored, Candidate pending) {
+            if (scored.priced() != pending.priced()) {
+                return scored.priced();
+            }
+            return scored.cost() <= pending.staticCost();
+        }
     }
 }
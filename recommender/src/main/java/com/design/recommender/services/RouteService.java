@@ -1,4 +1,268 @@
 package com.design.recommender.services;
 
+import com.design.recommender.dto.ItineraryDTO;
+import com.design.recommender.dto.ItineraryLegDTO;
+import com.design.recommender.routing.ConnectionScanner;
+import com.design.recommender.routing.DelayOverlay;
+import com.design.recommender.routing.DelayOverlay.Delay;
+import com.design.recommender.routing.ConnectionScanner.PlannedJourney;
+import com.design.recommender.routing.ConnectionScanner.PlannedLeg;
+import com.design.recommender.routing.ConnectionScanner.ScanOptions;
+import com.design.recommender.routing.TimeMath;
+import com.design.recommender.routing.Timetable;
+import com.design.recommender.routing.TimetableLoader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Multi-hop connection planner.
+ * Returns Pareto-optimal itineraries over arrival time, number of transfers and total fare.
+ *
+ * Reported delays are kept in a DelayOverlay on top of the static timetable and applied by the
+ * scanner, so a delay never rebuilds the timetable. Planned journeys are cached per query; when
+ * a delay lands, the cached plans that ride the delayed run, that were planned while the run had
+ * another delay, or whose query window covers the run and whose journeys board, alight or end at
+ * one of its stations are planned again, since a later departure can make a connection there
+ * catchable. Other plans keep their journeys, whose times the delay does not change; a plan can
+ * only miss a connection the delay opens at a station none of its journeys touch, and stays so
+ * until the timetable is reloaded, which drops the cache, or its query date passes.
+ */
+@Slf4j
+@Service
 public class RouteService {
+
+    private final TimetableLoader timetableLoader;
+    private final AtomicReference<ConnectionScanner> scanner =
+            new AtomicReference<>(new ConnectionScanner(Timetable.empty()));
+    private final AtomicReference<Timetable> timetable = new AtomicReference<>(Timetable.empty());
+    private final AtomicReference<DelayOverlay> delays = new AtomicReference<>(DelayOverlay.empty());
+    private final ConcurrentHashMap<Query, Plan> plans = new ConcurrentHashMap<>();
+
+    private final int defaultMinLayoverMinutes;
+    private final int defaultMaxLayoverMinutes;
+    private final int defaultMaxTransfers;
+    private final int horizonMinutes;
+    private final int maxResults;
+    private final int maxCachedPlans;
+
+    public RouteService(TimetableLoader timetableLoader,
+                        @Value("${recommender.routing.min-layover-minutes:30}") int defaultMinLayoverMinutes,
+                        @Value("${recommender.routing.max-layover-minutes:360}") int defaultMaxLayoverMinutes,
+                        @Value("${recommender.routing.max-transfers:2}") int defaultMaxTransfers,
+                        @Value("${recommender.routing.horizon-minutes:2880}") int horizonMinutes,
+                        @Value("${recommender.routing.max-results:10}") int maxResults,
+                        @Value("${recommender.routing.max-cached-plans:4096}") int maxCachedPlans) {
+        this.timetableLoader = timetableLoader;
+        this.defaultMinLayoverMinutes = defaultMinLayoverMinutes;
+        this.defaultMaxLayoverMinutes = defaultMaxLayoverMinutes;
+        this.defaultMaxTransfers = defaultMaxTransfers;
+        this.horizonMinutes = horizonMinutes;
+        this.maxResults = maxResults;
+        this.maxCachedPlans = maxCachedPlans;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reloadTimetable() {
+        long started = System.nanoTime();
+        try {
+            Timetable loaded = timetableLoader.load();
+            timetable.set(loaded);
+            scanner.set(new ConnectionScanner(loaded));
+            plans.clear();
+            log.info("Timetable loaded: {} trains, {} stations, {} connections in {} ms",
+                    loaded.trainCount(), loaded.stationCount(), loaded.connectionCount(),
+                    (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("Timetable load failed, keeping previous timetable", e);
+        }
+    }
+
+    /**
+     * The timetable the planner currently works on; replaced wholesale on reload.
+     */
+    public Timetable currentTimetable() {
+        return timetable.get();
+    }
+
+    /**
+     * Applies the delay of the run of a train leaving its origin on the given date, or clears it
+     * when delay is null, and plans the affected cached queries again. Runs and plans of past
+     * days are dropped on the way.
+     */
+    public void applyDelay(String trainNumber, LocalDate date, Delay delay) {
+        LocalDate today = LocalDate.now();
+        DelayOverlay overlay = delays.updateAndGet(current ->
+                current.since(today.minusDays(1)).with(trainNumber, date, delay));
+        Timetable current = timetable.get();
+        int replanned = 0;
+        for (Map.Entry<Query, Plan> entry : plans.entrySet()) {
+            Query query = entry.getKey();
+            Plan plan = entry.getValue();
+            if (query.date().isBefore(today)) {
+                plans.remove(query, plan);
+            } else if (plan.affectedBy(trainNumber, date)) {
+                plans.replace(query, plan, plan(current, overlay, query));
+                replanned++;
+            }
+        }
+        if (replanned > 0) {
+            log.debug("Delay of train {} on {} replanned {} cached queries", trainNumber, date, replanned);
+        }
+    }
+
+    public List<ItineraryDTO> findItineraries(String source, String destination, LocalDate date) {
+        return findItineraries(source, destination, date, null, null, null, null);
+    }
+
+    /**
+     * Null arguments fall back to the configured defaults; earliestDeparture defaults to midnight.
+     */
+    public List<ItineraryDTO> findItineraries(String source, String destination, LocalDate date,
+                                              LocalTime earliestDeparture, Integer minLayoverMinutes,
+                                              Integer maxLayoverMinutes, Integer maxTransfers) {
+        Timetable current = timetable.get();
+        ScanOptions options = new ScanOptions(
+                TimeMath.minuteOfDay(earliestDeparture),
+                minLayoverMinutes != null ? minLayoverMinutes : defaultMinLayoverMinutes,
+                maxLayoverMinutes != null ? maxLayoverMinutes : defaultMaxLayoverMinutes,
+                maxTransfers != null ? maxTransfers : defaultMaxTransfers,
+                horizonMinutes, maxResults);
+
+        Query query = new Query(current.stationId(source), current.stationId(destination), date, options);
+        Plan plan = plans.get(query);
+        if (plan == null || plan.timetable() != current) {
+            DelayOverlay overlay = delays.get();
+            plan = plan(current, overlay, query);
+            if (plans.size() < maxCachedPlans || plans.containsKey(query)) {
+                Plan planned = plan;
+                // A plan made before a delay or reload landed is not installed over the newer state
+                plans.compute(query, (key, cached) ->
+                        delays.get() == overlay && timetable.get() == current ? planned : cached);
+            }
+        }
+
+        List<ItineraryDTO> itineraries = new ArrayList<>(plan.journeys().size());
+        for (PlannedJourney journey : plan.journeys()) {
+            itineraries.add(toItinerary(current, journey, date));
+        }
+        return itineraries;
+    }
+
+    private Plan plan(Timetable current, DelayOverlay overlay, Query query) {
+        List<PlannedJourney> journeys = scanner.get().scan(query.source(), query.target(), query.date(), overlay,
+                query.options());
+        Set<Run> runs = new HashSet<>();
+        Set<Integer> stations = new HashSet<>();
+        stations.add(query.source());
+        stations.add(query.target());
+        for (PlannedJourney journey : journeys) {
+            for (PlannedLeg leg : journey.legs()) {
+                runs.add(new Run(current.trainNumber(leg.train()), query.date().plusDays(leg.dayOffset())));
+                stations.add(current.stopStation(leg.boardStop()));
+                stations.add(current.stopStation(leg.alightStop()));
+            }
+        }
+        return new Plan(current, overlay, query.date(), journeys, Set.copyOf(runs), Set.copyOf(stations));
+    }
+
+    private ItineraryDTO toItinerary(Timetable current, PlannedJourney journey, LocalDate date) {
+        LocalDateTime midnight = date.atStartOfDay();
+        List<ItineraryLegDTO> legs = new ArrayList<>(journey.legs().size());
+        int layover = 0;
+        int previousArrival = Integer.MIN_VALUE;
+
+        for (PlannedLeg leg : journey.legs()) {
+            int departure = leg.departure();
+            int arrival = leg.arrival();
+            int wait = previousArrival == Integer.MIN_VALUE ? 0 : departure - previousArrival;
+            layover += wait;
+            previousArrival = arrival;
+
+            legs.add(ItineraryLegDTO.builder()
+                    .trainNumber(current.trainNumber(leg.train()))
+                    .trainName(current.trainName(leg.train()))
+                    .boardingStation(current.stationName(current.stopStation(leg.boardStop())))
+                    .alightingStation(current.stationName(current.stopStation(leg.alightStop())))
+                    .departure(midnight.plusMinutes(departure))
+                    .arrival(midnight.plusMinutes(arrival))
+                    .fare(paiseToRupees(current.cumulativeFare(leg.alightStop()) - current.cumulativeFare(leg.boardStop())))
+                    .layoverBeforeMinutes(wait)
+                    .delayMinutes(leg.delayMinutes())
+                    .build());
+        }
+
+        return ItineraryDTO.builder()
+                .sourceStation(legs.get(0).getBoardingStation())
+                .destinationStation(legs.get(legs.size() - 1).getAlightingStation())
+                .journeyType(journey.transfers() == 0 ? "SINGLE_TRAIN" : "MULTI_TRAIN")
+                .departure(midnight.plusMinutes(journey.departure()))
+                .arrival(midnight.plusMinutes(journey.arrival()))
+                .transfers(journey.transfers())
+                .totalTravelTimeMinutes(journey.arrival() - journey.departure())
+                .totalLayoverMinutes(layover)
+                .totalFare(paiseToRupees(journey.farePaise()))
+                .legs(legs)
+                .build();
+    }
+
+    private static BigDecimal paiseToRupees(int paise) {
+        return BigDecimal.valueOf(paise, 2);
+    }
+
+    private record Query(int source, int target, LocalDate date, ScanOptions options) {
+    }
+
+    private record Run(String trainNumber, LocalDate date) {
+    }
+
+    /**
+     * Journeys planned for one query against one timetable and delay overlay, the runs they ride,
+     * each by train number and origin date, and the stations where they start, change or end.
+     */
+    private record Plan(Timetable timetable, DelayOverlay delays, LocalDate date, List<PlannedJourney> journeys,
+                        Set<Run> runs, Set<Integer> stations) {
+
+        /**
+         * True when the plan rides the run, or when the scan covers the run, which leaves the day
+         * before to the day after the query date, and either the run had a delay when the plan was
+         * made, which a new report may have shortened, or the run calls at one of the plan's
+         * stations, where its new times may make a connection.
+         */
+        boolean affectedBy(String trainNumber, LocalDate runDate) {
+            if (runs.contains(new Run(trainNumber, runDate))) {
+                return true;
+            }
+            if (runDate.isBefore(date.minusDays(1)) || runDate.isAfter(date.plusDays(1))) {
+                return false;
+            }
+            return delays.delay(trainNumber, runDate) != null || callsAt(timetable.trainId(trainNumber));
+        }
+
+        private boolean callsAt(int train) {
+            if (train < 0) {
+                return false;
+            }
+            for (int stop = timetable.firstStop(train); stop <= timetable.lastStop(train); stop++) {
+                if (stations.contains(timetable.stopStation(stop))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
 }
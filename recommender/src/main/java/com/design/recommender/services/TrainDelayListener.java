@@ -0,0 +1,79 @@
+package com.design.recommender.services;
+
+import com.design.bookingplatform.dto.TrainDelayEvent;
+import com.design.recommender.routing.DelayOverlay.Delay;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+/**
+ * Feeds the platform's train-delays topic into the connection planner.
+ *
+ * Like the availability view, the listener joins under a group of its own and reads the
+ * compacted topic from the beginning on every assignment, so the planner knows every current
+ * delay at startup. Runs that left their origin before yesterday no longer affect any plan and
+ * are skipped.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TrainDelayListener implements ConsumerSeekAware {
+
+    private final RouteService routeService;
+
+    @KafkaListener(topics = "${recommender.delay-stream.topic:train-delays}",
+            groupId = "recommender-delays-${random.uuid}",
+            autoStartup = "${recommender.delay-stream.enabled:true}")
+    public void onRecord(ConsumerRecord<String, byte[]> record) {
+        if (record.value() == null) {
+            clear(record.key());
+            return;
+        }
+        TrainDelayEvent event;
+        try {
+            event = TrainDelayEvent.decode(record.value());
+        } catch (RuntimeException e) {
+            log.warn("Skipping unreadable delay record {} at offset {}: {}", record.key(), record.offset(), e.toString());
+            return;
+        }
+        if (current(event.getJourneyDate())) {
+            routeService.applyDelay(event.getTrainNumber(), event.getJourneyDate(),
+                    new Delay(event.getDepartureDelayMinutes(), event.getArrivalDelayMinutes()));
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        callback.seekToBeginning(assignments.keySet());
+    }
+
+    private void clear(String key) {
+        if (key == null) {
+            return;
+        }
+        String[] parts = key.split("\\|", 2);
+        if (parts.length < 2) {
+            return;
+        }
+        try {
+            LocalDate date = LocalDate.parse(parts[1]);
+            if (current(date)) {
+                routeService.applyDelay(parts[0], date, null);
+            }
+        } catch (DateTimeParseException e) {
+            log.warn("Skipping delay tombstone with unreadable key {}", key);
+        }
+    }
+
+    private static boolean current(LocalDate date) {
+        return !date.isBefore(LocalDate.now().minusDays(1));
+    }
+}
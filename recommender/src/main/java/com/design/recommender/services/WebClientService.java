@@ -1,4 +1,262 @@
 package com.design.recommender.services;
 
+import com.design.bookingplatform.dto.*;
+import com.design.recommender.config.PlatformClientProperties;
+import com.design.recommender.dto.TrainSnapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreakerFactory;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriBuilder;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Signal;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Non-blocking client for the booking platform's /api/platform endpoints.
+ *
+ * Every call runs under its endpoint's deadline and circuit breaker. Idempotent GETs with a
+ * configured hedge delay are sent a second time when the first attempt is still pending after
+ * it; the hedge wins only with a value, so the first attempt's error or empty answer is what the
+ * caller and the circuit breaker see. Schedules are revalidated with If-None-Match, so an unchanged schedule
+ * costs a 304 rather than a download.
+ */
+@Slf4j
+@Service
 public class WebClientService {
+
+    private static final String IDEMPOTENCY_HEADER = "X-Idempotency-Key";
+
+    private final WebClient platformWebClient;
+    private final ReactiveCircuitBreakerFactory<?, ?> circuitBreakerFactory;
+    private final PlatformClientProperties properties;
+
+    private final Map<String, TaggedSchedule> schedules = new ConcurrentHashMap<>();
+
+    public WebClientService(WebClient platformWebClient, ReactiveCircuitBreakerFactory<?, ?> circuitBreakerFactory,
+                            PlatformClientProperties properties) {
+        this.platformWebClient = platformWebClient;
+        this.circuitBreakerFactory = circuitBreakerFactory;
+        this.properties = properties;
+    }
+
+    // ------------------------------------------------------------------ trains
+
+    public Mono<List<TrainDTO>> getAllTrains(Boolean isActive) {
+        return get("trains", uri -> uri.path("/trains").queryParamIfPresent("isActive", Optional.ofNullable(isActive)).build(),
+                new ParameterizedTypeReference<ApiResponse<List<TrainDTO>>>() {});
+    }
+
+    public Mono<TrainDTO> getTrainByNumber(String trainNumber) {
+        return get("train", uri -> uri.path("/trains/{trainNumber}").build(trainNumber),
+                new ParameterizedTypeReference<ApiResponse<TrainDTO>>() {});
+    }
+
+    public Mono<List<TrainDTO>> getTrainsByRoute(String source, String destination, LocalDate date) {
+        return get("routes", uri -> uri.path("/trains/routes")
+                        .queryParam("source", source)
+                        .queryParam("destination", destination)
+                        .queryParamIfPresent("date", Optional.ofNullable(date))
+                        .build(),
+                new ParameterizedTypeReference<ApiResponse<List<TrainDTO>>>() {});
+    }
+
+    /**
+     * Returns the schedule, revalidating a previously fetched copy with its ETag.
+     */
+    public Mono<TrainScheduleDTO> getTrainSchedule(String trainNumber) {
+        Mono<TrainScheduleDTO> call = Mono.defer(() -> {
+            TaggedSchedule cached = schedules.get(trainNumber);
+            return platformWebClient.get()
+                    .uri(uri -> uri.path("/trains/{trainNumber}/schedule").build(trainNumber))
+                    .headers(headers -> {
+                        if (cached != null) {
+                            headers.setIfNoneMatch(cached.etag());
+                        }
+                    })
+                    .exchangeToMono(response -> {
+                        if (response.statusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED) && cached != null) {
+                            return response.releaseBody().thenReturn(cached.schedule());
+                        }
+                        if (!response.statusCode().is2xxSuccessful()) {
+                            return response.createError();
+                        }
+                        String etag = response.headers().asHttpHeaders().getETag();
+                        return response.bodyToMono(new ParameterizedTypeReference<ApiResponse<TrainScheduleDTO>>() {})
+                                .mapNotNull(ApiResponse::getData)
+                                .doOnNext(schedule -> {
+                                    if (etag != null) {
+                                        schedules.put(trainNumber, new TaggedSchedule(etag, schedule));
+                                    }
+                                });
+                    });
+        });
+        return guard("schedule", hedge("schedule", call));
+    }
+
+    // ------------------------------------------------------------ availability
+
+    public Mono<AvailabilityResponse> checkAvailability(String trainNumber, LocalDate date, String coachClass,
+                                                        String source, String destination) {
+        return get("availability", uri -> uri.path("/trains/{trainNumber}/availability")
+                        .queryParam("date", date)
+                        .queryParamIfPresent("coachClass", Optional.ofNullable(coachClass))
+                        .queryParamIfPresent("source", Optional.ofNullable(source))
+                        .queryParamIfPresent("destination", Optional.ofNullable(destination))
+                        .build(trainNumber),
+                new ParameterizedTypeReference<ApiResponse<AvailabilityResponse>>() {});
+    }
+
+    /**
+     * POST, but read-only on the platform side, so it is hedged like a GET.
+     */
+    public Mono<Map<String, AvailabilityResponse>> checkBulkAvailability(BulkAvailabilityRequest request) {
+        Mono<Map<String, AvailabilityResponse>> call = Mono.defer(() -> platformWebClient.post()
+                .uri("/trains/bulk-availability")
+                .bodyValue(request)
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<ApiResponse<Map<String, AvailabilityResponse>>>() {})
+                .mapNotNull(ApiResponse::getData));
+        return guard("bulk-availability", hedge("bulk-availability", call));
+    }
+
+    public Mono<List<CoachDTO>> getAvailableCoaches(String trainNumber, LocalDate date) {
+        return get("coaches", uri -> uri.path("/trains/{trainNumber}/coaches")
+                        .queryParam("date", date)
+                        .build(trainNumber),
+                new ParameterizedTypeReference<ApiResponse<List<CoachDTO>>>() {});
+    }
+
+    /**
+     * Schedule, availability and coaches of one train, requested concurrently on the pool.
+     */
+    public Mono<TrainSnapshot> getTrainSnapshot(String trainNumber, LocalDate date, String coachClass) {
+        return Mono.zip(
+                getTrainSchedule(trainNumber),
+                checkAvailability(trainNumber, date, coachClass, null, null),
+                getAvailableCoaches(trainNumber, date)
+        ).map(parts -> TrainSnapshot.builder()
+                .schedule(parts.getT1())
+                .availability(parts.getT2())
+                .coaches(parts.getT3())
+                .build());
+    }
+
+    // ----------------------------------------------------------------- booking
+
+    public Mono<SeatLockResponse> acquireSeatLock(SeatLockRequest request, String idempotencyKey) {
+        return guard("seat-lock", platformWebClient.put()
+                .uri("/seats/lock")
+                .headers(headers -> idempotency(headers, idempotencyKey))
+                .bodyValue(request)
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<ApiResponse<SeatLockResponse>>() {})
+                .mapNotNull(ApiResponse::getData));
+    }
+
+    public Mono<Void> releaseSeatLock(String lockId) {
+        return guard("seat-lock", platformWebClient.delete()
+                .uri("/seats/lock/{lockId}", lockId)
+                .retrieve()
+                .toBodilessEntity()
+                .then());
+    }
+
+    public Mono<BlockSeatsResponse> blockSeats(BlockSeatsRequest request, String idempotencyKey) {
+        return guard("block", platformWebClient.post()
+                .uri("/seats/block")
+                .headers(headers -> idempotency(headers, idempotencyKey))
+                .bodyValue(request)
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<ApiResponse<BlockSeatsResponse>>() {})
+                .mapNotNull(ApiResponse::getData));
+    }
+
+    public Mono<BookingConfirmationResponse> confirmBooking(ConfirmBookingRequest request, String idempotencyKey) {
+        return guard("confirm", platformWebClient.post()
+                .uri("/bookings/confirm")
+                .headers(headers -> idempotency(headers, idempotencyKey))
+                .bodyValue(request)
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<ApiResponse<BookingConfirmationResponse>>() {})
+                .mapNotNull(ApiResponse::getData));
+    }
+
+    public Mono<Void> releaseSeats(ReleaseSeatRequest request) {
+        return guard("release", platformWebClient.post()
+                .uri("/seats/release")
+                .bodyValue(request)
+                .retrieve()
+                .toBodilessEntity()
+                .then());
+    }
+
+    public Mono<BookingDetailsResponse> getBookingDetails(String bookingId) {
+        return get("booking", uri -> uri.path("/bookings/{bookingId}").build(bookingId),
+                new ParameterizedTypeReference<ApiResponse<BookingDetailsResponse>>() {});
+    }
+
+    public Mono<CancellationResponse> cancelBooking(String bookingId, CancellationRequest request) {
+        return guard("cancel", platformWebClient.post()
+                .uri("/bookings/{bookingId}/cancel", bookingId)
+                .bodyValue(request)
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<ApiResponse<CancellationResponse>>() {})
+                .mapNotNull(ApiResponse::getData));
+    }
+
+    // ---------------------------------------------------------------- plumbing
+
+    private <T> Mono<T> get(String endpoint, Function<UriBuilder, URI> uri,
+                            ParameterizedTypeReference<ApiResponse<T>> type) {
+        Mono<T> call = Mono.defer(() -> platformWebClient.get()
+                .uri(uri)
+                .retrieve()
+                .bodyToMono(type)
+                .mapNotNull(ApiResponse::getData));
+        return guard(endpoint, hedge(endpoint, call));
+    }
+
+    /**
+     * Subscribes a second time if the call is still pending after the endpoint's hedge delay.
+     * The primary attempt decides as soon as it finishes, with a value, an error or empty, and
+     * cancels the hedge, or keeps it from being sent; the hedge only wins with a value that
+     * arrives first, and its own failures are ignored. Only used for calls that are safe to repeat.
+     */
+    private <T> Mono<T> hedge(String endpoint, Mono<T> call) {
+        Duration delay = properties.hedgeDelay(endpoint);
+        if (delay == null) {
+            return call;
+        }
+        Mono<Signal<T>> primary = call.materialize();
+        Mono<Signal<T>> hedged = Mono.delay(delay)
+                .then(call.materialize())
+                .flatMap(signal -> signal.isOnNext() ? Mono.just(signal) : Mono.<Signal<T>>never());
+        return Mono.firstWithSignal(primary, hedged).dematerialize();
+    }
+
+    private <T> Mono<T> guard(String endpoint, Mono<T> call) {
+        return circuitBreakerFactory.create("platform-" + endpoint)
+                .run(call.timeout(properties.timeout(endpoint)));
+    }
+
+    private static void idempotency(HttpHeaders headers, String idempotencyKey) {
+        if (idempotencyKey != null) {
+            headers.set(IDEMPOTENCY_HEADER, idempotencyKey);
+        }
+    }
+
+    private record TaggedSchedule(String etag, TrainScheduleDTO schedule) {
+    }
 }
@@ -83,6 +83,10 @@ CREATE TABLE trains (
                         is_active BOOLEAN DEFAULT TRUE,
                         created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
                         updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                        delayedtime INTEGER DEFAULT 0,
+                        rescheduledstarttime TIME,
+                        rescheduleddestinationtime TIME,
+                        delayedrundate DATE,
 
                         CONSTRAINT chk_train_type CHECK (train_type IN (
                                                                         'EXPRESS', 'SUPERFAST', 'MAIL', 'PASSENGER',
@@ -246,10 +250,13 @@ CREATE TABLE tickets (
                              )),
                          CONSTRAINT chk_passenger_gender CHECK (passenger_gender IN ('MALE', 'FEMALE', 'OTHER')),
                          CONSTRAINT chk_passenger_age CHECK (passenger_age >= 0 AND passenger_age <= 100),
-                         CONSTRAINT chk_ticket_fare CHECK (fare >= 0),
-                         CONSTRAINT uq_seat_booking UNIQUE(train_id, coach_id, seat_number, journey_date)
+                         CONSTRAINT chk_ticket_fare CHECK (fare >= 0)
 );
 
+-- The bookingplatform allocates ids from the sequences of tickets, seat_locks and transactions
+-- in blocks of 50 (pooled optimizer) so their inserts can be JDBC-batched.
+ALTER SEQUENCE tickets_id_seq INCREMENT BY 50;
+
 -- Indexes for tickets table
 CREATE INDEX idx_tickets_pnr ON tickets(pnr_number);
 CREATE INDEX idx_tickets_journey ON tickets(journey_id);
@@ -257,6 +264,9 @@ CREATE INDEX idx_tickets_train_date ON tickets(train_id, journey_date);
 CREATE INDEX idx_tickets_status ON tickets(status);
 CREATE INDEX idx_tickets_blocked ON tickets(status, block_expires_at)
     WHERE status = 'BLOCKED';
+-- Not unique: a seat can be sold again on a disjoint segment of the same run, and blocks that
+-- expire or are cancelled keep their rows. Seat exclusivity is enforced by the bookingplatform's
+-- segment inventory.
 CREATE INDEX idx_tickets_seat ON tickets(train_id, coach_id, seat_number, journey_date);
 
 COMMENT ON TABLE tickets IS 'Individual tickets for each train segment';
@@ -297,6 +307,8 @@ CREATE TABLE transactions (
                               CONSTRAINT chk_currency CHECK (currency IN ('INR', 'USD', 'EUR', 'GBP'))
 );
 
+ALTER SEQUENCE transactions_id_seq INCREMENT BY 50;
+
 -- Indexes for transactions table
 CREATE INDEX idx_transactions_transaction_id ON transactions(transaction_id);
 CREATE INDEX idx_transactions_booking ON transactions(booking_id);
@@ -316,7 +328,7 @@ CREATE TABLE idempotency_keys (
                                   id BIGSERIAL PRIMARY KEY,
                                   idempotency_key VARCHAR(100) NOT NULL UNIQUE,
                                   request_hash VARCHAR(256) NOT NULL,
-                                  response_body TEXT,
+                                  response_payload BYTEA,
                                   status VARCHAR(20) NOT NULL,
                                   operation_type VARCHAR(50) NOT NULL,
                                   entity_id VARCHAR(100),
@@ -337,7 +349,7 @@ CREATE INDEX idx_idempotency_operation ON idempotency_keys(operation_type);
 
 COMMENT ON TABLE idempotency_keys IS 'Ensures idempotent API operations to prevent duplicate requests';
 COMMENT ON COLUMN idempotency_keys.request_hash IS 'SHA-256 hash of request body to detect duplicate requests with different data';
-COMMENT ON COLUMN idempotency_keys.response_body IS 'Cached response for completed operations';
+COMMENT ON COLUMN idempotency_keys.response_payload IS 'Cached response for completed operations, CBOR-encoded';
 
 -- ============================================================================
 -- SEAT LOCKS TABLE
@@ -357,6 +369,8 @@ CREATE TABLE seat_locks (
                             CONSTRAINT chk_lock_expires CHECK (expires_at > locked_at)
 );
 
+ALTER SEQUENCE seat_locks_id_seq INCREMENT BY 50;
+
 -- Indexes for seat_locks table
 CREATE UNIQUE INDEX idx_seat_locks_key ON seat_locks(lock_key);
 CREATE INDEX idx_seat_locks_train_seat ON seat_locks(train_id, seat_number);
@@ -473,7 +487,7 @@ END;
 $$ LANGUAGE plpgsql;
 
 COMMENT ON FUNCTION cleanup_expired_seat_locks() IS
-    'Marks expired seat locks. Run every minute as scheduled job.';
+    'Marks expired seat locks. Fallback sweep only; the bookingplatform expires locks from its timer wheel.';
 
 -- Function to release expired ticket blocks and update coach availability
 CREATE OR REPLACE FUNCTION release_expired_ticket_blocks()
@@ -506,7 +520,7 @@ END;
 $$ LANGUAGE plpgsql;
 
 COMMENT ON FUNCTION release_expired_ticket_blocks() IS
-    'Releases expired ticket blocks and restores seat availability. Run every minute.';
+    'Releases expired ticket blocks and restores seat availability. Fallback sweep only; the bookingplatform expires blocks from its timer wheel.';
 
 -- ============================================================================
 -- VIEWS FOR COMMON QUERIES
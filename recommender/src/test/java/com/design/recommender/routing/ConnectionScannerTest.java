@@ -0,0 +1,44 @@
+package com.design.recommender.routing;
+
+import com.design.recommender.routing.ConnectionScanner.PlannedJourney;
+import com.design.recommender.routing.ConnectionScanner.ScanOptions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ConnectionScannerTest {
+
+    private static final int ALL_DAYS = 0b111_1111;
+
+    /**
+     * FAST reaches MID at 09:00 cheaper and earlier than SLOW at 12:00, but the only onward train
+     * leaves at 13:00, past the 120 minute layover from 09:00. SLOW must survive at MID.
+     */
+    @Test
+    void keepsLaterArrivalThatAloneMakesTheConnectionWithinMaxLayover() {
+        Timetable timetable = Timetable.builder()
+                .addTrain("FAST", "Fast", ALL_DAYS, 10_000)
+                .addStop("SRC", 8 * 60, 8 * 60, 0)
+                .addStop("MID", 9 * 60, 9 * 60, 100)
+                .addTrain("SLOW", "Slow", ALL_DAYS, 20_000)
+                .addStop("SRC", 8 * 60 + 30, 8 * 60 + 30, 0)
+                .addStop("MID", 12 * 60, 12 * 60, 100)
+                .addTrain("ONWARD", "Onward", ALL_DAYS, 10_000)
+                .addStop("MID", 13 * 60, 13 * 60, 0)
+                .addStop("DST", 15 * 60, 15 * 60, 100)
+                .build();
+        ScanOptions options = new ScanOptions(0, 30, 120, 2, 2880, 10);
+
+        List<PlannedJourney> journeys = new ConnectionScanner(timetable).scan(timetable.stationId("SRC"),
+                timetable.stationId("DST"), LocalDate.of(2026, 1, 5), options);
+
+        assertEquals(1, journeys.size());
+        PlannedJourney journey = journeys.get(0);
+        assertEquals(1, journey.transfers());
+        assertEquals("SLOW", timetable.trainNumber(journey.legs().get(0).train()));
+        assertEquals(15 * 60, journey.arrival());
+    }
+}